@@ -0,0 +1,161 @@
+package edu.uga.cs.ugarideshare.adapters;
+
+import android.content.Context;
+import android.os.Debug;
+import android.view.ContextThemeWrapper;
+import android.widget.FrameLayout;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntSupplier;
+
+import edu.uga.cs.ugarideshare.R;
+import edu.uga.cs.ugarideshare.models.AcceptedRide;
+import edu.uga.cs.ugarideshare.models.RideOffer;
+import edu.uga.cs.ugarideshare.models.RideRequest;
+
+import static org.junit.Assert.*;
+
+/**
+ * Binds preformatted rows into view holders built from the real item layouts and
+ * checks that, once warmed up, binding allocates nothing.
+ */
+@RunWith(AndroidJUnit4.class)
+public class BindAllocationTest {
+    private static final int ROWS = 20;
+    private static final int BINDS = 10_000;
+    private static final long START = 1_700_000_000_000L;
+
+    private Context context;
+    private FrameLayout parent;
+
+    @Before
+    public void setUp() {
+        context = new ContextThemeWrapper(InstrumentationRegistry.getInstrumentation().getTargetContext(),
+                R.style.AppTheme);
+    }
+
+    @Test
+    public void rideOfferBindsDoNotAllocate() {
+        int allocations = onMainThread(() -> {
+            RideOfferAdapter adapter = new RideOfferAdapter(context, null);
+            List<RideOfferAdapter.Row> rows = new ArrayList<>();
+            for (int i = 0; i < ROWS; i++) {
+                rows.add(RideOfferAdapter.rowDecoder(i % 2 == 0 ? "driver" : "rider")
+                        .decode(rideOffer("offer" + i, START + i * 60_000L)));
+            }
+            adapter.submitList(rows);
+            RideOfferAdapter.RideOfferViewHolder holder = adapter.onCreateViewHolder(parent, 0);
+
+            return allocationsOf(() -> {
+                for (int i = 0; i < BINDS; i++) {
+                    adapter.onBindViewHolder(holder, i % ROWS);
+                }
+            });
+        });
+        assertEquals(0, allocations);
+    }
+
+    @Test
+    public void rideRequestBindsDoNotAllocate() {
+        int allocations = onMainThread(() -> {
+            RideRequestAdapter adapter = new RideRequestAdapter(context, null);
+            List<RideRequestAdapter.Row> rows = new ArrayList<>();
+            for (int i = 0; i < ROWS; i++) {
+                rows.add(RideRequestAdapter.rowDecoder(i % 2 == 0 ? "rider" : "driver")
+                        .decode(rideRequest("request" + i, START + i * 60_000L)));
+            }
+            adapter.submitList(rows);
+            RideRequestAdapter.RideRequestViewHolder holder = adapter.onCreateViewHolder(parent, 0);
+
+            return allocationsOf(() -> {
+                for (int i = 0; i < BINDS; i++) {
+                    adapter.onBindViewHolder(holder, i % ROWS);
+                }
+            });
+        });
+        assertEquals(0, allocations);
+    }
+
+    @Test
+    public void acceptedRideBindsDoNotAllocate() {
+        int allocations = onMainThread(() -> {
+            AcceptedRideAdapter adapter = new AcceptedRideAdapter(context, null);
+            List<AcceptedRideAdapter.Row> rows = new ArrayList<>();
+            for (int i = 0; i < ROWS; i++) {
+                rows.add(AcceptedRideAdapter.rowDecoder(i % 2 == 0 ? "driver" : "rider")
+                        .decode(acceptedRide("ride" + i, START + i * 60_000L, i % 3 == 0)));
+            }
+            adapter.submitList(rows);
+            AcceptedRideAdapter.AcceptedRideViewHolder holder = adapter.onCreateViewHolder(parent, 0);
+
+            return allocationsOf(() -> {
+                for (int i = 0; i < BINDS; i++) {
+                    adapter.onBindViewHolder(holder, i % ROWS);
+                }
+            });
+        });
+        assertEquals(0, allocations);
+    }
+
+    /**
+     * Run a measurement on the main thread, where the adapters bind, with a parent for
+     * the inflated items
+     * @param body Measurement to run
+     * @return Result of the measurement
+     */
+    private int onMainThread(IntSupplier body) {
+        int[] result = new int[1];
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(() -> {
+            parent = new FrameLayout(context);
+            result[0] = body.getAsInt();
+        });
+        return result[0];
+    }
+
+    /**
+     * Count the objects a run of binds allocates on this thread. The binds run once
+     * first, so lazy setup in the views is out of the way.
+     * @param binds Binds to measure
+     * @return Number of objects allocated by the second run
+     */
+    @SuppressWarnings("deprecation")
+    private static int allocationsOf(Runnable binds) {
+        binds.run();
+
+        Debug.resetThreadAllocCount();
+        Debug.startAllocCounting();
+        binds.run();
+        Debug.stopAllocCounting();
+        return Debug.getThreadAllocCount();
+    }
+
+    private static RideOffer rideOffer(String id, long dateTime) {
+        RideOffer offer = new RideOffer("driver", "driver@uga.edu", dateTime, "Athens", "Atlanta");
+        offer.setId(id);
+        return offer;
+    }
+
+    private static RideRequest rideRequest(String id, long dateTime) {
+        RideRequest request = new RideRequest("rider", "rider@uga.edu", dateTime, "Athens", "Atlanta");
+        request.setId(id);
+        return request;
+    }
+
+    private static AcceptedRide acceptedRide(String id, long dateTime, boolean driverConfirmed) {
+        RideOffer offer = rideOffer(id, dateTime);
+        offer.setRiderId("rider");
+        offer.setRiderEmail("rider@uga.edu");
+        AcceptedRide ride = new AcceptedRide(offer);
+        ride.setId(id);
+        ride.setDriverConfirmed(driverConfirmed);
+        return ride;
+    }
+}
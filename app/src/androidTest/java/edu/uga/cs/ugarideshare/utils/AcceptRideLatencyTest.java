@@ -0,0 +1,135 @@
+package edu.uga.cs.ugarideshare.utils;
+
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.ValueEventListener;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import edu.uga.cs.ugarideshare.models.AcceptedRide;
+import edu.uga.cs.ugarideshare.models.RideOffer;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that accepting a ride offer writes every location, and logs its latency next
+ * to the old two sequential writes. Timings are reported, not asserted. Runs against
+ * the Firebase emulator.
+ */
+@RunWith(AndroidJUnit4.class)
+public class AcceptRideLatencyTest {
+    private static final String TAG = "AcceptRideLatencyTest";
+    private static final int ROUNDS = 25;
+    private static final String RIDER_ID = "latency-rider";
+    private static final String RIDER_EMAIL = "rider@uga.edu";
+
+    private static DatabaseReference root;
+
+    @BeforeClass
+    public static void connect() throws Exception {
+        EmulatorSupport.connect();
+        root = FirebaseDatabase.getInstance().getReference();
+    }
+
+    @Test
+    public void atomicAcceptWritesEveryLocation() throws Exception {
+        RideOffer offer = postOffer();
+        ClaimResult result = EmulatorSupport.await(callback ->
+                FirebaseUtil.acceptRideOffer(offer, RIDER_ID, RIDER_EMAIL, callback));
+        assertTrue(result.isClaimed());
+        AcceptedRide ride = result.getAcceptedRide();
+
+        DataSnapshot stored = Tasks.await(root.child("rideOffers").child(offer.getId()).get(),
+                EmulatorSupport.TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        assertEquals("accepted", stored.child("status").getValue());
+        assertEquals(RIDER_ID, stored.child("riderId").getValue());
+
+        DataSnapshot index = Tasks.await(root.child("userRides").child(RIDER_ID).child(ride.getId()).get(),
+                EmulatorSupport.TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        assertTrue(index.exists());
+    }
+
+    @Test
+    public void reportClaimLatency() throws Exception {
+        long[] sequential = new long[ROUNDS];
+        long[] claim = new long[ROUNDS];
+
+        for (int i = 0; i < ROUNDS; i++) {
+            // Old flow: write the whole offer, then the accepted ride
+            RideOffer legacyOffer = postOffer();
+            long start = System.nanoTime();
+            legacyOffer.acceptRide(RIDER_ID, RIDER_EMAIL);
+            await(root.child("rideOffers").child(legacyOffer.getId()).setValue(legacyOffer));
+            AcceptedRide legacyRide = new AcceptedRide(legacyOffer);
+            legacyRide.setId(root.child("acceptedRides").push().getKey());
+            await(root.child("acceptedRides").child(legacyRide.getId()).setValue(legacyRide));
+            sequential[i] = System.nanoTime() - start;
+
+            // New flow: transactional claim, then one multi-location update. The offer
+            // is watched first, as the ride feed does in the app, so the transaction
+            // starts from a warm cache
+            RideOffer offer = postOffer();
+            DatabaseReference offerRef = root.child("rideOffers").child(offer.getId());
+            ValueEventListener watcher = watch(offerRef);
+            start = System.nanoTime();
+            ClaimResult result = EmulatorSupport.<ClaimResult>await(callback ->
+                    FirebaseUtil.acceptRideOffer(offer, RIDER_ID, RIDER_EMAIL, callback));
+            claim[i] = System.nanoTime() - start;
+            offerRef.removeEventListener(watcher);
+            assertTrue(result.isClaimed());
+        }
+
+        long sequentialMedian = median(sequential);
+        long claimMedian = median(claim);
+        Log.i(TAG, "Median accept latency: sequential=" + TimeUnit.NANOSECONDS.toMicros(sequentialMedian)
+                + "us claim=" + TimeUnit.NANOSECONDS.toMicros(claimMedian) + "us "
+                + FirebaseUtil.getClaimMetrics());
+    }
+
+    private static ValueEventListener watch(DatabaseReference ref) throws Exception {
+        CountDownLatch loaded = new CountDownLatch(1);
+        ValueEventListener listener = ref.addValueEventListener(new ValueEventListener() {
+            @Override
+            public void onDataChange(DataSnapshot snapshot) {
+                loaded.countDown();
+            }
+
+            @Override
+            public void onCancelled(DatabaseError error) {
+                loaded.countDown();
+            }
+        });
+        assertTrue(loaded.await(EmulatorSupport.TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        return listener;
+    }
+
+    private static RideOffer postOffer() throws Exception {
+        RideOffer offer = new RideOffer("latency-driver", "driver@uga.edu",
+                System.currentTimeMillis(), "Tate Center", "Atlanta");
+        return EmulatorSupport.await(callback -> FirebaseUtil.postRideOffer(offer, callback));
+    }
+
+    private static void await(Task<Void> task) throws Exception {
+        Tasks.await(task, EmulatorSupport.TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    private static long median(long[] samples) {
+        long[] sorted = samples.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+}
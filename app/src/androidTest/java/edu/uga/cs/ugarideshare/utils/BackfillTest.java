@@ -0,0 +1,196 @@
+package edu.uga.cs.ugarideshare.utils;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.FirebaseDatabase;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import edu.uga.cs.ugarideshare.models.AcceptedRide;
+import edu.uga.cs.ugarideshare.models.RideOffer;
+
+import static org.junit.Assert.*;
+
+/**
+ * Backfills data written before the current schema and checks it shows up in the app's
+ * queries afterwards. Runs against the Firebase emulator.
+ */
+@RunWith(AndroidJUnit4.class)
+public class BackfillTest {
+    private static final int RIDES = 5;
+
+    private static DatabaseReference root;
+
+    @BeforeClass
+    public static void connect() throws Exception {
+        EmulatorSupport.connect();
+        root = FirebaseDatabase.getInstance().getReference();
+    }
+
+    @Test
+    public void indexedRidesAreListedForTheirUsers() throws Exception {
+        String driverId = "backfill-driver-" + System.currentTimeMillis();
+        String riderId = "backfill-rider-" + System.currentTimeMillis();
+
+        // Accepted rides written before the userRides index existed
+        Map<String, Object> seed = new HashMap<>();
+        Set<String> ids = new HashSet<>();
+        for (int i = 0; i < RIDES; i++) {
+            RideOffer offer = new RideOffer(driverId, driverId + "@uga.edu",
+                    System.currentTimeMillis() + i, "Tate Center", "Atlanta");
+            offer.setRiderId(riderId);
+            offer.setRiderEmail(riderId + "@uga.edu");
+            AcceptedRide ride = new AcceptedRide(offer);
+            ride.setId(root.child("acceptedRides").push().getKey());
+            ids.add(ride.getId());
+            seed.put("acceptedRides/" + ride.getId(), ride.toMap());
+        }
+        Tasks.await(root.updateChildren(seed), EmulatorSupport.TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+        int indexed = EmulatorSupport.<Integer>await(FirebaseUtil::backfillUserRideIndex);
+        assertTrue(indexed >= RIDES);
+
+        assertEquals(ids, acceptedRideIds(driverId));
+        assertEquals(ids, acceptedRideIds(riderId));
+    }
+
+    @Test
+    public void ridesWithoutStatusTimeShowUpInTheFeed() throws Exception {
+        // Upcoming offers written before the statusTime key existed
+        long soon = System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(1);
+        Map<String, Object> seed = new HashMap<>();
+        Set<String> ids = new HashSet<>();
+        for (int i = 0; i < RIDES; i++) {
+            RideOffer offer = new RideOffer("backfill-driver", "driver@uga.edu", soon + i, "Tate Center", "Atlanta");
+            offer.setId(root.child("rideOffers").push().getKey());
+            ids.add(offer.getId());
+            Map<String, Object> fields = offer.toMap();
+            fields.remove("statusTime");
+            seed.put("rideOffers/" + offer.getId(), fields);
+        }
+        Tasks.await(root.updateChildren(seed), EmulatorSupport.TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+        int updated = EmulatorSupport.<Integer>await(FirebaseUtil::backfillStatusTime);
+        assertTrue(updated >= RIDES);
+
+        awaitInFeed(FirebaseUtil.getAvailableRideOffersFeed(), ids);
+    }
+
+    /**
+     * Get the IDs of the accepted rides listed for a user
+     * @param userId ID of the user
+     * @return IDs of the first list delivered
+     */
+    private Set<String> acceptedRideIds(String userId) throws Exception {
+        CountDownLatch latch = new CountDownLatch(1);
+        Set<String> ids = new HashSet<>();
+        String[] error = new String[1];
+        SubscriptionHub.Subscription subscription = FirebaseUtil.getAcceptedRidesForUser(userId,
+                new FirebaseCallback<List<AcceptedRide>>() {
+                    @Override
+                    public void onSuccess(List<AcceptedRide> rides) {
+                        if (latch.getCount() > 0) {
+                            for (AcceptedRide ride : rides) {
+                                ids.add(ride.getId());
+                            }
+                            latch.countDown();
+                        }
+                    }
+
+                    @Override
+                    public void onError(String message) {
+                        error[0] = message;
+                        latch.countDown();
+                    }
+                });
+        try {
+            assertTrue(latch.await(EmulatorSupport.TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        } finally {
+            subscription.unsubscribe();
+        }
+        assertNull(error[0]);
+        return ids;
+    }
+
+    /**
+     * Observe a feed, paging through it until it shows every ride
+     * @param feed Feed to observe
+     * @param ids IDs of the rides expected in the feed
+     */
+    private void awaitInFeed(RideFeed<RideOffer> feed, Set<String> ids) throws Exception {
+        CountDownLatch latch = new CountDownLatch(1);
+        Set<String> missing = Collections.synchronizedSet(new HashSet<>(ids));
+        String[] error = new String[1];
+        RideFeed.Listener<RideOffer> listener = new RideFeed.Listener<RideOffer>() {
+            @Override
+            public void onItemInserted(int position, RideOffer item) {
+                seen(item);
+            }
+
+            @Override
+            public void onItemChanged(int position, RideOffer item) {
+                seen(item);
+            }
+
+            @Override
+            public void onItemMoved(int fromPosition, int toPosition, RideOffer item) {
+                seen(item);
+            }
+
+            @Override
+            public void onItemRemoved(int position, RideOffer item) {
+                // Not expected for the seeded rides
+            }
+
+            @Override
+            public void onLoaded() {
+                loadMoreIfMissing();
+            }
+
+            @Override
+            public void onError(String message) {
+                error[0] = message;
+                latch.countDown();
+            }
+
+            private void seen(RideOffer item) {
+                if (missing.remove(item.getId()) && missing.isEmpty()) {
+                    latch.countDown();
+                } else {
+                    loadMoreIfMissing();
+                }
+            }
+
+            private void loadMoreIfMissing() {
+                // Earlier rides left by other tests may push the seeded ones past the first page
+                if (!missing.isEmpty() && feed.isLoaded() && feed.hasMore()) {
+                    feed.loadMore();
+                }
+            }
+        };
+
+        SubscriptionHub.Subscription[] subscription = new SubscriptionHub.Subscription[1];
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(() -> subscription[0] = feed.observe(listener));
+        try {
+            assertTrue("Rides missing from the feed: " + missing,
+                    latch.await(EmulatorSupport.TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        } finally {
+            InstrumentationRegistry.getInstrumentation().runOnMainSync(() -> subscription[0].unsubscribe());
+        }
+        assertNull(error[0]);
+    }
+}
@@ -0,0 +1,74 @@
+package edu.uga.cs.ugarideshare.utils;
+
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.database.FirebaseDatabase;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Points Firebase at the local emulator suite for instrumented tests.
+ * Start the emulators first with: firebase emulators:start --only auth,database
+ */
+final class EmulatorSupport {
+    // The host machine as seen from the Android emulator
+    static final String HOST = "10.0.2.2";
+    static final int DATABASE_PORT = 9000;
+    static final int AUTH_PORT = 9099;
+    static final long TIMEOUT_SECONDS = 30;
+
+    private static boolean connected;
+
+    private EmulatorSupport() {
+    }
+
+    /**
+     * Connect to the emulators and sign in. Must run before FirebaseUtil is first used.
+     */
+    static synchronized void connect() throws Exception {
+        if (!connected) {
+            FirebaseDatabase.getInstance().useEmulator(HOST, DATABASE_PORT);
+            FirebaseAuth.getInstance().useEmulator(HOST, AUTH_PORT);
+            connected = true;
+        }
+        if (FirebaseAuth.getInstance().getCurrentUser() == null) {
+            Tasks.await(FirebaseAuth.getInstance().signInAnonymously(), TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Run a FirebaseUtil operation and block until its callback fires
+     * @param operation Operation to run with the callback
+     * @return Result passed to onSuccess
+     */
+    static <T> T await(Consumer<FirebaseCallback<T>> operation) throws Exception {
+        CountDownLatch latch = new CountDownLatch(1);
+        Object[] result = new Object[1];
+        String[] error = new String[1];
+        operation.accept(new FirebaseCallback<T>() {
+            @Override
+            public void onSuccess(T value) {
+                result[0] = value;
+                latch.countDown();
+            }
+
+            @Override
+            public void onError(String message) {
+                error[0] = message;
+                latch.countDown();
+            }
+        });
+
+        if (!latch.await(TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+            throw new AssertionError("Timed out waiting for Firebase");
+        }
+        if (error[0] != null) {
+            throw new AssertionError(error[0]);
+        }
+        @SuppressWarnings("unchecked")
+        T value = (T) result[0];
+        return value;
+    }
+}
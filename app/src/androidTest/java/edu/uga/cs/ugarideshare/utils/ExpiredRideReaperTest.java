@@ -0,0 +1,81 @@
+package edu.uga.cs.ugarideshare.utils;
+
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.FirebaseDatabase;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import edu.uga.cs.ugarideshare.models.RideOffer;
+
+import static org.junit.Assert.*;
+
+/**
+ * Archives a backlog of past rides and leaves upcoming ones alone.
+ * Runs against the Firebase emulator.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ExpiredRideReaperTest {
+    private static final String TAG = "ExpiredRideReaperTest";
+    private static final int STALE_RIDES = 250;
+    private static final long DAY = TimeUnit.DAYS.toMillis(1);
+
+    private static DatabaseReference root;
+
+    @BeforeClass
+    public static void connect() throws Exception {
+        EmulatorSupport.connect();
+        root = FirebaseDatabase.getInstance().getReference();
+    }
+
+    @Test
+    public void movesStaleRidesToMonthlyArchive() throws Exception {
+        long now = System.currentTimeMillis();
+        Map<String, Object> seed = new HashMap<>();
+        List<RideOffer> stale = new ArrayList<>();
+        for (int i = 0; i < STALE_RIDES; i++) {
+            // Spread over the last few months
+            RideOffer offer = newOffer(now - (i + 1) * DAY / 2);
+            stale.add(offer);
+            seed.put("rideOffers/" + offer.getId(), offer.toMap());
+        }
+        RideOffer upcoming = newOffer(now + DAY);
+        seed.put("rideOffers/" + upcoming.getId(), upcoming.toMap());
+        Tasks.await(root.updateChildren(seed), EmulatorSupport.TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+        ExpiredRideReaper reaper = new ExpiredRideReaper(root, 100);
+        ExpiredRideReaper.Report report = EmulatorSupport.<ExpiredRideReaper.Report>await(
+                callback -> reaper.run(now, callback));
+        Log.i(TAG, report.toString());
+
+        assertTrue(report.toString(), report.getMoved() >= STALE_RIDES);
+        assertTrue(report.getBatches() >= STALE_RIDES / 100);
+        for (RideOffer offer : stale) {
+            assertFalse(exists("rideOffers/" + offer.getId()));
+            assertTrue(exists("archive/rideOffers/" + ExpiredRideReaper.month(offer.getDateTime()) + "/" + offer.getId()));
+        }
+        assertTrue(exists("rideOffers/" + upcoming.getId()));
+    }
+
+    private RideOffer newOffer(long dateTime) {
+        RideOffer offer = new RideOffer("reaper-driver", "driver@uga.edu", dateTime, "Tate Center", "Atlanta");
+        offer.setId(root.child("rideOffers").push().getKey());
+        return offer;
+    }
+
+    private boolean exists(String path) throws Exception {
+        return Tasks.await(root.child(path).get(), EmulatorSupport.TIMEOUT_SECONDS, TimeUnit.SECONDS).exists();
+    }
+}
@@ -0,0 +1,149 @@
+package edu.uga.cs.ugarideshare.utils;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.FirebaseDatabase;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import edu.uga.cs.ugarideshare.models.AcceptedRide;
+import edu.uga.cs.ugarideshare.models.RideOffer;
+
+import static org.junit.Assert.*;
+
+/**
+ * One driver completes many rides at the same time; no points may be lost.
+ * Runs against the Firebase emulator.
+ */
+@RunWith(AndroidJUnit4.class)
+public class PointsSettlementTest {
+    private static final int RIDES = 20;
+    private static final int POINTS = 50;
+
+    private static DatabaseReference root;
+
+    @BeforeClass
+    public static void connect() throws Exception {
+        EmulatorSupport.connect();
+        root = FirebaseDatabase.getInstance().getReference();
+    }
+
+    @Test
+    public void parallelSettlementsKeepEveryPoint() throws Exception {
+        String driverId = "settle-driver-" + System.currentTimeMillis();
+        setPoints(driverId, 0);
+
+        List<AcceptedRide> rides = new ArrayList<>();
+        for (int i = 0; i < RIDES; i++) {
+            String riderId = driverId + "-rider-" + i;
+            setPoints(riderId, 100);
+            rides.add(createRide(driverId, riderId));
+        }
+
+        List<String> errors = settle(rides);
+
+        assertTrue(errors.toString(), errors.isEmpty());
+        assertEquals(RIDES * POINTS, getPoints(driverId));
+        for (AcceptedRide ride : rides) {
+            assertEquals(100 - POINTS, getPoints(ride.getRiderId()));
+            assertFalse(get("acceptedRides/" + ride.getId()).exists());
+            assertFalse(get("userRides/" + driverId + "/" + ride.getId()).exists());
+        }
+    }
+
+    @Test
+    public void riderCannotOverdraw() throws Exception {
+        String driverId = "overdraw-driver-" + System.currentTimeMillis();
+        String riderId = driverId + "-rider";
+        setPoints(driverId, 0);
+        setPoints(riderId, 60);
+
+        List<AcceptedRide> rides = new ArrayList<>();
+        rides.add(createRide(driverId, riderId));
+        rides.add(createRide(driverId, riderId));
+
+        List<String> errors = settle(rides);
+
+        assertEquals(1, errors.size());
+        assertEquals(POINTS, getPoints(driverId));
+        assertEquals(60 - POINTS, getPoints(riderId));
+    }
+
+    /**
+     * Confirm all rides as the driver at once and wait for every callback
+     * @param rides Rides the rider has already confirmed
+     * @return Errors reported by the settlements
+     */
+    private List<String> settle(List<AcceptedRide> rides) throws Exception {
+        List<String> errors = new ArrayList<>();
+        AtomicInteger settled = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(rides.size());
+
+        for (AcceptedRide ride : rides) {
+            FirebaseUtil.confirmRide(ride, true, new FirebaseCallback<Boolean>() {
+                @Override
+                public void onSuccess(Boolean result) {
+                    settled.incrementAndGet();
+                    done.countDown();
+                }
+
+                @Override
+                public void onError(String error) {
+                    synchronized (errors) {
+                        errors.add(error);
+                    }
+                    done.countDown();
+                }
+            });
+        }
+
+        assertTrue(done.await(EmulatorSupport.TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertEquals(rides.size(), settled.get() + errors.size());
+        return errors;
+    }
+
+    /**
+     * Write an accepted ride the rider has already confirmed
+     * @param driverId ID of the driver
+     * @param riderId ID of the rider
+     * @return The stored ride
+     */
+    private AcceptedRide createRide(String driverId, String riderId) throws Exception {
+        RideOffer offer = new RideOffer(driverId, driverId + "@uga.edu",
+                System.currentTimeMillis(), "Tate Center", "Athens Airport");
+        offer.setRiderId(riderId);
+        offer.setRiderEmail(riderId + "@uga.edu");
+
+        AcceptedRide ride = new AcceptedRide(offer);
+        ride.setId(root.child("acceptedRides").push().getKey());
+        ride.setRiderConfirmed(true);
+        Tasks.await(root.child("acceptedRides").child(ride.getId()).setValue(ride),
+                EmulatorSupport.TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        return ride;
+    }
+
+    private void setPoints(String userId, int points) throws Exception {
+        Tasks.await(root.child("users").child(userId).child("ridePoints").setValue(points),
+                EmulatorSupport.TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    private int getPoints(String userId) throws Exception {
+        Integer points = get("users/" + userId + "/ridePoints").getValue(Integer.class);
+        return points != null ? points : 0;
+    }
+
+    private DataSnapshot get(String path) throws Exception {
+        return Tasks.await(root.child(path).get(), EmulatorSupport.TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+}
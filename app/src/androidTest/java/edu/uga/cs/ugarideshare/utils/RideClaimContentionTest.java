@@ -0,0 +1,80 @@
+package edu.uga.cs.ugarideshare.utils;
+
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import edu.uga.cs.ugarideshare.models.RideOffer;
+
+import static org.junit.Assert.*;
+
+/**
+ * Many riders accept the same offer at once; exactly one of them may win.
+ * Runs against the Firebase emulator.
+ */
+@RunWith(AndroidJUnit4.class)
+public class RideClaimContentionTest {
+    private static final String TAG = "RideClaimContentionTest";
+    private static final int CLAIMANTS = 20;
+
+    @BeforeClass
+    public static void connect() throws Exception {
+        EmulatorSupport.connect();
+    }
+
+    @Test
+    public void exactlyOneClaimantWins() throws Exception {
+        RideOffer posted = new RideOffer("game-day-driver", "driver@uga.edu",
+                System.currentTimeMillis(), "Sanford Stadium", "Atlanta");
+        RideOffer offer = EmulatorSupport.await(callback -> FirebaseUtil.postRideOffer(posted, callback));
+
+        FirebaseUtil.getClaimMetrics().reset();
+        AtomicInteger winners = new AtomicInteger();
+        AtomicInteger taken = new AtomicInteger();
+        List<String> errors = new ArrayList<>();
+        CountDownLatch done = new CountDownLatch(CLAIMANTS);
+
+        for (int i = 0; i < CLAIMANTS; i++) {
+            // Each rider works on its own stale copy, like separate devices would
+            RideOffer copy = new RideOffer(offer.getDriverId(), offer.getDriverEmail(),
+                    offer.getDateTime(), offer.getStartPoint(), offer.getDestination());
+            copy.setId(offer.getId());
+            FirebaseUtil.acceptRideOffer(copy, "rider-" + i, "rider" + i + "@uga.edu", new FirebaseCallback<ClaimResult>() {
+                @Override
+                public void onSuccess(ClaimResult result) {
+                    if (result.isClaimed()) {
+                        winners.incrementAndGet();
+                    } else {
+                        taken.incrementAndGet();
+                    }
+                    done.countDown();
+                }
+
+                @Override
+                public void onError(String error) {
+                    synchronized (errors) {
+                        errors.add(error);
+                    }
+                    done.countDown();
+                }
+            });
+        }
+
+        assertTrue(done.await(EmulatorSupport.TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        Log.i(TAG, FirebaseUtil.getClaimMetrics().toString());
+        assertTrue(errors.toString(), errors.isEmpty());
+        assertEquals(1, winners.get());
+        assertEquals(CLAIMANTS - 1, taken.get());
+        assertEquals(CLAIMANTS - 1, FirebaseUtil.getClaimMetrics().getAlreadyTaken());
+    }
+}
@@ -0,0 +1,117 @@
+package edu.uga.cs.ugarideshare.utils;
+
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.FirebaseDatabase;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import edu.uga.cs.ugarideshare.models.RideOffer;
+
+import static org.junit.Assert.*;
+
+/**
+ * Measures the per-record cost of decoding ride offers with the SDK's reflective
+ * snapshot.getValue(RideOffer.class) against RideOffer.fromMap. Timings are
+ * reported, not asserted. Runs against the Firebase emulator.
+ */
+@RunWith(AndroidJUnit4.class)
+public class SnapshotDecodeBenchmarkTest {
+    private static final String TAG = "SnapshotDecodeBenchmark";
+    private static final int RECORDS = 500;
+    private static final int ROUNDS = 20;
+
+    private static DatabaseReference ref;
+    private static List<DataSnapshot> children;
+
+    @BeforeClass
+    public static void seed() throws Exception {
+        EmulatorSupport.connect();
+        ref = FirebaseDatabase.getInstance().getReference("benchmark/rideOffers");
+
+        Map<String, Object> seed = new HashMap<>();
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < RECORDS; i++) {
+            RideOffer offer = new RideOffer("driver-" + i, "driver" + i + "@uga.edu",
+                    start + i * 60_000L, "Tate Center", "Atlanta");
+            offer.setId("offer-" + i);
+            seed.put(offer.getId(), offer.toMap());
+        }
+        Tasks.await(ref.setValue(seed), EmulatorSupport.TIMEOUT_SECONDS, TimeUnit.SECONDS);
+
+        DataSnapshot all = Tasks.await(ref.get(), EmulatorSupport.TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        children = new ArrayList<>();
+        for (DataSnapshot child : all.getChildren()) {
+            children.add(child);
+        }
+        assertEquals(RECORDS, children.size());
+    }
+
+    @AfterClass
+    public static void removeSeed() throws Exception {
+        Tasks.await(ref.removeValue(), EmulatorSupport.TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void reportDecodeCost() {
+        // Warm up both paths before measuring
+        decodeReflectively();
+        decodeWithMapper();
+
+        long reflective = Long.MAX_VALUE;
+        long mapped = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            reflective = Math.min(reflective, decodeReflectively());
+            mapped = Math.min(mapped, decodeWithMapper());
+        }
+
+        Log.i(TAG, String.format("per-record decode: getValue(Class) %.0f ns, fromMap %.0f ns",
+                (double) reflective / RECORDS, (double) mapped / RECORDS));
+    }
+
+    @Test
+    public void bothPathsDecodeTheSameFields() {
+        for (DataSnapshot child : children) {
+            RideOffer reflected = child.getValue(RideOffer.class);
+            reflected.setId(child.getKey());
+            assertEquals(reflected.toMap(), RideOffer.fromMap(child.getKey(), fields(child)).toMap());
+        }
+    }
+
+    private long decodeReflectively() {
+        long start = System.nanoTime();
+        for (DataSnapshot child : children) {
+            RideOffer offer = child.getValue(RideOffer.class);
+            offer.setId(child.getKey());
+            offer.clearChanges();
+        }
+        return System.nanoTime() - start;
+    }
+
+    private long decodeWithMapper() {
+        long start = System.nanoTime();
+        for (DataSnapshot child : children) {
+            RideOffer.fromMap(child.getKey(), fields(child));
+        }
+        return System.nanoTime() - start;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> fields(DataSnapshot snapshot) {
+        return (Map<String, Object>) snapshot.getValue();
+    }
+}
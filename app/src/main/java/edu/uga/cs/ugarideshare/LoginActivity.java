@@ -13,8 +13,8 @@ import android.widget.TextView;
 import android.widget.Toast;
 
 import edu.uga.cs.ugarideshare.models.User;
+import edu.uga.cs.ugarideshare.repository.UserRepository;
 import edu.uga.cs.ugarideshare.utils.FirebaseCallback;
-import edu.uga.cs.ugarideshare.utils.FirebaseUtil;
 import edu.uga.cs.ugarideshare.utils.SessionManager;
 
 /**
@@ -26,6 +26,7 @@ public class LoginActivity extends AppCompatActivity {
     private TextView tvRegister;
     private ProgressBar progressBar;
     private SessionManager sessionManager;
+    private UserRepository userRepository;
 
     /**
      * Set up the activity.
@@ -45,6 +46,9 @@ public class LoginActivity extends AppCompatActivity {
         // Initialize session manager
         sessionManager = new SessionManager(this);
 
+        // Get the repository from the application
+        userRepository = ((RideShareApplication) getApplication()).getUserRepository();
+
         // Check if user is already logged in
         if (sessionManager.isLoggedIn()) {
             // User is already logged in, redirect to MainActivity
@@ -91,7 +95,7 @@ public class LoginActivity extends AppCompatActivity {
         progressBar.setVisibility(View.VISIBLE);
 
         // Attempt login with Firebase
-        FirebaseUtil.loginUser(email, password, new FirebaseCallback<User>() {
+        userRepository.loginUser(email, password, new FirebaseCallback<User>() {
             @Override
             public void onSuccess(User result) {
                 // Hide progress bar
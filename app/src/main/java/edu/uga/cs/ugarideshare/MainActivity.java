@@ -7,8 +7,11 @@ import androidx.appcompat.widget.Toolbar;
 import androidx.core.view.GravityCompat;
 import androidx.drawerlayout.widget.DrawerLayout;
 import androidx.fragment.app.Fragment;
+import androidx.fragment.app.FragmentManager;
+import androidx.fragment.app.FragmentTransaction;
 
 import android.content.Intent;
+import android.content.pm.ApplicationInfo;
 import android.os.Bundle;
 import android.util.Log;
 import android.view.MenuItem;
@@ -18,14 +21,14 @@ import android.widget.TextView;
 import android.widget.Toast;
 
 import com.google.android.material.navigation.NavigationView;
-import com.google.firebase.auth.FirebaseAuth;
 
 import edu.uga.cs.ugarideshare.fragments.AcceptedRidesFragment;
 import edu.uga.cs.ugarideshare.fragments.RideOffersFragment;
 import edu.uga.cs.ugarideshare.fragments.RideRequestsFragment;
 import edu.uga.cs.ugarideshare.models.User;
+import edu.uga.cs.ugarideshare.repository.UserRepository;
 import edu.uga.cs.ugarideshare.utils.FirebaseCallback;
-import edu.uga.cs.ugarideshare.utils.FirebaseUtil;
+import edu.uga.cs.ugarideshare.utils.PointsListener;
 import edu.uga.cs.ugarideshare.utils.SessionManager;
 
 /**
@@ -33,21 +36,20 @@ import edu.uga.cs.ugarideshare.utils.SessionManager;
  */
 public class MainActivity extends AppCompatActivity implements NavigationView.OnNavigationItemSelectedListener {
     private static final String TAG = "MainActivity";
+    // Tags of the screens hosted in the fragment container; each is created once and then shown or hidden
+    private static final String TAG_RIDE_OFFERS = "rideOffers";
+    private static final String TAG_RIDE_REQUESTS = "rideRequests";
+    private static final String TAG_ACCEPTED_RIDES = "acceptedRides";
+    private static final String[] SCREEN_TAGS = {TAG_RIDE_OFFERS, TAG_RIDE_REQUESTS, TAG_ACCEPTED_RIDES};
     private DrawerLayout drawer;
     private NavigationView navigationView;
     private SessionManager sessionManager;
+    private UserRepository userRepository;
     private TextView tvUserEmail;
     private TextView tvUserPoints;
     private ActionBarDrawerToggle toggle;
     private ProgressBar progressBar;
-    private PointsUpdateListener pointsUpdateListener;
-
-    /**
-     * Interface for listening to points updates
-     */
-    private interface PointsUpdateListener {
-        void onPointsUpdated(int newPoints);
-    }
+    private PointsListener pointsUpdateListener;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -57,6 +59,9 @@ public class MainActivity extends AppCompatActivity implements NavigationView.On
         // Initialize session manager
         sessionManager = new SessionManager(this);
 
+        // Get the repository from the application
+        userRepository = ((RideShareApplication) getApplication()).getUserRepository();
+
         // Check if user is logged in
         if (!sessionManager.isLoggedIn()) {
             // User is not logged in, redirect to login activity
@@ -79,6 +84,10 @@ public class MainActivity extends AppCompatActivity implements NavigationView.On
         drawer = findViewById(R.id.drawer_layout);
         navigationView = findViewById(R.id.nav_view);
         navigationView.setNavigationItemSelectedListener(this);
+
+        // The performance screen is only offered in debuggable builds
+        boolean debuggable = (getApplicationInfo().flags & ApplicationInfo.FLAG_DEBUGGABLE) != 0;
+        navigationView.getMenu().findItem(R.id.nav_metrics).setVisible(debuggable);
         progressBar = findViewById(R.id.progressBar);
 
         // Set up the header view
@@ -89,6 +98,9 @@ public class MainActivity extends AppCompatActivity implements NavigationView.On
         // Set user email
         tvUserEmail.setText(sessionManager.getUserEmail());
 
+        // Keep the user's profile and rides on disk so screens open from the cache
+        userRepository.keepUserSynced(sessionManager.getUserId(), true);
+
         // Update points display
         updatePointsDisplay();
 
@@ -104,8 +116,7 @@ public class MainActivity extends AppCompatActivity implements NavigationView.On
 
         // If we're starting the app, show ride offers by default
         if (savedInstanceState == null) {
-            getSupportFragmentManager().beginTransaction().replace(R.id.fragment_container,
-                    new RideOffersFragment()).commit();
+            showScreen(TAG_RIDE_OFFERS);
             navigationView.setCheckedItem(R.id.nav_ride_offers);
             if (getSupportActionBar() != null) {
                 getSupportActionBar().setTitle("Ride Offers");
@@ -127,7 +138,7 @@ public class MainActivity extends AppCompatActivity implements NavigationView.On
     private void registerPointsUpdateListener() {
         String userId = sessionManager.getUserId();
         if (userId != null) {
-            pointsUpdateListener = new PointsUpdateListener() {
+            pointsUpdateListener = new PointsListener() {
                 @Override
                 public void onPointsUpdated(int newPoints) {
                     // Update the points display in the UI
@@ -138,7 +149,7 @@ public class MainActivity extends AppCompatActivity implements NavigationView.On
                     }
                 }
             };
-            FirebaseUtil.addPointsUpdateListener(userId, pointsUpdateListener);
+            userRepository.addPointsUpdateListener(userId, pointsUpdateListener);
         }
     }
 
@@ -146,7 +157,7 @@ public class MainActivity extends AppCompatActivity implements NavigationView.On
      * Update the points display in the navigation header
      */
     private void updatePointsDisplay() {
-        FirebaseUtil.getUserById(sessionManager.getUserId(), new FirebaseCallback<User>() {
+        userRepository.getUserById(sessionManager.getUserId(), new FirebaseCallback<User>() {
             @Override
             public void onSuccess(User user) {
                 // Update the points display
@@ -174,7 +185,7 @@ public class MainActivity extends AppCompatActivity implements NavigationView.On
         super.onDestroy();
         // Clean up points listener
         if (pointsUpdateListener != null) {
-            FirebaseUtil.removePointsUpdateListener(sessionManager.getUserId(), pointsUpdateListener);
+            userRepository.removePointsUpdateListener(sessionManager.getUserId(), pointsUpdateListener);
         }
     }
 
@@ -191,23 +202,23 @@ public class MainActivity extends AppCompatActivity implements NavigationView.On
     @Override
     public boolean onNavigationItemSelected(@NonNull MenuItem item) {
         Log.d(TAG, "Navigation item selected: " + item.getTitle());
-        Fragment selectedFragment = null;
+        String selectedScreen = null;
         Intent intent = null;
 
         // Determine which item was selected
         int itemId = item.getItemId();
         if (itemId == R.id.nav_ride_offers) {
-            selectedFragment = new RideOffersFragment();
+            selectedScreen = TAG_RIDE_OFFERS;
             if (getSupportActionBar() != null) {
                 getSupportActionBar().setTitle("Ride Offers");
             }
         } else if (itemId == R.id.nav_ride_requests) {
-            selectedFragment = new RideRequestsFragment();
+            selectedScreen = TAG_RIDE_REQUESTS;
             if (getSupportActionBar() != null) {
                 getSupportActionBar().setTitle("Ride Requests");
             }
         } else if (itemId == R.id.nav_accepted_rides) {
-            selectedFragment = new AcceptedRidesFragment();
+            selectedScreen = TAG_ACCEPTED_RIDES;
             if (getSupportActionBar() != null) {
                 getSupportActionBar().setTitle("Accepted Rides");
             }
@@ -217,9 +228,12 @@ public class MainActivity extends AppCompatActivity implements NavigationView.On
             // Check if user has enough points before allowing them to post a ride request
             checkPointsAndNavigateToPostRequest();
             return true; // Return early as we're handling the navigation ourselves
+        } else if (itemId == R.id.nav_metrics) {
+            intent = new Intent(MainActivity.this, MetricsActivity.class);
         } else if (itemId == R.id.nav_logout) {
-            // Log out user from Firebase Auth
-            FirebaseAuth.getInstance().signOut();
+            // Stop syncing the user's data, then sign out
+            userRepository.keepUserSynced(sessionManager.getUserId(), false);
+            userRepository.signOut();
 
             // Log out user from session
             sessionManager.logout();
@@ -230,10 +244,9 @@ public class MainActivity extends AppCompatActivity implements NavigationView.On
             return true;
         }
 
-        // Open the selected fragment or activity
-        if (selectedFragment != null) {
-            getSupportFragmentManager().beginTransaction().replace(R.id.fragment_container,
-                    selectedFragment).commit();
+        // Open the selected screen or activity
+        if (selectedScreen != null) {
+            showScreen(selectedScreen);
         } else if (intent != null) {
             startActivity(intent);
         }
@@ -243,6 +256,46 @@ public class MainActivity extends AppCompatActivity implements NavigationView.On
         return true;
     }
 
+    /**
+     * Show one of the screens hosted in the fragment container, hiding the others.
+     * Screens are created on first use and kept afterwards, so switching back to one
+     * shows its list at once, without querying the database again.
+     * @param tag Tag of the screen to show
+     */
+    private void showScreen(String tag) {
+        FragmentManager fragmentManager = getSupportFragmentManager();
+        FragmentTransaction transaction = fragmentManager.beginTransaction();
+        for (String screenTag : SCREEN_TAGS) {
+            Fragment screen = fragmentManager.findFragmentByTag(screenTag);
+            if (screenTag.equals(tag)) {
+                if (screen == null) {
+                    transaction.add(R.id.fragment_container, createScreen(tag), tag);
+                } else {
+                    transaction.show(screen);
+                }
+            } else if (screen != null && !screen.isHidden()) {
+                transaction.hide(screen);
+            }
+        }
+        transaction.commit();
+    }
+
+    /**
+     * Create the fragment of a screen
+     * @param tag Tag of the screen
+     * @return New fragment
+     */
+    private static Fragment createScreen(String tag) {
+        switch (tag) {
+            case TAG_RIDE_REQUESTS:
+                return new RideRequestsFragment();
+            case TAG_ACCEPTED_RIDES:
+                return new AcceptedRidesFragment();
+            default:
+                return new RideOffersFragment();
+        }
+    }
+
     /**
      * Check if user has enough points to post a ride request
      * If yes, navigate to PostRideRequestActivity
@@ -255,7 +308,7 @@ public class MainActivity extends AppCompatActivity implements NavigationView.On
         }
 
         // Get user's current points
-        FirebaseUtil.getUserById(sessionManager.getUserId(), new FirebaseCallback<User>() {
+        userRepository.getUserById(sessionManager.getUserId(), new FirebaseCallback<User>() {
             @Override
             public void onSuccess(User user) {
                 // Hide progress
@@ -0,0 +1,65 @@
+package edu.uga.cs.ugarideshare;
+
+import androidx.appcompat.app.AppCompatActivity;
+
+import android.os.Bundle;
+import android.widget.Button;
+import android.widget.TextView;
+
+import java.util.List;
+
+import edu.uga.cs.ugarideshare.utils.OperationMetrics;
+
+/**
+ * Debug screen listing the latency percentiles, outcomes and bytes read of every
+ * database operation since the app started or the metrics were reset.
+ */
+public class MetricsActivity extends AppCompatActivity {
+    private TextView tvMetrics;
+    private OperationMetrics metrics;
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_metrics);
+
+        metrics = ((RideShareApplication) getApplication()).getMetrics();
+        tvMetrics = findViewById(R.id.tvMetrics);
+        Button btnRefresh = findViewById(R.id.btnRefresh);
+        Button btnReset = findViewById(R.id.btnReset);
+
+        btnRefresh.setOnClickListener(v -> metrics.export(this::showMetrics));
+        btnReset.setOnClickListener(v -> {
+            metrics.resetStats();
+            metrics.export(this::showMetrics);
+        });
+    }
+
+    @Override
+    protected void onResume() {
+        super.onResume();
+        metrics.export(this::showMetrics);
+    }
+
+    /**
+     * Show one block per operation
+     * @param summaries Summaries of the operations
+     */
+    private void showMetrics(List<OperationMetrics.Summary> summaries) {
+        if (summaries.isEmpty()) {
+            tvMetrics.setText("No database operations recorded yet");
+            return;
+        }
+
+        StringBuilder sb = new StringBuilder();
+        for (OperationMetrics.Summary s : summaries) {
+            sb.append(s.getOperation()).append('\n')
+                    .append(String.format("  %d ok, %d failed, %d bytes read%n",
+                            s.getSuccesses(), s.getErrors(), s.getBytesRead()))
+                    .append(String.format("  p50 %.1f  p95 %.1f  p99 %.1f  max %.1f ms%n%n",
+                            s.getP50Micros() / 1000.0, s.getP95Micros() / 1000.0,
+                            s.getP99Micros() / 1000.0, s.getMaxMicros() / 1000.0));
+        }
+        tvMetrics.setText(sb.toString().trim());
+    }
+} // MetricsActivity
@@ -15,13 +15,12 @@ import android.widget.TextView;
 import android.widget.TimePicker;
 import android.widget.Toast;
 
-import java.text.SimpleDateFormat;
 import java.util.Calendar;
-import java.util.Locale;
 
 import edu.uga.cs.ugarideshare.models.RideRequest;
+import edu.uga.cs.ugarideshare.repository.RideRepository;
 import edu.uga.cs.ugarideshare.utils.FirebaseCallback;
-import edu.uga.cs.ugarideshare.utils.FirebaseUtil;
+import edu.uga.cs.ugarideshare.utils.RideDateFormatter;
 import edu.uga.cs.ugarideshare.utils.SessionManager;
 
 /**
@@ -33,8 +32,9 @@ public class PostRideRequestActivity extends AppCompatActivity {
     private EditText etStartPoint, etDestination;
     private ProgressBar progressBar;
     private SessionManager sessionManager;
+    private RideRepository rideRepository;
     private Calendar selectedDateTime;
-    private SimpleDateFormat dateTimeFormatter;
+    private RideDateFormatter dateTimeFormatter;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -52,8 +52,11 @@ public class PostRideRequestActivity extends AppCompatActivity {
         // Initialize session manager
         sessionManager = new SessionManager(this);
 
-        // Initialize date formatter
-        dateTimeFormatter = new SimpleDateFormat("EEEE, MMMM d, yyyy 'at' h:mm a", Locale.US);
+        // Get the repository from the application
+        rideRepository = ((RideShareApplication) getApplication()).getRideRepository();
+
+        // Use the app's shared date formatter
+        dateTimeFormatter = RideDateFormatter.getInstance();
 
         // Initialize calendar with current date/time
         selectedDateTime = Calendar.getInstance();
@@ -140,7 +143,7 @@ public class PostRideRequestActivity extends AppCompatActivity {
      * Update text view with selected date and time.
      */
     private void updateSelectedDateTimeText() {
-        tvSelectedDateTime.setText(dateTimeFormatter.format(selectedDateTime.getTime()));
+        tvSelectedDateTime.setText(dateTimeFormatter.format(selectedDateTime.getTimeInMillis()));
     }
 
     /**
@@ -179,7 +182,7 @@ public class PostRideRequestActivity extends AppCompatActivity {
         );
 
         // Post ride request to Firebase
-        FirebaseUtil.postRideRequest(request, new FirebaseCallback<RideRequest>() {
+        rideRepository.postRideRequest(request, new FirebaseCallback<RideRequest>() {
             @Override
             public void onSuccess(RideRequest result) {
                 // Hide progress bar
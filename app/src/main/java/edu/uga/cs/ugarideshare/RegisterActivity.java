@@ -14,8 +14,8 @@ import android.widget.TextView;
 import android.widget.Toast;
 
 import edu.uga.cs.ugarideshare.models.User;
+import edu.uga.cs.ugarideshare.repository.UserRepository;
 import edu.uga.cs.ugarideshare.utils.FirebaseCallback;
-import edu.uga.cs.ugarideshare.utils.FirebaseUtil;
 import edu.uga.cs.ugarideshare.utils.SessionManager;
 
 /**
@@ -27,6 +27,7 @@ public class RegisterActivity extends AppCompatActivity {
     private TextView tvLogin;
     private ProgressBar progressBar;
     private SessionManager sessionManager;
+    private UserRepository userRepository;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -44,6 +45,9 @@ public class RegisterActivity extends AppCompatActivity {
         // Initialize session manager
         sessionManager = new SessionManager(this);
 
+        // Get the repository from the application
+        userRepository = ((RideShareApplication) getApplication()).getUserRepository();
+
         // Set click listener for register button
         btnRegister.setOnClickListener(new View.OnClickListener() {
             @Override
@@ -107,7 +111,7 @@ public class RegisterActivity extends AppCompatActivity {
         User user = new User(email, password);
 
         // Register user with Firebase
-        FirebaseUtil.registerUser(user, new FirebaseCallback<User>() {
+        userRepository.registerUser(user, new FirebaseCallback<User>() {
             @Override
             public void onSuccess(User result) {
                 // Hide progress bar
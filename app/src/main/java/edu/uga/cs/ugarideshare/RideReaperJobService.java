@@ -0,0 +1,152 @@
+package edu.uga.cs.ugarideshare;
+
+import android.app.job.JobInfo;
+import android.app.job.JobParameters;
+import android.app.job.JobScheduler;
+import android.app.job.JobService;
+import android.content.ComponentName;
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.database.FirebaseDatabase;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import edu.uga.cs.ugarideshare.utils.ExpiredRideReaper;
+import edu.uga.cs.ugarideshare.utils.FirebaseCallback;
+import edu.uga.cs.ugarideshare.utils.FirebaseUtil;
+
+/**
+ * Scheduled job that archives ride offers and requests whose date/time has passed.
+ * The first run also backfills data written before the current schema.
+ * It moves every user's rides, so it is only scheduled where run_ride_reaper is set.
+ */
+public class RideReaperJobService extends JobService {
+    private static final String TAG = "RideReaperJobService";
+    private static final int JOB_ID = 1001;
+    private static final int BATCH_SIZE = 100;
+    private static final String PREFS_NAME = "RideReaperJob";
+
+    private ExpiredRideReaper reaper;
+    private volatile boolean stopped;
+
+    /**
+     * Schedule the job to run about once a day while the device has a network.
+     * Scheduling again replaces the pending job, so this is safe to call on every start.
+     * @param context Context used to reach the job scheduler
+     */
+    public static void schedule(Context context) {
+        JobInfo job = new JobInfo.Builder(JOB_ID, new ComponentName(context, RideReaperJobService.class))
+                .setRequiredNetworkType(JobInfo.NETWORK_TYPE_ANY)
+                .setPeriodic(TimeUnit.DAYS.toMillis(1))
+                .build();
+        JobScheduler scheduler = (JobScheduler) context.getSystemService(Context.JOB_SCHEDULER_SERVICE);
+        if (scheduler != null && scheduler.getPendingJob(JOB_ID) == null) {
+            scheduler.schedule(job);
+        }
+    } // schedule
+
+    /**
+     * Cancel the job, e.g. one scheduled before the reaper was turned off for this install.
+     * @param context Context used to reach the job scheduler
+     */
+    public static void cancel(Context context) {
+        JobScheduler scheduler = (JobScheduler) context.getSystemService(Context.JOB_SCHEDULER_SERVICE);
+        if (scheduler != null) {
+            scheduler.cancel(JOB_ID);
+        }
+    } // cancel
+
+    /**
+     * Start archiving expired rides, after any backfill still pending.
+     * @param params Parameters of the job
+     * @return true while the work runs in the background
+     */
+    @Override
+    public boolean onStartJob(JobParameters params) {
+        // The database rules only let signed-in users move rides
+        if (FirebaseAuth.getInstance().getCurrentUser() == null) {
+            return false;
+        }
+
+        stopped = false;
+        // The reaper queries by statusTime, so older rides get the key first
+        backfillOnce("userRideIndex", FirebaseUtil::backfillUserRideIndex, params, () ->
+                backfillOnce("statusTime", FirebaseUtil::backfillStatusTime, params, () -> reap(params)));
+        return true;
+    } // onStartJob
+
+    /**
+     * Run a backfill unless it already completed on this install, then continue
+     * @param name Name of the backfill, also used for its completion flag
+     * @param backfill Backfill to run with its callback
+     * @param params Parameters of the job, finished for a retry if the backfill fails
+     * @param next Step to run once the backfill is done
+     */
+    private void backfillOnce(String name, Consumer<FirebaseCallback<Integer>> backfill,
+                              JobParameters params, Runnable next) {
+        SharedPreferences prefs = getSharedPreferences(PREFS_NAME, MODE_PRIVATE);
+        String key = "backfilled_" + name;
+        if (prefs.getBoolean(key, false)) {
+            next.run();
+            return;
+        }
+
+        backfill.accept(new FirebaseCallback<Integer>() {
+            @Override
+            public void onSuccess(Integer count) {
+                Log.i(TAG, "Backfilled " + name + ": " + count + " rides");
+                prefs.edit().putBoolean(key, true).apply();
+                if (!stopped) {
+                    next.run();
+                }
+            }
+
+            @Override
+            public void onError(String error) {
+                Log.e(TAG, "Failed to backfill " + name + ": " + error);
+                if (!stopped) {
+                    jobFinished(params, true);
+                }
+            }
+        });
+    } // backfillOnce
+
+    /**
+     * Archive the expired rides and finish the job
+     * @param params Parameters of the job
+     */
+    private void reap(JobParameters params) {
+        reaper = new ExpiredRideReaper(FirebaseDatabase.getInstance().getReference(), BATCH_SIZE);
+        reaper.run(System.currentTimeMillis(), new FirebaseCallback<ExpiredRideReaper.Report>() {
+            @Override
+            public void onSuccess(ExpiredRideReaper.Report result) {
+                Log.i(TAG, "Archived expired rides: " + result);
+                jobFinished(params, false);
+            }
+
+            @Override
+            public void onError(String error) {
+                Log.e(TAG, "Failed to archive expired rides: " + error);
+                jobFinished(params, true);
+            }
+        });
+    } // reap
+
+    /**
+     * Stop archiving when the system cancels the job.
+     * @param params Parameters of the job
+     * @return true to retry the job later
+     */
+    @Override
+    public boolean onStopJob(JobParameters params) {
+        stopped = true;
+        if (reaper != null) {
+            reaper.cancel();
+        }
+        return true;
+    } // onStopJob
+} // RideReaperJobService
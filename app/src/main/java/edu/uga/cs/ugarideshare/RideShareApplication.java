@@ -0,0 +1,92 @@
+package edu.uga.cs.ugarideshare;
+
+import android.app.Application;
+import android.content.ComponentCallbacks2;
+
+import edu.uga.cs.ugarideshare.repository.Repositories;
+import edu.uga.cs.ugarideshare.repository.RideRepository;
+import edu.uga.cs.ugarideshare.repository.UserRepository;
+import edu.uga.cs.ugarideshare.utils.FirebaseUtil;
+import edu.uga.cs.ugarideshare.utils.LogcatMetricsExporter;
+import edu.uga.cs.ugarideshare.utils.OfflineCache;
+import edu.uga.cs.ugarideshare.utils.OperationMetrics;
+
+/**
+ * Application class that sets up app-wide state before any screen is created,
+ * and hands the screens their repositories.
+ */
+public class RideShareApplication extends Application {
+    private Repositories repositories;
+
+    /**
+     * Called when the application is starting, before any activity.
+     * The database cache and emulator have to be configured here, before
+     * FirebaseUtil creates its references.
+     */
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        OfflineCache.configure(OfflineCache.Policy.DEFAULT);
+
+        if (getResources().getBoolean(R.bool.use_firebase_emulator)) {
+            repositories = Repositories.emulator(getString(R.string.firebase_emulator_host),
+                    getResources().getInteger(R.integer.firebase_emulator_database_port),
+                    getResources().getInteger(R.integer.firebase_emulator_auth_port));
+        } else {
+            repositories = Repositories.firebase();
+        }
+
+        // Archive rides that have already taken place once a day, from admin installs only
+        if (getResources().getBoolean(R.bool.run_ride_reaper)) {
+            RideReaperJobService.schedule(this);
+        } else {
+            RideReaperJobService.cancel(this);
+        }
+    } // onCreate
+
+    /**
+     * Called when the system asks the app to trim memory. When the UI goes to the
+     * background, the database operation metrics are summarized in logcat.
+     * @param level Memory trim level
+     */
+    @Override
+    public void onTrimMemory(int level) {
+        super.onTrimMemory(level);
+        if (level == ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN) {
+            getMetrics().export(new LogcatMetricsExporter("OperationMetrics"));
+        }
+    } // onTrimMemory
+
+    /**
+     * Get the latency, outcome and bytes read of every database operation
+     * @return Operation metrics
+     */
+    public OperationMetrics getMetrics() {
+        return FirebaseUtil.getMetrics();
+    }
+
+    /**
+     * Get the repository the screens use for rides
+     * @return Ride repository
+     */
+    public RideRepository getRideRepository() {
+        return repositories.getRides();
+    }
+
+    /**
+     * Get the repository the screens use for users
+     * @return User repository
+     */
+    public UserRepository getUserRepository() {
+        return repositories.getUsers();
+    }
+
+    /**
+     * Replace the repositories, e.g. with in-memory ones in tests.
+     * Screens created afterwards use the new repositories.
+     * @param repositories Repositories to use
+     */
+    public void setRepositories(Repositories repositories) {
+        this.repositories = repositories;
+    }
+} // RideShareApplication
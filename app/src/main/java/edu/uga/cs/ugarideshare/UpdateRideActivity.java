@@ -15,14 +15,17 @@ import android.widget.TextView;
 import android.widget.TimePicker;
 import android.widget.Toast;
 
-import java.text.SimpleDateFormat;
 import java.util.Calendar;
-import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
 
 import edu.uga.cs.ugarideshare.models.RideOffer;
 import edu.uga.cs.ugarideshare.models.RideRequest;
+import edu.uga.cs.ugarideshare.repository.RideRepository;
 import edu.uga.cs.ugarideshare.utils.FirebaseCallback;
-import edu.uga.cs.ugarideshare.utils.FirebaseUtil;
+import edu.uga.cs.ugarideshare.utils.Futures;
+import edu.uga.cs.ugarideshare.utils.RideDateFormatter;
 
 /**
  * Activity for updating a ride offer or request.
@@ -37,21 +40,34 @@ public class UpdateRideActivity extends AppCompatActivity {
     public static final String TYPE_OFFER = "offer";
     public static final String TYPE_REQUEST = "request";
 
+    // Reading the ride (retried by the repository) has to finish within the timeout. The
+    // write lands in the local cache at once, so after waiting a while for the server it
+    // is left to sync on its own instead of being reported as failed
+    private static final long READ_TIMEOUT_SECONDS = 15;
+    private static final long SYNC_WAIT_SECONDS = 15;
+
     private Button btnSelectDateTime, btnUpdate;
     private TextView tvSelectedDateTime;
     private EditText etStartPoint, etDestination;
     private ProgressBar progressBar;
     private Calendar selectedDateTime;
-    private SimpleDateFormat dateTimeFormatter;
+    private RideDateFormatter dateTimeFormatter;
 
     private String rideType;
     private String rideId;
+    private RideRepository rideRepository;
+    // Read and update in flight, cancelled when the activity goes away
+    private CompletableFuture<?> pendingRead = CompletableFuture.completedFuture(null);
+    private CompletableFuture<?> pendingUpdate = CompletableFuture.completedFuture(null);
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_update_ride);
 
+        // Get the repository from the application
+        rideRepository = ((RideShareApplication) getApplication()).getRideRepository();
+
         // Initialize views
         btnSelectDateTime = findViewById(R.id.btnSelectDateTime);
         btnUpdate = findViewById(R.id.btnUpdate);
@@ -60,8 +76,8 @@ public class UpdateRideActivity extends AppCompatActivity {
         etDestination = findViewById(R.id.etDestination);
         progressBar = findViewById(R.id.progressBar);
 
-        // Initialize date formatter
-        dateTimeFormatter = new SimpleDateFormat("EEEE, MMMM d, yyyy 'at' h:mm a", Locale.US);
+        // Use the app's shared date formatter
+        dateTimeFormatter = RideDateFormatter.getInstance();
 
         // Initialize calendar with current date/time
         selectedDateTime = Calendar.getInstance();
@@ -163,7 +179,7 @@ public class UpdateRideActivity extends AppCompatActivity {
      * Update text view with selected date and time.
      */
     private void updateSelectedDateTimeText() {
-        tvSelectedDateTime.setText(dateTimeFormatter.format(selectedDateTime.getTime()));
+        tvSelectedDateTime.setText(dateTimeFormatter.format(selectedDateTime.getTimeInMillis()));
     }
 
     /**
@@ -215,49 +231,24 @@ public class UpdateRideActivity extends AppCompatActivity {
         progressBar.setVisibility(View.VISIBLE);
 
         // First, get the full ride offer to preserve all its properties
-        FirebaseUtil.getRideOfferById(rideId, new FirebaseCallback<RideOffer>() {
-            @Override
-            public void onSuccess(RideOffer originalOffer) {
-                // Update only the fields that should be changed
-                originalOffer.setDateTime(selectedDateTime.getTimeInMillis());
-                originalOffer.setStartPoint(startPoint);
-                originalOffer.setDestination(destination);
-                // Make sure we don't change the status or driver info
-
-                // Update ride offer in Firebase
-                FirebaseUtil.updateRideOffer(originalOffer, new FirebaseCallback<RideOffer>() {
-                    @Override
-                    public void onSuccess(RideOffer result) {
-                        // Hide progress bar
-                        progressBar.setVisibility(View.GONE);
-
-                        // Show success message
-                        Toast.makeText(UpdateRideActivity.this, "Ride offer updated successfully", Toast.LENGTH_SHORT).show();
-
-                        // Finish activity
-                        finish();
-                    }
-
-                    @Override
-                    public void onError(String error) {
-                        // Hide progress bar
-                        progressBar.setVisibility(View.GONE);
-
-                        // Show error message
-                        Toast.makeText(UpdateRideActivity.this, error, Toast.LENGTH_SHORT).show();
-                    }
+        CompletableFuture<RideOffer> original = Futures.withTimeout(
+                rideRepository.getRideOfferById(rideId), READ_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                .exceptionally(e -> {
+                    throw new Futures.Failure("Failed to retrieve original ride offer: " + Futures.message(e));
                 });
-            }
-
-            @Override
-            public void onError(String error) {
-                // Hide progress bar
-                progressBar.setVisibility(View.GONE);
 
-                // Show error message
-                Toast.makeText(UpdateRideActivity.this, "Failed to retrieve original ride offer: " + error, Toast.LENGTH_SHORT).show();
-            }
+        // Then update only the fields that should be changed
+        // (make sure we don't change the status or driver info)
+        CompletableFuture<Boolean> updated = original.thenCompose(offer -> {
+            offer.setDateTime(selectedDateTime.getTimeInMillis());
+            offer.setStartPoint(startPoint);
+            offer.setDestination(destination);
+            return awaitSync(rideRepository.updateRideOffer(offer));
         });
+
+        pendingRead = original;
+        pendingUpdate = updated;
+        Futures.deliver(updated, new UpdateCallback("Ride offer updated successfully"));
     }
 
     /**
@@ -270,50 +261,85 @@ public class UpdateRideActivity extends AppCompatActivity {
         progressBar.setVisibility(View.VISIBLE);
 
         // First, get the full ride request to preserve all its properties
-        FirebaseUtil.getRideRequestById(rideId, new FirebaseCallback<RideRequest>() {
-            @Override
-            public void onSuccess(RideRequest originalRequest) {
-                // Update only the fields that should be changed
-                originalRequest.setDateTime(selectedDateTime.getTimeInMillis());
-                originalRequest.setStartPoint(startPoint);
-                originalRequest.setDestination(destination);
-                // Make sure we don't change the status or rider info
-
-                // Update ride request in Firebase
-                FirebaseUtil.updateRideRequest(originalRequest, new FirebaseCallback<RideRequest>() {
-                    @Override
-                    public void onSuccess(RideRequest result) {
-                        // Hide progress bar
-                        progressBar.setVisibility(View.GONE);
-
-                        // Show success message
-                        Toast.makeText(UpdateRideActivity.this, "Ride request updated successfully", Toast.LENGTH_SHORT).show();
-
-                        // Finish activity
-                        finish();
-                    }
+        CompletableFuture<RideRequest> original = Futures.withTimeout(
+                rideRepository.getRideRequestById(rideId), READ_TIMEOUT_SECONDS, TimeUnit.SECONDS)
+                .exceptionally(e -> {
+                    throw new Futures.Failure("Failed to retrieve original ride request: " + Futures.message(e));
+                });
 
-                    @Override
-                    public void onError(String error) {
-                        // Hide progress bar
-                        progressBar.setVisibility(View.GONE);
+        // Then update only the fields that should be changed
+        // (make sure we don't change the status or rider info)
+        CompletableFuture<Boolean> updated = original.thenCompose(request -> {
+            request.setDateTime(selectedDateTime.getTimeInMillis());
+            request.setStartPoint(startPoint);
+            request.setDestination(destination);
+            return awaitSync(rideRepository.updateRideRequest(request));
+        });
+
+        pendingRead = original;
+        pendingUpdate = updated;
+        Futures.deliver(updated, new UpdateCallback("Ride request updated successfully"));
+    }
 
-                        // Show error message
-                        Toast.makeText(UpdateRideActivity.this, error, Toast.LENGTH_SHORT).show();
+    /**
+     * Wait a while for the server to confirm a write. The write is already in the
+     * local cache and will be sent when the connection returns, so a slow answer is
+     * not a failure.
+     * @param write Write in flight
+     * @return Future of true once the server confirmed the write, or false if it is
+     *         still waiting to sync
+     */
+    private static <T> CompletableFuture<Boolean> awaitSync(CompletableFuture<T> write) {
+        return Futures.withTimeout(write, SYNC_WAIT_SECONDS, TimeUnit.SECONDS)
+                .handle((result, error) -> {
+                    if (error == null) {
+                        return true;
+                    }
+                    if (Futures.isTimeout(error)) {
+                        return false;
                     }
+                    throw error instanceof CompletionException ? (CompletionException) error : new CompletionException(error);
                 });
-            }
+    }
 
-            @Override
-            public void onError(String error) {
-                // Hide progress bar
-                progressBar.setVisibility(View.GONE);
+    /**
+     * Callback showing the outcome of an update.
+     */
+    private class UpdateCallback implements FirebaseCallback<Boolean> {
+        private final String successMessage;
+
+        UpdateCallback(String successMessage) {
+            this.successMessage = successMessage;
+        }
+
+        @Override
+        public void onSuccess(Boolean synced) {
+            // Hide progress bar
+            progressBar.setVisibility(View.GONE);
+
+            // Show success message, or that the change is saved but not sent yet
+            Toast.makeText(UpdateRideActivity.this,
+                    synced ? successMessage : "Change saved; it will sync when the connection returns",
+                    Toast.LENGTH_SHORT).show();
+
+            // Finish activity
+            finish();
+        }
 
-                // Show error message
-                Toast.makeText(UpdateRideActivity.this, "Failed to retrieve original ride request: " + error, Toast.LENGTH_SHORT).show();
+        @Override
+        public void onError(String error) {
+            // The update was cancelled because the activity went away
+            if (isDestroyed()) {
+                return;
             }
-        });
-    }
+
+            // Hide progress bar
+            progressBar.setVisibility(View.GONE);
+
+            // Show error message
+            Toast.makeText(UpdateRideActivity.this, error, Toast.LENGTH_SHORT).show();
+        }
+    } // UpdateCallback
 
     /**
      * Handle state during configuration changes.
@@ -340,4 +366,15 @@ public class UpdateRideActivity extends AppCompatActivity {
         etStartPoint.setText(savedInstanceState.getString("startPoint", ""));
         etDestination.setText(savedInstanceState.getString("destination", ""));
     }
-}
\ No newline at end of file
+
+    /**
+     * Stop waiting for an update in flight.
+     */
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        // A ride that has not been read yet is not updated at all
+        pendingRead.cancel(false);
+        pendingUpdate.cancel(false);
+    }
+}
@@ -8,24 +8,61 @@ import android.widget.Button;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
-import java.text.SimpleDateFormat;
 import java.util.List;
-import java.util.Locale;
 
 import edu.uga.cs.ugarideshare.R;
 import edu.uga.cs.ugarideshare.models.AcceptedRide;
+import edu.uga.cs.ugarideshare.utils.ListPipeline;
+import edu.uga.cs.ugarideshare.utils.RideDateFormatter;
 
 /**
- * Adapter for displaying accepted rides in a RecyclerView.
+ * Adapter for displaying accepted rides in a RecyclerView. Rows carry their text
+ * already formatted, so binding a row only hands strings to the views. Lists are
+ * diffed on a background thread, so a refresh only rebinds the rows that changed.
+ * Submitted lists must hold rows the caller doesn't modify afterwards.
  */
-public class AcceptedRideAdapter extends RecyclerView.Adapter<AcceptedRideAdapter.AcceptedRideViewHolder> {
+public class AcceptedRideAdapter extends ListAdapter<AcceptedRideAdapter.Row, AcceptedRideAdapter.AcceptedRideViewHolder> {
+    // Payload of a row whose confirmation flags are the only change
+    private static final Object PAYLOAD_CONFIRMATION = new Object();
+
+    // Rows are the same accepted ride if they have the same key, and unchanged if they display the same
+    public static final DiffUtil.ItemCallback<Row> DIFF_CALLBACK = new DiffUtil.ItemCallback<Row>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Row oldItem, @NonNull Row newItem) {
+            return oldItem.acceptedRide.getId().equals(newItem.acceptedRide.getId());
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Row oldItem, @NonNull Row newItem) {
+            return sameDetails(oldItem, newItem) && sameConfirmation(oldItem, newItem);
+        }
+
+        @Override
+        public Object getChangePayload(@NonNull Row oldItem, @NonNull Row newItem) {
+            // A confirmation only needs the status and confirm button rebound
+            return sameDetails(oldItem, newItem) ? PAYLOAD_CONFIRMATION : null;
+        }
+
+        private boolean sameDetails(Row oldItem, Row newItem) {
+            return oldItem.dateTime.equals(newItem.dateTime)
+                    && oldItem.startPoint.equals(newItem.startPoint)
+                    && oldItem.destination.equals(newItem.destination)
+                    && oldItem.rider.equals(newItem.rider)
+                    && oldItem.driver.equals(newItem.driver)
+                    && oldItem.points.equals(newItem.points);
+        }
+
+        private boolean sameConfirmation(Row oldItem, Row newItem) {
+            return oldItem.status.equals(newItem.status) && oldItem.confirmVisibility == newItem.confirmVisibility;
+        }
+    };
+
     private Context context;
-    private List<AcceptedRide> acceptedRides;
-    private String currentUserId;
     private OnRideConfirmClickListener listener;
-    private SimpleDateFormat dateFormatter;
 
     /**
      * Interface for handling ride confirm button clicks.
@@ -34,19 +71,103 @@ public class AcceptedRideAdapter extends RecyclerView.Adapter<AcceptedRideAdapte
         void onConfirmClick(AcceptedRide acceptedRide);
     }
 
+    /**
+     * An accepted ride together with the text its row shows.
+     */
+    public static class Row {
+        private final AcceptedRide acceptedRide;
+        private final String dateTime;
+        private final String startPoint;
+        private final String destination;
+        private final String rider;
+        private final String driver;
+        private final String points;
+        private final boolean isDriver;
+        private final boolean isRider;
+        private final String status;
+        private final int confirmVisibility;
+
+        /**
+         * Constructor formatting the row's text
+         * @param acceptedRide Accepted ride to display; must not change afterwards
+         * @param currentUserId ID of the current user
+         * @param dateFormatter Formatter for the date and time
+         */
+        public Row(AcceptedRide acceptedRide, String currentUserId, RideDateFormatter dateFormatter) {
+            this(acceptedRide, dateFormatter.format(acceptedRide.getDateTime()),
+                    "From: " + acceptedRide.getStartPoint(),
+                    "To: " + acceptedRide.getDestination(),
+                    "Rider: " + acceptedRide.getRiderEmail(),
+                    "Driver: " + acceptedRide.getDriverEmail(),
+                    "Points: " + acceptedRide.getPoints(),
+                    currentUserId.equals(acceptedRide.getDriverId()),
+                    currentUserId.equals(acceptedRide.getRiderId()));
+        }
+
+        private Row(AcceptedRide acceptedRide, String dateTime, String startPoint, String destination,
+                    String rider, String driver, String points, boolean isDriver, boolean isRider) {
+            this.acceptedRide = acceptedRide;
+            this.dateTime = dateTime;
+            this.startPoint = startPoint;
+            this.destination = destination;
+            this.rider = rider;
+            this.driver = driver;
+            this.points = points;
+            this.isDriver = isDriver;
+            this.isRider = isRider;
+
+            // Status text and confirm button depend on whether the current user has confirmed
+            if (isDriver || isRider) {
+                boolean confirmed = isDriver ? acceptedRide.isDriverConfirmed() : acceptedRide.isRiderConfirmed();
+                this.status = confirmed ? "Status: You have confirmed this ride" : "Status: Awaiting your confirmation";
+                this.confirmVisibility = confirmed ? View.GONE : View.VISIBLE;
+            } else {
+                this.status = "";
+                this.confirmVisibility = View.GONE;
+            }
+        }
+
+        /**
+         * Create the row for another copy of the same ride whose confirmation
+         * changed, keeping the formatted details
+         * @param acceptedRide Copy of the ride to display; must not change afterwards
+         * @return Row for the copy
+         */
+        public Row withRide(AcceptedRide acceptedRide) {
+            return new Row(acceptedRide, dateTime, startPoint, destination, rider, driver, points, isDriver, isRider);
+        }
+
+        /**
+         * Get the accepted ride shown by the row
+         * @return Accepted ride
+         */
+        public AcceptedRide getAcceptedRide() {
+            return acceptedRide;
+        }
+    } // Row
+
     /**
      * Constructor for AcceptedRideAdapter.
      * @param context Context
-     * @param acceptedRides List of accepted rides
-     * @param currentUserId ID of the current user
      * @param listener Listener for confirm button clicks
      */
-    public AcceptedRideAdapter(Context context, List<AcceptedRide> acceptedRides, String currentUserId, OnRideConfirmClickListener listener) {
+    public AcceptedRideAdapter(Context context, OnRideConfirmClickListener listener) {
+        super(DIFF_CALLBACK);
         this.context = context;
-        this.acceptedRides = acceptedRides;
-        this.currentUserId = currentUserId;
         this.listener = listener;
-        this.dateFormatter = new SimpleDateFormat("EEEE, MMMM d, yyyy 'at' h:mm a", Locale.US);
+        setHasStableIds(true);
+    }
+
+    /**
+     * Create a decoder turning accepted rides into rows, for use on a ListPipeline's
+     * background thread. Each ride is copied, so the rows never change under the
+     * adapter.
+     * @param currentUserId ID of the current user
+     * @return Decoder building rows
+     */
+    public static ListPipeline.Decoder<AcceptedRide, Row> rowDecoder(String currentUserId) {
+        RideDateFormatter dateFormatter = RideDateFormatter.getInstance();
+        return acceptedRide -> new Row(new AcceptedRide(acceptedRide), currentUserId, dateFormatter);
     }
 
     /**
@@ -69,17 +190,47 @@ public class AcceptedRideAdapter extends RecyclerView.Adapter<AcceptedRideAdapte
      */
     @Override
     public void onBindViewHolder(@NonNull AcceptedRideViewHolder holder, int position) {
-        AcceptedRide acceptedRide = acceptedRides.get(position);
-        holder.bind(acceptedRide);
+        holder.bind(getItem(position));
+    }
+
+    /**
+     * Bind data to the ViewHolder, rebinding only the confirmation state when
+     * that is all that changed.
+     * @param holder ViewHolder
+     * @param position Position in the list
+     * @param payloads Change payloads, empty for a full bind
+     */
+    @Override
+    public void onBindViewHolder(@NonNull AcceptedRideViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (payloads.isEmpty() || !onlyConfirmation(payloads)) {
+            onBindViewHolder(holder, position);
+            return;
+        }
+        holder.bindConfirmation(getItem(position));
     }
 
     /**
-     * Get the number of accepted rides.
-     * @return Number of accepted rides
+     * Check whether every payload is a confirmation change
+     * @param payloads Change payloads
+     * @return true if only confirmation flags changed
+     */
+    private static boolean onlyConfirmation(List<Object> payloads) {
+        for (Object payload : payloads) {
+            if (payload != PAYLOAD_CONFIRMATION) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Get the stable ID of a row, derived from the Firebase key of its accepted ride.
+     * @param position Position in the list
+     * @return Stable ID
      */
     @Override
-    public int getItemCount() {
-        return acceptedRides.size();
+    public long getItemId(int position) {
+        return StableIds.of(getItem(position).acceptedRide.getId());
     }
 
     /**
@@ -90,7 +241,8 @@ public class AcceptedRideAdapter extends RecyclerView.Adapter<AcceptedRideAdapte
         private Button btnConfirm;
 
         /**
-         * Constructor for AcceptedRideViewHolder.
+         * Constructor for AcceptedRideViewHolder. The click listener is installed once
+         * here and looks up the row bound at the time of the click.
          * @param itemView View for the item
          */
         public AcceptedRideViewHolder(@NonNull View itemView) {
@@ -103,51 +255,43 @@ public class AcceptedRideAdapter extends RecyclerView.Adapter<AcceptedRideAdapte
             tvPoints = itemView.findViewById(R.id.tvPoints);
             tvStatus = itemView.findViewById(R.id.tvStatus);
             btnConfirm = itemView.findViewById(R.id.btnConfirm);
-        }
-
-        /**
-         * Bind data to views.
-         * @param acceptedRide Accepted ride to display
-         */
-        public void bind(final AcceptedRide acceptedRide) {
-            // Set text views
-            tvDateTime.setText(dateFormatter.format(acceptedRide.getDateTime()));
-            tvStartPoint.setText("From: " + acceptedRide.getStartPoint());
-            tvDestination.setText("To: " + acceptedRide.getDestination());
-            tvRider.setText("Rider: " + acceptedRide.getRiderEmail());
-            tvDriver.setText("Driver: " + acceptedRide.getDriverEmail());
-            tvPoints.setText("Points: " + acceptedRide.getPoints());
-
-            // Determine if the current user is the driver or rider
-            boolean isDriver = currentUserId.equals(acceptedRide.getDriverId());
-            boolean isRider = currentUserId.equals(acceptedRide.getRiderId());
-
-            // Update status text and confirm button visibility based on confirmation status
-            if (isDriver) {
-                if (acceptedRide.isDriverConfirmed()) {
-                    tvStatus.setText("Status: You have confirmed this ride");
-                    btnConfirm.setVisibility(View.GONE);
-                } else {
-                    tvStatus.setText("Status: Awaiting your confirmation");
-                    btnConfirm.setVisibility(View.VISIBLE);
-                }
-            } else if (isRider) {
-                if (acceptedRide.isRiderConfirmed()) {
-                    tvStatus.setText("Status: You have confirmed this ride");
-                    btnConfirm.setVisibility(View.GONE);
-                } else {
-                    tvStatus.setText("Status: Awaiting your confirmation");
-                    btnConfirm.setVisibility(View.VISIBLE);
-                }
-            }
 
             // Set confirm button click listener
             btnConfirm.setOnClickListener(new View.OnClickListener() {
                 @Override
                 public void onClick(View v) {
-                    listener.onConfirmClick(acceptedRide);
+                    int position = getBindingAdapterPosition();
+                    if (position != RecyclerView.NO_POSITION) {
+                        listener.onConfirmClick(getItem(position).acceptedRide);
+                    }
                 }
             });
+        }
+
+        /**
+         * Bind data to views.
+         * @param row Row to display
+         */
+        public void bind(Row row) {
+            // Set text views
+            tvDateTime.setText(row.dateTime);
+            tvStartPoint.setText(row.startPoint);
+            tvDestination.setText(row.destination);
+            tvRider.setText(row.rider);
+            tvDriver.setText(row.driver);
+            tvPoints.setText(row.points);
+
+            bindConfirmation(row);
         } // bind
+
+        /**
+         * Bind the status text and confirm button, the views that change when
+         * either party confirms.
+         * @param row Row to display
+         */
+        public void bindConfirmation(Row row) {
+            tvStatus.setText(row.status);
+            btnConfirm.setVisibility(row.confirmVisibility);
+        } // bindConfirmation
     } // AcceptedRideViewHolder
-} // AcceptedRideAdapter
\ No newline at end of file
+} // AcceptedRideAdapter
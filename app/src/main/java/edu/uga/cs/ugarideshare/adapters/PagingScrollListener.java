@@ -0,0 +1,46 @@
+package edu.uga.cs.ugarideshare.adapters;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * Scroll listener that asks for the next page once the user scrolls within
+ * a few rows of the end of the list, so the page is there before it is needed.
+ */
+public class PagingScrollListener extends RecyclerView.OnScrollListener {
+    private final LinearLayoutManager layoutManager;
+    private final int prefetchDistance;
+    private final Runnable loadMore;
+
+    /**
+     * Constructor
+     * @param layoutManager Layout manager of the list
+     * @param prefetchDistance Number of rows from the end at which the next page is requested
+     * @param loadMore Action loading the next page; may be called repeatedly
+     */
+    public PagingScrollListener(LinearLayoutManager layoutManager, int prefetchDistance, Runnable loadMore) {
+        this.layoutManager = layoutManager;
+        this.prefetchDistance = prefetchDistance;
+        this.loadMore = loadMore;
+    }
+
+    /**
+     * Called when the list has been scrolled.
+     * @param recyclerView The RecyclerView which scrolled
+     * @param dx The amount of horizontal scroll
+     * @param dy The amount of vertical scroll
+     */
+    @Override
+    public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+        // Only scrolling towards the end can reveal the need for another page
+        if (dy <= 0) {
+            return;
+        }
+
+        int lastVisible = layoutManager.findLastVisibleItemPosition();
+        if (lastVisible + prefetchDistance >= layoutManager.getItemCount()) {
+            loadMore.run();
+        }
+    } // onScrolled
+} // PagingScrollListener
@@ -8,24 +8,41 @@ import android.widget.Button;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
-import java.text.SimpleDateFormat;
-import java.util.List;
-import java.util.Locale;
-
 import edu.uga.cs.ugarideshare.R;
 import edu.uga.cs.ugarideshare.models.RideOffer;
+import edu.uga.cs.ugarideshare.utils.ListPipeline;
+import edu.uga.cs.ugarideshare.utils.RideDateFormatter;
 
 /**
- * Adapter for displaying ride offers in a RecyclerView.
+ * Adapter for displaying ride offers in a RecyclerView. Rows carry their text
+ * already formatted, so binding a row only hands strings to the views. Lists are
+ * diffed on a background thread, so a refresh only rebinds the rows that changed.
+ * Submitted lists must hold rows the caller doesn't modify afterwards.
  */
-public class RideOfferAdapter extends RecyclerView.Adapter<RideOfferAdapter.RideOfferViewHolder> {
+public class RideOfferAdapter extends ListAdapter<RideOfferAdapter.Row, RideOfferAdapter.RideOfferViewHolder> {
+    // Rows are the same ride offer if they have the same key, and unchanged if they display the same
+    public static final DiffUtil.ItemCallback<Row> DIFF_CALLBACK = new DiffUtil.ItemCallback<Row>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Row oldItem, @NonNull Row newItem) {
+            return oldItem.rideOffer.getId().equals(newItem.rideOffer.getId());
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Row oldItem, @NonNull Row newItem) {
+            return oldItem.dateTime.equals(newItem.dateTime)
+                    && oldItem.startPoint.equals(newItem.startPoint)
+                    && oldItem.destination.equals(newItem.destination)
+                    && oldItem.driver.equals(newItem.driver)
+                    && oldItem.isDriver == newItem.isDriver;
+        }
+    };
+
     private Context context;
-    private List<RideOffer> rideOffers;
-    private String currentUserId;
     private OnRideOfferClickListener listener;
-    private SimpleDateFormat dateFormatter;
 
     /**
      * Interface for handling ride offer item clicks.
@@ -36,19 +53,62 @@ public class RideOfferAdapter extends RecyclerView.Adapter<RideOfferAdapter.Ride
         void onDeleteClick(RideOffer rideOffer);
     }
 
+    /**
+     * A ride offer together with the text its row shows.
+     */
+    public static class Row {
+        private final RideOffer rideOffer;
+        private final String dateTime;
+        private final String startPoint;
+        private final String destination;
+        private final String driver;
+        private final boolean isDriver;
+
+        /**
+         * Constructor formatting the row's text
+         * @param rideOffer Ride offer to display; must not change afterwards
+         * @param currentUserId ID of the current user
+         * @param dateFormatter Formatter for the date and time
+         */
+        public Row(RideOffer rideOffer, String currentUserId, RideDateFormatter dateFormatter) {
+            this.rideOffer = rideOffer;
+            this.dateTime = dateFormatter.format(rideOffer.getDateTime());
+            this.startPoint = "From: " + rideOffer.getStartPoint();
+            this.destination = "To: " + rideOffer.getDestination();
+            this.driver = "Driver: " + rideOffer.getDriverEmail();
+            this.isDriver = currentUserId.equals(rideOffer.getDriverId());
+        }
+
+        /**
+         * Get the ride offer shown by the row
+         * @return Ride offer
+         */
+        public RideOffer getRideOffer() {
+            return rideOffer;
+        }
+    } // Row
+
     /**
      * Constructor for RideOfferAdapter.
      * @param context Context
-     * @param rideOffers List of ride offers
-     * @param currentUserId ID of the current user
      * @param listener Listener for item clicks
      */
-    public RideOfferAdapter(Context context, List<RideOffer> rideOffers, String currentUserId, OnRideOfferClickListener listener) {
+    public RideOfferAdapter(Context context, OnRideOfferClickListener listener) {
+        super(DIFF_CALLBACK);
         this.context = context;
-        this.rideOffers = rideOffers;
-        this.currentUserId = currentUserId;
         this.listener = listener;
-        this.dateFormatter = new SimpleDateFormat("EEEE, MMMM d, yyyy 'at' h:mm a", Locale.US);
+        setHasStableIds(true);
+    }
+
+    /**
+     * Create a decoder turning ride offers into rows, for use on a ListPipeline's
+     * background thread.
+     * @param currentUserId ID of the current user
+     * @return Decoder building rows
+     */
+    public static ListPipeline.Decoder<RideOffer, Row> rowDecoder(String currentUserId) {
+        RideDateFormatter dateFormatter = RideDateFormatter.getInstance();
+        return rideOffer -> new Row(rideOffer, currentUserId, dateFormatter);
     }
 
     /**
@@ -71,17 +131,17 @@ public class RideOfferAdapter extends RecyclerView.Adapter<RideOfferAdapter.Ride
      */
     @Override
     public void onBindViewHolder(@NonNull RideOfferViewHolder holder, int position) {
-        RideOffer rideOffer = rideOffers.get(position);
-        holder.bind(rideOffer);
+        holder.bind(getItem(position));
     }
 
     /**
-     * Get the number of ride offers.
-     * @return Number of ride offers
+     * Get the stable ID of a row, derived from the Firebase key of its ride offer.
+     * @param position Position in the list
+     * @return Stable ID
      */
     @Override
-    public int getItemCount() {
-        return rideOffers.size();
+    public long getItemId(int position) {
+        return StableIds.of(getItem(position).rideOffer.getId());
     }
 
     /**
@@ -92,7 +152,8 @@ public class RideOfferAdapter extends RecyclerView.Adapter<RideOfferAdapter.Ride
         private Button btnAccept, btnUpdate, btnDelete;
 
         /**
-         * Constructor for RideOfferViewHolder.
+         * Constructor for RideOfferViewHolder. The click listeners are installed once
+         * here and look up the row bound at the time of the click.
          * @param itemView View for the item
          */
         public RideOfferViewHolder(@NonNull View itemView) {
@@ -104,46 +165,63 @@ public class RideOfferAdapter extends RecyclerView.Adapter<RideOfferAdapter.Ride
             btnAccept = itemView.findViewById(R.id.btnAccept);
             btnUpdate = itemView.findViewById(R.id.btnUpdate);
             btnDelete = itemView.findViewById(R.id.btnDelete);
-        }
-
-        /**
-         * Bind data to views.
-         * @param rideOffer Ride offer to display
-         */
-        public void bind(final RideOffer rideOffer) {
-            // Set text views
-            tvDateTime.setText(dateFormatter.format(rideOffer.getDateTime()));
-            tvStartPoint.setText("From: " + rideOffer.getStartPoint());
-            tvDestination.setText("To: " + rideOffer.getDestination());
-            tvDriver.setText("Driver: " + rideOffer.getDriverEmail());
-
-            // Show/hide buttons based on whether the current user is the driver
-            boolean isDriver = currentUserId.equals(rideOffer.getDriverId());
-            btnAccept.setVisibility(isDriver ? View.GONE : View.VISIBLE);
-            btnUpdate.setVisibility(isDriver ? View.VISIBLE : View.GONE);
-            btnDelete.setVisibility(isDriver ? View.VISIBLE : View.GONE);
 
             // Set button click listeners
             btnAccept.setOnClickListener(new View.OnClickListener() {
                 @Override
                 public void onClick(View v) {
-                    listener.onAcceptClick(rideOffer);
+                    Row row = boundRow();
+                    if (row != null) {
+                        listener.onAcceptClick(row.rideOffer);
+                    }
                 }
             });
 
             btnUpdate.setOnClickListener(new View.OnClickListener() {
                 @Override
                 public void onClick(View v) {
-                    listener.onUpdateClick(rideOffer);
+                    Row row = boundRow();
+                    if (row != null) {
+                        listener.onUpdateClick(row.rideOffer);
+                    }
                 }
             });
 
             btnDelete.setOnClickListener(new View.OnClickListener() {
                 @Override
                 public void onClick(View v) {
-                    listener.onDeleteClick(rideOffer);
+                    Row row = boundRow();
+                    if (row != null) {
+                        listener.onDeleteClick(row.rideOffer);
+                    }
                 }
             });
+        }
+
+        /**
+         * Bind data to views.
+         * @param row Row to display
+         */
+        public void bind(Row row) {
+            // Set text views
+            tvDateTime.setText(row.dateTime);
+            tvStartPoint.setText(row.startPoint);
+            tvDestination.setText(row.destination);
+            tvDriver.setText(row.driver);
+
+            // Show/hide buttons based on whether the current user is the driver
+            btnAccept.setVisibility(row.isDriver ? View.GONE : View.VISIBLE);
+            btnUpdate.setVisibility(row.isDriver ? View.VISIBLE : View.GONE);
+            btnDelete.setVisibility(row.isDriver ? View.VISIBLE : View.GONE);
         } // bind
+
+        /**
+         * Get the row this holder currently shows
+         * @return Row, or null if the holder is being removed
+         */
+        private Row boundRow() {
+            int position = getBindingAdapterPosition();
+            return position == RecyclerView.NO_POSITION ? null : getItem(position);
+        }
     } // RideOfferViewHolder
-} // RideOfferAdapter
\ No newline at end of file
+} // RideOfferAdapter
@@ -8,24 +8,41 @@ import android.widget.Button;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 
-import java.text.SimpleDateFormat;
-import java.util.List;
-import java.util.Locale;
-
 import edu.uga.cs.ugarideshare.R;
 import edu.uga.cs.ugarideshare.models.RideRequest;
+import edu.uga.cs.ugarideshare.utils.ListPipeline;
+import edu.uga.cs.ugarideshare.utils.RideDateFormatter;
 
 /**
- * Adapter for displaying ride requests in a RecyclerView.
+ * Adapter for displaying ride requests in a RecyclerView. Rows carry their text
+ * already formatted, so binding a row only hands strings to the views. Lists are
+ * diffed on a background thread, so a refresh only rebinds the rows that changed.
+ * Submitted lists must hold rows the caller doesn't modify afterwards.
  */
-public class RideRequestAdapter extends RecyclerView.Adapter<RideRequestAdapter.RideRequestViewHolder> {
+public class RideRequestAdapter extends ListAdapter<RideRequestAdapter.Row, RideRequestAdapter.RideRequestViewHolder> {
+    // Rows are the same ride request if they have the same key, and unchanged if they display the same
+    public static final DiffUtil.ItemCallback<Row> DIFF_CALLBACK = new DiffUtil.ItemCallback<Row>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Row oldItem, @NonNull Row newItem) {
+            return oldItem.rideRequest.getId().equals(newItem.rideRequest.getId());
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Row oldItem, @NonNull Row newItem) {
+            return oldItem.dateTime.equals(newItem.dateTime)
+                    && oldItem.startPoint.equals(newItem.startPoint)
+                    && oldItem.destination.equals(newItem.destination)
+                    && oldItem.rider.equals(newItem.rider)
+                    && oldItem.isRider == newItem.isRider;
+        }
+    };
+
     private Context context;
-    private List<RideRequest> rideRequests;
-    private String currentUserId;
     private OnRideRequestClickListener listener;
-    private SimpleDateFormat dateFormatter;
 
     /**
      * Interface for handling ride request item clicks.
@@ -36,19 +53,62 @@ public class RideRequestAdapter extends RecyclerView.Adapter<RideRequestAdapter.
         void onDeleteClick(RideRequest rideRequest);
     }
 
+    /**
+     * A ride request together with the text its row shows.
+     */
+    public static class Row {
+        private final RideRequest rideRequest;
+        private final String dateTime;
+        private final String startPoint;
+        private final String destination;
+        private final String rider;
+        private final boolean isRider;
+
+        /**
+         * Constructor formatting the row's text
+         * @param rideRequest Ride request to display; must not change afterwards
+         * @param currentUserId ID of the current user
+         * @param dateFormatter Formatter for the date and time
+         */
+        public Row(RideRequest rideRequest, String currentUserId, RideDateFormatter dateFormatter) {
+            this.rideRequest = rideRequest;
+            this.dateTime = dateFormatter.format(rideRequest.getDateTime());
+            this.startPoint = "From: " + rideRequest.getStartPoint();
+            this.destination = "To: " + rideRequest.getDestination();
+            this.rider = "Rider: " + rideRequest.getRiderEmail();
+            this.isRider = currentUserId.equals(rideRequest.getRiderId());
+        }
+
+        /**
+         * Get the ride request shown by the row
+         * @return Ride request
+         */
+        public RideRequest getRideRequest() {
+            return rideRequest;
+        }
+    } // Row
+
     /**
      * Constructor for RideRequestAdapter.
      * @param context Context
-     * @param rideRequests List of ride requests
-     * @param currentUserId ID of the current user
      * @param listener Listener for item clicks
      */
-    public RideRequestAdapter(Context context, List<RideRequest> rideRequests, String currentUserId, OnRideRequestClickListener listener) {
+    public RideRequestAdapter(Context context, OnRideRequestClickListener listener) {
+        super(DIFF_CALLBACK);
         this.context = context;
-        this.rideRequests = rideRequests;
-        this.currentUserId = currentUserId;
         this.listener = listener;
-        this.dateFormatter = new SimpleDateFormat("EEEE, MMMM d, yyyy 'at' h:mm a", Locale.US);
+        setHasStableIds(true);
+    }
+
+    /**
+     * Create a decoder turning ride requests into rows, for use on a ListPipeline's
+     * background thread.
+     * @param currentUserId ID of the current user
+     * @return Decoder building rows
+     */
+    public static ListPipeline.Decoder<RideRequest, Row> rowDecoder(String currentUserId) {
+        RideDateFormatter dateFormatter = RideDateFormatter.getInstance();
+        return rideRequest -> new Row(rideRequest, currentUserId, dateFormatter);
     }
 
     /**
@@ -71,18 +131,18 @@ public class RideRequestAdapter extends RecyclerView.Adapter<RideRequestAdapter.
      */
     @Override
     public void onBindViewHolder(@NonNull RideRequestViewHolder holder, int position) {
-        RideRequest rideRequest = rideRequests.get(position);
-        holder.bind(rideRequest);
+        holder.bind(getItem(position));
     }
 
     /**
-     * Get the number of items in the list.
-     * @return Number of items
+     * Get the stable ID of a row, derived from the Firebase key of its ride request.
+     * @param position Position in the list
+     * @return Stable ID
      */
     @Override
-    public int getItemCount() {
-        return rideRequests.size();
-    } // getItemCount
+    public long getItemId(int position) {
+        return StableIds.of(getItem(position).rideRequest.getId());
+    }
 
     /**
      * ViewHolder for ride request items.
@@ -91,6 +151,11 @@ public class RideRequestAdapter extends RecyclerView.Adapter<RideRequestAdapter.
         private TextView tvDateTime, tvStartPoint, tvDestination, tvRider;
         private Button btnAccept, btnUpdate, btnDelete;
 
+        /**
+         * Constructor for RideRequestViewHolder. The click listeners are installed once
+         * here and look up the row bound at the time of the click.
+         * @param itemView View for the item
+         */
         public RideRequestViewHolder(@NonNull View itemView) {
             super(itemView);
             tvDateTime = itemView.findViewById(R.id.tvDateTime);
@@ -100,46 +165,63 @@ public class RideRequestAdapter extends RecyclerView.Adapter<RideRequestAdapter.
             btnAccept = itemView.findViewById(R.id.btnAccept);
             btnUpdate = itemView.findViewById(R.id.btnUpdate);
             btnDelete = itemView.findViewById(R.id.btnDelete);
-        } // Constructor
-
-        /**
-         * Bind data to views.
-         * @param rideRequest Ride request to display
-         */
-        public void bind(final RideRequest rideRequest) {
-            // Set text views
-            tvDateTime.setText(dateFormatter.format(rideRequest.getDateTime()));
-            tvStartPoint.setText("From: " + rideRequest.getStartPoint());
-            tvDestination.setText("To: " + rideRequest.getDestination());
-            tvRider.setText("Rider: " + rideRequest.getRiderEmail());
-
-            // Show/hide buttons based on whether the current user is the rider
-            boolean isRider = currentUserId.equals(rideRequest.getRiderId());
-            btnAccept.setVisibility(isRider ? View.GONE : View.VISIBLE);
-            btnUpdate.setVisibility(isRider ? View.VISIBLE : View.GONE);
-            btnDelete.setVisibility(isRider ? View.VISIBLE : View.GONE);
 
             // Set button click listeners
             btnAccept.setOnClickListener(new View.OnClickListener() {
                 @Override
                 public void onClick(View v) {
-                    listener.onAcceptClick(rideRequest);
+                    Row row = boundRow();
+                    if (row != null) {
+                        listener.onAcceptClick(row.rideRequest);
+                    }
                 }
             });
 
             btnUpdate.setOnClickListener(new View.OnClickListener() {
                 @Override
                 public void onClick(View v) {
-                    listener.onUpdateClick(rideRequest);
+                    Row row = boundRow();
+                    if (row != null) {
+                        listener.onUpdateClick(row.rideRequest);
+                    }
                 }
             });
 
             btnDelete.setOnClickListener(new View.OnClickListener() {
                 @Override
                 public void onClick(View v) {
-                    listener.onDeleteClick(rideRequest);
+                    Row row = boundRow();
+                    if (row != null) {
+                        listener.onDeleteClick(row.rideRequest);
+                    }
                 }
             });
+        }
+
+        /**
+         * Bind data to views.
+         * @param row Row to display
+         */
+        public void bind(Row row) {
+            // Set text views
+            tvDateTime.setText(row.dateTime);
+            tvStartPoint.setText(row.startPoint);
+            tvDestination.setText(row.destination);
+            tvRider.setText(row.rider);
+
+            // Show/hide buttons based on whether the current user is the rider
+            btnAccept.setVisibility(row.isRider ? View.GONE : View.VISIBLE);
+            btnUpdate.setVisibility(row.isRider ? View.VISIBLE : View.GONE);
+            btnDelete.setVisibility(row.isRider ? View.VISIBLE : View.GONE);
         } // bind
+
+        /**
+         * Get the row this holder currently shows
+         * @return Row, or null if the holder is being removed
+         */
+        private Row boundRow() {
+            int position = getBindingAdapterPosition();
+            return position == RecyclerView.NO_POSITION ? null : getItem(position);
+        }
     } // RideRequestViewHolder
-} // RideRequestAdapter
\ No newline at end of file
+} // RideRequestAdapter
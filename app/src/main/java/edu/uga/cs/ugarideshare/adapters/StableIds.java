@@ -0,0 +1,28 @@
+package edu.uga.cs.ugarideshare.adapters;
+
+/**
+ * Turns the Firebase key of a list item into the stable ID RecyclerView keys its
+ * rows by. The 64-bit FNV-1a hash of a 20-character push key practically never
+ * collides, and no table of keys has to be kept.
+ */
+public final class StableIds {
+    private static final long OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long PRIME = 0x100000001b3L;
+
+    private StableIds() {
+    }
+
+    /**
+     * Get the stable ID of a key
+     * @param key Firebase key of the item
+     * @return Stable ID, the same for the same key
+     */
+    public static long of(String key) {
+        long hash = OFFSET_BASIS;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= PRIME;
+        }
+        return hash;
+    }
+} // StableIds
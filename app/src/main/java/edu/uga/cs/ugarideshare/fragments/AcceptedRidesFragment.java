@@ -11,20 +11,18 @@ import android.widget.Toast;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
+import androidx.lifecycle.ViewModelProvider;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
-import java.util.List;
-
 import edu.uga.cs.ugarideshare.R;
+import edu.uga.cs.ugarideshare.RideShareApplication;
 import edu.uga.cs.ugarideshare.adapters.AcceptedRideAdapter;
 import edu.uga.cs.ugarideshare.models.AcceptedRide;
+import edu.uga.cs.ugarideshare.repository.RideRepository;
 import edu.uga.cs.ugarideshare.utils.FirebaseCallback;
-import edu.uga.cs.ugarideshare.utils.FirebaseUtil;
 import edu.uga.cs.ugarideshare.utils.SessionManager;
+import edu.uga.cs.ugarideshare.viewmodels.AcceptedRidesViewModel;
 
 /**
  * Fragment for displaying accepted rides.
@@ -32,10 +30,11 @@ import edu.uga.cs.ugarideshare.utils.SessionManager;
 public class AcceptedRidesFragment extends Fragment implements AcceptedRideAdapter.OnRideConfirmClickListener {
     private RecyclerView recyclerView;
     private AcceptedRideAdapter adapter;
-    private List<AcceptedRide> acceptedRides;
     private ProgressBar progressBar;
     private TextView tvNoRides;
     private SessionManager sessionManager;
+    private RideRepository rideRepository;
+    private AcceptedRidesViewModel viewModel;
 
     /**
      * Called to have the fragment instantiate its user interface view.
@@ -62,90 +61,87 @@ public class AcceptedRidesFragment extends Fragment implements AcceptedRideAdapt
         // Initialize session manager
         sessionManager = new SessionManager(getContext());
 
-        // Initialize accepted rides list
-        acceptedRides = new ArrayList<>();
+        // Get the repository from the application
+        rideRepository = ((RideShareApplication) requireActivity().getApplication()).getRideRepository();
 
         // Set up recycler view
         recyclerView.setLayoutManager(new LinearLayoutManager(getContext()));
-        adapter = new AcceptedRideAdapter(getContext(), acceptedRides, sessionManager.getUserId(), this);
+        adapter = new AcceptedRideAdapter(getContext(), this);
         recyclerView.setAdapter(adapter);
 
-        // Load accepted rides
-        loadAcceptedRides();
+        // The view model outlives this view and keeps its rows. It listens for accepted rides
+        // while the app is in the foreground, hidden screens included
+        viewModel = new ViewModelProvider(this).get(AcceptedRidesViewModel.class);
 
         return view;
     }
 
     /**
-     * Load accepted rides from Firebase.
+     * Show the view model's accepted rides.
+     * @param view The View returned by onCreateView
+     * @param savedInstanceState If non-null, this fragment is being re-constructed
+     * from a previous saved state as given here.
      */
-    private void loadAcceptedRides() {
-        // Show progress bar
-        progressBar.setVisibility(View.VISIBLE);
+    @Override
+    public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
+        super.onViewCreated(view, savedInstanceState);
 
-        // Load accepted rides from Firebase
-        FirebaseUtil.getAcceptedRidesForUser(sessionManager.getUserId(), new FirebaseCallback<List<AcceptedRide>>() {
-            @Override
-            public void onSuccess(List<AcceptedRide> result) {
-                // Hide progress bar
-                progressBar.setVisibility(View.GONE);
+        // Show progress bar until the first list is in
+        progressBar.setVisibility(viewModel.getRows().getValue() == null ? View.VISIBLE : View.GONE);
 
-                // Sort by date/time (soonest first)
-                Collections.sort(result, new Comparator<AcceptedRide>() {
-                    @Override
-                    public int compare(AcceptedRide o1, AcceptedRide o2) {
-                        return Long.compare(o1.getDateTime(), o2.getDateTime());
-                    }
-                });
-
-                // Update adapter
-                acceptedRides.clear();
-                acceptedRides.addAll(result);
-                adapter.notifyDataSetChanged();
-
-                // Show/hide no rides text
-                if (acceptedRides.isEmpty()) {
-                    tvNoRides.setVisibility(View.VISIBLE);
-                } else {
-                    tvNoRides.setVisibility(View.GONE);
-                }
+        viewModel.getRows().observe(getViewLifecycleOwner(), rows -> {
+            // Hide progress bar
+            progressBar.setVisibility(View.GONE);
+
+            // Update adapter (items are already sorted by date/time, soonest first)
+            adapter.submitList(rows);
+
+            // Show/hide no rides text
+            if (rows.isEmpty()) {
+                tvNoRides.setVisibility(View.VISIBLE);
+            } else {
+                tvNoRides.setVisibility(View.GONE);
             }
+        });
 
-            @Override
-            public void onError(String error) {
+        viewModel.getError().observe(getViewLifecycleOwner(), error -> {
+            if (error != null) {
                 // Hide progress bar
                 progressBar.setVisibility(View.GONE);
 
                 // Show error message
                 Toast.makeText(getContext(), error, Toast.LENGTH_SHORT).show();
+                viewModel.onErrorShown();
             }
         });
-    } // loadAcceptedRides
+    } // onViewCreated
 
     /**
      * Handle confirm button click.
      */
     @Override
     public void onConfirmClick(AcceptedRide acceptedRide) {
-        // Show progress bar
-        progressBar.setVisibility(View.VISIBLE);
-
         // Determine if the current user is the driver or rider
         boolean isDriver = sessionManager.getUserId().equals(acceptedRide.getDriverId());
 
-        // Confirm ride
-        FirebaseUtil.confirmRide(acceptedRide, isDriver, new FirebaseCallback<Boolean>() {
+        // Show the confirmation right away; only the row's status and button are rebound
+        AcceptedRide confirmed = new AcceptedRide(acceptedRide);
+        if (isDriver) {
+            confirmed.setDriverConfirmed(true);
+        } else {
+            confirmed.setRiderConfirmed(true);
+        }
+        viewModel.swapRide(acceptedRide, confirmed);
+
+        // Confirm a copy; the row shown by the adapter must not change under it
+        AcceptedRide ride = new AcceptedRide(acceptedRide);
+        rideRepository.confirmRide(ride, isDriver, new FirebaseCallback<Boolean>() {
             @Override
             public void onSuccess(Boolean result) {
-                // Hide progress bar
-                progressBar.setVisibility(View.GONE);
-
-                // If both parties have confirmed, the ride will be removed from the list
-                // So we need to reload the list
-                loadAcceptedRides();
+                // The live listener brings the server's copy, and removes the ride once it is settled
 
                 // Show success message
-                if (acceptedRide.isFullyConfirmed()) {
+                if (ride.isFullyConfirmed()) {
                     Toast.makeText(getContext(), "Ride completed and points transferred", Toast.LENGTH_SHORT).show();
                 } else {
                     Toast.makeText(getContext(), "Ride confirmed, waiting for other party to confirm", Toast.LENGTH_SHORT).show();
@@ -154,21 +150,17 @@ public class AcceptedRidesFragment extends Fragment implements AcceptedRideAdapt
 
             @Override
             public void onError(String error) {
-                // Hide progress bar
-                progressBar.setVisibility(View.GONE);
+                // Take the confirmation back only if the flag was not saved. If settling
+                // failed after it, the row stays confirmed and the live listener has the rest
+                boolean flagSaved = !ride.hasChanges()
+                        && (isDriver ? ride.isDriverConfirmed() : ride.isRiderConfirmed());
+                if (!flagSaved) {
+                    viewModel.swapRide(confirmed, acceptedRide);
+                }
 
                 // Show error message
                 Toast.makeText(getContext(), error, Toast.LENGTH_SHORT).show();
             }
         });
     } // onConfirmClick
-
-    /**
-     * Reload accepted rides when fragment resumes.
-     */
-    @Override
-    public void onResume() {
-        super.onResume();
-        loadAcceptedRides();
-    } // onResume
 } // AcceptedRidesFragment
\ No newline at end of file
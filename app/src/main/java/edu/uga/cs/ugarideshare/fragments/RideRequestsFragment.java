@@ -12,33 +12,36 @@ import android.widget.Toast;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
+import androidx.lifecycle.ViewModelProvider;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Comparator;
-import java.util.List;
-
 import edu.uga.cs.ugarideshare.R;
+import edu.uga.cs.ugarideshare.RideShareApplication;
 import edu.uga.cs.ugarideshare.UpdateRideActivity;
+import edu.uga.cs.ugarideshare.adapters.PagingScrollListener;
 import edu.uga.cs.ugarideshare.adapters.RideRequestAdapter;
-import edu.uga.cs.ugarideshare.models.AcceptedRide;
 import edu.uga.cs.ugarideshare.models.RideRequest;
+import edu.uga.cs.ugarideshare.repository.RideRepository;
+import edu.uga.cs.ugarideshare.utils.ClaimResult;
 import edu.uga.cs.ugarideshare.utils.FirebaseCallback;
-import edu.uga.cs.ugarideshare.utils.FirebaseUtil;
 import edu.uga.cs.ugarideshare.utils.SessionManager;
+import edu.uga.cs.ugarideshare.viewmodels.RideRequestsViewModel;
 
 /**
  * Fragment for displaying available ride requests.
  */
 public class RideRequestsFragment extends Fragment implements RideRequestAdapter.OnRideRequestClickListener {
+    // Rows from the end of the list at which the next page is requested
+    private static final int PREFETCH_DISTANCE = 5;
+
     private RecyclerView recyclerView;
     private RideRequestAdapter adapter;
-    private List<RideRequest> rideRequests;
     private ProgressBar progressBar;
     private TextView tvNoRequests;
     private SessionManager sessionManager;
+    private RideRepository rideRepository;
+    private RideRequestsViewModel viewModel;
 
     /**
      * Create a new instance of the fragment.
@@ -65,65 +68,67 @@ public class RideRequestsFragment extends Fragment implements RideRequestAdapter
         // Initialize session manager
         sessionManager = new SessionManager(getContext());
 
-        // Initialize ride requests list
-        rideRequests = new ArrayList<>();
+        // Get the repository from the application
+        rideRepository = ((RideShareApplication) requireActivity().getApplication()).getRideRepository();
+
+        // The view model outlives this view and keeps its rows. It listens for ride requests
+        // while the app is in the foreground, hidden screens included
+        viewModel = new ViewModelProvider(this).get(RideRequestsViewModel.class);
 
         // Set up recycler view
-        recyclerView.setLayoutManager(new LinearLayoutManager(getContext()));
-        adapter = new RideRequestAdapter(getContext(), rideRequests, sessionManager.getUserId(), this);
+        LinearLayoutManager layoutManager = new LinearLayoutManager(getContext());
+        recyclerView.setLayoutManager(layoutManager);
+        adapter = new RideRequestAdapter(getContext(), this);
         recyclerView.setAdapter(adapter);
 
-        // Load ride requests
-        loadRideRequests();
+        // Load the next page of requests as the user nears the end of the list
+        recyclerView.addOnScrollListener(new PagingScrollListener(layoutManager, PREFETCH_DISTANCE,
+                () -> viewModel.loadMore()));
 
         return view;
     } // onCreateView
 
     /**
-     * Load ride requests from Firebase.
+     * Show the view model's ride requests.
+     * @param view The View returned by onCreateView
+     * @param savedInstanceState If non-null, this fragment is being re-constructed
+     * from a previous saved state as given here.
      */
-    private void loadRideRequests() {
-        // Show progress bar
-        progressBar.setVisibility(View.VISIBLE);
-
-        // Load ride requests from Firebase
-        FirebaseUtil.getAvailableRideRequests(new FirebaseCallback<List<RideRequest>>() {
-            @Override
-            public void onSuccess(List<RideRequest> result) {
-                // Hide progress bar
-                progressBar.setVisibility(View.GONE);
-
-                // Sort by date/time (soonest first)
-                Collections.sort(result, new Comparator<RideRequest>() {
-                    @Override
-                    public int compare(RideRequest o1, RideRequest o2) {
-                        return Long.compare(o1.getDateTime(), o2.getDateTime());
+    @Override
+    public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
+        super.onViewCreated(view, savedInstanceState);
+
+        // The adapter diffs each list of rows and rebinds only what changed
+        viewModel.getRows().observe(getViewLifecycleOwner(), rows -> adapter.submitList(rows));
+
+        // Show progress bar until the initial items are in
+        viewModel.isLoaded().observe(getViewLifecycleOwner(), loaded -> {
+            progressBar.setVisibility(loaded ? View.GONE : View.VISIBLE);
+            if (loaded) {
+                // If the first page doesn't fill the screen there is nothing to scroll, so page on
+                recyclerView.post(() -> {
+                    if (!recyclerView.canScrollVertically(1)) {
+                        viewModel.loadMore();
                     }
                 });
-
-                // Update adapter
-                rideRequests.clear();
-                rideRequests.addAll(result);
-                adapter.notifyDataSetChanged();
-
-                // Show/hide no requests text
-                if (rideRequests.isEmpty()) {
-                    tvNoRequests.setVisibility(View.VISIBLE);
-                } else {
-                    tvNoRequests.setVisibility(View.GONE);
-                }
             }
+        });
 
-            @Override
-            public void onError(String error) {
+        // Show/hide no requests text once the feed has loaded
+        viewModel.isEmpty().observe(getViewLifecycleOwner(),
+                empty -> tvNoRequests.setVisibility(empty ? View.VISIBLE : View.GONE));
+
+        viewModel.getError().observe(getViewLifecycleOwner(), error -> {
+            if (error != null) {
                 // Hide progress bar
                 progressBar.setVisibility(View.GONE);
 
                 // Show error message
                 Toast.makeText(getContext(), error, Toast.LENGTH_SHORT).show();
-            } // onError
+                viewModel.onErrorShown();
+            }
         });
-    } // loadRideRequests
+    } // onViewCreated
 
     /**
      * Handle ride request accept button click.
@@ -133,24 +138,21 @@ public class RideRequestsFragment extends Fragment implements RideRequestAdapter
         // Show progress bar
         progressBar.setVisibility(View.VISIBLE);
 
-        // Accept ride request
-        FirebaseUtil.acceptRideRequest(rideRequest, sessionManager.getUserId(), sessionManager.getUserEmail(), new FirebaseCallback<AcceptedRide>() {
+        // Accept a copy; the row shown by the adapter must not change under it
+        rideRepository.acceptRideRequest(new RideRequest(rideRequest), sessionManager.getUserId(), sessionManager.getUserEmail(), new FirebaseCallback<ClaimResult>() {
             @Override
-            public void onSuccess(AcceptedRide result) {
+            public void onSuccess(ClaimResult result) {
                 // Hide progress bar
                 progressBar.setVisibility(View.GONE);
 
-                // Show success message
-                Toast.makeText(getContext(), "Ride request accepted successfully", Toast.LENGTH_SHORT).show();
-
-                // Remove accepted ride request from list
-                rideRequests.remove(rideRequest);
-                adapter.notifyDataSetChanged();
-
-                // Show/hide no requests text
-                if (rideRequests.isEmpty()) {
-                    tvNoRequests.setVisibility(View.VISIBLE);
+                // Show success message, or tell the user someone else was faster
+                if (result.isClaimed()) {
+                    Toast.makeText(getContext(), "Ride request accepted successfully", Toast.LENGTH_SHORT).show();
+                } else {
+                    Toast.makeText(getContext(), "This ride request has already been taken", Toast.LENGTH_SHORT).show();
                 }
+
+                // The feed removes the ride request from the list as soon as the change syncs
             }
 
             @Override
@@ -188,7 +190,7 @@ public class RideRequestsFragment extends Fragment implements RideRequestAdapter
         progressBar.setVisibility(View.VISIBLE);
 
         // Delete ride request
-        FirebaseUtil.deleteRideRequest(rideRequest.getId(), new FirebaseCallback<Boolean>() {
+        rideRepository.deleteRideRequest(rideRequest.getId(), new FirebaseCallback<Boolean>() {
             @Override
             public void onSuccess(Boolean result) {
                 // Hide progress bar
@@ -197,14 +199,7 @@ public class RideRequestsFragment extends Fragment implements RideRequestAdapter
                 // Show success message
                 Toast.makeText(getContext(), "Ride request deleted successfully", Toast.LENGTH_SHORT).show();
 
-                // Remove deleted ride request from list
-                rideRequests.remove(rideRequest);
-                adapter.notifyDataSetChanged();
-
-                // Show/hide no requests text
-                if (rideRequests.isEmpty()) {
-                    tvNoRequests.setVisibility(View.VISIBLE);
-                }
+                // The feed removes the ride request from the list as soon as the change syncs
             } // onSuccess
 
             @Override
@@ -217,13 +212,4 @@ public class RideRequestsFragment extends Fragment implements RideRequestAdapter
             } // onError
         });
     } // onDeleteClick
-
-    /**
-     * Reload ride requests when fragment resumes.
-     */
-    @Override
-    public void onResume() {
-        super.onResume();
-        loadRideRequests();
-    } // onResume
 } // RideRequestsFragment
\ No newline at end of file
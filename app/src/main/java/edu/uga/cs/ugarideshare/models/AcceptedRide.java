@@ -1,6 +1,12 @@
 package edu.uga.cs.ugarideshare.models;
 
-import java.util.Date;
+import com.google.firebase.database.Exclude;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import edu.uga.cs.ugarideshare.utils.RideDateFormatter;
 
 /**
  * AcceptedRide class represents a ride that has been accepted by both driver and rider.
@@ -18,6 +24,9 @@ public class AcceptedRide {
     private boolean driverConfirmed;
     private boolean riderConfirmed;
 
+    // Fields set since the ride was last read or saved
+    private final ChangeTracker changes = new ChangeTracker();
+
     /**
      * Default constructor required for Firebase
      */
@@ -59,6 +68,24 @@ public class AcceptedRide {
         this.riderConfirmed = false;
     } // AcceptedRide Constructor
 
+    /**
+     * Copy constructor. The copy has no pending changes.
+     * @param other Accepted ride to copy
+     */
+    public AcceptedRide(AcceptedRide other) {
+        this.id = other.id;
+        this.driverId = other.driverId;
+        this.riderId = other.riderId;
+        this.driverEmail = other.driverEmail;
+        this.riderEmail = other.riderEmail;
+        this.dateTime = other.dateTime;
+        this.startPoint = other.startPoint;
+        this.destination = other.destination;
+        this.points = other.points;
+        this.driverConfirmed = other.driverConfirmed;
+        this.riderConfirmed = other.riderConfirmed;
+    } // AcceptedRide Constructor
+
     // Getters and setters
 
     /**
@@ -91,6 +118,7 @@ public class AcceptedRide {
      */
     public void setDriverId(String driverId) {
         this.driverId = driverId;
+        changes.record("driverId", driverId);
     } // setDriverId
 
     /**
@@ -107,6 +135,7 @@ public class AcceptedRide {
      */
     public void setRiderId(String riderId) {
         this.riderId = riderId;
+        changes.record("riderId", riderId);
     } // setRiderId
 
     /**
@@ -123,6 +152,7 @@ public class AcceptedRide {
      */
     public void setDriverEmail(String driverEmail) {
         this.driverEmail = driverEmail;
+        changes.record("driverEmail", driverEmail);
     } // setDriverEmail
 
     /**
@@ -139,6 +169,7 @@ public class AcceptedRide {
      */
     public void setRiderEmail(String riderEmail) {
         this.riderEmail = riderEmail;
+        changes.record("riderEmail", riderEmail);
     } // setRiderEmail
 
     /**
@@ -155,6 +186,7 @@ public class AcceptedRide {
      */
     public void setDateTime(long dateTime) {
         this.dateTime = dateTime;
+        changes.record("dateTime", dateTime);
     } // setDateTime
 
     /**
@@ -171,6 +203,7 @@ public class AcceptedRide {
      */
     public void setStartPoint(String startPoint) {
         this.startPoint = startPoint;
+        changes.record("startPoint", startPoint);
     } // setStartPoint
 
     /**
@@ -187,6 +220,7 @@ public class AcceptedRide {
      */
     public void setDestination(String destination) {
         this.destination = destination;
+        changes.record("destination", destination);
     } // setDestination
 
     /**
@@ -203,6 +237,7 @@ public class AcceptedRide {
      */
     public void setPoints(int points) {
         this.points = points;
+        changes.record("points", points);
     } // setPoints
 
     /**
@@ -219,6 +254,7 @@ public class AcceptedRide {
      */
     public void setDriverConfirmed(boolean driverConfirmed) {
         this.driverConfirmed = driverConfirmed;
+        changes.record("driverConfirmed", driverConfirmed);
     } // setDriverConfirmed
 
     /**
@@ -235,6 +271,7 @@ public class AcceptedRide {
      */
     public void setRiderConfirmed(boolean riderConfirmed) {
         this.riderConfirmed = riderConfirmed;
+        changes.record("riderConfirmed", riderConfirmed);
     } // setRiderConfirmed
 
     /**
@@ -245,12 +282,80 @@ public class AcceptedRide {
         return driverConfirmed && riderConfirmed;
     }
 
+    /**
+     * Get the fields that were set since the ride was last read or saved
+     * @return Map of field names to their new values
+     */
+    @Exclude
+    public Map<String, Object> getChanges() {
+        return changes.getChanges();
+    } // getChanges
+
+    /**
+     * Check whether any field was set since the ride was last read or saved
+     * @return true if there are unsaved changes
+     */
+    public boolean hasChanges() {
+        return changes.hasChanges();
+    } // hasChanges
+
+    /**
+     * Mark the ride as in sync with the database
+     */
+    public void clearChanges() {
+        changes.clear();
+    } // clearChanges
+
+    /**
+     * Get the stored fields of the ride, as a full write would send them
+     * @return Map of field names to values, null fields left out
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new HashMap<>();
+        map.put("id", id);
+        map.put("driverId", driverId);
+        map.put("riderId", riderId);
+        map.put("driverEmail", driverEmail);
+        map.put("riderEmail", riderEmail);
+        map.put("dateTime", dateTime);
+        map.put("startPoint", startPoint);
+        map.put("destination", destination);
+        map.put("points", points);
+        map.put("driverConfirmed", driverConfirmed);
+        map.put("riderConfirmed", riderConfirmed);
+        map.values().removeIf(Objects::isNull);
+        return map;
+    } // toMap
+
+    /**
+     * Build an accepted ride from the field map of a database snapshot, without the
+     * reflection of snapshot.getValue(AcceptedRide.class)
+     * @param id Key of the snapshot
+     * @param values Field map of the snapshot
+     * @return Accepted ride with no pending changes
+     */
+    public static AcceptedRide fromMap(String id, Map<String, Object> values) {
+        AcceptedRide ride = new AcceptedRide();
+        ride.id = id;
+        ride.driverId = MapValues.string(values, "driverId");
+        ride.riderId = MapValues.string(values, "riderId");
+        ride.driverEmail = MapValues.string(values, "driverEmail");
+        ride.riderEmail = MapValues.string(values, "riderEmail");
+        ride.dateTime = MapValues.longValue(values, "dateTime");
+        ride.startPoint = MapValues.string(values, "startPoint");
+        ride.destination = MapValues.string(values, "destination");
+        ride.points = MapValues.intValue(values, "points");
+        ride.driverConfirmed = MapValues.booleanValue(values, "driverConfirmed");
+        ride.riderConfirmed = MapValues.booleanValue(values, "riderConfirmed");
+        return ride;
+    } // fromMap
+
     /**
      * Get formatted date and time string
-     * @return Formatted date and time string
+     * @return Formatted date and time string, e.g. "Friday, May 2, 2025 at 3:30 PM"
      */
     public String getFormattedDateTime() {
-        return new Date(dateTime).toString();
+        return RideDateFormatter.getInstance().format(dateTime);
     }
 
     /**
@@ -0,0 +1,46 @@
+package edu.uga.cs.ugarideshare.models;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * ChangeTracker records which fields of a model were set since it was last
+ * read from or written to the database, so only those fields need to be sent.
+ */
+final class ChangeTracker {
+    // Dirty fields and their latest values, in the order they were first set
+    private final Map<String, Object> changes = new LinkedHashMap<>();
+
+    /**
+     * Record that a field was set
+     * @param field Name of the field as stored in the database
+     * @param value New value of the field
+     */
+    void record(String field, Object value) {
+        changes.put(field, value);
+    }
+
+    /**
+     * Get the dirty fields
+     * @return Read-only map of field names to their new values
+     */
+    Map<String, Object> getChanges() {
+        return Collections.unmodifiableMap(new LinkedHashMap<>(changes));
+    }
+
+    /**
+     * Check whether any field was set
+     * @return true if there are unsaved changes
+     */
+    boolean hasChanges() {
+        return !changes.isEmpty();
+    }
+
+    /**
+     * Forget all recorded changes
+     */
+    void clear() {
+        changes.clear();
+    }
+} // ChangeTracker
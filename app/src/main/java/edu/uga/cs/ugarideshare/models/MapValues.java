@@ -0,0 +1,58 @@
+package edu.uga.cs.ugarideshare.models;
+
+import java.util.Map;
+
+/**
+ * Typed reads from the field map of a database snapshot. The database returns
+ * whole numbers as Long and fractional ones as Double, and leaves out fields
+ * that are null, so missing or mistyped fields fall back to a default instead
+ * of failing the whole record.
+ */
+final class MapValues {
+
+    private MapValues() {
+    }
+
+    /**
+     * Read a text field
+     * @param values Field map
+     * @param key Field name
+     * @return Field value, or null if missing
+     */
+    static String string(Map<String, Object> values, String key) {
+        Object value = values.get(key);
+        return value != null ? value.toString() : null;
+    }
+
+    /**
+     * Read a whole-number field
+     * @param values Field map
+     * @param key Field name
+     * @return Field value, or 0 if missing
+     */
+    static long longValue(Map<String, Object> values, String key) {
+        Object value = values.get(key);
+        return value instanceof Number ? ((Number) value).longValue() : 0L;
+    }
+
+    /**
+     * Read a whole-number field that fits in an int
+     * @param values Field map
+     * @param key Field name
+     * @return Field value, or 0 if missing
+     */
+    static int intValue(Map<String, Object> values, String key) {
+        Object value = values.get(key);
+        return value instanceof Number ? ((Number) value).intValue() : 0;
+    }
+
+    /**
+     * Read a true/false field
+     * @param values Field map
+     * @param key Field name
+     * @return Field value, or false if missing
+     */
+    static boolean booleanValue(Map<String, Object> values, String key) {
+        return Boolean.TRUE.equals(values.get(key));
+    }
+} // MapValues
@@ -1,6 +1,12 @@
 package edu.uga.cs.ugarideshare.models;
 
-import java.util.Date;
+import com.google.firebase.database.Exclude;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import edu.uga.cs.ugarideshare.utils.RideDateFormatter;
 
 /**
  * RideOffer class represents a ride offered by a driver.
@@ -13,9 +19,13 @@ public class RideOffer {
     private String startPoint;
     private String destination;
     private String status; // "available" or "accepted"
+    private String statusTime; // status and date/time, e.g. "available_001700000000000"
     private String riderId;
     private String riderEmail;
 
+    // Fields set since the ride offer was last read or saved
+    private final ChangeTracker changes = new ChangeTracker();
+
     /**
      * Default constructor required for Firebase
      */
@@ -38,6 +48,24 @@ public class RideOffer {
         this.startPoint = startPoint;
         this.destination = destination;
         this.status = "available";
+        this.statusTime = StatusTime.key(status, dateTime);
+    }
+
+    /**
+     * Copy constructor. The copy has no pending changes.
+     * @param other Ride offer to copy
+     */
+    public RideOffer(RideOffer other) {
+        this.id = other.id;
+        this.driverId = other.driverId;
+        this.driverEmail = other.driverEmail;
+        this.dateTime = other.dateTime;
+        this.startPoint = other.startPoint;
+        this.destination = other.destination;
+        this.status = other.status;
+        this.statusTime = other.statusTime;
+        this.riderId = other.riderId;
+        this.riderEmail = other.riderEmail;
     }
 
     // Getters and setters
@@ -72,6 +100,7 @@ public class RideOffer {
      */
     public void setDriverId(String driverId) {
         this.driverId = driverId;
+        changes.record("driverId", driverId);
     } // setDriverId
 
     /**
@@ -88,6 +117,7 @@ public class RideOffer {
      */
     public void setDriverEmail(String driverEmail) {
         this.driverEmail = driverEmail;
+        changes.record("driverEmail", driverEmail);
     } // setDriverEmail
 
     /**
@@ -104,6 +134,8 @@ public class RideOffer {
      */
     public void setDateTime(long dateTime) {
         this.dateTime = dateTime;
+        changes.record("dateTime", dateTime);
+        updateStatusTime();
     } // setDateTime
 
     /**
@@ -120,6 +152,7 @@ public class RideOffer {
      */
     public void setStartPoint(String startPoint) {
         this.startPoint = startPoint;
+        changes.record("startPoint", startPoint);
     } // setStartPoint
 
     /**
@@ -136,6 +169,7 @@ public class RideOffer {
      */
     public void setDestination(String destination) {
         this.destination = destination;
+        changes.record("destination", destination);
     } // setDestination
 
     /**
@@ -152,8 +186,26 @@ public class RideOffer {
      */
     public void setStatus(String status) {
         this.status = status;
+        changes.record("status", status);
+        updateStatusTime();
     } // setStatus
 
+    /**
+     * Get the composite status and date/time key of the ride
+     * @return Status and date/time key of the ride.
+     */
+    public String getStatusTime() {
+        return statusTime;
+    } // getStatusTime
+
+    /**
+     * Set the composite status and date/time key of the ride
+     * @param statusTime Status and date/time key of the ride.
+     */
+    public void setStatusTime(String statusTime) {
+        this.statusTime = statusTime;
+    } // setStatusTime
+
     /**
      * Get the ID of the rider accepting the ride
      * @return ID of the rider accepting the ride.
@@ -168,6 +220,7 @@ public class RideOffer {
      */
     public void setRiderId(String riderId) {
         this.riderId = riderId;
+        changes.record("riderId", riderId);
     } // setRiderId
 
     /**
@@ -184,6 +237,7 @@ public class RideOffer {
      */
     public void setRiderEmail(String riderEmail) {
         this.riderEmail = riderEmail;
+        changes.record("riderEmail", riderEmail);
     } // setRiderEmail
 
     /**
@@ -194,20 +248,94 @@ public class RideOffer {
      */
     public boolean acceptRide(String riderId, String riderEmail) {
         if ("available".equals(this.status)) {
-            this.riderId = riderId;
-            this.riderEmail = riderEmail;
-            this.status = "accepted";
+            setStatus("accepted");
+            setRiderId(riderId);
+            setRiderEmail(riderEmail);
             return true;
         }
         return false;
     } // acceptRide
 
+    /**
+     * Keep the statusTime key in step with the status and date/time
+     */
+    private void updateStatusTime() {
+        statusTime = status != null ? StatusTime.key(status, dateTime) : null;
+        changes.record("statusTime", statusTime);
+    } // updateStatusTime
+
+    /**
+     * Get the fields that were set since the ride offer was last read or saved
+     * @return Map of field names to their new values
+     */
+    @Exclude
+    public Map<String, Object> getChanges() {
+        return changes.getChanges();
+    } // getChanges
+
+    /**
+     * Check whether any field was set since the ride offer was last read or saved
+     * @return true if there are unsaved changes
+     */
+    public boolean hasChanges() {
+        return changes.hasChanges();
+    } // hasChanges
+
+    /**
+     * Mark the ride offer as in sync with the database
+     */
+    public void clearChanges() {
+        changes.clear();
+    } // clearChanges
+
+    /**
+     * Get the stored fields of the ride offer, as a full write would send them
+     * @return Map of field names to values, null fields left out
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new HashMap<>();
+        map.put("id", id);
+        map.put("driverId", driverId);
+        map.put("driverEmail", driverEmail);
+        map.put("dateTime", dateTime);
+        map.put("startPoint", startPoint);
+        map.put("destination", destination);
+        map.put("status", status);
+        map.put("statusTime", statusTime);
+        map.put("riderId", riderId);
+        map.put("riderEmail", riderEmail);
+        map.values().removeIf(Objects::isNull);
+        return map;
+    } // toMap
+
+    /**
+     * Build a ride offer from the field map of a database snapshot, without the
+     * reflection of snapshot.getValue(RideOffer.class)
+     * @param id Key of the snapshot
+     * @param values Field map of the snapshot
+     * @return Ride offer with no pending changes
+     */
+    public static RideOffer fromMap(String id, Map<String, Object> values) {
+        RideOffer offer = new RideOffer();
+        offer.id = id;
+        offer.driverId = MapValues.string(values, "driverId");
+        offer.driverEmail = MapValues.string(values, "driverEmail");
+        offer.dateTime = MapValues.longValue(values, "dateTime");
+        offer.startPoint = MapValues.string(values, "startPoint");
+        offer.destination = MapValues.string(values, "destination");
+        offer.status = MapValues.string(values, "status");
+        offer.statusTime = MapValues.string(values, "statusTime");
+        offer.riderId = MapValues.string(values, "riderId");
+        offer.riderEmail = MapValues.string(values, "riderEmail");
+        return offer;
+    } // fromMap
+
     /**
      * Get formatted date and time string
-     * @return Formatted date and time string
+     * @return Formatted date and time string, e.g. "Friday, May 2, 2025 at 3:30 PM"
      */
     public String getFormattedDateTime() {
-        return new Date(dateTime).toString();
+        return RideDateFormatter.getInstance().format(dateTime);
     }
 
     /**
@@ -1,6 +1,12 @@
 package edu.uga.cs.ugarideshare.models;
 
-import java.util.Date;
+import com.google.firebase.database.Exclude;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import edu.uga.cs.ugarideshare.utils.RideDateFormatter;
 
 /**
  * RideRequest class represents a ride requested by a rider.
@@ -13,9 +19,13 @@ public class RideRequest {
     private String startPoint;
     private String destination;
     private String status; // "available" or "accepted"
+    private String statusTime; // status and date/time, e.g. "available_001700000000000"
     private String driverId;
     private String driverEmail;
 
+    // Fields set since the ride request was last read or saved
+    private final ChangeTracker changes = new ChangeTracker();
+
     /**
      * Default constructor required for Firebase
      */
@@ -38,6 +48,24 @@ public class RideRequest {
         this.startPoint = startPoint;
         this.destination = destination;
         this.status = "available";
+        this.statusTime = StatusTime.key(status, dateTime);
+    } // RideRequest Constructor
+
+    /**
+     * Copy constructor. The copy has no pending changes.
+     * @param other Ride request to copy
+     */
+    public RideRequest(RideRequest other) {
+        this.id = other.id;
+        this.riderId = other.riderId;
+        this.riderEmail = other.riderEmail;
+        this.dateTime = other.dateTime;
+        this.startPoint = other.startPoint;
+        this.destination = other.destination;
+        this.status = other.status;
+        this.statusTime = other.statusTime;
+        this.driverId = other.driverId;
+        this.driverEmail = other.driverEmail;
     } // RideRequest Constructor
 
     // Getters and setters
@@ -55,6 +83,7 @@ public class RideRequest {
 
     public void setRiderId(String riderId) {
         this.riderId = riderId;
+        changes.record("riderId", riderId);
     }
 
     public String getRiderEmail() {
@@ -63,6 +92,7 @@ public class RideRequest {
 
     public void setRiderEmail(String riderEmail) {
         this.riderEmail = riderEmail;
+        changes.record("riderEmail", riderEmail);
     }
 
     public long getDateTime() {
@@ -71,6 +101,8 @@ public class RideRequest {
 
     public void setDateTime(long dateTime) {
         this.dateTime = dateTime;
+        changes.record("dateTime", dateTime);
+        updateStatusTime();
     }
 
     public String getStartPoint() {
@@ -79,6 +111,7 @@ public class RideRequest {
 
     public void setStartPoint(String startPoint) {
         this.startPoint = startPoint;
+        changes.record("startPoint", startPoint);
     }
 
     public String getDestination() {
@@ -87,6 +120,7 @@ public class RideRequest {
 
     public void setDestination(String destination) {
         this.destination = destination;
+        changes.record("destination", destination);
     }
 
     public String getStatus() {
@@ -95,6 +129,16 @@ public class RideRequest {
 
     public void setStatus(String status) {
         this.status = status;
+        changes.record("status", status);
+        updateStatusTime();
+    }
+
+    public String getStatusTime() {
+        return statusTime;
+    }
+
+    public void setStatusTime(String statusTime) {
+        this.statusTime = statusTime;
     }
 
     public String getDriverId() {
@@ -103,6 +147,7 @@ public class RideRequest {
 
     public void setDriverId(String driverId) {
         this.driverId = driverId;
+        changes.record("driverId", driverId);
     }
 
     public String getDriverEmail() {
@@ -111,6 +156,7 @@ public class RideRequest {
 
     public void setDriverEmail(String driverEmail) {
         this.driverEmail = driverEmail;
+        changes.record("driverEmail", driverEmail);
     }
 
     /**
@@ -121,20 +167,94 @@ public class RideRequest {
      */
     public boolean acceptRequest(String driverId, String driverEmail) {
         if ("available".equals(this.status)) {
-            this.driverId = driverId;
-            this.driverEmail = driverEmail;
-            this.status = "accepted";
+            setStatus("accepted");
+            setDriverId(driverId);
+            setDriverEmail(driverEmail);
             return true;
         }
         return false;
     } // acceptRequest
 
+    /**
+     * Keep the statusTime key in step with the status and date/time
+     */
+    private void updateStatusTime() {
+        statusTime = status != null ? StatusTime.key(status, dateTime) : null;
+        changes.record("statusTime", statusTime);
+    } // updateStatusTime
+
+    /**
+     * Get the fields that were set since the ride request was last read or saved
+     * @return Map of field names to their new values
+     */
+    @Exclude
+    public Map<String, Object> getChanges() {
+        return changes.getChanges();
+    } // getChanges
+
+    /**
+     * Check whether any field was set since the ride request was last read or saved
+     * @return true if there are unsaved changes
+     */
+    public boolean hasChanges() {
+        return changes.hasChanges();
+    } // hasChanges
+
+    /**
+     * Mark the ride request as in sync with the database
+     */
+    public void clearChanges() {
+        changes.clear();
+    } // clearChanges
+
+    /**
+     * Get the stored fields of the ride request, as a full write would send them
+     * @return Map of field names to values, null fields left out
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new HashMap<>();
+        map.put("id", id);
+        map.put("riderId", riderId);
+        map.put("riderEmail", riderEmail);
+        map.put("dateTime", dateTime);
+        map.put("startPoint", startPoint);
+        map.put("destination", destination);
+        map.put("status", status);
+        map.put("statusTime", statusTime);
+        map.put("driverId", driverId);
+        map.put("driverEmail", driverEmail);
+        map.values().removeIf(Objects::isNull);
+        return map;
+    } // toMap
+
+    /**
+     * Build a ride request from the field map of a database snapshot, without the
+     * reflection of snapshot.getValue(RideRequest.class)
+     * @param id Key of the snapshot
+     * @param values Field map of the snapshot
+     * @return Ride request with no pending changes
+     */
+    public static RideRequest fromMap(String id, Map<String, Object> values) {
+        RideRequest request = new RideRequest();
+        request.id = id;
+        request.riderId = MapValues.string(values, "riderId");
+        request.riderEmail = MapValues.string(values, "riderEmail");
+        request.dateTime = MapValues.longValue(values, "dateTime");
+        request.startPoint = MapValues.string(values, "startPoint");
+        request.destination = MapValues.string(values, "destination");
+        request.status = MapValues.string(values, "status");
+        request.statusTime = MapValues.string(values, "statusTime");
+        request.driverId = MapValues.string(values, "driverId");
+        request.driverEmail = MapValues.string(values, "driverEmail");
+        return request;
+    } // fromMap
+
     /**
      * Get formatted date and time string
-     * @return Formatted date and time string
+     * @return Formatted date and time string, e.g. "Friday, May 2, 2025 at 3:30 PM"
      */
     public String getFormattedDateTime() {
-        return new Date(dateTime).toString();
+        return RideDateFormatter.getInstance().format(dateTime);
     }
 
     /**
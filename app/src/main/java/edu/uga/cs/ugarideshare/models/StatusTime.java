@@ -0,0 +1,47 @@
+package edu.uga.cs.ugarideshare.models;
+
+import java.util.Locale;
+
+/**
+ * StatusTime builds the composite statusTime key stored on ride offers and requests,
+ * e.g. "available_001700000000000". Because the date/time is zero-padded, ordering
+ * by this key sorts rides by status and then by date/time, so a single range query
+ * returns the upcoming rides with a given status already in order.
+ */
+public final class StatusTime {
+    // Wide enough for any millisecond timestamp
+    private static final int TIME_DIGITS = 15;
+
+    private StatusTime() {
+    }
+
+    /**
+     * Build the key for a ride
+     * @param status Status of the ride
+     * @param dateTime Date and time of the ride (timestamp)
+     * @return Composite key
+     */
+    public static String key(String status, long dateTime) {
+        return String.format(Locale.US, "%s_%0" + TIME_DIGITS + "d", status, Math.max(0, dateTime));
+    } // key
+
+    /**
+     * Get the first key of rides with a status at or after a time
+     * @param status Status of the rides
+     * @param fromTime Earliest date and time (timestamp)
+     * @return Lower bound for startAt
+     */
+    public static String lowerBound(String status, long fromTime) {
+        return key(status, fromTime);
+    } // lowerBound
+
+    /**
+     * Get a key past every ride with a status
+     * @param status Status of the rides
+     * @return Upper bound for endAt
+     */
+    public static String upperBound(String status) {
+        // Digits sort before '~', so this is past any time
+        return status + "_~";
+    } // upperBound
+} // StatusTime
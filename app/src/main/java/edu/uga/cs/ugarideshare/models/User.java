@@ -1,5 +1,9 @@
 package edu.uga.cs.ugarideshare.models;
 
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
 /**
  * User class represents a user of the UGA RideShare app.
  * Each user has an email, password, and ride points.
@@ -28,6 +32,17 @@ public class User {
         this.ridePoints = 100; // Default starting points
     }
 
+    /**
+     * Copy constructor
+     * @param other User to copy
+     */
+    public User(User other) {
+        this.id = other.id;
+        this.email = other.email;
+        this.password = other.password;
+        this.ridePoints = other.ridePoints;
+    }
+
     // Getters and setters
     public String getId() {
         return id;
@@ -82,6 +97,36 @@ public class User {
         return false;
     }
 
+    /**
+     * Build a user from the field map of a database snapshot, without the
+     * reflection of snapshot.getValue(User.class)
+     * @param id Key of the snapshot
+     * @param values Field map of the snapshot
+     * @return User
+     */
+    public static User fromMap(String id, Map<String, Object> values) {
+        User user = new User();
+        user.id = id;
+        user.email = MapValues.string(values, "email");
+        user.password = MapValues.string(values, "password");
+        user.ridePoints = MapValues.intValue(values, "ridePoints");
+        return user;
+    } // fromMap
+
+    /**
+     * Get the stored fields of the user, as a full write would send them
+     * @return Map of field names to values, null fields left out
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new HashMap<>();
+        map.put("id", id);
+        map.put("email", email);
+        map.put("password", password);
+        map.put("ridePoints", ridePoints);
+        map.values().removeIf(Objects::isNull);
+        return map;
+    } // toMap
+
     /**
      * Convert the user object to a JSON string
      * @return JSON string representation of the user
@@ -0,0 +1,88 @@
+package edu.uga.cs.ugarideshare.repository;
+
+import java.util.List;
+
+import edu.uga.cs.ugarideshare.models.AcceptedRide;
+import edu.uga.cs.ugarideshare.models.RideOffer;
+import edu.uga.cs.ugarideshare.models.RideRequest;
+import edu.uga.cs.ugarideshare.utils.ClaimResult;
+import edu.uga.cs.ugarideshare.utils.FirebaseCallback;
+import edu.uga.cs.ugarideshare.utils.FirebaseUtil;
+import edu.uga.cs.ugarideshare.utils.RideFeed;
+import edu.uga.cs.ugarideshare.utils.SubscriptionHub;
+
+/**
+ * RideRepository backed by the Firebase Realtime Database through FirebaseUtil.
+ */
+public class FirebaseRideRepository implements RideRepository {
+
+    @Override
+    public RideFeed<RideOffer> getAvailableRideOffersFeed() {
+        return FirebaseUtil.getAvailableRideOffersFeed();
+    }
+
+    @Override
+    public RideFeed<RideRequest> getAvailableRideRequestsFeed() {
+        return FirebaseUtil.getAvailableRideRequestsFeed();
+    }
+
+    @Override
+    public SubscriptionHub.Subscription getAcceptedRidesForUser(String userId, FirebaseCallback<List<AcceptedRide>> callback) {
+        return FirebaseUtil.getAcceptedRidesForUser(userId, callback);
+    }
+
+    @Override
+    public void postRideOffer(RideOffer offer, FirebaseCallback<RideOffer> callback) {
+        FirebaseUtil.postRideOffer(offer, callback);
+    }
+
+    @Override
+    public void postRideRequest(RideRequest request, FirebaseCallback<RideRequest> callback) {
+        FirebaseUtil.postRideRequest(request, callback);
+    }
+
+    @Override
+    public void updateRideOffer(RideOffer offer, FirebaseCallback<RideOffer> callback) {
+        FirebaseUtil.updateRideOffer(offer, callback);
+    }
+
+    @Override
+    public void updateRideRequest(RideRequest request, FirebaseCallback<RideRequest> callback) {
+        FirebaseUtil.updateRideRequest(request, callback);
+    }
+
+    @Override
+    public void deleteRideOffer(String offerId, FirebaseCallback<Boolean> callback) {
+        FirebaseUtil.deleteRideOffer(offerId, callback);
+    }
+
+    @Override
+    public void deleteRideRequest(String requestId, FirebaseCallback<Boolean> callback) {
+        FirebaseUtil.deleteRideRequest(requestId, callback);
+    }
+
+    @Override
+    public void acceptRideOffer(RideOffer offer, String riderId, String riderEmail, FirebaseCallback<ClaimResult> callback) {
+        FirebaseUtil.acceptRideOffer(offer, riderId, riderEmail, callback);
+    }
+
+    @Override
+    public void acceptRideRequest(RideRequest request, String driverId, String driverEmail, FirebaseCallback<ClaimResult> callback) {
+        FirebaseUtil.acceptRideRequest(request, driverId, driverEmail, callback);
+    }
+
+    @Override
+    public void confirmRide(AcceptedRide ride, boolean isDriver, FirebaseCallback<Boolean> callback) {
+        FirebaseUtil.confirmRide(ride, isDriver, callback);
+    }
+
+    @Override
+    public void getRideOfferById(String offerId, FirebaseCallback<RideOffer> callback) {
+        FirebaseUtil.getRideOfferById(offerId, callback);
+    }
+
+    @Override
+    public void getRideRequestById(String requestId, FirebaseCallback<RideRequest> callback) {
+        FirebaseUtil.getRideRequestById(requestId, callback);
+    }
+} // FirebaseRideRepository
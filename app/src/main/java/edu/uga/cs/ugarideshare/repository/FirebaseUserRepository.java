@@ -0,0 +1,53 @@
+package edu.uga.cs.ugarideshare.repository;
+
+import edu.uga.cs.ugarideshare.models.User;
+import edu.uga.cs.ugarideshare.utils.FirebaseCallback;
+import edu.uga.cs.ugarideshare.utils.FirebaseUtil;
+import edu.uga.cs.ugarideshare.utils.PointsListener;
+
+/**
+ * UserRepository backed by Firebase Authentication and the Realtime Database
+ * through FirebaseUtil.
+ */
+public class FirebaseUserRepository implements UserRepository {
+
+    @Override
+    public void registerUser(User user, FirebaseCallback<User> callback) {
+        FirebaseUtil.registerUser(user, callback);
+    }
+
+    @Override
+    public void loginUser(String email, String password, FirebaseCallback<User> callback) {
+        FirebaseUtil.loginUser(email, password, callback);
+    }
+
+    @Override
+    public void getUserById(String userId, FirebaseCallback<User> callback) {
+        FirebaseUtil.getUserById(userId, callback);
+    }
+
+    @Override
+    public void addPointsUpdateListener(String userId, PointsListener listener) {
+        FirebaseUtil.addPointsUpdateListener(userId, listener);
+    }
+
+    @Override
+    public void removePointsUpdateListener(String userId, PointsListener listener) {
+        FirebaseUtil.removePointsUpdateListener(userId, listener);
+    }
+
+    @Override
+    public void keepUserSynced(String userId, boolean synced) {
+        FirebaseUtil.keepUserSynced(userId, synced);
+    }
+
+    @Override
+    public String getCurrentUserId() {
+        return FirebaseUtil.getCurrentUserId();
+    }
+
+    @Override
+    public void signOut() {
+        FirebaseUtil.signOut();
+    }
+} // FirebaseUserRepository
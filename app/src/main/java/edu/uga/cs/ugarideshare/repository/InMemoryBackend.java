@@ -0,0 +1,209 @@
+package edu.uga.cs.ugarideshare.repository;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import edu.uga.cs.ugarideshare.models.AcceptedRide;
+import edu.uga.cs.ugarideshare.models.RideOffer;
+import edu.uga.cs.ugarideshare.models.RideRequest;
+import edu.uga.cs.ugarideshare.models.User;
+
+/**
+ * InMemoryBackend holds the users and rides shared by the in-memory repositories.
+ * It is deterministic: IDs are issued in sequence, and every result is delivered
+ * through a Scheduler after the delay given by a Latency, so tests and benchmarks
+ * can run realistic flows on a plain JVM with simulated network round trips.
+ *
+ * Stored objects never leave the backend; callers always get copies, as they
+ * would after a round trip through the database.
+ */
+public class InMemoryBackend {
+
+    /**
+     * Simulated latency of each operation
+     */
+    public interface Latency {
+        /**
+         * No latency: results are delivered as soon as the scheduler runs them
+         */
+        Latency NONE = operation -> 0;
+
+        /**
+         * Get the delay before the result of an operation is delivered
+         * @param operation Name of the operation, e.g. "postRideOffer" or "feed"
+         * @return Delay in milliseconds
+         */
+        long millis(String operation);
+
+        /**
+         * Create a latency that is the same for every operation
+         * @param millis Delay in milliseconds
+         * @return Fixed latency
+         */
+        static Latency fixed(long millis) {
+            return operation -> millis;
+        }
+    }
+
+    /**
+     * Runs delivered results, and tells the time
+     */
+    public interface Scheduler {
+        /**
+         * Scheduler that runs every task right away on the calling thread and
+         * uses the system clock
+         */
+        Scheduler IMMEDIATE = new Scheduler() {
+            @Override
+            public void schedule(Runnable task, long delayMillis) {
+                task.run();
+            }
+
+            @Override
+            public long now() {
+                return System.currentTimeMillis();
+            }
+        };
+
+        /**
+         * Run a task after a delay
+         * @param task Task to run
+         * @param delayMillis Delay in milliseconds
+         */
+        void schedule(Runnable task, long delayMillis);
+
+        /**
+         * Get the current time
+         * @return Current time in milliseconds since the epoch
+         */
+        long now();
+    }
+
+    /**
+     * Notified after a stored object was written or removed
+     */
+    interface ChangeListener {
+        /**
+         * Called after a change, once its latency has passed
+         * @param tree Tree that changed: "users", "rideOffers", "rideRequests" or "acceptedRides"
+         * @param id ID of the object that changed
+         */
+        void onChanged(String tree, String id);
+    }
+
+    final Map<String, User> users = new LinkedHashMap<>();
+    final Map<String, String> passwords = new HashMap<>();
+    final Map<String, RideOffer> rideOffers = new LinkedHashMap<>();
+    final Map<String, RideRequest> rideRequests = new LinkedHashMap<>();
+    final Map<String, AcceptedRide> acceptedRides = new LinkedHashMap<>();
+
+    private final Scheduler scheduler;
+    private final Latency latency;
+    private final List<ChangeListener> changeListeners = new CopyOnWriteArrayList<>();
+    private long nextId;
+    private String currentUserId;
+
+    /**
+     * Constructor for a backend that delivers every result right away
+     */
+    public InMemoryBackend() {
+        this(Scheduler.IMMEDIATE, Latency.NONE);
+    }
+
+    /**
+     * Constructor
+     * @param scheduler Scheduler running delivered results
+     * @param latency Simulated latency of each operation
+     */
+    public InMemoryBackend(Scheduler scheduler, Latency latency) {
+        this.scheduler = scheduler;
+        this.latency = latency;
+    }
+
+    /**
+     * Get the scheduler running delivered results
+     * @return Scheduler
+     */
+    public Scheduler getScheduler() {
+        return scheduler;
+    }
+
+    /**
+     * Issue the next ID of a tree. IDs sort in the order they were issued.
+     * @param tree Tree the ID is for
+     * @return New ID
+     */
+    synchronized String nextId(String tree) {
+        return String.format("%s-%08d", tree, ++nextId);
+    }
+
+    /**
+     * Get the current signed-in user's ID
+     * @return User ID or null if no user is signed in
+     */
+    synchronized String getCurrentUserId() {
+        return currentUserId;
+    }
+
+    /**
+     * Set the current signed-in user
+     * @param userId User ID, or null to sign out
+     */
+    synchronized void setCurrentUserId(String userId) {
+        this.currentUserId = userId;
+    }
+
+    /**
+     * Deliver a result after the latency of an operation
+     * @param operation Name of the operation
+     * @param task Task delivering the result
+     */
+    void deliver(String operation, Runnable task) {
+        scheduler.schedule(task, latency.millis(operation));
+    }
+
+    /**
+     * Tell the change listeners that a stored object was written or removed
+     * @param tree Tree that changed
+     * @param id ID of the object that changed
+     */
+    void changed(String tree, String id) {
+        deliver("sync", () -> {
+            for (ChangeListener listener : changeListeners) {
+                listener.onChanged(tree, id);
+            }
+        });
+    }
+
+    /**
+     * Start notifying a change listener
+     * @param listener Listener to add
+     */
+    void addChangeListener(ChangeListener listener) {
+        changeListeners.add(listener);
+    }
+
+    /**
+     * Stop notifying a change listener
+     * @param listener Listener to remove
+     */
+    void removeChangeListener(ChangeListener listener) {
+        changeListeners.remove(listener);
+    }
+
+    /**
+     * Copy a user, leaving out the password like the database does
+     * @param user User to copy
+     * @return Copy of the user
+     */
+    static User copy(User user) {
+        User copy = new User();
+        copy.setId(user.getId());
+        copy.setEmail(user.getEmail());
+        copy.setRidePoints(user.getRidePoints());
+        return copy;
+    }
+} // InMemoryBackend
@@ -0,0 +1,594 @@
+package edu.uga.cs.ugarideshare.repository;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import edu.uga.cs.ugarideshare.models.AcceptedRide;
+import edu.uga.cs.ugarideshare.models.RideOffer;
+import edu.uga.cs.ugarideshare.models.RideRequest;
+import edu.uga.cs.ugarideshare.models.User;
+import edu.uga.cs.ugarideshare.utils.ClaimResult;
+import edu.uga.cs.ugarideshare.utils.FirebaseCallback;
+import edu.uga.cs.ugarideshare.utils.RideFeed;
+import edu.uga.cs.ugarideshare.utils.SubscriptionHub;
+
+/**
+ * RideRepository kept in an InMemoryBackend. Claims and settlements are atomic
+ * under the backend's lock, with the same outcomes as the Firebase transactions:
+ * exactly one of several concurrent claims wins, and a ride is only settled if
+ * the rider can pay for it.
+ */
+public class InMemoryRideRepository implements RideRepository {
+    private static final String NOT_AUTHENTICATED = "User not authenticated";
+
+    private final InMemoryBackend backend;
+    private final RideFeed<RideOffer> rideOffersFeed;
+    private final RideFeed<RideRequest> rideRequestsFeed;
+    private final SubscriptionHub<List<AcceptedRide>> acceptedRidesHub = new SubscriptionHub<>();
+
+    /**
+     * Constructor
+     * @param backend Backend holding the rides
+     */
+    public InMemoryRideRepository(InMemoryBackend backend) {
+        this.backend = backend;
+        this.rideOffersFeed = new RideFeed<>(
+                Comparator.comparingLong(RideOffer::getDateTime).thenComparing(RideOffer::getId),
+                new FeedSource<RideOffer>("rideOffers") {
+                    @Override
+                    protected RideOffer read(String id) {
+                        RideOffer offer = backend.rideOffers.get(id);
+                        return offer != null && isUpcoming(offer.getStatus(), offer.getDateTime())
+                                ? new RideOffer(offer) : null;
+                    }
+
+                    @Override
+                    protected Iterable<String> ids() {
+                        return backend.rideOffers.keySet();
+                    }
+                });
+        this.rideRequestsFeed = new RideFeed<>(
+                Comparator.comparingLong(RideRequest::getDateTime).thenComparing(RideRequest::getId),
+                new FeedSource<RideRequest>("rideRequests") {
+                    @Override
+                    protected RideRequest read(String id) {
+                        RideRequest request = backend.rideRequests.get(id);
+                        return request != null && isUpcoming(request.getStatus(), request.getDateTime())
+                                ? new RideRequest(request) : null;
+                    }
+
+                    @Override
+                    protected Iterable<String> ids() {
+                        return backend.rideRequests.keySet();
+                    }
+                });
+    }
+
+    @Override
+    public RideFeed<RideOffer> getAvailableRideOffersFeed() {
+        return rideOffersFeed;
+    }
+
+    @Override
+    public RideFeed<RideRequest> getAvailableRideRequestsFeed() {
+        return rideRequestsFeed;
+    }
+
+    @Override
+    public SubscriptionHub.Subscription getAcceptedRidesForUser(String userId, FirebaseCallback<List<AcceptedRide>> callback) {
+        if (!checkSignedIn("acceptedRides", callback)) {
+            return SubscriptionHub.EMPTY;
+        }
+        return acceptedRidesHub.subscribe(userId, () -> new AcceptedRidesSource(userId), callback);
+    }
+
+    @Override
+    public void postRideOffer(RideOffer offer, FirebaseCallback<RideOffer> callback) {
+        if (!checkSignedIn("postRideOffer", callback)) {
+            return;
+        }
+
+        synchronized (backend) {
+            offer.setId(backend.nextId("rideOffers"));
+            offer.clearChanges();
+            backend.rideOffers.put(offer.getId(), new RideOffer(offer));
+        }
+        backend.changed("rideOffers", offer.getId());
+        backend.deliver("postRideOffer", () -> callback.onSuccess(offer));
+    }
+
+    @Override
+    public void postRideRequest(RideRequest request, FirebaseCallback<RideRequest> callback) {
+        if (!checkSignedIn("postRideRequest", callback)) {
+            return;
+        }
+
+        synchronized (backend) {
+            request.setId(backend.nextId("rideRequests"));
+            request.clearChanges();
+            backend.rideRequests.put(request.getId(), new RideRequest(request));
+        }
+        backend.changed("rideRequests", request.getId());
+        backend.deliver("postRideRequest", () -> callback.onSuccess(request));
+    }
+
+    @Override
+    public void updateRideOffer(RideOffer offer, FirebaseCallback<RideOffer> callback) {
+        if (!checkSignedIn("updateRideOffer", callback)) {
+            return;
+        }
+        if (!offer.hasChanges()) {
+            backend.deliver("updateRideOffer", () -> callback.onSuccess(offer));
+            return;
+        }
+
+        boolean found;
+        synchronized (backend) {
+            RideOffer stored = backend.rideOffers.get(offer.getId());
+            found = stored != null;
+            if (found) {
+                applyChanges(stored, offer.getChanges());
+            }
+        }
+        if (!found) {
+            backend.deliver("updateRideOffer", () -> callback.onError("Ride offer not found"));
+            return;
+        }
+        offer.clearChanges();
+        backend.changed("rideOffers", offer.getId());
+        backend.deliver("updateRideOffer", () -> callback.onSuccess(offer));
+    }
+
+    @Override
+    public void updateRideRequest(RideRequest request, FirebaseCallback<RideRequest> callback) {
+        if (!checkSignedIn("updateRideRequest", callback)) {
+            return;
+        }
+        if (!request.hasChanges()) {
+            backend.deliver("updateRideRequest", () -> callback.onSuccess(request));
+            return;
+        }
+
+        boolean found;
+        synchronized (backend) {
+            RideRequest stored = backend.rideRequests.get(request.getId());
+            found = stored != null;
+            if (found) {
+                applyChanges(stored, request.getChanges());
+            }
+        }
+        if (!found) {
+            backend.deliver("updateRideRequest", () -> callback.onError("Ride request not found"));
+            return;
+        }
+        request.clearChanges();
+        backend.changed("rideRequests", request.getId());
+        backend.deliver("updateRideRequest", () -> callback.onSuccess(request));
+    }
+
+    @Override
+    public void deleteRideOffer(String offerId, FirebaseCallback<Boolean> callback) {
+        if (!checkSignedIn("deleteRideOffer", callback)) {
+            return;
+        }
+
+        synchronized (backend) {
+            backend.rideOffers.remove(offerId);
+        }
+        backend.changed("rideOffers", offerId);
+        backend.deliver("deleteRideOffer", () -> callback.onSuccess(true));
+    }
+
+    @Override
+    public void deleteRideRequest(String requestId, FirebaseCallback<Boolean> callback) {
+        if (!checkSignedIn("deleteRideRequest", callback)) {
+            return;
+        }
+
+        synchronized (backend) {
+            backend.rideRequests.remove(requestId);
+        }
+        backend.changed("rideRequests", requestId);
+        backend.deliver("deleteRideRequest", () -> callback.onSuccess(true));
+    }
+
+    @Override
+    public void acceptRideOffer(RideOffer offer, String riderId, String riderEmail, FirebaseCallback<ClaimResult> callback) {
+        if (!checkSignedIn("acceptRideOffer", callback)) {
+            return;
+        }
+
+        AcceptedRide acceptedRide = null;
+        synchronized (backend) {
+            RideOffer stored = backend.rideOffers.get(offer.getId());
+            if (stored != null && stored.acceptRide(riderId, riderEmail)) {
+                stored.clearChanges();
+                acceptedRide = saveAcceptedRide(new AcceptedRide(stored));
+            }
+        }
+        if (acceptedRide == null) {
+            backend.deliver("acceptRideOffer", () -> callback.onSuccess(ClaimResult.alreadyTaken()));
+            return;
+        }
+
+        // Keep the caller's copy in step with what was stored
+        offer.acceptRide(riderId, riderEmail);
+        offer.clearChanges();
+        backend.changed("rideOffers", offer.getId());
+        backend.changed("acceptedRides", acceptedRide.getId());
+        AcceptedRide claimed = acceptedRide;
+        backend.deliver("acceptRideOffer", () -> callback.onSuccess(ClaimResult.claimed(claimed)));
+    }
+
+    @Override
+    public void acceptRideRequest(RideRequest request, String driverId, String driverEmail, FirebaseCallback<ClaimResult> callback) {
+        if (!checkSignedIn("acceptRideRequest", callback)) {
+            return;
+        }
+
+        AcceptedRide acceptedRide = null;
+        synchronized (backend) {
+            RideRequest stored = backend.rideRequests.get(request.getId());
+            if (stored != null && stored.acceptRequest(driverId, driverEmail)) {
+                stored.clearChanges();
+                acceptedRide = saveAcceptedRide(new AcceptedRide(stored));
+            }
+        }
+        if (acceptedRide == null) {
+            backend.deliver("acceptRideRequest", () -> callback.onSuccess(ClaimResult.alreadyTaken()));
+            return;
+        }
+
+        // Keep the caller's copy in step with what was stored
+        request.acceptRequest(driverId, driverEmail);
+        request.clearChanges();
+        backend.changed("rideRequests", request.getId());
+        backend.changed("acceptedRides", acceptedRide.getId());
+        AcceptedRide claimed = acceptedRide;
+        backend.deliver("acceptRideRequest", () -> callback.onSuccess(ClaimResult.claimed(claimed)));
+    }
+
+    @Override
+    public void confirmRide(AcceptedRide ride, boolean isDriver, FirebaseCallback<Boolean> callback) {
+        if (!checkSignedIn("confirmRide", callback)) {
+            return;
+        }
+
+        if (isDriver) {
+            ride.setDriverConfirmed(true);
+        } else {
+            ride.setRiderConfirmed(true);
+        }
+
+        String error = null;
+        boolean settled = false;
+        synchronized (backend) {
+            AcceptedRide stored = backend.acceptedRides.get(ride.getId());
+            if (stored == null) {
+                error = "Accepted ride not found";
+            } else {
+                applyChanges(stored, ride.getChanges());
+                ride.clearChanges();
+                if (stored.isFullyConfirmed()) {
+                    error = settle(stored);
+                    settled = error == null;
+                }
+            }
+        }
+
+        backend.changed("acceptedRides", ride.getId());
+        if (settled) {
+            backend.changed("users", ride.getRiderId());
+            backend.changed("users", ride.getDriverId());
+        }
+        String failure = error;
+        backend.deliver("confirmRide", () -> {
+            if (failure != null) {
+                callback.onError(failure);
+            } else {
+                callback.onSuccess(true);
+            }
+        });
+    }
+
+    @Override
+    public void getRideOfferById(String offerId, FirebaseCallback<RideOffer> callback) {
+        if (!checkSignedIn("getRideOfferById", callback)) {
+            return;
+        }
+
+        RideOffer offer;
+        synchronized (backend) {
+            RideOffer stored = backend.rideOffers.get(offerId);
+            offer = stored != null ? new RideOffer(stored) : null;
+        }
+        backend.deliver("getRideOfferById", () -> {
+            if (offer != null) {
+                callback.onSuccess(offer);
+            } else {
+                callback.onError("Ride offer not found");
+            }
+        });
+    }
+
+    @Override
+    public void getRideRequestById(String requestId, FirebaseCallback<RideRequest> callback) {
+        if (!checkSignedIn("getRideRequestById", callback)) {
+            return;
+        }
+
+        RideRequest request;
+        synchronized (backend) {
+            RideRequest stored = backend.rideRequests.get(requestId);
+            request = stored != null ? new RideRequest(stored) : null;
+        }
+        backend.deliver("getRideRequestById", () -> {
+            if (request != null) {
+                callback.onSuccess(request);
+            } else {
+                callback.onError("Ride request not found");
+            }
+        });
+    }
+
+    /**
+     * Fail a call made while no user is signed in, like the database rules do.
+     * The error is delivered later, as every other answer is.
+     * @param operation Name of the operation
+     * @param callback Callback of the call
+     * @return true if a user is signed in
+     */
+    private boolean checkSignedIn(String operation, FirebaseCallback<?> callback) {
+        if (backend.getCurrentUserId() == null) {
+            backend.deliver(operation, () -> callback.onError(NOT_AUTHENTICATED));
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Check whether a ride with a status and date/time belongs in an available feed
+     * @param status Status of the ride
+     * @param dateTime Date/time of the ride
+     * @return true if the ride is available and has not taken place yet
+     */
+    private boolean isUpcoming(String status, long dateTime) {
+        return "available".equals(status) && dateTime >= backend.getScheduler().now();
+    }
+
+    /**
+     * Store a new accepted ride. Must be called holding the backend's lock.
+     * @param acceptedRide Accepted ride without an ID
+     * @return Copy of the stored ride, for the caller
+     */
+    private AcceptedRide saveAcceptedRide(AcceptedRide acceptedRide) {
+        acceptedRide.setId(backend.nextId("acceptedRides"));
+        acceptedRide.clearChanges();
+        backend.acceptedRides.put(acceptedRide.getId(), acceptedRide);
+        return new AcceptedRide(acceptedRide);
+    }
+
+    /**
+     * Move the points of a fully confirmed ride from the rider to the driver and
+     * remove the ride. Must be called holding the backend's lock.
+     * @param ride Stored accepted ride
+     * @return Error message, or null if the ride was settled
+     */
+    private String settle(AcceptedRide ride) {
+        User rider = backend.users.get(ride.getRiderId());
+        User driver = backend.users.get(ride.getDriverId());
+        if (rider == null || !rider.subtractPoints(ride.getPoints())) {
+            return "Rider does not have enough points";
+        }
+        if (driver != null) {
+            driver.addPoints(ride.getPoints());
+        }
+        backend.acceptedRides.remove(ride.getId());
+        return null;
+    }
+
+    /**
+     * Apply the pending changes of a caller's ride offer to the stored one
+     * @param stored Stored ride offer
+     * @param changes Changed fields
+     */
+    private static void applyChanges(RideOffer stored, Map<String, Object> changes) {
+        for (Map.Entry<String, Object> change : changes.entrySet()) {
+            Object value = change.getValue();
+            switch (change.getKey()) {
+                case "driverId": stored.setDriverId((String) value); break;
+                case "driverEmail": stored.setDriverEmail((String) value); break;
+                case "dateTime": stored.setDateTime((Long) value); break;
+                case "startPoint": stored.setStartPoint((String) value); break;
+                case "destination": stored.setDestination((String) value); break;
+                case "status": stored.setStatus((String) value); break;
+                case "statusTime": stored.setStatusTime((String) value); break;
+                case "riderId": stored.setRiderId((String) value); break;
+                case "riderEmail": stored.setRiderEmail((String) value); break;
+                default: break;
+            }
+        }
+        stored.clearChanges();
+    }
+
+    /**
+     * Apply the pending changes of a caller's ride request to the stored one
+     * @param stored Stored ride request
+     * @param changes Changed fields
+     */
+    private static void applyChanges(RideRequest stored, Map<String, Object> changes) {
+        for (Map.Entry<String, Object> change : changes.entrySet()) {
+            Object value = change.getValue();
+            switch (change.getKey()) {
+                case "riderId": stored.setRiderId((String) value); break;
+                case "riderEmail": stored.setRiderEmail((String) value); break;
+                case "dateTime": stored.setDateTime((Long) value); break;
+                case "startPoint": stored.setStartPoint((String) value); break;
+                case "destination": stored.setDestination((String) value); break;
+                case "status": stored.setStatus((String) value); break;
+                case "statusTime": stored.setStatusTime((String) value); break;
+                case "driverId": stored.setDriverId((String) value); break;
+                case "driverEmail": stored.setDriverEmail((String) value); break;
+                default: break;
+            }
+        }
+        stored.clearChanges();
+    }
+
+    /**
+     * Apply the pending changes of a caller's accepted ride to the stored one
+     * @param stored Stored accepted ride
+     * @param changes Changed fields
+     */
+    private static void applyChanges(AcceptedRide stored, Map<String, Object> changes) {
+        for (Map.Entry<String, Object> change : changes.entrySet()) {
+            Object value = change.getValue();
+            switch (change.getKey()) {
+                case "driverConfirmed": stored.setDriverConfirmed((Boolean) value); break;
+                case "riderConfirmed": stored.setRiderConfirmed((Boolean) value); break;
+                case "points": stored.setPoints((Integer) value); break;
+                case "dateTime": stored.setDateTime((Long) value); break;
+                case "startPoint": stored.setStartPoint((String) value); break;
+                case "destination": stored.setDestination((String) value); break;
+                default: break;
+            }
+        }
+        stored.clearChanges();
+    }
+
+    /**
+     * Feeds the upcoming available rides of a tree into a RideFeed, then keeps it
+     * up to date from the backend's change notifications.
+     * @param <T> Type of the rides
+     */
+    private abstract class FeedSource<T> implements RideFeed.Source<T>, InMemoryBackend.ChangeListener {
+        private final String tree;
+        private RideFeed<T> feed;
+
+        FeedSource(String tree) {
+            this.tree = tree;
+        }
+
+        /**
+         * Read a copy of a ride if it belongs in the feed. Called holding the backend's lock.
+         * @param id ID of the ride
+         * @return Copy of the ride, or null if it does not belong in the feed
+         */
+        protected abstract T read(String id);
+
+        /**
+         * Get the IDs of all the rides of the tree. Called holding the backend's lock.
+         * @return IDs of the rides
+         */
+        protected abstract Iterable<String> ids();
+
+        @Override
+        public void start(RideFeed<T> feed) {
+            this.feed = feed;
+            backend.addChangeListener(this);
+
+            List<String> keys = new ArrayList<>();
+            List<T> rides = new ArrayList<>();
+            synchronized (backend) {
+                for (String id : ids()) {
+                    T ride = read(id);
+                    if (ride != null) {
+                        keys.add(id);
+                        rides.add(ride);
+                    }
+                }
+            }
+            backend.deliver("feed", () -> {
+                if (this.feed != feed) {
+                    return;
+                }
+                for (int i = 0; i < rides.size(); i++) {
+                    feed.applyAdded(keys.get(i), rides.get(i));
+                }
+                feed.markLoaded();
+            });
+        }
+
+        @Override
+        public void stop() {
+            backend.removeChangeListener(this);
+            feed = null;
+        }
+
+        @Override
+        public void onChanged(String changedTree, String id) {
+            RideFeed<T> current = feed;
+            if (current == null || !tree.equals(changedTree)) {
+                return;
+            }
+
+            T ride;
+            synchronized (backend) {
+                ride = read(id);
+            }
+            if (ride != null) {
+                current.applyChanged(id, ride);
+            } else {
+                current.applyRemoved(id);
+            }
+        }
+    } // FeedSource
+
+    /**
+     * Delivers the accepted rides of a user, sorted by date/time, again after
+     * every change to the accepted rides.
+     */
+    private class AcceptedRidesSource implements SubscriptionHub.Source<List<AcceptedRide>>, InMemoryBackend.ChangeListener {
+        private final String userId;
+        private FirebaseCallback<List<AcceptedRide>> sink;
+
+        AcceptedRidesSource(String userId) {
+            this.userId = userId;
+        }
+
+        @Override
+        public void start(FirebaseCallback<List<AcceptedRide>> sink) {
+            this.sink = sink;
+            backend.addChangeListener(this);
+            List<AcceptedRide> rides = read();
+            backend.deliver("acceptedRides", () -> {
+                if (this.sink == sink) {
+                    sink.onSuccess(rides);
+                }
+            });
+        }
+
+        @Override
+        public void stop() {
+            backend.removeChangeListener(this);
+            sink = null;
+        }
+
+        @Override
+        public void onChanged(String tree, String id) {
+            FirebaseCallback<List<AcceptedRide>> current = sink;
+            if (current != null && "acceptedRides".equals(tree)) {
+                current.onSuccess(read());
+            }
+        }
+
+        /**
+         * Read copies of the user's accepted rides
+         * @return Accepted rides, soonest first
+         */
+        private List<AcceptedRide> read() {
+            List<AcceptedRide> rides = new ArrayList<>();
+            synchronized (backend) {
+                for (AcceptedRide ride : backend.acceptedRides.values()) {
+                    if (userId.equals(ride.getDriverId()) || userId.equals(ride.getRiderId())) {
+                        rides.add(new AcceptedRide(ride));
+                    }
+                }
+            }
+            rides.sort(Comparator.comparingLong(AcceptedRide::getDateTime));
+            return rides;
+        }
+    } // AcceptedRidesSource
+} // InMemoryRideRepository
@@ -0,0 +1,158 @@
+package edu.uga.cs.ugarideshare.repository;
+
+import edu.uga.cs.ugarideshare.models.User;
+import edu.uga.cs.ugarideshare.utils.FirebaseCallback;
+import edu.uga.cs.ugarideshare.utils.PointsListener;
+import edu.uga.cs.ugarideshare.utils.PointsListenerRegistry;
+import edu.uga.cs.ugarideshare.utils.SubscriptionHub;
+
+/**
+ * UserRepository kept in an InMemoryBackend. Registering or logging in signs the
+ * user in to the backend, which the in-memory ride repository checks like the
+ * database rules do.
+ */
+public class InMemoryUserRepository implements UserRepository {
+    private final InMemoryBackend backend;
+    private final PointsListenerRegistry pointsListeners;
+
+    /**
+     * Constructor
+     * @param backend Backend holding the users
+     */
+    public InMemoryUserRepository(InMemoryBackend backend) {
+        this.backend = backend;
+        this.pointsListeners = new PointsListenerRegistry(PointsSource::new);
+    }
+
+    @Override
+    public void registerUser(User user, FirebaseCallback<User> callback) {
+        boolean taken;
+        synchronized (backend) {
+            taken = backend.passwords.containsKey(user.getEmail());
+            if (!taken) {
+                user.setId(backend.nextId("users"));
+                backend.passwords.put(user.getEmail(), user.getPassword());
+                backend.users.put(user.getId(), InMemoryBackend.copy(user));
+            }
+        }
+        if (taken) {
+            backend.deliver("registerUser", () -> callback.onError("The email address is already in use by another account."));
+            return;
+        }
+
+        backend.setCurrentUserId(user.getId());
+        backend.changed("users", user.getId());
+        backend.deliver("registerUser", () -> callback.onSuccess(user));
+    }
+
+    @Override
+    public void loginUser(String email, String password, FirebaseCallback<User> callback) {
+        User user = null;
+        synchronized (backend) {
+            if (password != null && password.equals(backend.passwords.get(email))) {
+                for (User stored : backend.users.values()) {
+                    if (email.equals(stored.getEmail())) {
+                        user = InMemoryBackend.copy(stored);
+                        user.setPassword(password);
+                    }
+                }
+            }
+        }
+        if (user == null) {
+            backend.deliver("loginUser", () -> callback.onError("The email address or password is incorrect."));
+            return;
+        }
+
+        User signedIn = user;
+        backend.setCurrentUserId(signedIn.getId());
+        backend.deliver("loginUser", () -> callback.onSuccess(signedIn));
+    }
+
+    @Override
+    public void getUserById(String userId, FirebaseCallback<User> callback) {
+        if (backend.getCurrentUserId() == null) {
+            backend.deliver("getUserById", () -> callback.onError("User not authenticated"));
+            return;
+        }
+
+        User user;
+        synchronized (backend) {
+            User stored = backend.users.get(userId);
+            user = stored != null ? InMemoryBackend.copy(stored) : null;
+        }
+        backend.deliver("getUserById", () -> {
+            if (user != null) {
+                callback.onSuccess(user);
+            } else {
+                callback.onError("User not found");
+            }
+        });
+    }
+
+    @Override
+    public void addPointsUpdateListener(String userId, PointsListener listener) {
+        pointsListeners.add(userId, listener);
+    }
+
+    @Override
+    public void removePointsUpdateListener(String userId, PointsListener listener) {
+        pointsListeners.remove(userId, listener);
+    }
+
+    @Override
+    public void keepUserSynced(String userId, boolean synced) {
+        // Everything is already in memory
+    }
+
+    @Override
+    public String getCurrentUserId() {
+        return backend.getCurrentUserId();
+    }
+
+    @Override
+    public void signOut() {
+        backend.setCurrentUserId(null);
+    }
+
+    /**
+     * Delivers a user's points, then again whenever the user changes.
+     */
+    private class PointsSource implements SubscriptionHub.Source<Integer>, InMemoryBackend.ChangeListener {
+        private final String userId;
+        private FirebaseCallback<Integer> sink;
+
+        PointsSource(String userId) {
+            this.userId = userId;
+        }
+
+        @Override
+        public void start(FirebaseCallback<Integer> sink) {
+            this.sink = sink;
+            backend.addChangeListener(this);
+            backend.deliver("points", () -> onChanged("users", userId));
+        }
+
+        @Override
+        public void stop() {
+            backend.removeChangeListener(this);
+            sink = null;
+        }
+
+        @Override
+        public void onChanged(String tree, String id) {
+            FirebaseCallback<Integer> current = sink;
+            if (current == null || !"users".equals(tree) || !userId.equals(id)) {
+                return;
+            }
+
+            Integer points;
+            synchronized (backend) {
+                User user = backend.users.get(userId);
+                points = user != null ? user.getRidePoints() : null;
+            }
+            if (points != null) {
+                current.onSuccess(points);
+            }
+        }
+    } // PointsSource
+} // InMemoryUserRepository
@@ -0,0 +1,71 @@
+package edu.uga.cs.ugarideshare.repository;
+
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.database.FirebaseDatabase;
+
+/**
+ * Repositories pairs the ride and user repositories of one backend. The
+ * Application creates it once and screens get their repositories from there,
+ * so the same screens can run against Firebase, the local emulator, or memory.
+ */
+public final class Repositories {
+    private final RideRepository rides;
+    private final UserRepository users;
+
+    /**
+     * Constructor
+     * @param rides Ride repository
+     * @param users User repository
+     */
+    public Repositories(RideRepository rides, UserRepository users) {
+        this.rides = rides;
+        this.users = users;
+    }
+
+    /**
+     * Create the repositories backed by the production Firebase project
+     * @return Firebase repositories
+     */
+    public static Repositories firebase() {
+        return new Repositories(new FirebaseRideRepository(), new FirebaseUserRepository());
+    }
+
+    /**
+     * Create the repositories backed by the local Firebase emulator suite.
+     * Must be called before the database or FirebaseUtil is first used.
+     * @param host Host running the emulators (10.0.2.2 from the Android emulator)
+     * @param databasePort Port of the database emulator
+     * @param authPort Port of the auth emulator
+     * @return Emulator repositories
+     */
+    public static Repositories emulator(String host, int databasePort, int authPort) {
+        FirebaseDatabase.getInstance().useEmulator(host, databasePort);
+        FirebaseAuth.getInstance().useEmulator(host, authPort);
+        return firebase();
+    }
+
+    /**
+     * Create the repositories backed by memory
+     * @param backend Backend holding the users and rides
+     * @return In-memory repositories
+     */
+    public static Repositories inMemory(InMemoryBackend backend) {
+        return new Repositories(new InMemoryRideRepository(backend), new InMemoryUserRepository(backend));
+    }
+
+    /**
+     * Get the ride repository
+     * @return Ride repository
+     */
+    public RideRepository getRides() {
+        return rides;
+    }
+
+    /**
+     * Get the user repository
+     * @return User repository
+     */
+    public UserRepository getUsers() {
+        return users;
+    }
+} // Repositories
@@ -0,0 +1,232 @@
+package edu.uga.cs.ugarideshare.repository;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import edu.uga.cs.ugarideshare.models.AcceptedRide;
+import edu.uga.cs.ugarideshare.models.RideOffer;
+import edu.uga.cs.ugarideshare.models.RideRequest;
+import edu.uga.cs.ugarideshare.utils.ClaimResult;
+import edu.uga.cs.ugarideshare.utils.FirebaseCallback;
+import edu.uga.cs.ugarideshare.utils.Futures;
+import edu.uga.cs.ugarideshare.utils.RideFeed;
+import edu.uga.cs.ugarideshare.utils.SubscriptionHub;
+
+/**
+ * RideRepository is the set of ride operations the screens use, independent of
+ * where the rides are stored. One-shot operations also come as future-returning
+ * variants, for flows that combine several of them.
+ */
+public interface RideRepository {
+    /**
+     * Get the live feed of upcoming available ride offers
+     * @return Feed of ride offers
+     */
+    RideFeed<RideOffer> getAvailableRideOffersFeed();
+
+    /**
+     * Get the live feed of upcoming available ride requests
+     * @return Feed of ride requests
+     */
+    RideFeed<RideRequest> getAvailableRideRequestsFeed();
+
+    /**
+     * Subscribe to the accepted rides of a user, sorted by date/time (soonest first)
+     * @param userId User ID
+     * @param callback Callback receiving every new list
+     * @return Subscription used to stop receiving updates
+     */
+    SubscriptionHub.Subscription getAcceptedRidesForUser(String userId, FirebaseCallback<List<AcceptedRide>> callback);
+
+    /**
+     * Post a new ride offer
+     * @param offer Ride offer object
+     * @param callback Callback receiving the offer with its ID set
+     */
+    void postRideOffer(RideOffer offer, FirebaseCallback<RideOffer> callback);
+
+    /**
+     * Post a new ride request
+     * @param request Ride request object
+     * @param callback Callback receiving the request with its ID set
+     */
+    void postRideRequest(RideRequest request, FirebaseCallback<RideRequest> callback);
+
+    /**
+     * Update an existing ride offer
+     * @param offer Updated ride offer object
+     * @param callback Callback interface to handle success or failure
+     */
+    void updateRideOffer(RideOffer offer, FirebaseCallback<RideOffer> callback);
+
+    /**
+     * Update an existing ride request
+     * @param request Updated ride request object
+     * @param callback Callback interface to handle success or failure
+     */
+    void updateRideRequest(RideRequest request, FirebaseCallback<RideRequest> callback);
+
+    /**
+     * Delete a ride offer
+     * @param offerId ID of the ride offer to delete
+     * @param callback Callback interface to handle success or failure
+     */
+    void deleteRideOffer(String offerId, FirebaseCallback<Boolean> callback);
+
+    /**
+     * Delete a ride request
+     * @param requestId ID of the ride request to delete
+     * @param callback Callback interface to handle success or failure
+     */
+    void deleteRideRequest(String requestId, FirebaseCallback<Boolean> callback);
+
+    /**
+     * Accept a ride offer (as a rider)
+     * @param offer Ride offer to accept
+     * @param riderId ID of the rider accepting the offer
+     * @param riderEmail Email of the rider accepting the offer
+     * @param callback Callback receiving the claim result
+     */
+    void acceptRideOffer(RideOffer offer, String riderId, String riderEmail, FirebaseCallback<ClaimResult> callback);
+
+    /**
+     * Accept a ride request (as a driver)
+     * @param request Ride request to accept
+     * @param driverId ID of the driver accepting the request
+     * @param driverEmail Email of the driver accepting the request
+     * @param callback Callback receiving the claim result
+     */
+    void acceptRideRequest(RideRequest request, String driverId, String driverEmail, FirebaseCallback<ClaimResult> callback);
+
+    /**
+     * Confirm a ride took place; points move once both parties confirmed.
+     * The ride's changes are cleared once the confirmation flag is written, so after
+     * an error a ride with no changes left had its flag saved and only the points
+     * transfer failed.
+     * @param ride Accepted ride to confirm
+     * @param isDriver Whether the confirmation is coming from the driver
+     * @param callback Callback interface to handle success or failure
+     */
+    void confirmRide(AcceptedRide ride, boolean isDriver, FirebaseCallback<Boolean> callback);
+
+    /**
+     * Get a ride offer by ID
+     * @param offerId ID of the ride offer
+     * @param callback Callback receiving the ride offer
+     */
+    void getRideOfferById(String offerId, FirebaseCallback<RideOffer> callback);
+
+    /**
+     * Get a ride request by ID
+     * @param requestId ID of the ride request
+     * @param callback Callback receiving the ride request
+     */
+    void getRideRequestById(String requestId, FirebaseCallback<RideRequest> callback);
+
+    /**
+     * Post a new ride offer
+     * @param offer Ride offer object
+     * @return Future of the offer with its ID set
+     */
+    default CompletableFuture<RideOffer> postRideOffer(RideOffer offer) {
+        return Futures.call(callback -> postRideOffer(offer, callback));
+    }
+
+    /**
+     * Post a new ride request
+     * @param request Ride request object
+     * @return Future of the request with its ID set
+     */
+    default CompletableFuture<RideRequest> postRideRequest(RideRequest request) {
+        return Futures.call(callback -> postRideRequest(request, callback));
+    }
+
+    /**
+     * Update an existing ride offer
+     * @param offer Updated ride offer object
+     * @return Future of the updated offer
+     */
+    default CompletableFuture<RideOffer> updateRideOffer(RideOffer offer) {
+        return Futures.call(callback -> updateRideOffer(offer, callback));
+    }
+
+    /**
+     * Update an existing ride request
+     * @param request Updated ride request object
+     * @return Future of the updated request
+     */
+    default CompletableFuture<RideRequest> updateRideRequest(RideRequest request) {
+        return Futures.call(callback -> updateRideRequest(request, callback));
+    }
+
+    /**
+     * Delete a ride offer
+     * @param offerId ID of the ride offer to delete
+     * @return Future completed once the offer is deleted
+     */
+    default CompletableFuture<Boolean> deleteRideOffer(String offerId) {
+        return Futures.call(callback -> deleteRideOffer(offerId, callback));
+    }
+
+    /**
+     * Delete a ride request
+     * @param requestId ID of the ride request to delete
+     * @return Future completed once the request is deleted
+     */
+    default CompletableFuture<Boolean> deleteRideRequest(String requestId) {
+        return Futures.call(callback -> deleteRideRequest(requestId, callback));
+    }
+
+    /**
+     * Accept a ride offer (as a rider)
+     * @param offer Ride offer to accept
+     * @param riderId ID of the rider accepting the offer
+     * @param riderEmail Email of the rider accepting the offer
+     * @return Future of the claim result
+     */
+    default CompletableFuture<ClaimResult> acceptRideOffer(RideOffer offer, String riderId, String riderEmail) {
+        return Futures.call(callback -> acceptRideOffer(offer, riderId, riderEmail, callback));
+    }
+
+    /**
+     * Accept a ride request (as a driver)
+     * @param request Ride request to accept
+     * @param driverId ID of the driver accepting the request
+     * @param driverEmail Email of the driver accepting the request
+     * @return Future of the claim result
+     */
+    default CompletableFuture<ClaimResult> acceptRideRequest(RideRequest request, String driverId, String driverEmail) {
+        return Futures.call(callback -> acceptRideRequest(request, driverId, driverEmail, callback));
+    }
+
+    /**
+     * Confirm a ride took place; points move once both parties confirmed.
+     * The ride's changes are cleared once the confirmation flag is written, so after
+     * an error a ride with no changes left had its flag saved and only the points
+     * transfer failed.
+     * @param ride Accepted ride to confirm
+     * @param isDriver Whether the confirmation is coming from the driver
+     * @return Future completed once the confirmation is saved
+     */
+    default CompletableFuture<Boolean> confirmRide(AcceptedRide ride, boolean isDriver) {
+        return Futures.call(callback -> confirmRide(ride, isDriver, callback));
+    }
+
+    /**
+     * Get a ride offer by ID
+     * @param offerId ID of the ride offer
+     * @return Future of the ride offer
+     */
+    default CompletableFuture<RideOffer> getRideOfferById(String offerId) {
+        return Futures.call(callback -> getRideOfferById(offerId, callback));
+    }
+
+    /**
+     * Get a ride request by ID
+     * @param requestId ID of the ride request
+     * @return Future of the ride request
+     */
+    default CompletableFuture<RideRequest> getRideRequestById(String requestId) {
+        return Futures.call(callback -> getRideRequestById(requestId, callback));
+    }
+}
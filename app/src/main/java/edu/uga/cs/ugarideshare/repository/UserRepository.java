@@ -0,0 +1,97 @@
+package edu.uga.cs.ugarideshare.repository;
+
+import java.util.concurrent.CompletableFuture;
+
+import edu.uga.cs.ugarideshare.models.User;
+import edu.uga.cs.ugarideshare.utils.FirebaseCallback;
+import edu.uga.cs.ugarideshare.utils.Futures;
+import edu.uga.cs.ugarideshare.utils.PointsListener;
+
+/**
+ * UserRepository is the set of account and points operations the screens use,
+ * independent of where the users are stored. One-shot operations also come as
+ * future-returning variants.
+ */
+public interface UserRepository {
+    /**
+     * Register a new user
+     * @param user User object with email and password
+     * @param callback Callback receiving the user with its ID set
+     */
+    void registerUser(User user, FirebaseCallback<User> callback);
+
+    /**
+     * Login a user with email and password
+     * @param email User email
+     * @param password User password
+     * @param callback Callback receiving the user
+     */
+    void loginUser(String email, String password, FirebaseCallback<User> callback);
+
+    /**
+     * Get a user by ID
+     * @param userId User ID
+     * @param callback Callback receiving the user
+     */
+    void getUserById(String userId, FirebaseCallback<User> callback);
+
+    /**
+     * Add a listener to be notified when a user's points change
+     * @param userId ID of the user
+     * @param listener Listener to be notified
+     */
+    void addPointsUpdateListener(String userId, PointsListener listener);
+
+    /**
+     * Remove a points update listener
+     * @param userId ID of the user
+     * @param listener Listener to remove
+     */
+    void removePointsUpdateListener(String userId, PointsListener listener);
+
+    /**
+     * Keep a user's data available offline, or stop doing so
+     * @param userId ID of the user
+     * @param synced true to keep the data synced, false to stop
+     */
+    void keepUserSynced(String userId, boolean synced);
+
+    /**
+     * Get the current signed-in user's ID
+     * @return User ID or null if no user is signed in
+     */
+    String getCurrentUserId();
+
+    /**
+     * Sign out the current user
+     */
+    void signOut();
+
+    /**
+     * Register a new user
+     * @param user User object with email and password
+     * @return Future of the user with its ID set
+     */
+    default CompletableFuture<User> registerUser(User user) {
+        return Futures.call(callback -> registerUser(user, callback));
+    }
+
+    /**
+     * Login a user with email and password
+     * @param email User email
+     * @param password User password
+     * @return Future of the user
+     */
+    default CompletableFuture<User> loginUser(String email, String password) {
+        return Futures.call(callback -> loginUser(email, password, callback));
+    }
+
+    /**
+     * Get a user by ID
+     * @param userId User ID
+     * @return Future of the user
+     */
+    default CompletableFuture<User> getUserById(String userId) {
+        return Futures.call(callback -> getUserById(userId, callback));
+    }
+}
@@ -0,0 +1,110 @@
+package edu.uga.cs.ugarideshare.repository;
+
+import java.util.PriorityQueue;
+
+/**
+ * Scheduler with a virtual clock. Tasks only run when the clock is advanced, in
+ * order of their due time and then of scheduling, so flows with simulated latency
+ * are repeatable and take no wall-clock time.
+ */
+public class VirtualTimeScheduler implements InMemoryBackend.Scheduler {
+
+    /**
+     * Task waiting for its due time
+     */
+    private static class Pending implements Comparable<Pending> {
+        final long dueTime;
+        final long sequence;
+        final Runnable task;
+
+        Pending(long dueTime, long sequence, Runnable task) {
+            this.dueTime = dueTime;
+            this.sequence = sequence;
+            this.task = task;
+        }
+
+        @Override
+        public int compareTo(Pending other) {
+            int byTime = Long.compare(dueTime, other.dueTime);
+            return byTime != 0 ? byTime : Long.compare(sequence, other.sequence);
+        }
+    }
+
+    private final PriorityQueue<Pending> queue = new PriorityQueue<>();
+    private long now;
+    private long sequence;
+
+    /**
+     * Constructor
+     * @param startTime Initial time of the virtual clock, in milliseconds since the epoch
+     */
+    public VirtualTimeScheduler(long startTime) {
+        this.now = startTime;
+    }
+
+    @Override
+    public synchronized void schedule(Runnable task, long delayMillis) {
+        queue.add(new Pending(now + Math.max(0, delayMillis), sequence++, task));
+    }
+
+    @Override
+    public synchronized long now() {
+        return now;
+    }
+
+    /**
+     * Move the clock forward, running every task that falls due on the way,
+     * including tasks scheduled by those tasks
+     * @param millis Time to move forward by
+     * @return Number of tasks run
+     */
+    public int advance(long millis) {
+        long target;
+        synchronized (this) {
+            target = now + millis;
+        }
+        return runUntil(target);
+    }
+
+    /**
+     * Run tasks until none are left, moving the clock to each one's due time
+     * @return Number of tasks run
+     */
+    public int runAll() {
+        return runUntil(Long.MAX_VALUE);
+    }
+
+    /**
+     * Get the number of tasks waiting to run
+     * @return Number of pending tasks
+     */
+    public synchronized int getPendingCount() {
+        return queue.size();
+    }
+
+    /**
+     * Run the tasks due up to a time. Tasks run outside the lock so they can
+     * schedule more work.
+     * @param target Time to stop at
+     * @return Number of tasks run
+     */
+    private int runUntil(long target) {
+        int ran = 0;
+        while (true) {
+            Pending next;
+            synchronized (this) {
+                next = queue.peek();
+                if (next == null || next.dueTime > target) {
+                    if (target != Long.MAX_VALUE) {
+                        now = Math.max(now, target);
+                    }
+                    return ran;
+                }
+                queue.poll();
+                now = Math.max(now, next.dueTime);
+            }
+            next.task.run();
+            ran++;
+        }
+    }
+} // VirtualTimeScheduler
@@ -0,0 +1,190 @@
+package edu.uga.cs.ugarideshare.utils;
+
+/**
+ * CircuitBreaker stops sending requests to a backend that keeps failing. After a
+ * number of consecutive transient failures it opens and requests fail fast for a
+ * cool-down period. Then a single probe request is let through: if it succeeds
+ * the breaker closes again, if it fails the breaker stays open for another period.
+ *
+ * Answers that are errors but still come from a healthy backend, such as "not
+ * found", count as successes.
+ */
+public class CircuitBreaker {
+
+    /**
+     * State of the breaker
+     */
+    public enum State {
+        // Requests flow normally
+        CLOSED,
+        // Requests fail fast
+        OPEN,
+        // One probe request is deciding whether to close again
+        HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openMillis;
+    private final EntityCache.Clock clock;
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private long probeStartedAt;
+    private boolean probing;
+    private long successes;
+    private long failures;
+    private long rejections;
+    private long openings;
+
+    /**
+     * Constructor
+     * @param failureThreshold Consecutive failures that open the breaker
+     * @param openMillis Time the breaker stays open before probing, in milliseconds
+     */
+    public CircuitBreaker(int failureThreshold, long openMillis) {
+        this(failureThreshold, openMillis, EntityCache.Clock.SYSTEM);
+    }
+
+    /**
+     * Constructor
+     * @param failureThreshold Consecutive failures that open the breaker
+     * @param openMillis Time the breaker stays open before probing, in milliseconds
+     * @param clock Source of the current time
+     */
+    public CircuitBreaker(int failureThreshold, long openMillis, EntityCache.Clock clock) {
+        if (failureThreshold < 1) {
+            throw new IllegalArgumentException("failureThreshold must be at least 1");
+        }
+        this.failureThreshold = failureThreshold;
+        this.openMillis = openMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * Check whether a request may go out. Every allowed request must be followed by
+     * recordSuccess() or recordFailure().
+     * @return true if the request may go out, false if it should fail fast
+     */
+    public synchronized boolean allowRequest() {
+        long now = clock.now();
+        switch (state) {
+            case OPEN:
+                if (now - openedAt < openMillis) {
+                    rejections++;
+                    return false;
+                }
+                state = State.HALF_OPEN;
+                return startProbe(now);
+            case HALF_OPEN:
+                // A probe that never answered doesn't keep the breaker stuck
+                if (probing && now - probeStartedAt < openMillis) {
+                    rejections++;
+                    return false;
+                }
+                return startProbe(now);
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * Record a request that reached a healthy backend
+     */
+    public synchronized void recordSuccess() {
+        successes++;
+        consecutiveFailures = 0;
+        probing = false;
+        state = State.CLOSED;
+    }
+
+    /**
+     * Record a request that failed because the backend is unreachable or unhealthy
+     */
+    public synchronized void recordFailure() {
+        failures++;
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            if (state != State.OPEN) {
+                openings++;
+            }
+            state = State.OPEN;
+            openedAt = clock.now();
+            probing = false;
+        }
+    }
+
+    /**
+     * Let one probe request through
+     * @param now Current time
+     * @return Always true
+     */
+    private boolean startProbe(long now) {
+        probing = true;
+        probeStartedAt = now;
+        return true;
+    }
+
+    /**
+     * Get the state of the breaker
+     * @return Current state
+     */
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * Get the number of consecutive failures
+     * @return Failures since the last success
+     */
+    public synchronized int getConsecutiveFailures() {
+        return consecutiveFailures;
+    }
+
+    /**
+     * Get the number of requests that reached a healthy backend
+     * @return Number of successes
+     */
+    public synchronized long getSuccessCount() {
+        return successes;
+    }
+
+    /**
+     * Get the number of transient failures
+     * @return Number of failures
+     */
+    public synchronized long getFailureCount() {
+        return failures;
+    }
+
+    /**
+     * Get the number of requests failed fast while the breaker was open
+     * @return Number of rejected requests
+     */
+    public synchronized long getRejectedCount() {
+        return rejections;
+    }
+
+    /**
+     * Get the number of times the breaker opened
+     * @return Number of openings
+     */
+    public synchronized long getOpenCount() {
+        return openings;
+    }
+
+    /**
+     * Reset the counters, keeping the state
+     */
+    public synchronized void resetStats() {
+        successes = 0;
+        failures = 0;
+        rejections = 0;
+        openings = 0;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("%s, %d successes, %d failures, %d rejected, opened %d times",
+                state, successes, failures, rejections, openings);
+    }
+} // CircuitBreaker
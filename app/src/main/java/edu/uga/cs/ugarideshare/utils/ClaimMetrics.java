@@ -0,0 +1,122 @@
+package edu.uga.cs.ugarideshare.utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * ClaimMetrics counts how ride claims resolve so we can see how contended popular
+ * rides get. Transactions run on a Firebase worker thread, so all counters are atomic.
+ */
+public class ClaimMetrics {
+    private final AtomicLong attempts = new AtomicLong();
+    private final AtomicLong claimed = new AtomicLong();
+    private final AtomicLong alreadyTaken = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong maxRetries = new AtomicLong();
+
+    /**
+     * Record that a claim was started
+     */
+    public void recordAttempt() {
+        attempts.incrementAndGet();
+    }
+
+    /**
+     * Record how a finished claim resolved
+     * @param status Outcome of the claim, or null if it failed with an error
+     * @param runs Number of times the transaction function ran for this claim
+     */
+    public void recordOutcome(ClaimResult.Status status, int runs) {
+        if (status == ClaimResult.Status.CLAIMED) {
+            claimed.incrementAndGet();
+        } else if (status == ClaimResult.Status.ALREADY_TAKEN) {
+            alreadyTaken.incrementAndGet();
+        } else {
+            errors.incrementAndGet();
+        }
+
+        // The first run is expected; every further run was a conflict with another writer
+        int claimRetries = Math.max(0, runs - 1);
+        retries.addAndGet(claimRetries);
+        long max = maxRetries.get();
+        while (claimRetries > max && !maxRetries.compareAndSet(max, claimRetries)) {
+            max = maxRetries.get();
+        }
+    }
+
+    /**
+     * Get the number of claims started
+     * @return Number of attempts
+     */
+    public long getAttempts() {
+        return attempts.get();
+    }
+
+    /**
+     * Get the number of claims that won their ride
+     * @return Number of successful claims
+     */
+    public long getClaimed() {
+        return claimed.get();
+    }
+
+    /**
+     * Get the number of claims aborted because the ride was already taken
+     * @return Number of aborted claims
+     */
+    public long getAlreadyTaken() {
+        return alreadyTaken.get();
+    }
+
+    /**
+     * Get the number of claims that failed with an error
+     * @return Number of failed claims
+     */
+    public long getErrors() {
+        return errors.get();
+    }
+
+    /**
+     * Get the total number of transaction retries caused by concurrent writers
+     * @return Number of retries
+     */
+    public long getRetries() {
+        return retries.get();
+    }
+
+    /**
+     * Get the largest number of retries a single claim needed
+     * @return Maximum retries for one claim
+     */
+    public long getMaxRetries() {
+        return maxRetries.get();
+    }
+
+    /**
+     * Reset all counters
+     */
+    public void reset() {
+        attempts.set(0);
+        claimed.set(0);
+        alreadyTaken.set(0);
+        errors.set(0);
+        retries.set(0);
+        maxRetries.set(0);
+    }
+
+    /**
+     * Get a summary of the counters
+     * @return String representation of the metrics
+     */
+    @Override
+    public String toString() {
+        return "ClaimMetrics{" +
+                "attempts=" + attempts.get() +
+                ", claimed=" + claimed.get() +
+                ", alreadyTaken=" + alreadyTaken.get() +
+                ", errors=" + errors.get() +
+                ", retries=" + retries.get() +
+                ", maxRetries=" + maxRetries.get() +
+                '}';
+    } // toString
+} // ClaimMetrics
@@ -0,0 +1,67 @@
+package edu.uga.cs.ugarideshare.utils;
+
+import edu.uga.cs.ugarideshare.models.AcceptedRide;
+
+/**
+ * ClaimResult is the outcome of trying to accept a ride offer or request.
+ * Losing a race to another user is a normal outcome, not an error.
+ */
+public class ClaimResult {
+
+    /**
+     * Possible outcomes of a claim
+     */
+    public enum Status {
+        CLAIMED,
+        ALREADY_TAKEN
+    }
+
+    private final Status status;
+    private final AcceptedRide acceptedRide;
+
+    private ClaimResult(Status status, AcceptedRide acceptedRide) {
+        this.status = status;
+        this.acceptedRide = acceptedRide;
+    }
+
+    /**
+     * Create a result for a claim that won
+     * @param acceptedRide The accepted ride that was created
+     * @return Claimed result
+     */
+    public static ClaimResult claimed(AcceptedRide acceptedRide) {
+        return new ClaimResult(Status.CLAIMED, acceptedRide);
+    }
+
+    /**
+     * Create a result for a ride that someone else already took (or that was deleted)
+     * @return Already taken result
+     */
+    public static ClaimResult alreadyTaken() {
+        return new ClaimResult(Status.ALREADY_TAKEN, null);
+    }
+
+    /**
+     * Get the outcome of the claim
+     * @return Claim status
+     */
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * Check whether this user won the ride
+     * @return true if the ride was claimed
+     */
+    public boolean isClaimed() {
+        return status == Status.CLAIMED;
+    }
+
+    /**
+     * Get the accepted ride created by a winning claim
+     * @return Accepted ride, or null if the ride was already taken
+     */
+    public AcceptedRide getAcceptedRide() {
+        return acceptedRide;
+    }
+} // ClaimResult
@@ -0,0 +1,244 @@
+package edu.uga.cs.ugarideshare.utils;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * EntityCache keeps recently read entities by ID so repeated lookups within a
+ * freshness window are answered locally instead of going back to the database.
+ * Entries expire after a fixed time to live, the least recently used entry is
+ * evicted once the cache is full, and live listeners invalidate entries as soon
+ * as they see the entity change.
+ *
+ * Values are copied on the way in and out, so callers can edit what they get
+ * without touching the cached entity.
+ * @param <V> Type of the cached entities
+ */
+public class EntityCache<V> {
+
+    /**
+     * Copies cached entities
+     * @param <V> Type of the cached entities
+     */
+    public interface Copier<V> {
+        /**
+         * Copy an entity
+         * @param value Entity to copy
+         * @return Independent copy
+         */
+        V copy(V value);
+    }
+
+    /**
+     * Source of the current time
+     */
+    public interface Clock {
+        Clock SYSTEM = System::currentTimeMillis;
+
+        /**
+         * Get the current time
+         * @return Current time in milliseconds
+         */
+        long now();
+    }
+
+    /**
+     * Cached entity with the time it was stored
+     */
+    private static class Entry<V> {
+        final V value;
+        final long storedAt;
+
+        Entry(V value, long storedAt) {
+            this.value = value;
+            this.storedAt = storedAt;
+        }
+    }
+
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final Copier<V> copier;
+    private final Clock clock;
+    // Access-ordered, so the eldest entry is the least recently used
+    private final LinkedHashMap<String, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long expirations;
+    private long invalidations;
+
+    /**
+     * Constructor
+     * @param maxEntries Maximum number of entries kept
+     * @param ttlMillis Time an entry stays fresh, in milliseconds
+     * @param copier Copies entities going in and out of the cache
+     */
+    public EntityCache(int maxEntries, long ttlMillis, Copier<V> copier) {
+        this(maxEntries, ttlMillis, copier, Clock.SYSTEM);
+    }
+
+    /**
+     * Constructor
+     * @param maxEntries Maximum number of entries kept
+     * @param ttlMillis Time an entry stays fresh, in milliseconds
+     * @param copier Copies entities going in and out of the cache
+     * @param clock Source of the current time
+     */
+    public EntityCache(int maxEntries, long ttlMillis, Copier<V> copier, Clock clock) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("maxEntries must be at least 1");
+        }
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlMillis;
+        this.copier = copier;
+        this.clock = clock;
+    }
+
+    /**
+     * Get a fresh copy of a cached entity
+     * @param id ID of the entity
+     * @return Copy of the entity, or null if it is not cached or has expired
+     */
+    public synchronized V get(String id) {
+        Entry<V> entry = entries.get(id);
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        if (clock.now() - entry.storedAt >= ttlMillis) {
+            entries.remove(id);
+            expirations++;
+            misses++;
+            return null;
+        }
+
+        hits++;
+        return copier.copy(entry.value);
+    }
+
+    /**
+     * Cache an entity that was just read or written
+     * @param id ID of the entity
+     * @param value Entity to cache
+     */
+    public synchronized void put(String id, V value) {
+        if (id == null || value == null) {
+            return;
+        }
+
+        entries.put(id, new Entry<>(copier.copy(value), clock.now()));
+        Iterator<Map.Entry<String, Entry<V>>> eldest = entries.entrySet().iterator();
+        while (entries.size() > maxEntries && eldest.hasNext()) {
+            eldest.next();
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    /**
+     * Drop an entity that changed or was removed
+     * @param id ID of the entity
+     */
+    public synchronized void invalidate(String id) {
+        if (id != null && entries.remove(id) != null) {
+            invalidations++;
+        }
+    }
+
+    /**
+     * Drop an entity if it no longer matches what a live listener saw
+     * @param id ID of the entity
+     * @param stale Tells whether the cached entity is out of date
+     */
+    public synchronized void invalidateIf(String id, Predicate<V> stale) {
+        Entry<V> entry = entries.get(id);
+        if (entry != null && stale.test(entry.value)) {
+            entries.remove(id);
+            invalidations++;
+        }
+    }
+
+    /**
+     * Drop every entity, e.g. when the user signs out
+     */
+    public synchronized void invalidateAll() {
+        invalidations += entries.size();
+        entries.clear();
+    }
+
+    /**
+     * Get the number of entries currently cached, fresh or not
+     * @return Number of entries
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Get the number of lookups answered from the cache
+     * @return Number of hits
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * Get the number of lookups that had to go to the database
+     * @return Number of misses, including expired entries
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Get the number of entries dropped to make room for newer ones
+     * @return Number of evictions
+     */
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * Get the number of entries found expired on lookup
+     * @return Number of expirations
+     */
+    public synchronized long getExpirations() {
+        return expirations;
+    }
+
+    /**
+     * Get the number of entries dropped because the entity changed
+     * @return Number of invalidations
+     */
+    public synchronized long getInvalidations() {
+        return invalidations;
+    }
+
+    /**
+     * Get the fraction of lookups answered from the cache
+     * @return Hit rate between 0 and 1
+     */
+    public synchronized double getHitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    /**
+     * Reset the counters
+     */
+    public synchronized void resetStats() {
+        hits = 0;
+        misses = 0;
+        evictions = 0;
+        expirations = 0;
+        invalidations = 0;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("%d entries, %d hits, %d misses, %d evictions, %d expirations, %d invalidations",
+                entries.size(), hits, misses, evictions, expirations, invalidations);
+    }
+} // EntityCache
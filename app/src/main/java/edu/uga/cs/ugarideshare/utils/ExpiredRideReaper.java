@@ -0,0 +1,211 @@
+package edu.uga.cs.ugarideshare.utils;
+
+import android.os.SystemClock;
+import android.util.Log;
+
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.ServerValue;
+import com.google.firebase.database.ValueEventListener;
+
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TimeZone;
+
+import edu.uga.cs.ugarideshare.models.StatusTime;
+
+/**
+ * ExpiredRideReaper moves ride offers and requests whose date/time has passed out
+ * of rideOffers and rideRequests into archive/{tree}/{yyyy-MM}/{id}, so the live
+ * ride queries only ever touch upcoming rides.
+ *
+ * Stale rides are found a batch at a time through the statusTime key and each
+ * batch is moved with one multi-location update (archive copy written and the
+ * original removed together). Since every batch deletes what it read, the next
+ * batch simply starts from the beginning of the range again.
+ */
+public class ExpiredRideReaper {
+    private static final String TAG = "ExpiredRideReaper";
+
+    // Trees that are reaped, and the statuses reaped in each
+    private static final String[] TREES = {"rideOffers", "rideRequests"};
+    private static final String[] STATUSES = {"available", "accepted"};
+
+    /**
+     * Outcome of a reaper run
+     */
+    public static class Report {
+        private final int moved;
+        private final int batches;
+        private final long elapsedMillis;
+
+        Report(int moved, int batches, long elapsedMillis) {
+            this.moved = moved;
+            this.batches = batches;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        /**
+         * Get the number of rides moved to the archive
+         * @return Number of rides moved
+         */
+        public int getMoved() {
+            return moved;
+        }
+
+        /**
+         * Get the number of multi-location writes made
+         * @return Number of batches
+         */
+        public int getBatches() {
+            return batches;
+        }
+
+        /**
+         * Get how long the run took
+         * @return Elapsed time in milliseconds
+         */
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+
+        /**
+         * Get the throughput of the run
+         * @return Rides moved per second
+         */
+        public double getRidesPerSecond() {
+            return elapsedMillis == 0 ? moved : moved * 1000.0 / elapsedMillis;
+        }
+
+        /**
+         * Convert object to string
+         * @return String representation of the report
+         */
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "moved %d rides in %d batches, %d ms (%.1f rides/s)",
+                    moved, batches, elapsedMillis, getRidesPerSecond());
+        }
+    } // Report
+
+    private final DatabaseReference root;
+    private final int batchSize;
+    private volatile boolean cancelled;
+
+    // Progress of the current run
+    private long cutoff;
+    private long startedAt;
+    private int moved;
+    private int batches;
+
+    /**
+     * Constructor
+     * @param root Root reference of the database
+     * @param batchSize Maximum number of rides moved per write
+     */
+    public ExpiredRideReaper(DatabaseReference root, int batchSize) {
+        this.root = root;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Archive every ride whose date/time is before the cutoff
+     * @param cutoff Rides before this time (timestamp) are archived
+     * @param callback Callback receiving the report once everything is moved
+     */
+    public void run(long cutoff, final FirebaseCallback<Report> callback) {
+        this.cutoff = cutoff;
+        startedAt = SystemClock.elapsedRealtime();
+        moved = 0;
+        batches = 0;
+        cancelled = false;
+        reapNext(0, callback);
+    }
+
+    /**
+     * Stop after the batch in flight. The callback then reports what was moved so far.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Reap one (tree, status) range, then move on to the next
+     * @param range Index into TREES x STATUSES
+     * @param callback Callback receiving the final report
+     */
+    private void reapNext(int range, final FirebaseCallback<Report> callback) {
+        if (cancelled || range == TREES.length * STATUSES.length) {
+            Report report = new Report(moved, batches, SystemClock.elapsedRealtime() - startedAt);
+            Log.i(TAG, report.toString());
+            callback.onSuccess(report);
+            return;
+        }
+
+        String tree = TREES[range / STATUSES.length];
+        String status = STATUSES[range % STATUSES.length];
+        root.child(tree).orderByChild("statusTime")
+                .startAt(StatusTime.key(status, 0))
+                .endBefore(StatusTime.lowerBound(status, cutoff))
+                .limitToFirst(batchSize)
+                .addListenerForSingleValueEvent(new ValueEventListener() {
+                    @Override
+                    public void onDataChange(DataSnapshot dataSnapshot) {
+                        if (!dataSnapshot.exists()) {
+                            reapNext(range + 1, callback);
+                            return;
+                        }
+
+                        Map<String, Object> updates = new HashMap<>();
+                        int count = 0;
+                        for (DataSnapshot ride : dataSnapshot.getChildren()) {
+                            Long dateTime = ride.child("dateTime").getValue(Long.class);
+                            String archivePath = "archive/" + tree + "/" + month(dateTime != null ? dateTime : 0)
+                                    + "/" + ride.getKey();
+                            Map<String, Object> archived = new HashMap<>();
+                            for (DataSnapshot field : ride.getChildren()) {
+                                archived.put(field.getKey(), field.getValue());
+                            }
+                            archived.put("archivedAt", ServerValue.TIMESTAMP);
+                            updates.put(archivePath, archived);
+                            updates.put(tree + "/" + ride.getKey(), null);
+                            count++;
+                        }
+
+                        final int batchCount = count;
+                        root.updateChildren(updates)
+                                .addOnSuccessListener(aVoid -> {
+                                    moved += batchCount;
+                                    batches++;
+
+                                    // A short batch means the range is empty now
+                                    reapNext(batchCount < batchSize ? range + 1 : range, callback);
+                                })
+                                .addOnFailureListener(e -> {
+                                    Log.e(TAG, "Failed to archive " + tree, e);
+                                    callback.onError(e.getMessage());
+                                });
+                    }
+
+                    @Override
+                    public void onCancelled(DatabaseError databaseError) {
+                        Log.e(TAG, "Database error reading stale " + tree, databaseError.toException());
+                        callback.onError(databaseError.getMessage());
+                    }
+                });
+    }
+
+    /**
+     * Get the archive partition of a ride
+     * @param dateTime Date and time of the ride (timestamp)
+     * @return Month of the ride in UTC, e.g. "2025-04"
+     */
+    static String month(long dateTime) {
+        Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone("UTC"), Locale.US);
+        calendar.setTimeInMillis(dateTime);
+        return String.format(Locale.US, "%04d-%02d", calendar.get(Calendar.YEAR), calendar.get(Calendar.MONTH) + 1);
+    }
+} // ExpiredRideReaper
@@ -4,22 +4,34 @@ import android.util.Log;
 
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
+import com.google.firebase.database.ChildEventListener;
 import com.google.firebase.database.DataSnapshot;
 import com.google.firebase.database.DatabaseError;
 import com.google.firebase.database.DatabaseReference;
 import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.MutableData;
 import com.google.firebase.database.Query;
+import com.google.firebase.database.ServerValue;
+import com.google.firebase.database.Transaction;
 import com.google.firebase.database.ValueEventListener;
 
-import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import edu.uga.cs.ugarideshare.models.AcceptedRide;
 import edu.uga.cs.ugarideshare.models.RideOffer;
 import edu.uga.cs.ugarideshare.models.RideRequest;
+import edu.uga.cs.ugarideshare.models.StatusTime;
 import edu.uga.cs.ugarideshare.models.User;
 
 /**
@@ -37,9 +49,69 @@ public class FirebaseUtil {
     private static final DatabaseReference rideOffersRef = database.child("rideOffers");
     private static final DatabaseReference rideRequestsRef = database.child("rideRequests");
     private static final DatabaseReference acceptedRidesRef = database.child("acceptedRides");
+    private static final DatabaseReference userRidesRef = database.child("userRides");
+
+    // Hub sharing one live listener per user's accepted rides
+    private static final SubscriptionHub<List<AcceptedRide>> acceptedRidesHub = new SubscriptionHub<>();
+
+    // Number of rides fetched per page of a ride feed
+    public static final int PAGE_SIZE = 20;
+
+    // Recently read entities. Points change often, so users go stale sooner than rides;
+    // the live listeners refresh or invalidate entries as soon as they see a change.
+    private static final EntityCache<User> userCache =
+            new EntityCache<>(64, TimeUnit.SECONDS.toMillis(30), User::new);
+    private static final EntityCache<RideOffer> rideOfferCache =
+            new EntityCache<>(256, TimeUnit.MINUTES.toMillis(2), RideOffer::new);
+    private static final EntityCache<RideRequest> rideRequestCache =
+            new EntityCache<>(256, TimeUnit.MINUTES.toMillis(2), RideRequest::new);
+
+    // Reads by ID that are in flight, so identical concurrent reads share one request
+    private static final SingleFlight<User> userReads = new SingleFlight<>(User::new);
+    private static final SingleFlight<RideOffer> rideOfferReads = new SingleFlight<>(RideOffer::new);
+    private static final SingleFlight<RideRequest> rideRequestReads = new SingleFlight<>(RideRequest::new);
+
+    // Incremental, paged feeds of upcoming available rides, sorted by date/time then key
+    private static final RideFeed<RideOffer> rideOffersFeed = new RideFeed<>(
+            Comparator.comparingLong(RideOffer::getDateTime).thenComparing(RideOffer::getId),
+            new PagedQuerySource<RideOffer>(rideOffersRef, "available", PAGE_SIZE, rideOfferCache, "ride offers", "loadRideOffersPage") {
+                @Override
+                protected RideOffer decode(DataSnapshot snapshot) {
+                    return RideOffer.fromMap(snapshot.getKey(), fields("watchRideOffers", snapshot));
+                }
+            });
+    private static final RideFeed<RideRequest> rideRequestsFeed = new RideFeed<>(
+            Comparator.comparingLong(RideRequest::getDateTime).thenComparing(RideRequest::getId),
+            new PagedQuerySource<RideRequest>(rideRequestsRef, "available", PAGE_SIZE, rideRequestCache, "ride requests", "loadRideRequestsPage") {
+                @Override
+                protected RideRequest decode(DataSnapshot snapshot) {
+                    return RideRequest.fromMap(snapshot.getKey(), fields("watchRideRequests", snapshot));
+                }
+            });
+
+    // Counters for contended ride claims
+    private static final ClaimMetrics claimMetrics = new ClaimMetrics();
+
+    // Bytes sent by partial ride updates
+    private static final WriteStats writeStats = new WriteStats();
 
-    // Map to store points update listeners
-    private static final Map<String, List<Object>> pointsListeners = new HashMap<>();
+    // Points update listeners, one live query per user
+    private static final PointsListenerRegistry pointsListeners = new PointsListenerRegistry(PointsSource::new);
+
+    // Latency, outcome and bytes read of every database operation
+    private static final OperationMetrics metrics = new OperationMetrics();
+
+    // Retries transient failures and fails fast while the database is unhealthy
+    private static final CircuitBreaker circuitBreaker = new CircuitBreaker(5, TimeUnit.SECONDS.toMillis(30));
+    private static final Resilience resilience = new Resilience(circuitBreaker, metrics);
+
+    // Database errors that may go away if the operation is tried again. MAX_RETRIES
+    // (a transaction lost too many races) and OVERRIDDEN_BY_SET (a newer write replaced
+    // this one) are final answers, so retrying them would only repeat the conflict
+    private static final int[] TRANSIENT_ERRORS = {
+            DatabaseError.NETWORK_ERROR, DatabaseError.DISCONNECTED, DatabaseError.UNAVAILABLE,
+            DatabaseError.OPERATION_FAILED
+    };
 
     /**
      * Register a new user in Firebase
@@ -47,6 +119,8 @@ public class FirebaseUtil {
      * @param callback Callback interface to handle success or failure
      */
     public static void registerUser(User user, final FirebaseCallback<User> callback) {
+        FirebaseCallback<User> timed = metrics.time("registerUser", callback);
+
         // First, create the user in Firebase Authentication
         firebaseAuth.createUserWithEmailAndPassword(user.getEmail(), user.getPassword())
                 .addOnSuccessListener(authResult -> {
@@ -61,21 +135,22 @@ public class FirebaseUtil {
                     user.setPassword(""); // Clear password before storing in database
 
                     // Create the user in the database
-                    usersRef.child(userId).setValue(user)
+                    usersRef.child(userId).setValue(user.toMap())
                             .addOnSuccessListener(aVoid -> {
                                 // Restore password for the callback
                                 // (needed for session management but not stored in DB)
+                                userCache.put(userId, user);
                                 user.setPassword(tempPassword);
-                                callback.onSuccess(user);
+                                timed.onSuccess(user);
                             })
                             .addOnFailureListener(e -> {
                                 Log.e(TAG, "Failed to save user to database", e);
-                                callback.onError(e.getMessage());
+                                timed.onError(e.getMessage());
                             });
                 })
                 .addOnFailureListener(e -> {
                     Log.e(TAG, "Failed to create user with authentication", e);
-                    callback.onError(e.getMessage());
+                    timed.onError(e.getMessage());
                 });
     }
 
@@ -86,6 +161,8 @@ public class FirebaseUtil {
      * @param callback Callback interface to handle success or failure
      */
     public static void loginUser(String email, String password, final FirebaseCallback<User> callback) {
+        FirebaseCallback<User> timed = metrics.time("loginUser", callback);
+
         // Authenticate with Firebase Auth
         firebaseAuth.signInWithEmailAndPassword(email, password)
                 .addOnSuccessListener(authResult -> {
@@ -97,128 +174,263 @@ public class FirebaseUtil {
                         @Override
                         public void onDataChange(DataSnapshot dataSnapshot) {
                             if (dataSnapshot.exists()) {
-                                User user = dataSnapshot.getValue(User.class);
-                                user.setId(userId);
+                                User user = User.fromMap(userId, fields("loginUser", dataSnapshot));
 
                                 // Set the password for session management
                                 // (Note: password isn't stored in DB but needed for local use)
                                 user.setPassword(password);
 
-                                callback.onSuccess(user);
+                                timed.onSuccess(user);
                             } else {
                                 // User exists in Auth but not in Database (rare case)
                                 Log.w(TAG, "User authenticated but not found in database");
-                                callback.onError("User profile not found");
+                                timed.onError("User profile not found");
                             }
                         }
 
                         @Override
                         public void onCancelled(DatabaseError databaseError) {
                             Log.e(TAG, "Database error during login", databaseError.toException());
-                            callback.onError(databaseError.getMessage());
+                            timed.onError(databaseError.getMessage());
                         }
                     });
                 })
                 .addOnFailureListener(e -> {
                     Log.e(TAG, "Authentication failed", e);
-                    callback.onError(e.getMessage());
+                    timed.onError(e.getMessage());
                 });
     }
 
     /**
-     * Get all available ride offers
+     * Subscribe to all accepted rides for a specific user (as either driver or rider),
+     * sorted by date/time (soonest first). Only the rides listed in the user's
+     * userRides index are read.
+     * @param userId User ID
      * @param callback Callback interface to handle success or failure
+     * @return Subscription used to stop receiving updates
      */
-    public static void getAvailableRideOffers(final FirebaseCallback<List<RideOffer>> callback) {
+    public static SubscriptionHub.Subscription getAcceptedRidesForUser(String userId, final FirebaseCallback<List<AcceptedRide>> callback) {
         // Check if user is authenticated
         if (firebaseAuth.getCurrentUser() == null) {
             callback.onError("User not authenticated");
-            return;
+            return SubscriptionHub.EMPTY;
         }
 
-        rideOffersRef.orderByChild("status").equalTo("available").addValueEventListener(new ValueEventListener() {
-            @Override
-            public void onDataChange(DataSnapshot dataSnapshot) {
-                List<RideOffer> offers = new ArrayList<>();
-                for (DataSnapshot snapshot : dataSnapshot.getChildren()) {
-                    RideOffer offer = snapshot.getValue(RideOffer.class);
-                    offer.setId(snapshot.getKey());
-                    offers.add(offer);
-                }
-                callback.onSuccess(offers);
-            }
-
-            @Override
-            public void onCancelled(DatabaseError databaseError) {
-                Log.e(TAG, "Database error fetching ride offers", databaseError.toException());
-                callback.onError(databaseError.getMessage());
-            }
-        });
+        return acceptedRidesHub.subscribe("userRides/" + userId, () -> new UserRidesSource(userId), callback);
     }
 
     /**
-     * Get all available ride requests
-     * @param callback Callback interface to handle success or failure
+     * One-shot backfill of the userRides index from the existing acceptedRides tree.
+     * Reads every accepted ride once and writes all index entries in a single
+     * multi-location update. Safe to run more than once.
+     * @param callback Callback receiving the number of rides indexed
      */
-    public static void getAvailableRideRequests(final FirebaseCallback<List<RideRequest>> callback) {
+    public static void backfillUserRideIndex(final FirebaseCallback<Integer> callback) {
         // Check if user is authenticated
         if (firebaseAuth.getCurrentUser() == null) {
             callback.onError("User not authenticated");
             return;
         }
 
-        rideRequestsRef.orderByChild("status").equalTo("available").addValueEventListener(new ValueEventListener() {
+        FirebaseCallback<Integer> timed = metrics.time("backfillUserRideIndex", callback);
+        acceptedRidesRef.addListenerForSingleValueEvent(new ValueEventListener() {
             @Override
             public void onDataChange(DataSnapshot dataSnapshot) {
-                List<RideRequest> requests = new ArrayList<>();
+                Map<String, Object> updates = new HashMap<>();
+                int count = 0;
                 for (DataSnapshot snapshot : dataSnapshot.getChildren()) {
-                    RideRequest request = snapshot.getValue(RideRequest.class);
-                    request.setId(snapshot.getKey());
-                    requests.add(request);
+                    AcceptedRide ride = AcceptedRide.fromMap(snapshot.getKey(), fields("backfillUserRideIndex", snapshot));
+                    putUserRideIndex(updates, ride, true);
+                    count++;
                 }
-                callback.onSuccess(requests);
+
+                if (updates.isEmpty()) {
+                    timed.onSuccess(0);
+                    return;
+                }
+
+                final int indexed = count;
+                database.updateChildren(updates)
+                        .addOnSuccessListener(aVoid -> timed.onSuccess(indexed))
+                        .addOnFailureListener(e -> {
+                            Log.e(TAG, "Failed to backfill user ride index", e);
+                            timed.onError(e.getMessage());
+                        });
             }
 
             @Override
             public void onCancelled(DatabaseError databaseError) {
-                Log.e(TAG, "Database error fetching ride requests", databaseError.toException());
-                callback.onError(databaseError.getMessage());
+                Log.e(TAG, "Database error reading accepted rides for backfill", databaseError.toException());
+                timed.onError(databaseError.getMessage());
             }
         });
     }
 
     /**
-     * Get all accepted rides for a specific user (as either driver or rider)
-     * @param userId User ID
-     * @param callback Callback interface to handle success or failure
+     * One-shot backfill of the statusTime key on existing ride offers and requests,
+     * so rides posted before the key existed show up in the ride lists. All missing
+     * or stale keys are written in a single multi-location update. Safe to run more
+     * than once.
+     * @param callback Callback receiving the number of rides updated
      */
-    public static void getAcceptedRidesForUser(String userId, final FirebaseCallback<List<AcceptedRide>> callback) {
+    public static void backfillStatusTime(final FirebaseCallback<Integer> callback) {
         // Check if user is authenticated
         if (firebaseAuth.getCurrentUser() == null) {
             callback.onError("User not authenticated");
             return;
         }
 
-        acceptedRidesRef.addValueEventListener(new ValueEventListener() {
+        // The two trees are independent, so both reads go out at once
+        CompletableFuture<DataSnapshot> offers = read(rideOffersRef, "ride offers for backfill");
+        CompletableFuture<DataSnapshot> requests = read(rideRequestsRef, "ride requests for backfill");
+
+        CompletableFuture<Integer> written = offers.thenCombine(requests, (offersSnapshot, requestsSnapshot) -> {
+            Map<String, Object> updates = new HashMap<>();
+            putStatusTimes(updates, "rideOffers", offersSnapshot);
+            putStatusTimes(updates, "rideRequests", requestsSnapshot);
+            return updates;
+        }).thenCompose(updates -> {
+            if (updates.isEmpty()) {
+                return CompletableFuture.completedFuture(0);
+            }
+            return Futures.fromTask(database.updateChildren(updates))
+                    .whenComplete((ignored, e) -> {
+                        if (e != null) {
+                            Log.e(TAG, "Failed to backfill statusTime", e);
+                        }
+                    })
+                    .thenApply(ignored -> updates.size());
+        });
+        Futures.deliver(written, metrics.time("backfillStatusTime", callback));
+    }
+
+    /**
+     * Read a location once
+     * @param query Location to read
+     * @param description Description used in the error log
+     * @return Future of the snapshot, failing with the database error message
+     */
+    private static CompletableFuture<DataSnapshot> read(Query query, String description) {
+        CompletableFuture<DataSnapshot> future = new CompletableFuture<>();
+        query.addListenerForSingleValueEvent(new ValueEventListener() {
             @Override
             public void onDataChange(DataSnapshot dataSnapshot) {
-                List<AcceptedRide> rides = new ArrayList<>();
-                for (DataSnapshot snapshot : dataSnapshot.getChildren()) {
-                    AcceptedRide ride = snapshot.getValue(AcceptedRide.class);
-                    ride.setId(snapshot.getKey());
-                    if (userId.equals(ride.getDriverId()) || userId.equals(ride.getRiderId())) {
-                        rides.add(ride);
-                    }
-                }
-                callback.onSuccess(rides);
+                future.complete(dataSnapshot);
             }
 
             @Override
             public void onCancelled(DatabaseError databaseError) {
-                Log.e(TAG, "Database error fetching accepted rides", databaseError.toException());
-                callback.onError(databaseError.getMessage());
+                Log.e(TAG, "Database error reading " + description, databaseError.toException());
+                future.completeExceptionally(new Futures.Failure(databaseError.getMessage()));
             }
         });
+        return future;
+    }
+
+    /**
+     * Add the statusTime keys that are missing or stale under a rides tree
+     * @param updates Multi-location update being built
+     * @param path Path of the rides tree
+     * @param rides Snapshot of the rides tree
+     */
+    private static void putStatusTimes(Map<String, Object> updates, String path, DataSnapshot rides) {
+        for (DataSnapshot ride : rides.getChildren()) {
+            String status = ride.child("status").getValue(String.class);
+            Long dateTime = ride.child("dateTime").getValue(Long.class);
+            if (status == null || dateTime == null) {
+                continue;
+            }
+
+            String key = StatusTime.key(status, dateTime);
+            if (!key.equals(ride.child("statusTime").getValue(String.class))) {
+                updates.put(path + "/" + ride.getKey() + "/statusTime", key);
+            }
+        }
+    }
+
+    /**
+     * Get the fields of a snapshot as a plain map, for the models' fromMap mappers.
+     * This skips the reflective bean mapping of getValue(Class). The size of the
+     * record is counted as read by the operation.
+     * @param operation Name of the operation reading the record
+     * @param snapshot Snapshot of a single record
+     * @return Field map, empty if the snapshot holds no record
+     */
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> fields(String operation, DataSnapshot snapshot) {
+        Object value = snapshot.getValue();
+        metrics.recordBytesRead(operation, OperationMetrics.estimateBytes(value));
+        return value instanceof Map ? (Map<String, Object>) value : Collections.emptyMap();
+    }
+
+    /**
+     * Create a completion listener reporting a write to an attempt. Writes use
+     * completion listeners rather than tasks, since a task failure only carries the
+     * message of the database error and not its code.
+     * @param outcome Outcome of the attempt
+     * @param logMessage Message to log if the write fails
+     * @param onWritten Called once the write is committed
+     * @return Completion listener for the write
+     */
+    private static DatabaseReference.CompletionListener written(Resilience.Outcome<?> outcome, String logMessage,
+                                                                Runnable onWritten) {
+        return (databaseError, ref) -> {
+            if (databaseError != null) {
+                fail(outcome, logMessage, databaseError);
+            } else {
+                onWritten.run();
+            }
+        };
+    }
+
+    /**
+     * Report a database error to an attempt, as transient if retrying may help
+     * @param outcome Outcome of the attempt
+     * @param logMessage Message to log
+     * @param databaseError Database error
+     */
+    private static void fail(Resilience.Outcome<?> outcome, String logMessage, DatabaseError databaseError) {
+        Log.e(TAG, logMessage, databaseError.toException());
+        for (int code : TRANSIENT_ERRORS) {
+            if (databaseError.getCode() == code) {
+                outcome.onTransientError(databaseError.getMessage());
+                return;
+            }
+        }
+        outcome.onError(databaseError.getMessage());
+    }
+
+    /**
+     * Add the userRides index entries of a ride to a multi-location update
+     * @param updates Multi-location update being built
+     * @param ride Accepted ride with its ID set
+     * @param value true to add the entries, null to remove them
+     */
+    private static void putUserRideIndex(Map<String, Object> updates, AcceptedRide ride, Boolean value) {
+        if (ride.getDriverId() != null) {
+            updates.put("userRides/" + ride.getDriverId() + "/" + ride.getId(), value);
+        }
+        if (ride.getRiderId() != null) {
+            updates.put("userRides/" + ride.getRiderId() + "/" + ride.getId(), value);
+        }
+    }
+
+    /**
+     * Get the incremental feed of available ride offers, sorted by date/time
+     * (soonest first). Observers receive per-item insert/change/remove events.
+     * @return Shared ride offers feed
+     */
+    public static RideFeed<RideOffer> getAvailableRideOffersFeed() {
+        return rideOffersFeed;
+    }
+
+    /**
+     * Get the incremental feed of available ride requests, sorted by date/time
+     * (soonest first). Observers receive per-item insert/change/remove events.
+     * @return Shared ride requests feed
+     */
+    public static RideFeed<RideRequest> getAvailableRideRequestsFeed() {
+        return rideRequestsFeed;
     }
 
     /**
@@ -235,12 +447,11 @@ public class FirebaseUtil {
 
         String offerId = rideOffersRef.push().getKey();
         offer.setId(offerId);
-        rideOffersRef.child(offerId).setValue(offer)
-                .addOnSuccessListener(aVoid -> callback.onSuccess(offer))
-                .addOnFailureListener(e -> {
-                    Log.e(TAG, "Failed to post ride offer", e);
-                    callback.onError(e.getMessage());
-                });
+
+        // The key is fixed before the first attempt, so a retried write lands on the same ride offer
+        resilience.run("postRideOffer", RetryPolicy.IDEMPOTENT_WRITE, outcome ->
+                rideOffersRef.child(offerId).setValue(offer.toMap(), written(outcome, "Failed to post ride offer", () -> outcome.onSuccess(offer))),
+                callback);
     }
 
     /**
@@ -257,16 +468,16 @@ public class FirebaseUtil {
 
         String requestId = rideRequestsRef.push().getKey();
         request.setId(requestId);
-        rideRequestsRef.child(requestId).setValue(request)
-                .addOnSuccessListener(aVoid -> callback.onSuccess(request))
-                .addOnFailureListener(e -> {
-                    Log.e(TAG, "Failed to post ride request", e);
-                    callback.onError(e.getMessage());
-                });
+
+        // The key is fixed before the first attempt, so a retried write lands on the same ride request
+        resilience.run("postRideRequest", RetryPolicy.IDEMPOTENT_WRITE, outcome ->
+                rideRequestsRef.child(requestId).setValue(request.toMap(), written(outcome, "Failed to post ride request", () -> outcome.onSuccess(request))),
+                callback);
     }
 
     /**
-     * Update an existing ride offer
+     * Update an existing ride offer. Only the fields that were set since it was read
+     * are written, so concurrent edits to other fields are kept.
      * @param offer Updated ride offer object
      * @param callback Callback interface to handle success or failure
      */
@@ -277,16 +488,26 @@ public class FirebaseUtil {
             return;
         }
 
-        rideOffersRef.child(offer.getId()).setValue(offer)
-                .addOnSuccessListener(aVoid -> callback.onSuccess(offer))
-                .addOnFailureListener(e -> {
-                    Log.e(TAG, "Failed to update ride offer", e);
-                    callback.onError(e.getMessage());
-                });
+        // Send only the fields that were set since the ride offer was read
+        Map<String, Object> changes = offer.getChanges();
+        if (changes.isEmpty()) {
+            callback.onSuccess(offer);
+            return;
+        }
+        writeStats.record("updateRideOffer", changes, offer.toMap());
+        rideOfferCache.invalidate(offer.getId());
+
+        resilience.run("updateRideOffer", RetryPolicy.IDEMPOTENT_WRITE, outcome ->
+                rideOffersRef.child(offer.getId()).updateChildren(changes, written(outcome, "Failed to update ride offer", () -> {
+                    offer.clearChanges();
+                    outcome.onSuccess(offer);
+                })),
+                callback);
     }
 
     /**
-     * Update an existing ride request
+     * Update an existing ride request. Only the fields that were set since it was read
+     * are written, so concurrent edits to other fields are kept.
      * @param request Updated ride request object
      * @param callback Callback interface to handle success or failure
      */
@@ -297,12 +518,21 @@ public class FirebaseUtil {
             return;
         }
 
-        rideRequestsRef.child(request.getId()).setValue(request)
-                .addOnSuccessListener(aVoid -> callback.onSuccess(request))
-                .addOnFailureListener(e -> {
-                    Log.e(TAG, "Failed to update ride request", e);
-                    callback.onError(e.getMessage());
-                });
+        // Send only the fields that were set since the ride request was read
+        Map<String, Object> changes = request.getChanges();
+        if (changes.isEmpty()) {
+            callback.onSuccess(request);
+            return;
+        }
+        writeStats.record("updateRideRequest", changes, request.toMap());
+        rideRequestCache.invalidate(request.getId());
+
+        resilience.run("updateRideRequest", RetryPolicy.IDEMPOTENT_WRITE, outcome ->
+                rideRequestsRef.child(request.getId()).updateChildren(changes, written(outcome, "Failed to update ride request", () -> {
+                    request.clearChanges();
+                    outcome.onSuccess(request);
+                })),
+                callback);
     }
 
     /**
@@ -317,12 +547,10 @@ public class FirebaseUtil {
             return;
         }
 
-        rideOffersRef.child(offerId).removeValue()
-                .addOnSuccessListener(aVoid -> callback.onSuccess(true))
-                .addOnFailureListener(e -> {
-                    Log.e(TAG, "Failed to delete ride offer", e);
-                    callback.onError(e.getMessage());
-                });
+        rideOfferCache.invalidate(offerId);
+        resilience.run("deleteRideOffer", RetryPolicy.IDEMPOTENT_WRITE, outcome ->
+                rideOffersRef.child(offerId).removeValue(written(outcome, "Failed to delete ride offer", () -> outcome.onSuccess(true))),
+                callback);
     }
 
     /**
@@ -337,81 +565,308 @@ public class FirebaseUtil {
             return;
         }
 
-        rideRequestsRef.child(requestId).removeValue()
-                .addOnSuccessListener(aVoid -> callback.onSuccess(true))
-                .addOnFailureListener(e -> {
-                    Log.e(TAG, "Failed to delete ride request", e);
-                    callback.onError(e.getMessage());
-                });
+        rideRequestCache.invalidate(requestId);
+        resilience.run("deleteRideRequest", RetryPolicy.IDEMPOTENT_WRITE, outcome ->
+                rideRequestsRef.child(requestId).removeValue(written(outcome, "Failed to delete ride request", () -> outcome.onSuccess(true))),
+                callback);
     }
 
     /**
-     * Accept a ride offer (as a rider)
+     * Accept a ride offer (as a rider). The offer is claimed with a transaction on its
+     * current server state, so when several riders accept at once exactly one wins and
+     * the others get an ALREADY_TAKEN result.
      * @param offer Ride offer to accept
      * @param riderId ID of the rider accepting the offer
      * @param riderEmail Email of the rider accepting the offer
-     * @param callback Callback interface to handle success or failure
+     * @param callback Callback interface to handle the claim result or failure
      */
-    public static void acceptRideOffer(RideOffer offer, String riderId, String riderEmail, final FirebaseCallback<AcceptedRide> callback) {
+    public static void acceptRideOffer(RideOffer offer, String riderId, String riderEmail, final FirebaseCallback<ClaimResult> callback) {
         // Check if user is authenticated
         if (firebaseAuth.getCurrentUser() == null) {
             callback.onError("User not authenticated");
             return;
         }
 
-        // Update the offer status to accepted
-        offer.acceptRide(riderId, riderEmail);
-        rideOffersRef.child(offer.getId()).setValue(offer).addOnSuccessListener(aVoid -> {
-            // Create a new accepted ride
-            AcceptedRide acceptedRide = new AcceptedRide(offer);
-            String rideId = acceptedRidesRef.push().getKey();
-            acceptedRide.setId(rideId);
-
-            // Save the accepted ride to Firebase
-            acceptedRidesRef.child(rideId).setValue(acceptedRide)
-                    .addOnSuccessListener(aVoid2 -> callback.onSuccess(acceptedRide))
-                    .addOnFailureListener(e -> {
-                        Log.e(TAG, "Failed to save accepted ride", e);
-                        callback.onError(e.getMessage());
-                    });
-        }).addOnFailureListener(e -> {
-            Log.e(TAG, "Failed to update ride offer status", e);
-            callback.onError(e.getMessage());
-        });
+        FirebaseCallback<ClaimResult> timed = metrics.time("acceptRideOffer", callback);
+        rideOfferCache.invalidate(offer.getId());
+        claimRide(rideOffersRef.child(offer.getId()), "riderId", "riderEmail", riderId, riderEmail, snapshot -> {
+            RideOffer claimed = RideOffer.fromMap(snapshot.getKey(), fields("claimRide", snapshot));
+            rideOfferCache.put(claimed.getId(), claimed);
+
+            // Keep the caller's copy in sync with what was committed
+            offer.setStatus(claimed.getStatus());
+            offer.setRiderId(claimed.getRiderId());
+            offer.setRiderEmail(claimed.getRiderEmail());
+            offer.clearChanges();
+            return new AcceptedRide(claimed);
+        }, timed);
     }
 
     /**
-     * Accept a ride request (as a driver)
+     * Accept a ride request (as a driver). The request is claimed with a transaction on
+     * its current server state, so when several drivers accept at once exactly one wins
+     * and the others get an ALREADY_TAKEN result.
      * @param request Ride request to accept
      * @param driverId ID of the driver accepting the request
      * @param driverEmail Email of the driver accepting the request
-     * @param callback Callback interface to handle success or failure
+     * @param callback Callback interface to handle the claim result or failure
      */
-    public static void acceptRideRequest(RideRequest request, String driverId, String driverEmail, final FirebaseCallback<AcceptedRide> callback) {
+    public static void acceptRideRequest(RideRequest request, String driverId, String driverEmail, final FirebaseCallback<ClaimResult> callback) {
         // Check if user is authenticated
         if (firebaseAuth.getCurrentUser() == null) {
             callback.onError("User not authenticated");
             return;
         }
 
-        // Update the request status to accepted
-        request.acceptRequest(driverId, driverEmail);
-        rideRequestsRef.child(request.getId()).setValue(request).addOnSuccessListener(aVoid -> {
-            // Create a new accepted ride
-            AcceptedRide acceptedRide = new AcceptedRide(request);
-            String rideId = acceptedRidesRef.push().getKey();
-            acceptedRide.setId(rideId);
-
-            // Save the accepted ride to Firebase
-            acceptedRidesRef.child(rideId).setValue(acceptedRide)
-                    .addOnSuccessListener(aVoid2 -> callback.onSuccess(acceptedRide))
-                    .addOnFailureListener(e -> {
-                        Log.e(TAG, "Failed to save accepted ride", e);
-                        callback.onError(e.getMessage());
-                    });
-        }).addOnFailureListener(e -> {
-            Log.e(TAG, "Failed to update ride request status", e);
-            callback.onError(e.getMessage());
+        FirebaseCallback<ClaimResult> timed = metrics.time("acceptRideRequest", callback);
+        rideRequestCache.invalidate(request.getId());
+        claimRide(rideRequestsRef.child(request.getId()), "driverId", "driverEmail", driverId, driverEmail, snapshot -> {
+            RideRequest claimed = RideRequest.fromMap(snapshot.getKey(), fields("claimRide", snapshot));
+            rideRequestCache.put(claimed.getId(), claimed);
+
+            // Keep the caller's copy in sync with what was committed
+            request.setStatus(claimed.getStatus());
+            request.setDriverId(claimed.getDriverId());
+            request.setDriverEmail(claimed.getDriverEmail());
+            request.clearChanges();
+            return new AcceptedRide(claimed);
+        }, timed);
+    }
+
+    /**
+     * Get the latency, outcome and bytes read of every database operation
+     * @return Operation metrics
+     */
+    public static OperationMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Get the bytes sent by partial ride updates compared with full writes
+     * @return Write statistics
+     */
+    public static WriteStats getWriteStats() {
+        return writeStats;
+    }
+
+    /**
+     * Get the retry and circuit breaker layer of the database operations
+     * @return Resilience layer, with its retry counters and breaker state
+     */
+    public static Resilience getResilience() {
+        return resilience;
+    }
+
+    /**
+     * Get the counters describing how ride claims resolved
+     * @return Claim metrics
+     */
+    public static ClaimMetrics getClaimMetrics() {
+        return claimMetrics;
+    }
+
+    /**
+     * Get the cache of users read by getUserById
+     * @return User cache, with its hit/miss/eviction counters
+     */
+    public static EntityCache<User> getUserCache() {
+        return userCache;
+    }
+
+    /**
+     * Get the cache of ride offers read by getRideOfferById or seen by the offers feed
+     * @return Ride offer cache, with its hit/miss/eviction counters
+     */
+    public static EntityCache<RideOffer> getRideOfferCache() {
+        return rideOfferCache;
+    }
+
+    /**
+     * Get the cache of ride requests read by getRideRequestById or seen by the requests feed
+     * @return Ride request cache, with its hit/miss/eviction counters
+     */
+    public static EntityCache<RideRequest> getRideRequestCache() {
+        return rideRequestCache;
+    }
+
+    /**
+     * Get the single-flight layer of getUserById
+     * @return User reads, with counts of coalesced reads
+     */
+    public static SingleFlight<User> getUserReads() {
+        return userReads;
+    }
+
+    /**
+     * Get the single-flight layer of getRideOfferById
+     * @return Ride offer reads, with counts of coalesced reads
+     */
+    public static SingleFlight<RideOffer> getRideOfferReads() {
+        return rideOfferReads;
+    }
+
+    /**
+     * Get the single-flight layer of getRideRequestById
+     * @return Ride request reads, with counts of coalesced reads
+     */
+    public static SingleFlight<RideRequest> getRideRequestReads() {
+        return rideRequestReads;
+    }
+
+    /**
+     * Builds the accepted ride from the committed state of a claimed offer or request
+     */
+    private interface AcceptedRideFactory {
+        AcceptedRide create(DataSnapshot claimed);
+    }
+
+    /**
+     * Claim an available offer or request with a transaction, then save the accepted
+     * ride and its userRides index entries in one multi-location update. Both steps
+     * are retried on transient failures: a retried claim accepts a ride already held
+     * by the same user, since only a failed attempt can have left it that way, and the
+     * accepted ride is written under a key fixed before the first attempt.
+     * <p>
+     * The database cannot commit a transaction and a multi-location update together,
+     * so between the two writes the offer or request reads as accepted with no
+     * acceptedRides or userRides entry behind it. Readers see the ride leave the
+     * available feed before it shows up under accepted rides. If the save is given up
+     * on, the claim is released; if the app dies inside the window, the ride stays
+     * accepted without an accepted ride until its poster cancels it, or it expires and
+     * is archived.
+     * @param rideRef Reference to the offer or request
+     * @param idField Field holding the claimant's ID
+     * @param emailField Field holding the claimant's email
+     * @param userId ID of the claimant
+     * @param userEmail Email of the claimant
+     * @param factory Builds the accepted ride from the committed snapshot
+     * @param callback Callback interface to handle the claim result or failure
+     */
+    private static void claimRide(DatabaseReference rideRef, String idField, String emailField,
+                                  String userId, String userEmail, AcceptedRideFactory factory,
+                                  final FirebaseCallback<ClaimResult> callback) {
+        claimMetrics.recordAttempt();
+        AtomicInteger runs = new AtomicInteger();
+        AtomicBoolean retrying = new AtomicBoolean();
+
+        resilience.run("claimRide", RetryPolicy.IDEMPOTENT_WRITE, outcome -> rideRef.runTransaction(new Transaction.Handler() {
+            @Override
+            public Transaction.Result doTransaction(MutableData currentData) {
+                // Nothing cached locally yet; the server will rerun us with its value
+                if (currentData.getValue() == null) {
+                    return Transaction.success(currentData);
+                }
+                runs.incrementAndGet();
+
+                // An earlier attempt may have committed before its answer was lost
+                String status = currentData.child("status").getValue(String.class);
+                if (retrying.get() && "accepted".equals(status)
+                        && userId.equals(currentData.child(idField).getValue(String.class))) {
+                    return Transaction.success(currentData);
+                }
+
+                // Fail fast instead of retrying when someone else got there first
+                if (!"available".equals(status)) {
+                    return Transaction.abort();
+                }
+
+                Long dateTime = currentData.child("dateTime").getValue(Long.class);
+                currentData.child("status").setValue("accepted");
+                currentData.child("statusTime").setValue(StatusTime.key("accepted", dateTime != null ? dateTime : 0));
+                currentData.child(idField).setValue(userId);
+                currentData.child(emailField).setValue(userEmail);
+                return Transaction.success(currentData);
+            }
+
+            @Override
+            public void onComplete(DatabaseError databaseError, boolean committed, DataSnapshot snapshot) {
+                if (databaseError != null) {
+                    retrying.set(true);
+                    fail(outcome, "Failed to claim ride", databaseError);
+                    return;
+                }
+
+                // Aborted, deleted in the meantime, or committed by another user
+                boolean won = committed && snapshot != null && snapshot.exists()
+                        && userId.equals(snapshot.child(idField).getValue(String.class));
+                outcome.onSuccess(won ? snapshot : null);
+            }
+        }), new FirebaseCallback<DataSnapshot>() {
+            @Override
+            public void onSuccess(DataSnapshot claimed) {
+                if (claimed == null) {
+                    claimMetrics.recordOutcome(ClaimResult.Status.ALREADY_TAKEN, runs.get());
+                    callback.onSuccess(ClaimResult.alreadyTaken());
+                    return;
+                }
+                claimMetrics.recordOutcome(ClaimResult.Status.CLAIMED, runs.get());
+
+                // Create a new accepted ride
+                AcceptedRide acceptedRide = factory.create(claimed);
+                String rideId = acceptedRidesRef.push().getKey();
+                acceptedRide.setId(rideId);
+
+                // Save the accepted ride and index it in one atomic write
+                Map<String, Object> updates = new HashMap<>();
+                updates.put("acceptedRides/" + rideId, acceptedRide.toMap());
+                putUserRideIndex(updates, acceptedRide, true);
+                resilience.run("saveAcceptedRide", RetryPolicy.IDEMPOTENT_WRITE, outcome ->
+                        database.updateChildren(updates, written(outcome, "Failed to save accepted ride", () -> outcome.onSuccess(ClaimResult.claimed(acceptedRide)))),
+                        new FirebaseCallback<ClaimResult>() {
+                            @Override
+                            public void onSuccess(ClaimResult result) {
+                                callback.onSuccess(result);
+                            }
+
+                            @Override
+                            public void onError(String error) {
+                                Log.e(TAG, "Giving up on saving accepted ride, releasing claim: " + error);
+                                releaseClaim(rideRef, idField, emailField, userId);
+                                callback.onError(error);
+                            }
+                        });
+            }
+
+            @Override
+            public void onError(String error) {
+                claimMetrics.recordOutcome(null, runs.get());
+                callback.onError(error);
+            }
+        });
+    }
+
+    /**
+     * Put a claimed offer or request back to available if it is still held by the user
+     * @param rideRef Reference to the offer or request
+     * @param idField Field holding the claimant's ID
+     * @param emailField Field holding the claimant's email
+     * @param userId ID of the claimant
+     */
+    private static void releaseClaim(DatabaseReference rideRef, String idField, String emailField, String userId) {
+        rideRef.runTransaction(new Transaction.Handler() {
+            @Override
+            public Transaction.Result doTransaction(MutableData currentData) {
+                if (currentData.getValue() == null) {
+                    return Transaction.success(currentData);
+                }
+                if (!userId.equals(currentData.child(idField).getValue(String.class))) {
+                    return Transaction.abort();
+                }
+
+                Long dateTime = currentData.child("dateTime").getValue(Long.class);
+                currentData.child("status").setValue("available");
+                currentData.child("statusTime").setValue(StatusTime.key("available", dateTime != null ? dateTime : 0));
+                currentData.child(idField).setValue(null);
+                currentData.child(emailField).setValue(null);
+                return Transaction.success(currentData);
+            }
+
+            @Override
+            public void onComplete(DatabaseError databaseError, boolean committed, DataSnapshot snapshot) {
+                if (databaseError != null) {
+                    Log.e(TAG, "Failed to release ride claim", databaseError.toException());
+                }
+            }
         });
     }
 
@@ -435,75 +890,173 @@ public class FirebaseUtil {
             ride.setRiderConfirmed(true);
         }
 
-        // Update the ride in Firebase
-        acceptedRidesRef.child(ride.getId()).setValue(ride).addOnSuccessListener(aVoid -> {
-            // If both driver and rider have confirmed, update points
-            if (ride.isFullyConfirmed()) {
-                transferPoints(ride, callback);
-            } else {
-                callback.onSuccess(true);
-            }
-        }).addOnFailureListener(e -> {
-            Log.e(TAG, "Failed to update ride confirmation status", e);
-            callback.onError(e.getMessage());
-        });
+        // Update only the confirmation flags in Firebase
+        Map<String, Object> changes = ride.getChanges();
+        writeStats.record("confirmRide", changes, ride.toMap());
+
+        // Setting a flag to true is safe to repeat
+        resilience.run("confirmRide", RetryPolicy.IDEMPOTENT_WRITE, outcome ->
+                acceptedRidesRef.child(ride.getId()).updateChildren(changes, written(outcome, "Failed to update ride confirmation status", () -> outcome.onSuccess(true))),
+                new FirebaseCallback<Boolean>() {
+                    @Override
+                    public void onSuccess(Boolean result) {
+                        ride.clearChanges();
+
+                        // If both driver and rider have confirmed, update points
+                        if (ride.isFullyConfirmed()) {
+                            transferPoints(ride, callback);
+                        } else {
+                            callback.onSuccess(true);
+                        }
+                    }
+
+                    @Override
+                    public void onError(String error) {
+                        callback.onError(error);
+                    }
+                });
     }
 
     /**
-     * Transfer points from rider to driver after ride is confirmed by both
+     * Transfer points from rider to driver after ride is confirmed by both.
+     * The ride is first marked settled by a transaction on the accepted ride, which
+     * only succeeds while the ride still exists, is confirmed by both and has not been
+     * settled yet, so when driver and rider confirm at once only one of them settles.
+     * The rider is then debited by a transaction that checks the balance on the server,
+     * and the driver credit and the ride removal go out as one multi-location update
+     * using a server-side increment, so concurrent settlements never lose points.
+     * If a later step fails the marker is cleared again. None of the steps is safe to
+     * repeat, so they are never retried, but they still fail fast while the circuit
+     * breaker is open.
      * @param ride Confirmed ride
      * @param callback Callback interface to handle success or failure
      */
     private static void transferPoints(AcceptedRide ride, final FirebaseCallback<Boolean> callback) {
-        // Get rider and update points
-        usersRef.child(ride.getRiderId()).addListenerForSingleValueEvent(new ValueEventListener() {
+        FirebaseCallback<Boolean> timed = metrics.time("transferPoints", callback);
+        DatabaseReference settledRef = acceptedRidesRef.child(ride.getId()).child("settled");
+
+        // Claim the settlement so that no other confirmation can debit the rider as well
+        resilience.run("claimSettlement", RetryPolicy.NONE, outcome -> acceptedRidesRef.child(ride.getId()).runTransaction(new Transaction.Handler() {
             @Override
-            public void onDataChange(DataSnapshot riderSnapshot) {
-                User rider = riderSnapshot.getValue(User.class);
-                rider.setId(riderSnapshot.getKey());
+            public Transaction.Result doTransaction(MutableData currentData) {
+                // Nothing cached locally yet; the server will rerun us with its value
+                if (currentData.getValue() == null) {
+                    return Transaction.success(currentData);
+                }
 
-                // Deduct points from rider
-                if (rider.subtractPoints(ride.getPoints())) {
-                    // Update rider points in Firebase
-                    usersRef.child(rider.getId()).child("ridePoints").setValue(rider.getRidePoints());
+                Boolean settled = currentData.child("settled").getValue(Boolean.class);
+                Boolean driverConfirmed = currentData.child("driverConfirmed").getValue(Boolean.class);
+                Boolean riderConfirmed = currentData.child("riderConfirmed").getValue(Boolean.class);
+                if (Boolean.TRUE.equals(settled)
+                        || !Boolean.TRUE.equals(driverConfirmed) || !Boolean.TRUE.equals(riderConfirmed)) {
+                    return Transaction.abort();
+                }
 
-                    // Get driver and update points
-                    usersRef.child(ride.getDriverId()).addListenerForSingleValueEvent(new ValueEventListener() {
-                        @Override
-                        public void onDataChange(DataSnapshot driverSnapshot) {
-                            User driver = driverSnapshot.getValue(User.class);
-                            driver.setId(driverSnapshot.getKey());
-
-                            // Add points to driver
-                            driver.addPoints(ride.getPoints());
-
-                            // Update driver points in Firebase
-                            usersRef.child(driver.getId()).child("ridePoints").setValue(driver.getRidePoints());
-
-                            // Remove ride from accepted rides
-                            acceptedRidesRef.child(ride.getId()).removeValue()
-                                    .addOnSuccessListener(aVoid -> callback.onSuccess(true))
-                                    .addOnFailureListener(e -> {
-                                        Log.e(TAG, "Failed to remove completed ride", e);
-                                        callback.onError(e.getMessage());
-                                    });
-                        }
+                currentData.child("settled").setValue(true);
+                return Transaction.success(currentData);
+            }
 
-                        @Override
-                        public void onCancelled(DatabaseError databaseError) {
-                            Log.e(TAG, "Database error getting driver data", databaseError.toException());
-                            callback.onError(databaseError.getMessage());
-                        }
-                    });
-                } else {
-                    callback.onError("Rider does not have enough points");
+            @Override
+            public void onComplete(DatabaseError databaseError, boolean committed, DataSnapshot snapshot) {
+                if (databaseError != null) {
+                    fail(outcome, "Failed to claim ride settlement", databaseError);
+                    return;
                 }
+
+                // Already settled or removed by the other confirmation
+                boolean won = committed && snapshot != null && snapshot.exists();
+                outcome.onSuccess(won ? AcceptedRide.fromMap(snapshot.getKey(), fields("claimSettlement", snapshot)) : null);
+            }
+        }), new FirebaseCallback<AcceptedRide>() {
+            @Override
+            public void onSuccess(AcceptedRide settling) {
+                if (settling == null) {
+                    timed.onSuccess(true);
+                    return;
+                }
+                debitRider(settling, settledRef, timed);
             }
 
             @Override
-            public void onCancelled(DatabaseError databaseError) {
-                Log.e(TAG, "Database error getting rider data", databaseError.toException());
-                callback.onError(databaseError.getMessage());
+            public void onError(String error) {
+                timed.onError(error);
+            }
+        });
+    }
+
+    /**
+     * Debit the rider of a ride whose settlement has been claimed, then credit the
+     * driver and remove the ride. Clears the settled marker if either step fails.
+     * @param ride Ride as stored when its settlement was claimed
+     * @param settledRef Reference to the ride's settled marker
+     * @param callback Callback interface to handle success or failure
+     */
+    private static void debitRider(AcceptedRide ride, DatabaseReference settledRef, final FirebaseCallback<Boolean> callback) {
+        int points = ride.getPoints();
+        DatabaseReference riderPointsRef = usersRef.child(ride.getRiderId()).child("ridePoints");
+
+        // Debit the rider only if the balance on the server covers the ride
+        resilience.run("debitRider", RetryPolicy.NONE, outcome -> riderPointsRef.runTransaction(new Transaction.Handler() {
+            @Override
+            public Transaction.Result doTransaction(MutableData currentData) {
+                Long balance = currentData.getValue(Long.class);
+
+                // Nothing cached locally yet; the server will rerun us with its value
+                if (balance == null) {
+                    return Transaction.success(currentData);
+                }
+                if (balance < points) {
+                    return Transaction.abort();
+                }
+
+                currentData.setValue(balance - points);
+                return Transaction.success(currentData);
+            }
+
+            @Override
+            public void onComplete(DatabaseError databaseError, boolean committed, DataSnapshot snapshot) {
+                if (databaseError != null) {
+                    fail(outcome, "Failed to debit rider points", databaseError);
+                    return;
+                }
+                if (!committed || snapshot == null || !snapshot.exists()) {
+                    outcome.onError("Rider does not have enough points");
+                    return;
+                }
+                outcome.onSuccess(true);
+            }
+        }), new FirebaseCallback<Boolean>() {
+            @Override
+            public void onSuccess(Boolean debited) {
+                // Credit the driver and remove the ride from accepted rides and both indexes
+                Map<String, Object> updates = new HashMap<>();
+                updates.put("users/" + ride.getDriverId() + "/ridePoints", ServerValue.increment(points));
+                updates.put("acceptedRides/" + ride.getId(), null);
+                putUserRideIndex(updates, ride, null);
+                userCache.invalidate(ride.getRiderId());
+                userCache.invalidate(ride.getDriverId());
+                resilience.run("settleRide", RetryPolicy.NONE, outcome ->
+                        database.updateChildren(updates, written(outcome, "Failed to settle ride", () -> outcome.onSuccess(true))),
+                        new FirebaseCallback<Boolean>() {
+                            @Override
+                            public void onSuccess(Boolean result) {
+                                callback.onSuccess(true);
+                            }
+
+                            @Override
+                            public void onError(String error) {
+                                Log.e(TAG, "Ride not settled, refunding rider: " + error);
+                                riderPointsRef.setValue(ServerValue.increment(points));
+                                settledRef.removeValue();
+                                callback.onError(error);
+                            }
+                        });
+            }
+
+            @Override
+            public void onError(String error) {
+                settledRef.removeValue();
+                callback.onError(error);
             }
         });
     }
@@ -520,24 +1073,32 @@ public class FirebaseUtil {
             return;
         }
 
-        usersRef.child(userId).addListenerForSingleValueEvent(new ValueEventListener() {
-            @Override
-            public void onDataChange(DataSnapshot dataSnapshot) {
-                if (dataSnapshot.exists()) {
-                    User user = dataSnapshot.getValue(User.class);
-                    user.setId(dataSnapshot.getKey());
-                    callback.onSuccess(user);
-                } else {
-                    callback.onError("User not found");
+        // Answer from the cache while the user is fresh
+        User cached = userCache.get(userId);
+        if (cached != null) {
+            callback.onSuccess(cached);
+            return;
+        }
+
+        // Concurrent reads of the same user share one database read
+        userReads.run("users/" + userId, loaded -> resilience.run("getUserById", RetryPolicy.READ, outcome ->
+            usersRef.child(userId).addListenerForSingleValueEvent(new ValueEventListener() {
+                @Override
+                public void onDataChange(DataSnapshot dataSnapshot) {
+                    if (dataSnapshot.exists()) {
+                        User user = User.fromMap(dataSnapshot.getKey(), fields("getUserById", dataSnapshot));
+                        userCache.put(user.getId(), user);
+                        outcome.onSuccess(user);
+                    } else {
+                        outcome.onError("User not found");
+                    }
                 }
-            }
 
-            @Override
-            public void onCancelled(DatabaseError databaseError) {
-                Log.e(TAG, "Database error getting user by ID", databaseError.toException());
-                callback.onError(databaseError.getMessage());
-            }
-        });
+                @Override
+                public void onCancelled(DatabaseError databaseError) {
+                    fail(outcome, "Database error getting user by ID", databaseError);
+                }
+            }), loaded), callback);
     }
 
     /**
@@ -552,24 +1113,32 @@ public class FirebaseUtil {
             return;
         }
 
-        rideOffersRef.child(offerId).addListenerForSingleValueEvent(new ValueEventListener() {
-            @Override
-            public void onDataChange(DataSnapshot dataSnapshot) {
-                if (dataSnapshot.exists()) {
-                    RideOffer offer = dataSnapshot.getValue(RideOffer.class);
-                    offer.setId(dataSnapshot.getKey());
-                    callback.onSuccess(offer);
-                } else {
-                    callback.onError("Ride offer not found");
+        // Answer from the cache while the offer is fresh
+        RideOffer cached = rideOfferCache.get(offerId);
+        if (cached != null) {
+            callback.onSuccess(cached);
+            return;
+        }
+
+        // Concurrent reads of the same ride offer share one database read
+        rideOfferReads.run("rideOffers/" + offerId, loaded -> resilience.run("getRideOfferById", RetryPolicy.READ, outcome ->
+            rideOffersRef.child(offerId).addListenerForSingleValueEvent(new ValueEventListener() {
+                @Override
+                public void onDataChange(DataSnapshot dataSnapshot) {
+                    if (dataSnapshot.exists()) {
+                        RideOffer offer = RideOffer.fromMap(dataSnapshot.getKey(), fields("getRideOfferById", dataSnapshot));
+                        rideOfferCache.put(offer.getId(), offer);
+                        outcome.onSuccess(offer);
+                    } else {
+                        outcome.onError("Ride offer not found");
+                    }
                 }
-            }
 
-            @Override
-            public void onCancelled(DatabaseError databaseError) {
-                Log.e(TAG, "Database error getting ride offer by ID", databaseError.toException());
-                callback.onError(databaseError.getMessage());
-            }
-        });
+                @Override
+                public void onCancelled(DatabaseError databaseError) {
+                    fail(outcome, "Database error getting ride offer by ID", databaseError);
+                }
+            }), loaded), callback);
     }
 
     /**
@@ -584,90 +1153,52 @@ public class FirebaseUtil {
             return;
         }
 
-        rideRequestsRef.child(requestId).addListenerForSingleValueEvent(new ValueEventListener() {
-            @Override
-            public void onDataChange(DataSnapshot dataSnapshot) {
-                if (dataSnapshot.exists()) {
-                    RideRequest request = dataSnapshot.getValue(RideRequest.class);
-                    request.setId(dataSnapshot.getKey());
-                    callback.onSuccess(request);
-                } else {
-                    callback.onError("Ride request not found");
-                }
-            }
-
-            @Override
-            public void onCancelled(DatabaseError databaseError) {
-                Log.e(TAG, "Database error getting ride request by ID", databaseError.toException());
-                callback.onError(databaseError.getMessage());
-            }
-        });
-    }
-
-    /**
-     * Add a listener to be notified when a user's points change
-     * @param userId ID of the user to listen for point changes
-     * @param listener Listener to be notified
-     */
-    public static void addPointsUpdateListener(String userId, Object listener) {
-        if (!pointsListeners.containsKey(userId)) {
-            pointsListeners.put(userId, new ArrayList<>());
+        // Answer from the cache while the request is fresh
+        RideRequest cached = rideRequestCache.get(requestId);
+        if (cached != null) {
+            callback.onSuccess(cached);
+            return;
+        }
 
-            // Add a real-time listener for this user's points
-            usersRef.child(userId).child("ridePoints").addValueEventListener(new ValueEventListener() {
+        // Concurrent reads of the same ride request share one database read
+        rideRequestReads.run("rideRequests/" + requestId, loaded -> resilience.run("getRideRequestById", RetryPolicy.READ, outcome ->
+            rideRequestsRef.child(requestId).addListenerForSingleValueEvent(new ValueEventListener() {
                 @Override
                 public void onDataChange(DataSnapshot dataSnapshot) {
                     if (dataSnapshot.exists()) {
-                        Integer points = dataSnapshot.getValue(Integer.class);
-                        if (points != null) {
-                            // Notify all listeners for this user
-                            notifyPointsListeners(userId, points);
-                        }
+                        RideRequest request = RideRequest.fromMap(dataSnapshot.getKey(), fields("getRideRequestById", dataSnapshot));
+                        rideRequestCache.put(request.getId(), request);
+                        outcome.onSuccess(request);
+                    } else {
+                        outcome.onError("Ride request not found");
                     }
                 }
 
                 @Override
                 public void onCancelled(DatabaseError databaseError) {
-                    Log.e(TAG, "Database error listening for points updates", databaseError.toException());
+                    fail(outcome, "Database error getting ride request by ID", databaseError);
                 }
-            });
-        }
-
-        // Add this listener to the list
-        pointsListeners.get(userId).add(listener);
+            }), loaded), callback);
     }
 
     /**
-     * Remove a points update listener
-     * @param userId ID of the user
-     * @param listener Listener to remove
+     * Add a listener to be notified when a user's points change. All listeners of a
+     * user share one database listener.
+     * @param userId ID of the user to listen for point changes
+     * @param listener Listener to be notified
      */
-    public static void removePointsUpdateListener(String userId, Object listener) {
-        if (pointsListeners.containsKey(userId)) {
-            pointsListeners.get(userId).remove(listener);
-
-            // If no more listeners for this user, we could remove the Firebase listener too
-            // But for simplicity, we'll keep it active
-        }
+    public static void addPointsUpdateListener(String userId, PointsListener listener) {
+        pointsListeners.add(userId, listener);
     }
 
     /**
-     * Notify all listeners for a user about points changes
+     * Remove a points update listener. The database listener is detached once the
+     * user has no listeners left.
      * @param userId ID of the user
-     * @param points New points value
+     * @param listener Listener to remove
      */
-    private static void notifyPointsListeners(String userId, int points) {
-        if (pointsListeners.containsKey(userId)) {
-            for (Object listener : pointsListeners.get(userId)) {
-                try {
-                    // Use reflection to call the onPointsUpdated method
-                    Method method = listener.getClass().getMethod("onPointsUpdated", int.class);
-                    method.invoke(listener, points);
-                } catch (Exception e) {
-                    Log.e(TAG, "Error notifying points listener", e);
-                }
-            }
-        }
+    public static void removePointsUpdateListener(String userId, PointsListener listener) {
+        pointsListeners.remove(userId, listener);
     }
 
     /**
@@ -679,10 +1210,505 @@ public class FirebaseUtil {
         return currentUser != null ? currentUser.getUid() : null;
     }
 
+    /**
+     * Keep a user's profile and ride index synced in the local cache, even while
+     * no screen is listening, so they can be shown from disk on the next launch
+     * @param userId ID of the user
+     * @param synced true to keep the data synced, false to stop
+     */
+    public static void keepUserSynced(String userId, boolean synced) {
+        if (userId == null) {
+            return;
+        }
+        usersRef.child(userId).keepSynced(synced);
+        userRidesRef.child(userId).keepSynced(synced);
+    }
+
     /**
      * Sign out the current user
      */
     public static void signOut() {
         firebaseAuth.signOut();
+
+        // Cached entities belong to the signed-in session
+        userCache.invalidateAll();
+        rideOfferCache.invalidateAll();
+        rideRequestCache.invalidateAll();
     }
+
+    /**
+     * Live query used as a RideFeed source. Only the child that changed is decoded,
+     * so each update costs the same no matter how many rides are in the feed.
+     * @param <T> Type of the feed items
+     */
+    private abstract static class ChildQuerySource<T> implements RideFeed.Source<T> {
+        private final Query query;
+        private final String description;
+        private ChildEventListener listener;
+        private ValueEventListener loadedListener;
+
+        ChildQuerySource(Query query, String description) {
+            this.query = query;
+            this.description = description;
+        }
+
+        /**
+         * Decode a single child of the query
+         * @param snapshot Child snapshot
+         * @return Decoded item
+         */
+        protected abstract T decode(DataSnapshot snapshot);
+
+        /**
+         * Add or update an item in the feed
+         * @param feed Feed to update
+         * @param key Key of the child
+         * @param item Decoded child
+         */
+        protected void put(RideFeed<T> feed, String key, T item) {
+            feed.applyChanged(key, item);
+        }
+
+        /**
+         * Remove an item from the feed
+         * @param feed Feed to update
+         * @param key Key of the child
+         */
+        protected void remove(RideFeed<T> feed, String key) {
+            feed.applyRemoved(key);
+        }
+
+        @Override
+        public void start(RideFeed<T> feed) {
+            // Check if user is authenticated
+            if (firebaseAuth.getCurrentUser() == null) {
+                feed.fail("User not authenticated");
+                return;
+            }
+
+            listener = new ChildEventListener() {
+                @Override
+                public void onChildAdded(DataSnapshot snapshot, String previousChildName) {
+                    put(feed, snapshot.getKey(), decode(snapshot));
+                }
+
+                @Override
+                public void onChildChanged(DataSnapshot snapshot, String previousChildName) {
+                    put(feed, snapshot.getKey(), decode(snapshot));
+                }
+
+                @Override
+                public void onChildRemoved(DataSnapshot snapshot) {
+                    remove(feed, snapshot.getKey());
+                }
+
+                @Override
+                public void onChildMoved(DataSnapshot snapshot, String previousChildName) {
+                    // The feed keeps its own order, so a move is just a change
+                    put(feed, snapshot.getKey(), decode(snapshot));
+                }
+
+                @Override
+                public void onCancelled(DatabaseError databaseError) {
+                    Log.e(TAG, "Database error watching " + description, databaseError.toException());
+                    feed.fail(databaseError.getMessage());
+                }
+            };
+            query.addChildEventListener(listener);
+
+            // A value event on the same query fires after its initial child events,
+            // without downloading the data a second time
+            loadedListener = new ValueEventListener() {
+                @Override
+                public void onDataChange(DataSnapshot dataSnapshot) {
+                    if (loadedListener == this) {
+                        feed.markLoaded();
+                    }
+                }
+
+                @Override
+                public void onCancelled(DatabaseError databaseError) {
+                    // Reported by the child listener
+                }
+            };
+            query.addListenerForSingleValueEvent(loadedListener);
+        }
+
+        @Override
+        public void stop() {
+            if (listener != null) {
+                query.removeEventListener(listener);
+                listener = null;
+            }
+            if (loadedListener != null) {
+                query.removeEventListener(loadedListener);
+                loadedListener = null;
+            }
+        }
+    } // ChildQuerySource
+
+    /**
+     * Paged source of the upcoming rides with a status, ordered by the statusTime key.
+     * Each page is found with a one-shot startAfter(cursor).limitToFirst(pageSize)
+     * query, then watched by a live listener bound to exactly that range, so pages
+     * never overlap and rides past the last loaded page are not downloaded until the
+     * user scrolls there. The last page is left open-ended so new rides at the end
+     * still show up. Rides seen by a page refresh the entity cache, and rides that
+     * leave a page are invalidated.
+     * @param <T> Type of the items in the feed
+     */
+    private abstract static class PagedQuerySource<T> implements RideFeed.Source<T> {
+        private final DatabaseReference ref;
+        private final String status;
+        private final int pageSize;
+        private final EntityCache<T> cache;
+        private final String description;
+        private final String operation;
+        private final List<ChildQuerySource<T>> pages = new ArrayList<>();
+        // Page currently showing each ride
+        private final Map<String, ChildQuerySource<T>> owners = new HashMap<>();
+        private RideFeed<T> feed;
+        private boolean loading;
+        private boolean exhausted;
+        private String lowerBound;
+        private String cursorValue;
+        private String cursorKey;
+        // Bumped on stop so late page queries are ignored
+        private int generation;
+
+        PagedQuerySource(DatabaseReference ref, String status, int pageSize, EntityCache<T> cache, String description,
+                         String operation) {
+            this.ref = ref;
+            this.status = status;
+            this.pageSize = pageSize;
+            this.cache = cache;
+            this.description = description;
+            this.operation = operation;
+        }
+
+        /**
+         * Decode a single child of the query
+         * @param snapshot Child snapshot
+         * @return Decoded item
+         */
+        protected abstract T decode(DataSnapshot snapshot);
+
+        @Override
+        public void start(RideFeed<T> feed) {
+            // Check if user is authenticated
+            if (firebaseAuth.getCurrentUser() == null) {
+                feed.fail("User not authenticated");
+                return;
+            }
+
+            // Rides that already took place are left out
+            this.feed = feed;
+            lowerBound = StatusTime.lowerBound(status, System.currentTimeMillis());
+            loadMore();
+        }
+
+        @Override
+        public void loadMore() {
+            if (feed == null || loading || exhausted) {
+                return;
+            }
+            loading = true;
+
+            int startedGeneration = generation;
+            long started = System.nanoTime();
+            Query page = afterCursor().endAt(StatusTime.upperBound(status)).limitToFirst(pageSize);
+            page.addListenerForSingleValueEvent(new ValueEventListener() {
+                @Override
+                public void onDataChange(DataSnapshot dataSnapshot) {
+                    metrics.record(operation, System.nanoTime() - started, true);
+                    if (startedGeneration != generation) {
+                        return;
+                    }
+
+                    // Bound the live range at the last child of the page
+                    Query range = afterCursor();
+                    if (dataSnapshot.getChildrenCount() < pageSize) {
+                        exhausted = true;
+                        range = range.endAt(StatusTime.upperBound(status));
+                    } else {
+                        DataSnapshot last = null;
+                        for (DataSnapshot child : dataSnapshot.getChildren()) {
+                            last = child;
+                        }
+                        cursorValue = last.child("statusTime").getValue(String.class);
+                        cursorKey = last.getKey();
+                        range = range.endAt(cursorValue, cursorKey);
+                    }
+
+                    ChildQuerySource<T> pageSource = new ChildQuerySource<T>(range, description) {
+                        @Override
+                        protected T decode(DataSnapshot snapshot) {
+                            return PagedQuerySource.this.decode(snapshot);
+                        }
+
+                        @Override
+                        protected void put(RideFeed<T> feed, String key, T item) {
+                            owners.put(key, this);
+                            cache.put(key, item);
+                            feed.applyChanged(key, item);
+                        }
+
+                        @Override
+                        protected void remove(RideFeed<T> feed, String key) {
+                            cache.invalidate(key);
+                            // A ride whose date changed may already have been added by another page
+                            if (owners.get(key) == this) {
+                                owners.remove(key);
+                                feed.applyRemoved(key);
+                            }
+                        }
+                    };
+                    pages.add(pageSource);
+                    pageSource.start(feed);
+                    loading = false;
+                }
+
+                @Override
+                public void onCancelled(DatabaseError databaseError) {
+                    Log.e(TAG, "Database error paging " + description, databaseError.toException());
+                    metrics.record(operation, System.nanoTime() - started, false);
+                    if (startedGeneration != generation) {
+                        return;
+                    }
+
+                    loading = false;
+                    if (feed != null) {
+                        feed.fail(databaseError.getMessage());
+                    }
+                }
+            });
+        }
+
+        @Override
+        public boolean hasMore() {
+            return !exhausted;
+        }
+
+        @Override
+        public void stop() {
+            generation++;
+            for (ChildQuerySource<T> page : pages) {
+                page.stop();
+            }
+            pages.clear();
+            owners.clear();
+            feed = null;
+            loading = false;
+            exhausted = false;
+            cursorValue = null;
+            cursorKey = null;
+        }
+
+        /**
+         * Get the query for everything after the last loaded page
+         * @return Query ordered by statusTime
+         */
+        private Query afterCursor() {
+            Query query = ref.orderByChild("statusTime");
+            return cursorKey != null ? query.startAfter(cursorValue, cursorKey) : query.startAt(lowerBound);
+        }
+    } // PagedQuerySource
+
+    /**
+     * Source for a user's accepted rides. Watches the user's userRides index and
+     * keeps one listener per indexed ride, so the user never downloads or wakes up
+     * for rides that don't involve them. Ride snapshots are decoded and sorted on a
+     * background thread.
+     */
+    private static class UserRidesSource implements SubscriptionHub.Source<List<AcceptedRide>> {
+        private final DatabaseReference indexRef;
+        private final Map<String, ValueEventListener> rideListeners = new HashMap<>();
+        private final Map<String, DataSnapshot> rides = new HashMap<>();
+        private final Set<String> pending = new HashSet<>();
+        private FirebaseCallback<List<AcceptedRide>> sink;
+        private ChildEventListener indexListener;
+        private ValueEventListener indexLoadedListener;
+        private boolean indexLoaded;
+        private final ListPipeline<DataSnapshot, AcceptedRide> pipeline = new ListPipeline<>(
+                snapshot -> AcceptedRide.fromMap(snapshot.getKey(), fields("watchAcceptedRides", snapshot)),
+                Comparator.comparingLong(AcceptedRide::getDateTime).thenComparing(AcceptedRide::getId),
+                null,
+                (items, diff) -> {
+                    if (sink != null) {
+                        sink.onSuccess(items);
+                    }
+                });
+
+        UserRidesSource(String userId) {
+            this.indexRef = userRidesRef.child(userId);
+        }
+
+        @Override
+        public void start(FirebaseCallback<List<AcceptedRide>> sink) {
+            this.sink = sink;
+
+            indexListener = new ChildEventListener() {
+                @Override
+                public void onChildAdded(DataSnapshot snapshot, String previousChildName) {
+                    watchRide(snapshot.getKey());
+                }
+
+                @Override
+                public void onChildChanged(DataSnapshot snapshot, String previousChildName) {
+                    // Index entries carry no data
+                }
+
+                @Override
+                public void onChildRemoved(DataSnapshot snapshot) {
+                    unwatchRide(snapshot.getKey());
+                    publish();
+                }
+
+                @Override
+                public void onChildMoved(DataSnapshot snapshot, String previousChildName) {
+                    // Order is applied when publishing
+                }
+
+                @Override
+                public void onCancelled(DatabaseError databaseError) {
+                    Log.e(TAG, "Database error fetching user ride index", databaseError.toException());
+                    sink.onError(databaseError.getMessage());
+                }
+            };
+            indexRef.addChildEventListener(indexListener);
+
+            // Fires after the initial index entries have been delivered
+            indexLoadedListener = new ValueEventListener() {
+                @Override
+                public void onDataChange(DataSnapshot dataSnapshot) {
+                    indexLoaded = true;
+                    publish();
+                }
+
+                @Override
+                public void onCancelled(DatabaseError databaseError) {
+                    // Reported by the index listener
+                }
+            };
+            indexRef.addListenerForSingleValueEvent(indexLoadedListener);
+        }
+
+        @Override
+        public void stop() {
+            indexRef.removeEventListener(indexListener);
+            indexRef.removeEventListener(indexLoadedListener);
+            for (Map.Entry<String, ValueEventListener> entry : rideListeners.entrySet()) {
+                acceptedRidesRef.child(entry.getKey()).removeEventListener(entry.getValue());
+            }
+            rideListeners.clear();
+            rides.clear();
+            pending.clear();
+            pipeline.cancel();
+            indexLoaded = false;
+            sink = null;
+        }
+
+        /**
+         * Start listening to a ride listed in the index
+         * @param rideId ID of the accepted ride
+         */
+        private void watchRide(String rideId) {
+            if (rideListeners.containsKey(rideId)) {
+                return;
+            }
+
+            pending.add(rideId);
+            ValueEventListener listener = new ValueEventListener() {
+                @Override
+                public void onDataChange(DataSnapshot snapshot) {
+                    pending.remove(rideId);
+                    if (snapshot.exists()) {
+                        rides.put(rideId, snapshot);
+                    } else {
+                        rides.remove(rideId);
+                    }
+                    publish();
+                }
+
+                @Override
+                public void onCancelled(DatabaseError databaseError) {
+                    Log.e(TAG, "Database error fetching accepted ride " + rideId, databaseError.toException());
+                    pending.remove(rideId);
+                    publish();
+                }
+            };
+            rideListeners.put(rideId, listener);
+            acceptedRidesRef.child(rideId).addValueEventListener(listener);
+        }
+
+        /**
+         * Stop listening to a ride that left the index
+         * @param rideId ID of the accepted ride
+         */
+        private void unwatchRide(String rideId) {
+            ValueEventListener listener = rideListeners.remove(rideId);
+            if (listener != null) {
+                acceptedRidesRef.child(rideId).removeEventListener(listener);
+            }
+            rides.remove(rideId);
+            pending.remove(rideId);
+        }
+
+        /**
+         * Deliver the sorted rides once the index and every ride in it have loaded
+         */
+        private void publish() {
+            if (sink == null || !indexLoaded || !pending.isEmpty()) {
+                return;
+            }
+
+            pipeline.submit(new ArrayList<>(rides.values()));
+        }
+    } // UserRidesSource
+
+    /**
+     * Live source of a user's points balance, used by the points listener registry.
+     */
+    private static class PointsSource implements SubscriptionHub.Source<Integer> {
+        private final String userId;
+        private final DatabaseReference pointsRef;
+        private ValueEventListener listener;
+
+        PointsSource(String userId) {
+            this.userId = userId;
+            this.pointsRef = usersRef.child(userId).child("ridePoints");
+        }
+
+        @Override
+        public void start(FirebaseCallback<Integer> sink) {
+            listener = new ValueEventListener() {
+                @Override
+                public void onDataChange(DataSnapshot dataSnapshot) {
+                    Integer points = dataSnapshot.getValue(Integer.class);
+                    if (points != null) {
+                        metrics.recordBytesRead("watchPoints", OperationMetrics.estimateBytes(points));
+
+                        // A cached user with other points is stale
+                        userCache.invalidateIf(userId, user -> user.getRidePoints() != points);
+                        sink.onSuccess(points);
+                    }
+                }
+
+                @Override
+                public void onCancelled(DatabaseError databaseError) {
+                    Log.e(TAG, "Database error listening for points updates", databaseError.toException());
+                    sink.onError(databaseError.getMessage());
+                }
+            };
+            pointsRef.addValueEventListener(listener);
+        }
+
+        @Override
+        public void stop() {
+            if (listener != null) {
+                pointsRef.removeEventListener(listener);
+                listener = null;
+            }
+        }
+    } // PointsSource
 }
\ No newline at end of file
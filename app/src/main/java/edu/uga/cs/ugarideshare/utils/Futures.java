@@ -0,0 +1,262 @@
+package edu.uga.cs.ugarideshare.utils;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import com.google.android.gms.tasks.Task;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Futures bridges FirebaseCallback operations to CompletableFuture, so flows can
+ * be written as a chain instead of nested callbacks. Independent reads started
+ * together run concurrently, allOf() waits for all of them and withTimeout() bounds
+ * how long a flow may take.
+ *
+ * Database callbacks arrive on the main thread, but a timeout completes its future
+ * on a timer thread, so results go back to screens through deliver(), which always
+ * calls the callback on the main thread.
+ */
+public final class Futures {
+
+    /**
+     * Operation reporting its result through a FirebaseCallback
+     * @param <T> Type of the result
+     */
+    public interface Call<T> {
+        /**
+         * Start the operation
+         * @param callback Callback to call exactly once with the result
+         */
+        void start(FirebaseCallback<T> callback);
+    }
+
+    /**
+     * Failure reported through FirebaseCallback.onError
+     */
+    public static class Failure extends RuntimeException {
+        /**
+         * Constructor
+         * @param message Error message
+         */
+        public Failure(String message) {
+            super(message);
+        }
+    }
+
+    // Runs commands on the main thread, right away if already on it
+    public static final Executor MAIN_THREAD = command -> {
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            command.run();
+        } else {
+            new Handler(Looper.getMainLooper()).post(command);
+        }
+    };
+
+    // Fires timeouts; one daemon thread is plenty since it only completes futures
+    private static final ScheduledExecutorService TIMER = createTimer();
+
+    private Futures() {
+    }
+
+    /**
+     * Start a callback-based operation as a future
+     * @param call Operation to start
+     * @param <T> Type of the result
+     * @return Future completed with the result, or with a Failure carrying the error
+     */
+    public static <T> CompletableFuture<T> call(Call<T> call) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        call.start(new FirebaseCallback<T>() {
+            @Override
+            public void onSuccess(T result) {
+                future.complete(result);
+            }
+
+            @Override
+            public void onError(String error) {
+                future.completeExceptionally(new Failure(error));
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Adapt a Play services task to a future
+     * @param task Task to adapt
+     * @param <T> Type of the result
+     * @return Future completed when the task completes
+     */
+    public static <T> CompletableFuture<T> fromTask(Task<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        task.addOnSuccessListener(future::complete)
+                .addOnFailureListener(future::completeExceptionally);
+        return future;
+    }
+
+    /**
+     * Wait for every future of a list
+     * @param futures Futures that are already running
+     * @param <T> Type of the results
+     * @return Future of the results in the same order, failing as soon as any future fails
+     */
+    public static <T> CompletableFuture<List<T>> allOf(List<CompletableFuture<T>> futures) {
+        CompletableFuture<List<T>> all = CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                .thenApply(ignored -> {
+                    List<T> results = new ArrayList<>(futures.size());
+                    for (CompletableFuture<T> future : futures) {
+                        results.add(future.join());
+                    }
+                    return results;
+                });
+
+        // allOf waits for every future even after one failed; fail fast instead
+        for (CompletableFuture<T> future : futures) {
+            future.whenComplete((result, error) -> {
+                if (error != null) {
+                    all.completeExceptionally(error);
+                }
+            });
+        }
+        return all;
+    }
+
+    /**
+     * Bound how long a future may take
+     * @param future Future to bound
+     * @param timeout Time allowed
+     * @param unit Unit of the time allowed
+     * @param <T> Type of the result
+     * @return Future failing with a TimeoutException if the result is late; the late
+     *         future is cancelled so its result is ignored, and so is the bounded
+     *         future if the returned one is cancelled
+     */
+    public static <T> CompletableFuture<T> withTimeout(CompletableFuture<T> future, long timeout, TimeUnit unit) {
+        return withTimeout(future, timeout, unit, TIMER);
+    }
+
+    /**
+     * Bound how long a future may take
+     * @param future Future to bound
+     * @param timeout Time allowed
+     * @param unit Unit of the time allowed
+     * @param timer Executor firing the timeout
+     * @param <T> Type of the result
+     * @return Future failing with a TimeoutException if the result is late
+     */
+    public static <T> CompletableFuture<T> withTimeout(CompletableFuture<T> future, long timeout, TimeUnit unit,
+                                                       ScheduledExecutorService timer) {
+        CompletableFuture<T> bounded = new CompletableFuture<>();
+        ScheduledFuture<?> expiry = timer.schedule(() -> {
+            if (bounded.completeExceptionally(new TimeoutException("Timed out after " + unit.toMillis(timeout) + " ms"))) {
+                future.cancel(false);
+            }
+        }, timeout, unit);
+
+        future.whenComplete((result, error) -> {
+            expiry.cancel(false);
+            if (error != null) {
+                bounded.completeExceptionally(error);
+            } else {
+                bounded.complete(result);
+            }
+        });
+        bounded.whenComplete((result, error) -> {
+            if (bounded.isCancelled()) {
+                expiry.cancel(false);
+                future.cancel(false);
+            }
+        });
+        return bounded;
+    }
+
+    /**
+     * Deliver the outcome of a future to a callback on the main thread
+     * @param future Future to deliver
+     * @param callback Callback receiving the result or the error message
+     * @param <T> Type of the result
+     */
+    public static <T> void deliver(CompletableFuture<T> future, FirebaseCallback<T> callback) {
+        deliver(future, callback, MAIN_THREAD);
+    }
+
+    /**
+     * Deliver the outcome of a future to a callback
+     * @param future Future to deliver
+     * @param callback Callback receiving the result or the error message
+     * @param executor Executor the callback is called on
+     * @param <T> Type of the result
+     */
+    public static <T> void deliver(CompletableFuture<T> future, FirebaseCallback<T> callback, Executor executor) {
+        future.whenCompleteAsync((result, error) -> {
+            if (error != null) {
+                callback.onError(message(error));
+            } else {
+                callback.onSuccess(result);
+            }
+        }, executor);
+    }
+
+    /**
+     * Get the message to show for a failed future
+     * @param error Error the future failed with
+     * @return Error message
+     */
+    public static String message(Throwable error) {
+        Throwable cause = unwrap(error);
+        if (cause instanceof TimeoutException) {
+            return "The request timed out, please try again";
+        }
+        if (cause instanceof CancellationException) {
+            return "The request was cancelled";
+        }
+        return cause.getMessage() != null ? cause.getMessage() : cause.toString();
+    }
+
+    /**
+     * Check whether a future failed because it took too long
+     * @param error Error the future failed with
+     * @return true for a timeout from withTimeout()
+     */
+    public static boolean isTimeout(Throwable error) {
+        return unwrap(error) instanceof TimeoutException;
+    }
+
+    /**
+     * Strip the wrappers CompletableFuture puts around errors
+     * @param error Error a future failed with
+     * @return Original error
+     */
+    private static Throwable unwrap(Throwable error) {
+        while ((error instanceof CompletionException || error instanceof ExecutionException)
+                && error.getCause() != null) {
+            error = error.getCause();
+        }
+        return error;
+    }
+
+    /**
+     * Create the timer thread firing timeouts
+     * @return Scheduled executor
+     */
+    private static ScheduledExecutorService createTimer() {
+        ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "Futures-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        timer.setRemoveOnCancelPolicy(true);
+        return timer;
+    }
+} // Futures
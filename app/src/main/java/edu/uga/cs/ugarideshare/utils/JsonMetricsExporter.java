@@ -0,0 +1,62 @@
+package edu.uga.cs.ugarideshare.utils;
+
+import java.util.List;
+
+/**
+ * Renders the metrics as a JSON object keyed by operation name, with latencies in
+ * microseconds, e.g. for tests to compare or to attach to a bug report
+ */
+public class JsonMetricsExporter implements OperationMetrics.Exporter {
+    private String json = "{}";
+
+    @Override
+    public void export(List<OperationMetrics.Summary> summaries) {
+        StringBuilder sb = new StringBuilder("{");
+        for (int i = 0; i < summaries.size(); i++) {
+            OperationMetrics.Summary s = summaries.get(i);
+            if (i > 0) {
+                sb.append(',');
+            }
+            appendString(sb, s.getOperation());
+            sb.append(":{\"count\":").append(s.getCount())
+                    .append(",\"successes\":").append(s.getSuccesses())
+                    .append(",\"errors\":").append(s.getErrors())
+                    .append(",\"bytesRead\":").append(s.getBytesRead())
+                    .append(",\"p50Micros\":").append(s.getP50Micros())
+                    .append(",\"p95Micros\":").append(s.getP95Micros())
+                    .append(",\"p99Micros\":").append(s.getP99Micros())
+                    .append(",\"maxMicros\":").append(s.getMaxMicros())
+                    .append(",\"meanMicros\":").append(s.getMeanMicros())
+                    .append('}');
+        }
+        json = sb.append('}').toString();
+    }
+
+    /**
+     * Get the JSON of the last export
+     * @return JSON object, "{}" before the first export
+     */
+    public String getJson() {
+        return json;
+    }
+
+    /**
+     * Append a quoted JSON string
+     * @param sb Builder to append to
+     * @param s String to quote
+     */
+    private static void appendString(StringBuilder sb, String s) {
+        sb.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c < 0x20) {
+                sb.append(String.format("\\u%04x", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+        sb.append('"');
+    }
+} // JsonMetricsExporter
@@ -0,0 +1,142 @@
+package edu.uga.cs.ugarideshare.utils;
+
+import java.util.Arrays;
+
+/**
+ * LatencyHistogram counts latencies in log-linear buckets, the way HdrHistogram
+ * does: values below 32 microseconds get a bucket each, and every power of two
+ * above that is split into 16 equal buckets, so a percentile read back from the
+ * histogram is within about 6% of the recorded value. The buckets are a fixed
+ * array, so recording never allocates.
+ *
+ * Not thread-safe; the owner synchronizes.
+ */
+public class LatencyHistogram {
+    // Values below this many microseconds each get their own bucket
+    private static final int LINEAR_BUCKETS = 32;
+    // Buckets per power of two above that
+    private static final int SUB_BUCKETS = 16;
+    // Longer latencies, about 12 days, are counted as this one
+    private static final long MAX_MICROS = (1L << 40) - 1;
+    private static final int BUCKETS = index(MAX_MICROS) + 1;
+
+    private final long[] counts = new long[BUCKETS];
+    private long count;
+    private long totalMicros;
+    private long maxMicros;
+
+    /**
+     * Record a latency
+     * @param nanos Latency in nanoseconds
+     */
+    public void record(long nanos) {
+        long micros = Math.min(Math.max(nanos / 1_000, 0), MAX_MICROS);
+        counts[index(micros)]++;
+        count++;
+        totalMicros += micros;
+        maxMicros = Math.max(maxMicros, micros);
+    }
+
+    /**
+     * Get the number of recorded latencies
+     * @return Number of latencies
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Get the largest recorded latency
+     * @return Latency in microseconds, 0 if nothing was recorded
+     */
+    public long getMaxMicros() {
+        return maxMicros;
+    }
+
+    /**
+     * Get the mean of the recorded latencies
+     * @return Mean latency in microseconds, 0 if nothing was recorded
+     */
+    public long getMeanMicros() {
+        return count == 0 ? 0 : totalMicros / count;
+    }
+
+    /**
+     * Get the latency below which a share of the recorded latencies fall
+     * @param percentile Percentile between 0 and 100, e.g. 99 for p99
+     * @return Upper end of the bucket holding the percentile in microseconds,
+     *         never above the largest latency; 0 if nothing was recorded
+     */
+    public long getPercentileMicros(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(upperBound(i), maxMicros);
+            }
+        }
+        return maxMicros;
+    }
+
+    /**
+     * Add the latencies of another histogram to this one
+     * @param other Histogram to add
+     */
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] += other.counts[i];
+        }
+        count += other.count;
+        totalMicros += other.totalMicros;
+        maxMicros = Math.max(maxMicros, other.maxMicros);
+    }
+
+    /**
+     * Forget all recorded latencies
+     */
+    public void reset() {
+        Arrays.fill(counts, 0);
+        count = 0;
+        totalMicros = 0;
+        maxMicros = 0;
+    }
+
+    /**
+     * Get the bucket of a latency
+     * @param micros Latency in microseconds, at most MAX_MICROS
+     * @return Bucket index
+     */
+    private static int index(long micros) {
+        if (micros < LINEAR_BUCKETS) {
+            return (int) micros;
+        }
+        // Keep the top five bits, 16 to 31, and count how far they were shifted
+        int shift = 63 - Long.numberOfLeadingZeros(micros) - 4;
+        int sub = (int) (micros >>> shift);
+        return LINEAR_BUCKETS + (shift - 1) * SUB_BUCKETS + (sub - SUB_BUCKETS);
+    }
+
+    /**
+     * Get the largest latency counted in a bucket
+     * @param index Bucket index
+     * @return Latency in microseconds
+     */
+    private static long upperBound(int index) {
+        if (index < LINEAR_BUCKETS) {
+            return index;
+        }
+        int shift = (index - LINEAR_BUCKETS) / SUB_BUCKETS + 1;
+        long sub = SUB_BUCKETS + (index - LINEAR_BUCKETS) % SUB_BUCKETS;
+        return ((sub + 1) << shift) - 1;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d values, p50 %d us, p99 %d us, max %d us",
+                count, getPercentileMicros(50), getPercentileMicros(99), maxMicros);
+    }
+} // LatencyHistogram
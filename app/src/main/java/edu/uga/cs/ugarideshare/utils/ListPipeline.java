@@ -0,0 +1,338 @@
+package edu.uga.cs.ugarideshare.utils;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.recyclerview.widget.DiffUtil;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ListPipeline turns raw snapshots into the list a screen shows without doing the
+ * work on the main thread. Each submitted batch is decoded, filtered, sorted and
+ * diffed against the list the screen currently shows on a small background
+ * executor, and only the finished list and its delta are posted back to the main
+ * thread.
+ *
+ * A newer batch supersedes an older one: a batch still waiting is dropped without
+ * being processed, a batch being processed stops at the next item, and a batch that
+ * already finished is dropped instead of delivered. submit() and cancel() are
+ * expected to be called on the main thread.
+ * @param <S> Type of the raw items, e.g. DataSnapshot
+ * @param <T> Type of the list items
+ */
+public class ListPipeline<S, T> {
+
+    /**
+     * Decodes one raw item
+     * @param <S> Type of the raw items
+     * @param <T> Type of the list items
+     */
+    public interface Decoder<S, T> {
+        /**
+         * Decode a raw item. Called on a background thread.
+         * @param raw Raw item
+         * @return Decoded item, or null to leave it out of the list
+         */
+        T decode(S raw);
+    }
+
+    /**
+     * Receives finished lists on the main thread
+     * @param <T> Type of the list items
+     */
+    public interface Listener<T> {
+        /**
+         * Called when the list for the latest batch is ready
+         * @param items Decoded, filtered and sorted items
+         * @param diff Changes from the previously delivered list, or null if the
+         *             pipeline does not diff
+         */
+        void onListReady(List<T> items, DiffUtil.DiffResult diff);
+    }
+
+    // Shared by every pipeline. Each pipeline keeps at most one job queued, so the
+    // queue only fills up if many screens are busy at once; jobs are then run by the caller.
+    private static final ThreadPoolExecutor BACKGROUND = createBackgroundExecutor();
+
+    /**
+     * Batch of raw items together with the list it is diffed against
+     */
+    private static class Batch<S, T> {
+        final int generation;
+        final List<S> raw;
+        final List<T> base;
+
+        Batch(int generation, List<S> raw, List<T> base) {
+            this.generation = generation;
+            this.raw = raw;
+            this.base = base;
+        }
+    }
+
+    private final Decoder<S, T> decoder;
+    private final Comparator<T> order;
+    private final DiffUtil.ItemCallback<T> diffCallback;
+    private final Listener<T> listener;
+    private final Executor background;
+    private final Executor main;
+    private final Object lock = new Object();
+    // Bumped by every submit and cancel; jobs for older generations are abandoned
+    private volatile int generation;
+    // List last delivered to the listener
+    private volatile List<T> current = Collections.emptyList();
+    private Batch<S, T> pending;
+    private boolean scheduled;
+    private long submitted;
+    private long delivered;
+    private long superseded;
+
+    /**
+     * Constructor using the shared background executor and the main thread
+     * @param decoder Decodes and filters raw items
+     * @param order Order of the list, or null to keep the order of the raw items
+     * @param diffCallback Compares items for diffing, or null to skip diffing
+     * @param listener Listener receiving finished lists
+     */
+    public ListPipeline(Decoder<S, T> decoder, Comparator<T> order, DiffUtil.ItemCallback<T> diffCallback,
+                        Listener<T> listener) {
+        this(decoder, order, diffCallback, listener, BACKGROUND, new Handler(Looper.getMainLooper())::post);
+    }
+
+    /**
+     * Constructor
+     * @param decoder Decodes and filters raw items
+     * @param order Order of the list, or null to keep the order of the raw items
+     * @param diffCallback Compares items for diffing, or null to skip diffing
+     * @param listener Listener receiving finished lists
+     * @param background Executor doing the work
+     * @param main Executor delivering results on the main thread
+     */
+    public ListPipeline(Decoder<S, T> decoder, Comparator<T> order, DiffUtil.ItemCallback<T> diffCallback,
+                        Listener<T> listener, Executor background, Executor main) {
+        this.decoder = decoder;
+        this.order = order;
+        this.diffCallback = diffCallback;
+        this.listener = listener;
+        this.background = background;
+        this.main = main;
+    }
+
+    /**
+     * Process a new batch of raw items, superseding any batch still in flight
+     * @param raw Raw items; the list is copied, the items must not change afterwards
+     */
+    public void submit(List<S> raw) {
+        synchronized (lock) {
+            submitted++;
+            if (pending != null) {
+                superseded++;
+            }
+            pending = new Batch<>(++generation, new ArrayList<>(raw), current);
+            if (scheduled) {
+                return;
+            }
+            scheduled = true;
+        }
+        background.execute(this::drain);
+    }
+
+    /**
+     * Abandon the batch in flight, e.g. when the screen stops listening. The list
+     * last delivered is kept as the base for the next diff.
+     */
+    public void cancel() {
+        synchronized (lock) {
+            generation++;
+            if (pending != null) {
+                pending = null;
+                superseded++;
+            }
+        }
+    }
+
+    /**
+     * Get the list last delivered to the listener
+     * @return Current list
+     */
+    public List<T> getCurrentList() {
+        return current;
+    }
+
+    /**
+     * Process pending batches until none is left. Runs on the background executor.
+     */
+    private void drain() {
+        while (true) {
+            Batch<S, T> batch;
+            synchronized (lock) {
+                batch = pending;
+                pending = null;
+                if (batch == null) {
+                    scheduled = false;
+                    return;
+                }
+            }
+            process(batch);
+        }
+    }
+
+    /**
+     * Decode, filter, sort and diff one batch, then post the result to the main thread
+     * @param batch Batch to process
+     */
+    private void process(Batch<S, T> batch) {
+        List<T> items = new ArrayList<>(batch.raw.size());
+        for (S raw : batch.raw) {
+            if (batch.generation != generation) {
+                abandon();
+                return;
+            }
+            T item = decoder.decode(raw);
+            if (item != null) {
+                items.add(item);
+            }
+        }
+
+        if (order != null) {
+            Collections.sort(items, order);
+        }
+
+        DiffUtil.DiffResult diff = null;
+        if (diffCallback != null) {
+            if (batch.generation != generation) {
+                abandon();
+                return;
+            }
+            diff = DiffUtil.calculateDiff(new ListCallback<>(batch.base, items, diffCallback));
+        }
+
+        List<T> result = Collections.unmodifiableList(items);
+        DiffUtil.DiffResult delta = diff;
+        main.execute(() -> {
+            // A newer batch was submitted while this one was being processed
+            if (batch.generation != generation) {
+                abandon();
+                return;
+            }
+            current = result;
+            synchronized (lock) {
+                delivered++;
+            }
+            listener.onListReady(result, delta);
+        });
+    }
+
+    /**
+     * Count a batch that was dropped because a newer one superseded it
+     */
+    private void abandon() {
+        synchronized (lock) {
+            superseded++;
+        }
+    }
+
+    /**
+     * Get the number of batches submitted
+     * @return Number of batches
+     */
+    public long getSubmittedCount() {
+        synchronized (lock) {
+            return submitted;
+        }
+    }
+
+    /**
+     * Get the number of lists delivered to the listener
+     * @return Number of lists delivered
+     */
+    public long getDeliveredCount() {
+        synchronized (lock) {
+            return delivered;
+        }
+    }
+
+    /**
+     * Get the number of batches dropped because a newer one superseded them
+     * @return Number of superseded batches
+     */
+    public long getSupersededCount() {
+        synchronized (lock) {
+            return superseded;
+        }
+    }
+
+    @Override
+    public String toString() {
+        synchronized (lock) {
+            return String.format("%d batches, %d delivered, %d superseded", submitted, delivered, superseded);
+        }
+    }
+
+    /**
+     * Create the executor shared by all pipelines
+     * @return Bounded background executor
+     */
+    private static ThreadPoolExecutor createBackgroundExecutor() {
+        AtomicInteger count = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(2, 2, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(16),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "ListPipeline-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.NORM_PRIORITY - 1);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Adapts an item callback to the old and new lists of a batch
+     */
+    private static class ListCallback<T> extends DiffUtil.Callback {
+        private final List<T> oldItems;
+        private final List<T> newItems;
+        private final DiffUtil.ItemCallback<T> itemCallback;
+
+        ListCallback(List<T> oldItems, List<T> newItems, DiffUtil.ItemCallback<T> itemCallback) {
+            this.oldItems = oldItems;
+            this.newItems = newItems;
+            this.itemCallback = itemCallback;
+        }
+
+        @Override
+        public int getOldListSize() {
+            return oldItems.size();
+        }
+
+        @Override
+        public int getNewListSize() {
+            return newItems.size();
+        }
+
+        @Override
+        public boolean areItemsTheSame(int oldPosition, int newPosition) {
+            return itemCallback.areItemsTheSame(oldItems.get(oldPosition), newItems.get(newPosition));
+        }
+
+        @Override
+        public boolean areContentsTheSame(int oldPosition, int newPosition) {
+            return itemCallback.areContentsTheSame(oldItems.get(oldPosition), newItems.get(newPosition));
+        }
+
+        @Override
+        public Object getChangePayload(int oldPosition, int newPosition) {
+            return itemCallback.getChangePayload(oldItems.get(oldPosition), newItems.get(newPosition));
+        }
+    } // ListCallback
+} // ListPipeline
@@ -0,0 +1,27 @@
+package edu.uga.cs.ugarideshare.utils;
+
+import android.util.Log;
+
+import java.util.List;
+
+/**
+ * Writes one summary line per operation to logcat
+ */
+public class LogcatMetricsExporter implements OperationMetrics.Exporter {
+    private final String tag;
+
+    /**
+     * Constructor
+     * @param tag Log tag to write under
+     */
+    public LogcatMetricsExporter(String tag) {
+        this.tag = tag;
+    }
+
+    @Override
+    public void export(List<OperationMetrics.Summary> summaries) {
+        for (OperationMetrics.Summary summary : summaries) {
+            Log.i(tag, summary.toString());
+        }
+    }
+} // LogcatMetricsExporter
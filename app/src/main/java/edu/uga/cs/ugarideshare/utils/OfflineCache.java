@@ -0,0 +1,114 @@
+package edu.uga.cs.ugarideshare.utils;
+
+import android.util.Log;
+
+import com.google.firebase.database.FirebaseDatabase;
+
+/**
+ * OfflineCache sets up Firebase's on-disk cache. With persistence enabled, list
+ * queries are answered from disk right away on a cold start and then reconciled
+ * with the server, and writes made while offline are queued until reconnecting.
+ *
+ * configure() must run before the first database reference is created, which is
+ * why it is called from the Application rather than from FirebaseUtil.
+ */
+public final class OfflineCache {
+    private static final String TAG = "OfflineCache";
+
+    // Limits accepted by the Firebase SDK
+    public static final long MIN_CACHE_SIZE_BYTES = 1024L * 1024L;
+    public static final long MAX_CACHE_SIZE_BYTES = 100L * 1024L * 1024L;
+
+    /**
+     * How the database client caches data
+     */
+    public enum Mode {
+        // Memory only; every cold start waits for the network
+        ONLINE_ONLY,
+        // Data and pending writes are kept on disk between launches
+        PERSISTENT
+    }
+
+    /**
+     * Cache mode together with the size of the on-disk cache
+     */
+    public static final class Policy {
+        /**
+         * Persistent cache of 10 MB, the SDK default
+         */
+        public static final Policy DEFAULT = new Policy(Mode.PERSISTENT, 10L * 1024L * 1024L);
+
+        /**
+         * No disk cache
+         */
+        public static final Policy ONLINE_ONLY = new Policy(Mode.ONLINE_ONLY, MIN_CACHE_SIZE_BYTES);
+
+        private final Mode mode;
+        private final long cacheSizeBytes;
+
+        /**
+         * Constructor
+         * @param mode Cache mode
+         * @param cacheSizeBytes Size of the disk cache, clamped to what Firebase accepts
+         */
+        public Policy(Mode mode, long cacheSizeBytes) {
+            this.mode = mode;
+            this.cacheSizeBytes = Math.max(MIN_CACHE_SIZE_BYTES, Math.min(MAX_CACHE_SIZE_BYTES, cacheSizeBytes));
+        }
+
+        /**
+         * Get the cache mode
+         * @return Cache mode
+         */
+        public Mode getMode() {
+            return mode;
+        }
+
+        /**
+         * Get the size of the disk cache
+         * @return Cache size in bytes
+         */
+        public long getCacheSizeBytes() {
+            return cacheSizeBytes;
+        }
+    } // Policy
+
+    private static Policy policy;
+
+    private OfflineCache() {
+    }
+
+    /**
+     * Apply a cache policy. Only the first call has an effect.
+     * @param newPolicy Policy to apply
+     */
+    public static synchronized void configure(Policy newPolicy) {
+        if (policy != null) {
+            Log.w(TAG, "Offline cache already configured");
+            return;
+        }
+
+        policy = newPolicy;
+        if (newPolicy.getMode() == Mode.PERSISTENT) {
+            FirebaseDatabase database = FirebaseDatabase.getInstance();
+            database.setPersistenceEnabled(true);
+            database.setPersistenceCacheSizeBytes(newPolicy.getCacheSizeBytes());
+        }
+    }
+
+    /**
+     * Get the policy in effect
+     * @return Cache policy, ONLINE_ONLY if none was configured
+     */
+    public static synchronized Policy getPolicy() {
+        return policy != null ? policy : Policy.ONLINE_ONLY;
+    }
+
+    /**
+     * Check whether data is kept on disk
+     * @return true if persistence is enabled
+     */
+    public static boolean isPersistent() {
+        return getPolicy().getMode() == Mode.PERSISTENT;
+    }
+} // OfflineCache
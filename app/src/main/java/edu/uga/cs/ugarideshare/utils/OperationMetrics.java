@@ -0,0 +1,411 @@
+package edu.uga.cs.ugarideshare.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * OperationMetrics records, per database operation, a latency histogram, the
+ * number of successes and errors, and the bytes read. Recording looks up the
+ * operation's counters and bumps them without allocating, so the metrics stay on
+ * in release builds. Exporters turn a snapshot of the counters into a logcat
+ * summary, the debug screen or JSON.
+ */
+public class OperationMetrics {
+
+    /**
+     * Source of the time latencies are measured with
+     */
+    public interface Ticker {
+        Ticker SYSTEM = System::nanoTime;
+
+        /**
+         * Get the current time
+         * @return Current time in nanoseconds, only meaningful as a difference
+         */
+        long nanoTime();
+    }
+
+    /**
+     * Receives a snapshot of the metrics
+     */
+    public interface Exporter {
+        /**
+         * Export the metrics
+         * @param summaries One summary per operation, sorted by operation name
+         */
+        void export(List<Summary> summaries);
+    }
+
+    /**
+     * Snapshot of the metrics of one operation
+     */
+    public static class Summary {
+        private final String operation;
+        private final long successes;
+        private final long errors;
+        private final long bytesRead;
+        private final long p50Micros;
+        private final long p95Micros;
+        private final long p99Micros;
+        private final long maxMicros;
+        private final long meanMicros;
+
+        private Summary(String operation, Stats stats) {
+            this.operation = operation;
+            this.successes = stats.successes;
+            this.errors = stats.errors;
+            this.bytesRead = stats.bytesRead;
+            this.p50Micros = stats.latency.getPercentileMicros(50);
+            this.p95Micros = stats.latency.getPercentileMicros(95);
+            this.p99Micros = stats.latency.getPercentileMicros(99);
+            this.maxMicros = stats.latency.getMaxMicros();
+            this.meanMicros = stats.latency.getMeanMicros();
+        }
+
+        /**
+         * Get the name of the operation
+         * @return Operation name
+         */
+        public String getOperation() {
+            return operation;
+        }
+
+        /**
+         * Get the number of finished calls
+         * @return Successes plus errors
+         */
+        public long getCount() {
+            return successes + errors;
+        }
+
+        /**
+         * Get the number of calls that succeeded
+         * @return Number of successes
+         */
+        public long getSuccesses() {
+            return successes;
+        }
+
+        /**
+         * Get the number of calls that failed
+         * @return Number of errors
+         */
+        public long getErrors() {
+            return errors;
+        }
+
+        /**
+         * Get the data received
+         * @return Estimated bytes read
+         */
+        public long getBytesRead() {
+            return bytesRead;
+        }
+
+        /**
+         * Get the median latency
+         * @return Latency in microseconds
+         */
+        public long getP50Micros() {
+            return p50Micros;
+        }
+
+        /**
+         * Get the 95th percentile latency
+         * @return Latency in microseconds
+         */
+        public long getP95Micros() {
+            return p95Micros;
+        }
+
+        /**
+         * Get the 99th percentile latency
+         * @return Latency in microseconds
+         */
+        public long getP99Micros() {
+            return p99Micros;
+        }
+
+        /**
+         * Get the largest latency
+         * @return Latency in microseconds
+         */
+        public long getMaxMicros() {
+            return maxMicros;
+        }
+
+        /**
+         * Get the mean latency
+         * @return Latency in microseconds
+         */
+        public long getMeanMicros() {
+            return meanMicros;
+        }
+
+        /**
+         * Convert object to string
+         * @return One-line summary with latencies in milliseconds
+         */
+        @Override
+        public String toString() {
+            return String.format("%s: %d ok, %d failed, p50 %.1f ms, p95 %.1f ms, p99 %.1f ms, max %.1f ms, %d bytes read",
+                    operation, successes, errors, p50Micros / 1000.0, p95Micros / 1000.0, p99Micros / 1000.0,
+                    maxMicros / 1000.0, bytesRead);
+        }
+    } // Summary
+
+    /**
+     * Counters of one operation, guarded by their own lock
+     */
+    private static class Stats {
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private long successes;
+        private long errors;
+        private long bytesRead;
+    }
+
+    private final ConcurrentHashMap<String, Stats> stats = new ConcurrentHashMap<>();
+    private final Ticker ticker;
+    private volatile boolean enabled = true;
+
+    /**
+     * Constructor
+     */
+    public OperationMetrics() {
+        this(Ticker.SYSTEM);
+    }
+
+    /**
+     * Constructor
+     * @param ticker Source of the time
+     */
+    public OperationMetrics(Ticker ticker) {
+        this.ticker = ticker;
+    }
+
+    /**
+     * Turn recording on or off. While off, time() hands back the callback unchanged.
+     * @param enabled true to record
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Check whether recording is on
+     * @return true if operations are recorded
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Wrap a callback so the operation it belongs to is timed from now until the
+     * callback is called
+     * @param operation Name of the operation (e.g. "getUserById")
+     * @param callback Callback of the operation
+     * @param <T> Type of the result
+     * @return Callback recording the outcome, then calling the original one
+     */
+    public <T> FirebaseCallback<T> time(String operation, FirebaseCallback<T> callback) {
+        if (!enabled) {
+            return callback;
+        }
+        long started = ticker.nanoTime();
+        return new FirebaseCallback<T>() {
+            @Override
+            public void onSuccess(T result) {
+                record(operation, ticker.nanoTime() - started, true);
+                callback.onSuccess(result);
+            }
+
+            @Override
+            public void onError(String error) {
+                record(operation, ticker.nanoTime() - started, false);
+                callback.onError(error);
+            }
+        };
+    }
+
+    /**
+     * Record a finished operation
+     * @param operation Name of the operation
+     * @param latencyNanos Time the operation took, in nanoseconds
+     * @param success true if it succeeded
+     */
+    public void record(String operation, long latencyNanos, boolean success) {
+        if (!enabled) {
+            return;
+        }
+        Stats s = stats(operation);
+        synchronized (s) {
+            s.latency.record(latencyNanos);
+            if (success) {
+                s.successes++;
+            } else {
+                s.errors++;
+            }
+        }
+    }
+
+    /**
+     * Record data received for an operation
+     * @param operation Name of the operation
+     * @param bytes Estimated size of the data
+     */
+    public void recordBytesRead(String operation, long bytes) {
+        if (!enabled) {
+            return;
+        }
+        Stats s = stats(operation);
+        synchronized (s) {
+            s.bytesRead += bytes;
+        }
+    }
+
+    /**
+     * Get a snapshot of the metrics
+     * @return One summary per operation, sorted by operation name
+     */
+    public List<Summary> snapshot() {
+        List<String> operations = new ArrayList<>(stats.keySet());
+        Collections.sort(operations);
+
+        List<Summary> summaries = new ArrayList<>(operations.size());
+        for (String operation : operations) {
+            Stats s = stats.get(operation);
+            synchronized (s) {
+                summaries.add(new Summary(operation, s));
+            }
+        }
+        return summaries;
+    }
+
+    /**
+     * Hand a snapshot of the metrics to an exporter
+     * @param exporter Exporter to use
+     */
+    public void export(Exporter exporter) {
+        exporter.export(snapshot());
+    }
+
+    /**
+     * Forget everything recorded so far
+     */
+    public void resetStats() {
+        stats.clear();
+    }
+
+    /**
+     * Get the counters of an operation, creating them on first use
+     * @param operation Name of the operation
+     * @return Counters
+     */
+    private Stats stats(String operation) {
+        Stats s = stats.get(operation);
+        if (s == null) {
+            Stats created = new Stats();
+            s = stats.putIfAbsent(operation, created);
+            if (s == null) {
+                s = created;
+            }
+        }
+        return s;
+    }
+
+    /**
+     * Estimate the size of a value read from the database as JSON, without
+     * allocating for strings and whole numbers
+     * @param value Value as returned by DataSnapshot.getValue()
+     * @return Estimated size in bytes
+     */
+    public static long estimateBytes(Object value) {
+        if (value == null) {
+            return 4;
+        }
+        if (value instanceof String) {
+            return utf8Length((String) value) + 2;
+        }
+        if (value instanceof Long || value instanceof Integer) {
+            return digits(((Number) value).longValue());
+        }
+        if (value instanceof Boolean) {
+            return (Boolean) value ? 4 : 5;
+        }
+        if (value instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) value;
+            // Braces, plus a comma between entries
+            long bytes = 2 + Math.max(0, map.size() - 1);
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                // Quoted key and colon
+                bytes += utf8Length(entry.getKey().toString()) + 3 + estimateBytes(entry.getValue());
+            }
+            return bytes;
+        }
+        if (value instanceof List) {
+            List<?> list = (List<?>) value;
+            long bytes = 2 + Math.max(0, list.size() - 1);
+            for (Object item : list) {
+                bytes += estimateBytes(item);
+            }
+            return bytes;
+        }
+        return String.valueOf(value).length();
+    }
+
+    /**
+     * Count the UTF-8 bytes of a string
+     * @param s String to measure
+     * @return Length in bytes
+     */
+    private static long utf8Length(String s) {
+        long bytes = 0;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                bytes += 1;
+            } else if (c < 0x800) {
+                bytes += 2;
+            } else if (Character.isHighSurrogate(c)) {
+                // The pair is one four-byte code point
+                bytes += 4;
+                i++;
+            } else {
+                bytes += 3;
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Count the characters of a whole number
+     * @param n Number to measure
+     * @return Length including the sign
+     */
+    private static int digits(long n) {
+        if (n == Long.MIN_VALUE) {
+            return 20;
+        }
+        int length = n < 0 ? 2 : 1;
+        for (long rest = Math.abs(n); rest >= 10; rest /= 10) {
+            length++;
+        }
+        return length;
+    }
+
+    /**
+     * Convert object to string
+     * @return Summary of every operation, one per line
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("OperationMetrics");
+        for (Summary summary : snapshot()) {
+            sb.append('\n').append(summary);
+        }
+        return sb.toString();
+    }
+} // OperationMetrics
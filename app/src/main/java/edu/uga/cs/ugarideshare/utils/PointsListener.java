@@ -0,0 +1,12 @@
+package edu.uga.cs.ugarideshare.utils;
+
+/**
+ * Listener notified when a user's ride points change.
+ */
+public interface PointsListener {
+    /**
+     * Called with the user's new points balance
+     * @param points New points balance
+     */
+    void onPointsUpdated(int points);
+}
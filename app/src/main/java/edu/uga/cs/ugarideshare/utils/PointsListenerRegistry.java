@@ -0,0 +1,102 @@
+package edu.uga.cs.ugarideshare.utils;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * PointsListenerRegistry keeps the points listeners of each user. All listeners
+ * of a user share one live source, created and attached when the first listener
+ * is added and detached when the last one is removed. Dispatch goes straight to the
+ * typed listeners over a copy-on-write list, so it never takes a lock.
+ */
+public class PointsListenerRegistry {
+
+    /**
+     * Creates the live source of a user's points
+     */
+    public interface SourceFactory {
+        /**
+         * Create the source for a user
+         * @param userId ID of the user
+         * @return Source delivering the user's points
+         */
+        SubscriptionHub.Source<Integer> create(String userId);
+    }
+
+    private final SubscriptionHub<Integer> hub = new SubscriptionHub<>();
+    private final SourceFactory sourceFactory;
+    // Subscription of each listener, by user
+    private final Map<String, Map<PointsListener, SubscriptionHub.Subscription>> subscriptions = new HashMap<>();
+
+    /**
+     * Constructor
+     * @param sourceFactory Factory for the live source of a user's points
+     */
+    public PointsListenerRegistry(SourceFactory sourceFactory) {
+        this.sourceFactory = sourceFactory;
+    }
+
+    /**
+     * Add a listener for a user's points. Adding the same listener twice has no effect.
+     * @param userId ID of the user
+     * @param listener Listener to notify
+     */
+    public synchronized void add(String userId, PointsListener listener) {
+        Map<PointsListener, SubscriptionHub.Subscription> forUser = subscriptions.get(userId);
+        if (forUser == null) {
+            forUser = new HashMap<>();
+            subscriptions.put(userId, forUser);
+        } else if (forUser.containsKey(listener)) {
+            return;
+        }
+
+        forUser.put(listener, hub.subscribe(userId, () -> sourceFactory.create(userId), new FirebaseCallback<Integer>() {
+            @Override
+            public void onSuccess(Integer points) {
+                listener.onPointsUpdated(points);
+            }
+
+            @Override
+            public void onError(String error) {
+                // Reported by the source
+            }
+        }));
+    }
+
+    /**
+     * Remove a listener. The user's source is detached once no listeners are left.
+     * @param userId ID of the user
+     * @param listener Listener to remove
+     */
+    public synchronized void remove(String userId, PointsListener listener) {
+        Map<PointsListener, SubscriptionHub.Subscription> forUser = subscriptions.get(userId);
+        if (forUser == null) {
+            return;
+        }
+
+        SubscriptionHub.Subscription subscription = forUser.remove(listener);
+        if (subscription != null) {
+            subscription.unsubscribe();
+        }
+        if (forUser.isEmpty()) {
+            subscriptions.remove(userId);
+        }
+    }
+
+    /**
+     * Get the number of listeners of a user
+     * @param userId ID of the user
+     * @return Number of listeners
+     */
+    public int getListenerCount(String userId) {
+        return hub.getSubscriberCount(userId);
+    }
+
+    /**
+     * Get the number of users whose points are being listened to
+     * @return Number of attached sources
+     */
+    public int getAttachedCount() {
+        return hub.getLiveQueryCount();
+    }
+} // PointsListenerRegistry
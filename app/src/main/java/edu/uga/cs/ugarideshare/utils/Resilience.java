@@ -0,0 +1,261 @@
+package edu.uga.cs.ugarideshare.utils;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Resilience runs database operations under a retry policy and a shared circuit
+ * breaker. Transient failures are retried after a jittered backoff as long as the
+ * operation's policy allows it; other errors go straight to the caller. While the
+ * breaker is open, operations fail fast without touching the database. Failures are
+ * logged by the operations themselves; this class only counts them, and times each
+ * operation from the first attempt to the final result in its OperationMetrics.
+ */
+public class Resilience {
+    // Shown when the breaker is open
+    public static final String UNAVAILABLE_MESSAGE = "The ride service is having trouble, please try again in a moment";
+
+    /**
+     * One attempt of an operation
+     * @param <T> Type of the result
+     */
+    public interface Attempt<T> {
+        /**
+         * Start the attempt
+         * @param outcome Outcome to report exactly once
+         */
+        void start(Outcome<T> outcome);
+    }
+
+    /**
+     * Outcome of an attempt. onError() reports an error that retrying won't fix,
+     * onTransientError() one that might go away, such as a network error.
+     * @param <T> Type of the result
+     */
+    public interface Outcome<T> extends FirebaseCallback<T> {
+        /**
+         * Called when the attempt failed in a way that may succeed on retry
+         * @param error Error message
+         */
+        void onTransientError(String error);
+    }
+
+    /**
+     * Runs retries after a delay
+     */
+    public interface Scheduler {
+        /**
+         * Run a task after a delay
+         * @param task Task to run
+         * @param delayMillis Delay in milliseconds
+         */
+        void schedule(Runnable task, long delayMillis);
+    }
+
+    private final CircuitBreaker breaker;
+    private final OperationMetrics metrics;
+    private final Scheduler scheduler;
+    private final Random random;
+    private final Map<String, Long> retriesByOperation = new HashMap<>();
+    private long calls;
+    private long attempts;
+    private long retries;
+    private long exhausted;
+    private long rejected;
+
+    /**
+     * Constructor retrying on the main thread
+     * @param breaker Breaker shared by every operation
+     * @param metrics Metrics the operations are timed in
+     */
+    public Resilience(CircuitBreaker breaker, OperationMetrics metrics) {
+        this(breaker, metrics, mainThreadScheduler(), new Random());
+    }
+
+    /**
+     * Constructor keeping its own metrics
+     * @param breaker Breaker shared by every operation
+     * @param scheduler Runs retries after their backoff
+     * @param random Source of jitter
+     */
+    public Resilience(CircuitBreaker breaker, Scheduler scheduler, Random random) {
+        this(breaker, new OperationMetrics(), scheduler, random);
+    }
+
+    /**
+     * Constructor
+     * @param breaker Breaker shared by every operation
+     * @param metrics Metrics the operations are timed in
+     * @param scheduler Runs retries after their backoff
+     * @param random Source of jitter
+     */
+    public Resilience(CircuitBreaker breaker, OperationMetrics metrics, Scheduler scheduler, Random random) {
+        this.breaker = breaker;
+        this.metrics = metrics;
+        this.scheduler = scheduler;
+        this.random = random;
+    }
+
+    /**
+     * Run an operation
+     * @param operation Name of the operation, used in the retry counters and metrics
+     * @param policy Retry policy of the operation
+     * @param attempt Starts one attempt
+     * @param callback Callback receiving the final result or error
+     * @param <T> Type of the result
+     */
+    public <T> void run(String operation, RetryPolicy policy, Attempt<T> attempt, FirebaseCallback<T> callback) {
+        synchronized (this) {
+            calls++;
+        }
+        run(operation, policy, attempt, metrics.time(operation, callback), 1);
+    }
+
+    /**
+     * Start one attempt and schedule the next one if it fails transiently
+     * @param number Number of this attempt, starting at 1
+     */
+    private <T> void run(String operation, RetryPolicy policy, Attempt<T> attempt, FirebaseCallback<T> callback,
+                         int number) {
+        if (!breaker.allowRequest()) {
+            synchronized (this) {
+                rejected++;
+            }
+            callback.onError(UNAVAILABLE_MESSAGE);
+            return;
+        }
+        synchronized (this) {
+            attempts++;
+        }
+
+        attempt.start(new Outcome<T>() {
+            @Override
+            public void onSuccess(T result) {
+                breaker.recordSuccess();
+                callback.onSuccess(result);
+            }
+
+            @Override
+            public void onError(String error) {
+                // The database answered, so it is healthy even though the operation failed
+                breaker.recordSuccess();
+                callback.onError(error);
+            }
+
+            @Override
+            public void onTransientError(String error) {
+                breaker.recordFailure();
+                if (number >= policy.getMaxAttempts()) {
+                    synchronized (Resilience.this) {
+                        exhausted++;
+                    }
+                    callback.onError(error);
+                    return;
+                }
+
+                long delay = policy.getBackoffMillis(number, random);
+                synchronized (Resilience.this) {
+                    retries++;
+                    Long count = retriesByOperation.get(operation);
+                    retriesByOperation.put(operation, count == null ? 1 : count + 1);
+                }
+                scheduler.schedule(() -> run(operation, policy, attempt, callback, number + 1), delay);
+            }
+        });
+    }
+
+    /**
+     * Get the breaker shared by every operation
+     * @return Circuit breaker
+     */
+    public CircuitBreaker getCircuitBreaker() {
+        return breaker;
+    }
+
+    /**
+     * Get the metrics the operations are timed in
+     * @return Operation metrics
+     */
+    public OperationMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Get the number of operations run
+     * @return Number of operations
+     */
+    public synchronized long getCallCount() {
+        return calls;
+    }
+
+    /**
+     * Get the number of attempts made, including retries
+     * @return Number of attempts
+     */
+    public synchronized long getAttemptCount() {
+        return attempts;
+    }
+
+    /**
+     * Get the number of retries scheduled
+     * @return Number of retries
+     */
+    public synchronized long getRetryCount() {
+        return retries;
+    }
+
+    /**
+     * Get the number of retries scheduled for each operation
+     * @return Copy of the retry counts by operation name
+     */
+    public synchronized Map<String, Long> getRetryCounts() {
+        return new HashMap<>(retriesByOperation);
+    }
+
+    /**
+     * Get the number of operations that ran out of attempts
+     * @return Number of operations that failed after retrying
+     */
+    public synchronized long getExhaustedCount() {
+        return exhausted;
+    }
+
+    /**
+     * Get the number of attempts failed fast by the open breaker
+     * @return Number of rejected attempts
+     */
+    public synchronized long getRejectedCount() {
+        return rejected;
+    }
+
+    /**
+     * Reset the counters
+     */
+    public synchronized void resetStats() {
+        calls = 0;
+        attempts = 0;
+        retries = 0;
+        exhausted = 0;
+        rejected = 0;
+        retriesByOperation.clear();
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("%d calls, %d attempts, %d retries, %d exhausted, %d rejected; breaker %s",
+                calls, attempts, retries, exhausted, rejected, breaker);
+    }
+
+    /**
+     * Create a scheduler posting retries to the main thread, where database callbacks run
+     * @return Main thread scheduler
+     */
+    private static Scheduler mainThreadScheduler() {
+        Handler handler = new Handler(Looper.getMainLooper());
+        return handler::postDelayed;
+    }
+} // Resilience
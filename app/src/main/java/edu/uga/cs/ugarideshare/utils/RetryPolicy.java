@@ -0,0 +1,76 @@
+package edu.uga.cs.ugarideshare.utils;
+
+import java.util.Random;
+
+/**
+ * RetryPolicy says how often and how patiently an operation is retried after a
+ * transient failure. The wait before each retry grows exponentially up to a cap,
+ * and the actual wait is picked at random below it ("full jitter"), so clients
+ * that failed together don't all come back at the same moment.
+ *
+ * Only operations that are safe to repeat get retries. An operation that is not
+ * idempotent, such as a points debit, uses NONE and fails on the first error.
+ */
+public class RetryPolicy {
+    // Not safe to repeat: a single attempt
+    public static final RetryPolicy NONE = new RetryPolicy(1, 0, 0);
+
+    // Reads have no side effects and the user is waiting on them
+    public static final RetryPolicy READ = new RetryPolicy(3, 200, 2_000);
+
+    // Writes that leave the same state no matter how often they are applied
+    public static final RetryPolicy IDEMPOTENT_WRITE = new RetryPolicy(4, 500, 8_000);
+
+    private final int maxAttempts;
+    private final long baseDelayMillis;
+    private final long maxDelayMillis;
+
+    /**
+     * Constructor
+     * @param maxAttempts Maximum number of attempts, including the first
+     * @param baseDelayMillis Backoff cap before the first retry, in milliseconds
+     * @param maxDelayMillis Largest backoff cap, in milliseconds
+     */
+    public RetryPolicy(int maxAttempts, long baseDelayMillis, long maxDelayMillis) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("maxAttempts must be at least 1");
+        }
+        this.maxAttempts = maxAttempts;
+        this.baseDelayMillis = baseDelayMillis;
+        this.maxDelayMillis = maxDelayMillis;
+    }
+
+    /**
+     * Get the maximum number of attempts
+     * @return Maximum number of attempts, including the first
+     */
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * Get the backoff cap before a retry, before jitter
+     * @param retry Number of the retry, starting at 1
+     * @return Backoff cap in milliseconds
+     */
+    public long getBackoffCapMillis(int retry) {
+        // Double per retry without overflowing
+        int doublings = Math.min(Math.max(retry - 1, 0), 30);
+        return Math.min(maxDelayMillis, baseDelayMillis << doublings);
+    }
+
+    /**
+     * Pick the wait before a retry
+     * @param retry Number of the retry, starting at 1
+     * @param random Source of jitter
+     * @return Wait in milliseconds, between 0 and the backoff cap
+     */
+    public long getBackoffMillis(int retry, Random random) {
+        return (long) (random.nextDouble() * getBackoffCapMillis(retry));
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d attempts, backoff %d-%d ms", maxAttempts, baseDelayMillis, maxDelayMillis);
+    }
+} // RetryPolicy
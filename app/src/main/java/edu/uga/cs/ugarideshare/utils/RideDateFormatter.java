@@ -0,0 +1,155 @@
+package edu.uga.cs.ugarideshare.utils;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * RideDateFormatter renders ride dates and times, e.g. "Friday, May 2, 2025 at
+ * 3:30 PM", for every screen of the app. The java.time formatter is immutable, and
+ * rendered strings are kept in a small least-recently-used cache keyed by the
+ * minute, the finest unit the pattern shows, so a list full of rides at the same
+ * few times formats each time only once. The time zone is looked up on every call,
+ * and the cache is emptied when it changes, so a device crossing time zones never
+ * shows times rendered for the old one. Safe to use from any thread.
+ */
+public class RideDateFormatter {
+    // Pattern shown wherever a ride's date and time appear
+    public static final String PATTERN = "EEEE, MMMM d, yyyy 'at' h:mm a";
+    // Distinct minutes kept; a few screens of rides
+    private static final int DEFAULT_MAX_ENTRIES = 256;
+    private static final long MINUTE_MILLIS = 60_000;
+
+    private static final DateTimeFormatter BASE_FORMATTER = DateTimeFormatter.ofPattern(PATTERN, Locale.US);
+
+    private static final RideDateFormatter INSTANCE = new RideDateFormatter(DEFAULT_MAX_ENTRIES, ZoneId::systemDefault);
+
+    private final Supplier<ZoneId> zoneSource;
+    private final int maxEntries;
+    // Zone the cached strings were rendered in, and the formatter for it
+    private ZoneId zone;
+    private DateTimeFormatter formatter;
+    // Access-ordered, so the eldest entry is the least recently used
+    private final LinkedHashMap<Long, String> rendered = new LinkedHashMap<>(16, 0.75f, true);
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * Get the formatter shared by the whole app, using the device's current time zone
+     * @return Shared formatter
+     */
+    public static RideDateFormatter getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Constructor for a formatter showing dates in a fixed time zone
+     * @param maxEntries Maximum number of rendered strings kept
+     * @param zone Time zone the dates are shown in
+     */
+    public RideDateFormatter(int maxEntries, ZoneId zone) {
+        this(maxEntries, () -> zone);
+    }
+
+    /**
+     * Constructor
+     * @param maxEntries Maximum number of rendered strings kept
+     * @param zoneSource Gives the time zone to show dates in, asked on every call
+     */
+    public RideDateFormatter(int maxEntries, Supplier<ZoneId> zoneSource) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("maxEntries must be at least 1");
+        }
+        this.maxEntries = maxEntries;
+        this.zoneSource = zoneSource;
+    }
+
+    /**
+     * Format a date and time
+     * @param epochMillis Milliseconds since the epoch
+     * @return Formatted date and time
+     */
+    public String format(long epochMillis) {
+        ZoneId current = zoneSource.get();
+        long minute = Math.floorDiv(epochMillis, MINUTE_MILLIS);
+        DateTimeFormatter zoned;
+        synchronized (this) {
+            // Strings rendered for another zone show the wrong time
+            if (!current.equals(zone)) {
+                rendered.clear();
+                zone = current;
+                formatter = BASE_FORMATTER.withZone(current);
+            }
+
+            String text = rendered.get(minute);
+            if (text != null) {
+                hits++;
+                return text;
+            }
+            misses++;
+            zoned = formatter;
+        }
+
+        // Formatting happens outside the lock; two threads racing on a minute render the same string
+        String text = zoned.format(Instant.ofEpochMilli(minute * MINUTE_MILLIS));
+        synchronized (this) {
+            // The zone changed while formatting; the string is right for this call only
+            if (!current.equals(zone)) {
+                return text;
+            }
+            rendered.put(minute, text);
+            Iterator<Map.Entry<Long, String>> eldest = rendered.entrySet().iterator();
+            while (rendered.size() > maxEntries && eldest.hasNext()) {
+                eldest.next();
+                eldest.remove();
+                evictions++;
+            }
+        }
+        return text;
+    }
+
+    /**
+     * Get the number of dates answered from the cache
+     * @return Number of hits
+     */
+    public synchronized long getHitCount() {
+        return hits;
+    }
+
+    /**
+     * Get the number of dates that had to be formatted
+     * @return Number of misses
+     */
+    public synchronized long getMissCount() {
+        return misses;
+    }
+
+    /**
+     * Get the number of rendered strings dropped to make room
+     * @return Number of evictions
+     */
+    public synchronized long getEvictionCount() {
+        return evictions;
+    }
+
+    /**
+     * Reset the counters, keeping the rendered strings
+     */
+    public synchronized void resetStats() {
+        hits = 0;
+        misses = 0;
+        evictions = 0;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("%d entries, %d hits, %d misses, %d evictions",
+                rendered.size(), hits, misses, evictions);
+    }
+} // RideDateFormatter
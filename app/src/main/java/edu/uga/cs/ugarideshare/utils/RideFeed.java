@@ -0,0 +1,297 @@
+package edu.uga.cs.ugarideshare.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * RideFeed keeps a sorted in-memory model of a live query that is updated one child
+ * at a time, and tells its listeners exactly which positions were inserted, changed,
+ * moved or removed. The cost of each update is proportional to what changed rather
+ * than to the size of the list.
+ *
+ * The feed is started when the first listener observes it and stopped (and cleared)
+ * when the last one leaves. Paged sources start with one page and add more on
+ * loadMore(). All methods are expected to be called on the main thread.
+ * @param <T> Type of the items in the feed
+ */
+public class RideFeed<T> {
+
+    /**
+     * Receives fine-grained changes to the feed
+     * @param <T> Type of the items in the feed
+     */
+    public interface Listener<T> {
+        /**
+         * Called when an item was inserted
+         * @param position Position of the new item
+         * @param item The new item
+         */
+        void onItemInserted(int position, T item);
+
+        /**
+         * Called when an item changed without moving
+         * @param position Position of the item
+         * @param item The updated item
+         */
+        void onItemChanged(int position, T item);
+
+        /**
+         * Called when an item changed and moved to another position
+         * @param fromPosition Previous position of the item
+         * @param toPosition New position of the item
+         * @param item The updated item
+         */
+        void onItemMoved(int fromPosition, int toPosition, T item);
+
+        /**
+         * Called when an item was removed
+         * @param position Previous position of the item
+         * @param item The removed item
+         */
+        void onItemRemoved(int position, T item);
+
+        /**
+         * Called once the initial items have been delivered
+         */
+        void onLoaded();
+
+        /**
+         * Called when the underlying query fails
+         * @param error Error message
+         */
+        void onError(String error);
+    }
+
+    /**
+     * Live source that feeds child events into the feed
+     * @param <T> Type of the items in the feed
+     */
+    public interface Source<T> {
+        /**
+         * Start delivering child events to the feed
+         * @param feed Feed to update
+         */
+        void start(RideFeed<T> feed);
+
+        /**
+         * Stop delivering child events
+         */
+        void stop();
+
+        /**
+         * Start loading the next page, if the source is paged. Calls made while
+         * a page is loading are ignored.
+         */
+        default void loadMore() {
+        }
+
+        /**
+         * Check whether there may be more items past the loaded pages
+         * @return true if loadMore() can deliver more items
+         */
+        default boolean hasMore() {
+            return false;
+        }
+    }
+
+    private final Comparator<T> order;
+    private final Source<T> source;
+    private final List<T> items = new ArrayList<>();
+    private final Map<String, T> itemsByKey = new HashMap<>();
+    private final List<Listener<T>> listeners = new CopyOnWriteArrayList<>();
+    private boolean loaded;
+
+    /**
+     * Constructor
+     * @param order Total order of the items (ties must be broken, e.g. by key)
+     * @param source Source of child events
+     */
+    public RideFeed(Comparator<T> order, Source<T> source) {
+        this.order = order;
+        this.source = source;
+    }
+
+    /**
+     * Start observing the feed. The current items are available from getItems()
+     * right away; everything after that is delivered as fine-grained events.
+     * @param listener Listener to notify
+     * @return Subscription used to stop observing
+     */
+    public SubscriptionHub.Subscription observe(Listener<T> listener) {
+        listeners.add(listener);
+        if (listeners.size() == 1) {
+            source.start(this);
+        } else if (loaded) {
+            listener.onLoaded();
+        }
+
+        return new SubscriptionHub.Subscription() {
+            private boolean active = true;
+
+            @Override
+            public void unsubscribe() {
+                if (active) {
+                    active = false;
+                    listeners.remove(listener);
+                    if (listeners.isEmpty()) {
+                        source.stop();
+                        items.clear();
+                        itemsByKey.clear();
+                        loaded = false;
+                    }
+                }
+            }
+        };
+    }
+
+    /**
+     * Get a copy of the current items in order
+     * @return Current items
+     */
+    public List<T> getItems() {
+        return new ArrayList<>(items);
+    }
+
+    /**
+     * Get the number of items in the feed
+     * @return Number of items
+     */
+    public int size() {
+        return items.size();
+    }
+
+    /**
+     * Check whether the initial items have been delivered
+     * @return true if the feed has loaded
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Load the next page of items while the feed is being observed
+     */
+    public void loadMore() {
+        if (!listeners.isEmpty()) {
+            source.loadMore();
+        }
+    }
+
+    /**
+     * Check whether there may be more items past the loaded pages
+     * @return true if loadMore() can deliver more items
+     */
+    public boolean hasMore() {
+        return !listeners.isEmpty() && source.hasMore();
+    }
+
+    /**
+     * Apply a child that was added to the query
+     * @param key Key of the child
+     * @param item Decoded child
+     */
+    public void applyAdded(String key, T item) {
+        if (itemsByKey.containsKey(key)) {
+            applyChanged(key, item);
+            return;
+        }
+
+        int position = insertionPoint(item);
+        items.add(position, item);
+        itemsByKey.put(key, item);
+        for (Listener<T> listener : listeners) {
+            listener.onItemInserted(position, item);
+        }
+    }
+
+    /**
+     * Apply a child that changed in the query
+     * @param key Key of the child
+     * @param item Decoded child
+     */
+    public void applyChanged(String key, T item) {
+        T previous = itemsByKey.get(key);
+        if (previous == null) {
+            applyAdded(key, item);
+            return;
+        }
+
+        int fromPosition = positionOf(previous);
+        items.remove(fromPosition);
+        int toPosition = insertionPoint(item);
+        items.add(toPosition, item);
+        itemsByKey.put(key, item);
+        for (Listener<T> listener : listeners) {
+            if (fromPosition == toPosition) {
+                listener.onItemChanged(toPosition, item);
+            } else {
+                listener.onItemMoved(fromPosition, toPosition, item);
+            }
+        }
+    }
+
+    /**
+     * Apply a child that was removed from the query
+     * @param key Key of the child
+     */
+    public void applyRemoved(String key) {
+        T previous = itemsByKey.remove(key);
+        if (previous == null) {
+            return;
+        }
+
+        int position = positionOf(previous);
+        items.remove(position);
+        for (Listener<T> listener : listeners) {
+            listener.onItemRemoved(position, previous);
+        }
+    }
+
+    /**
+     * Mark the initial items as delivered
+     */
+    public void markLoaded() {
+        if (!loaded && !listeners.isEmpty()) {
+            loaded = true;
+            for (Listener<T> listener : listeners) {
+                listener.onLoaded();
+            }
+        }
+    }
+
+    /**
+     * Report a failure of the underlying query
+     * @param error Error message
+     */
+    public void fail(String error) {
+        for (Listener<T> listener : listeners) {
+            listener.onError(error);
+        }
+    }
+
+    /**
+     * Find the position of an item that is in the feed
+     * @param item Item to find
+     * @return Position of the item
+     */
+    private int positionOf(T item) {
+        int position = Collections.binarySearch(items, item, order);
+        // Fall back to a scan if the item was mutated in place after it was added
+        return position >= 0 ? position : items.indexOf(item);
+    }
+
+    /**
+     * Find the position a new item should be inserted at
+     * @param item Item to insert
+     * @return Insertion position
+     */
+    private int insertionPoint(T item) {
+        int position = Collections.binarySearch(items, item, order);
+        return position < 0 ? -(position + 1) : position;
+    }
+} // RideFeed
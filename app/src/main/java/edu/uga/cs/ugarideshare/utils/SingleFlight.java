@@ -0,0 +1,139 @@
+package edu.uga.cs.ugarideshare.utils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * SingleFlight merges concurrent identical reads. The first read of a key goes
+ * to the backend; reads of the same key that arrive while it is in flight just
+ * wait for its result, which is then fanned out to every caller. Once the result
+ * is delivered the key is free again, so later reads start a new request.
+ *
+ * Each waiting caller gets its own copy of the result, so callers can edit what
+ * they get without affecting each other.
+ * @param <T> Type of the result
+ */
+public class SingleFlight<T> {
+
+    /**
+     * Starts the backend request for a key
+     * @param <T> Type of the result
+     */
+    public interface Loader<T> {
+        /**
+         * Start loading
+         * @param callback Callback to call exactly once with the result
+         */
+        void load(FirebaseCallback<T> callback);
+    }
+
+    private final EntityCache.Copier<T> copier;
+    // Callers waiting on each key that is in flight
+    private final Map<String, List<FirebaseCallback<T>>> inFlight = new HashMap<>();
+    private long requests;
+    private long loads;
+
+    /**
+     * Constructor
+     * @param copier Copies the result for every caller after the first
+     */
+    public SingleFlight(EntityCache.Copier<T> copier) {
+        this.copier = copier;
+    }
+
+    /**
+     * Read a key, joining the read already in flight for it if there is one
+     * @param key Key of the read, e.g. the database path
+     * @param loader Starts the backend request if none is in flight
+     * @param callback Callback receiving the result
+     */
+    public void run(String key, Loader<T> loader, FirebaseCallback<T> callback) {
+        synchronized (this) {
+            requests++;
+            List<FirebaseCallback<T>> waiting = inFlight.get(key);
+            if (waiting != null) {
+                waiting.add(callback);
+                return;
+            }
+
+            waiting = new ArrayList<>();
+            waiting.add(callback);
+            inFlight.put(key, waiting);
+            loads++;
+        }
+
+        loader.load(new FirebaseCallback<T>() {
+            @Override
+            public void onSuccess(T result) {
+                List<FirebaseCallback<T>> waiting = finish(key);
+                for (int i = 0; i < waiting.size(); i++) {
+                    waiting.get(i).onSuccess(i == 0 || result == null ? result : copier.copy(result));
+                }
+            }
+
+            @Override
+            public void onError(String error) {
+                for (FirebaseCallback<T> waiting : finish(key)) {
+                    waiting.onError(error);
+                }
+            }
+        });
+    }
+
+    /**
+     * Take the callers waiting on a key and free the key for new reads
+     * @param key Key of the read
+     * @return Callers waiting on the read, first caller first
+     */
+    private synchronized List<FirebaseCallback<T>> finish(String key) {
+        List<FirebaseCallback<T>> waiting = inFlight.remove(key);
+        return waiting != null ? waiting : new ArrayList<>();
+    }
+
+    /**
+     * Get the number of reads requested
+     * @return Number of reads
+     */
+    public synchronized long getRequestCount() {
+        return requests;
+    }
+
+    /**
+     * Get the number of backend requests actually made
+     * @return Number of backend requests
+     */
+    public synchronized long getLoadCount() {
+        return loads;
+    }
+
+    /**
+     * Get the number of reads that joined a request already in flight
+     * @return Number of coalesced reads
+     */
+    public synchronized long getCoalescedCount() {
+        return requests - loads;
+    }
+
+    /**
+     * Get the number of keys currently in flight
+     * @return Number of keys in flight
+     */
+    public synchronized int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    /**
+     * Reset the counters
+     */
+    public synchronized void resetStats() {
+        requests = 0;
+        loads = 0;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("%d reads, %d backend requests, %d coalesced", requests, loads, requests - loads);
+    }
+} // SingleFlight
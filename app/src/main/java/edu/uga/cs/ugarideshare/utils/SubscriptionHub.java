@@ -0,0 +1,240 @@
+package edu.uga.cs.ugarideshare.utils;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * SubscriptionHub shares one live query per key between all of its subscribers.
+ * The underlying source is started when the first subscriber arrives and stopped
+ * when the last one leaves, so repeated subscribe calls never pile up listeners.
+ * A query whose source fails is dropped after its subscribers hear of the error.
+ * @param <T> Type of data delivered to subscribers
+ */
+public class SubscriptionHub<T> {
+
+    /**
+     * A live data source (usually a Firebase query) that the hub starts and stops
+     * @param <T> Type of data produced by the source
+     */
+    public interface Source<T> {
+        /**
+         * Start listening and deliver every change to the sink
+         * @param sink Callback receiving the data
+         */
+        void start(FirebaseCallback<T> sink);
+
+        /**
+         * Stop listening
+         */
+        void stop();
+    }
+
+    /**
+     * Creates the source of a query, only when the hub has to start it
+     * @param <T> Type of data produced by the source
+     */
+    public interface SourceFactory<T> {
+        /**
+         * Create the source
+         * @return Source to start
+         */
+        Source<T> create();
+    }
+
+    /**
+     * Handle returned to a subscriber so it can stop receiving updates
+     */
+    public interface Subscription {
+        /**
+         * Stop receiving updates. Calling this more than once has no effect.
+         */
+        void unsubscribe();
+    }
+
+    /**
+     * Subscription that is not attached to anything
+     */
+    public static final Subscription EMPTY = () -> { };
+
+    // Live queries by key
+    private final Map<String, LiveQuery<T>> queries = new HashMap<>();
+
+    /**
+     * Subscribe to the query identified by key. If the query is not live yet the
+     * source is started, otherwise the source is ignored and the latest value is
+     * replayed to the new subscriber.
+     * @param key Key identifying the query (e.g. its database path)
+     * @param source Source to start if the query is not live yet
+     * @param callback Callback to receive updates
+     * @return Subscription used to unsubscribe
+     */
+    public Subscription subscribe(String key, Source<T> source, FirebaseCallback<T> callback) {
+        return subscribe(key, () -> source, callback);
+    }
+
+    /**
+     * Subscribe to the query identified by key, creating its source only if the
+     * query is not live yet. Otherwise the latest value is replayed to the new
+     * subscriber and the factory is not called.
+     * @param key Key identifying the query (e.g. its database path)
+     * @param sourceFactory Factory for the source to start if the query is not live yet
+     * @param callback Callback to receive updates
+     * @return Subscription used to unsubscribe
+     */
+    public Subscription subscribe(String key, SourceFactory<T> sourceFactory, FirebaseCallback<T> callback) {
+        LiveQuery<T> query;
+        boolean start = false;
+        synchronized (this) {
+            query = queries.get(key);
+            if (query == null) {
+                query = new LiveQuery<>(this, key, sourceFactory.create());
+                queries.put(key, query);
+                start = true;
+            }
+            query.subscribers.add(callback);
+        }
+
+        if (start) {
+            query.source.start(query);
+        } else if (query.hasValue) {
+            // Replay the latest value instead of attaching another listener
+            query.deliveryCount++;
+            callback.onSuccess(query.lastValue);
+        }
+
+        final LiveQuery<T> subscribed = query;
+        return new Subscription() {
+            private boolean active = true;
+
+            @Override
+            public void unsubscribe() {
+                if (active) {
+                    active = false;
+                    release(key, subscribed, callback);
+                }
+            }
+        };
+    }
+
+    /**
+     * Remove a subscriber and stop the source if it was the last one
+     * @param key Key of the query
+     * @param query Query the subscriber belongs to
+     * @param callback Subscriber to remove
+     */
+    private void release(String key, LiveQuery<T> query, FirebaseCallback<T> callback) {
+        boolean stop = false;
+        synchronized (this) {
+            query.subscribers.remove(callback);
+            if (query.subscribers.isEmpty() && queries.get(key) == query) {
+                queries.remove(key);
+                stop = true;
+            }
+        }
+
+        if (stop) {
+            query.source.stop();
+        }
+    }
+
+    /**
+     * Forget a query whose source failed, and stop the source, so the next subscriber
+     * starts a fresh query instead of waiting on a dead one
+     * @param key Key of the query
+     * @param query Query whose source failed
+     */
+    private void drop(String key, LiveQuery<T> query) {
+        boolean stop = false;
+        synchronized (this) {
+            if (queries.get(key) == query) {
+                queries.remove(key);
+                stop = true;
+            }
+        }
+
+        if (stop) {
+            query.source.stop();
+        }
+    }
+
+    /**
+     * Get the number of subscribers of a query
+     * @param key Key of the query
+     * @return Number of subscribers, 0 if the query is not live
+     */
+    public synchronized int getSubscriberCount(String key) {
+        LiveQuery<T> query = queries.get(key);
+        return query != null ? query.subscribers.size() : 0;
+    }
+
+    /**
+     * Get the number of changes the source of a query has delivered
+     * @param key Key of the query
+     * @return Number of changes, 0 if the query is not live
+     */
+    public synchronized long getChangeCount(String key) {
+        LiveQuery<T> query = queries.get(key);
+        return query != null ? query.changeCount : 0;
+    }
+
+    /**
+     * Get the number of subscriber callbacks made for a query, replays included
+     * @param key Key of the query
+     * @return Number of callbacks, 0 if the query is not live
+     */
+    public synchronized long getCallbackCount(String key) {
+        LiveQuery<T> query = queries.get(key);
+        return query != null ? query.deliveryCount : 0;
+    }
+
+    /**
+     * Get the number of queries that currently have a listener attached
+     * @return Number of live queries
+     */
+    public synchronized int getLiveQueryCount() {
+        return queries.size();
+    }
+
+    /**
+     * A started source together with its subscribers and counters
+     * @param <T> Type of data delivered to subscribers
+     */
+    private static class LiveQuery<T> implements FirebaseCallback<T> {
+        private final SubscriptionHub<T> hub;
+        private final String key;
+        private final Source<T> source;
+        private final List<FirebaseCallback<T>> subscribers = new CopyOnWriteArrayList<>();
+        private volatile T lastValue;
+        private volatile boolean hasValue;
+        private volatile long changeCount;
+        private volatile long deliveryCount;
+
+        LiveQuery(SubscriptionHub<T> hub, String key, Source<T> source) {
+            this.hub = hub;
+            this.key = key;
+            this.source = source;
+        }
+
+        @Override
+        public void onSuccess(T result) {
+            lastValue = result;
+            hasValue = true;
+            changeCount++;
+            for (FirebaseCallback<T> subscriber : subscribers) {
+                deliveryCount++;
+                subscriber.onSuccess(result);
+            }
+        }
+
+        @Override
+        public void onError(String error) {
+            // A failed query delivers nothing more; later subscribers get a new one
+            hub.drop(key, this);
+            for (FirebaseCallback<T> subscriber : subscribers) {
+                subscriber.onError(error);
+            }
+        }
+    } // LiveQuery
+} // SubscriptionHub
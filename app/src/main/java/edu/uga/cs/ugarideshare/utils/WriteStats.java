@@ -0,0 +1,142 @@
+package edu.uga.cs.ugarideshare.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * WriteStats keeps per-operation counts of the bytes sent by partial writes
+ * next to the bytes a full setValue of the same object would have sent.
+ * Sizes are estimated from the JSON encoding of the written values.
+ */
+public class WriteStats {
+
+    /**
+     * Totals for one operation
+     */
+    public static class Totals {
+        private long writes;
+        private long bytesWritten;
+        private long fullBytes;
+
+        /**
+         * Get the number of writes
+         * @return Number of writes
+         */
+        public long getWrites() {
+            return writes;
+        }
+
+        /**
+         * Get the bytes sent by the partial writes
+         * @return Estimated bytes written
+         */
+        public long getBytesWritten() {
+            return bytesWritten;
+        }
+
+        /**
+         * Get the bytes full writes would have sent
+         * @return Estimated bytes of the full objects
+         */
+        public long getFullBytes() {
+            return fullBytes;
+        }
+
+        /**
+         * Get the share of bytes saved by writing only changed fields
+         * @return Saved fraction between 0 and 1
+         */
+        public double getSavedFraction() {
+            return fullBytes == 0 ? 0 : 1.0 - (double) bytesWritten / fullBytes;
+        }
+
+        /**
+         * Convert object to string
+         * @return String representation of the totals
+         */
+        @Override
+        public String toString() {
+            return writes + " writes, " + bytesWritten + "/" + fullBytes + " bytes ("
+                    + Math.round(getSavedFraction() * 100) + "% saved)";
+        }
+    } // Totals
+
+    private final Map<String, Totals> totals = new LinkedHashMap<>();
+
+    /**
+     * Record a partial write
+     * @param operation Name of the operation (e.g. "updateRideOffer")
+     * @param written Fields that were written
+     * @param full All fields of the object
+     */
+    public synchronized void record(String operation, Map<String, Object> written, Map<String, Object> full) {
+        Totals t = totals.get(operation);
+        if (t == null) {
+            t = new Totals();
+            totals.put(operation, t);
+        }
+        t.writes++;
+        t.bytesWritten += estimateBytes(written);
+        t.fullBytes += estimateBytes(full);
+    }
+
+    /**
+     * Get a copy of the totals for an operation
+     * @param operation Name of the operation
+     * @return Totals, all zero if nothing was recorded
+     */
+    public synchronized Totals get(String operation) {
+        Totals copy = new Totals();
+        Totals t = totals.get(operation);
+        if (t != null) {
+            copy.writes = t.writes;
+            copy.bytesWritten = t.bytesWritten;
+            copy.fullBytes = t.fullBytes;
+        }
+        return copy;
+    }
+
+    /**
+     * Forget all recorded writes
+     */
+    public synchronized void reset() {
+        totals.clear();
+    }
+
+    /**
+     * Estimate the size of a map of values as JSON
+     * @param values Values keyed by field name
+     * @return Estimated size in bytes
+     */
+    public static long estimateBytes(Map<String, Object> values) {
+        // Braces, plus a comma between entries
+        long bytes = 2 + Math.max(0, values.size() - 1);
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            // Quoted key and colon
+            bytes += utf8Length(entry.getKey()) + 3;
+            Object value = entry.getValue();
+            if (value == null) {
+                bytes += 4;
+            } else if (value instanceof String) {
+                bytes += utf8Length((String) value) + 2;
+            } else {
+                bytes += String.valueOf(value).length();
+            }
+        }
+        return bytes;
+    }
+
+    private static int utf8Length(String s) {
+        return s.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    /**
+     * Convert object to string
+     * @return Summary of all operations
+     */
+    @Override
+    public synchronized String toString() {
+        return "WriteStats" + totals;
+    }
+} // WriteStats
@@ -0,0 +1,142 @@
+package edu.uga.cs.ugarideshare.viewmodels;
+
+import android.app.Application;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.AndroidViewModel;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.uga.cs.ugarideshare.RideShareApplication;
+import edu.uga.cs.ugarideshare.adapters.AcceptedRideAdapter;
+import edu.uga.cs.ugarideshare.models.AcceptedRide;
+import edu.uga.cs.ugarideshare.repository.RideRepository;
+import edu.uga.cs.ugarideshare.utils.FirebaseCallback;
+import edu.uga.cs.ugarideshare.utils.ListPipeline;
+import edu.uga.cs.ugarideshare.utils.SessionManager;
+import edu.uga.cs.ugarideshare.utils.SubscriptionHub;
+
+/**
+ * ViewModel of the accepted rides screen. It keeps the screen's rows for as long as
+ * the screen exists, including while it is being recreated after a rotation, but
+ * only listens to the current user's accepted rides while its rows are observed by
+ * a started screen. When the app comes back from the background the rows from
+ * before stay up until the listener delivers the current list.
+ */
+public class AcceptedRidesViewModel extends AndroidViewModel {
+    private final String userId;
+    private final RideRepository rideRepository;
+    private final ListPipeline<AcceptedRide, AcceptedRideAdapter.Row> pipeline;
+    private final MutableLiveData<String> error = new MutableLiveData<>();
+    private SubscriptionHub.Subscription subscription = SubscriptionHub.EMPTY;
+
+    // Listens for accepted rides only while a started screen observes the rows
+    private final MutableLiveData<List<AcceptedRideAdapter.Row>> rows = new MutableLiveData<List<AcceptedRideAdapter.Row>>() {
+        @Override
+        protected void onActive() {
+            startListening();
+        }
+
+        @Override
+        protected void onInactive() {
+            stopListening();
+        }
+    };
+
+    /**
+     * Constructor
+     * @param application The application
+     */
+    public AcceptedRidesViewModel(@NonNull Application application) {
+        super(application);
+        userId = new SessionManager(application).getUserId();
+        rideRepository = ((RideShareApplication) application).getRideRepository();
+
+        // Copy and format each new list off the main thread, so the adapter's rows never change under it
+        pipeline = new ListPipeline<>(AcceptedRideAdapter.rowDecoder(userId), null, null,
+                (items, diff) -> rows.setValue(items));
+    }
+
+    /**
+     * Start listening for the user's accepted rides.
+     */
+    private void startListening() {
+        subscription = rideRepository.getAcceptedRidesForUser(userId, new FirebaseCallback<List<AcceptedRide>>() {
+            @Override
+            public void onSuccess(List<AcceptedRide> result) {
+                // The list is shown once the pipeline has copied and formatted it
+                pipeline.submit(result);
+            }
+
+            @Override
+            public void onError(String message) {
+                error.setValue(message);
+            }
+        });
+    }
+
+    /**
+     * Stop listening and drop the list being formatted, keeping the rows.
+     */
+    private void stopListening() {
+        subscription.unsubscribe();
+        subscription = SubscriptionHub.EMPTY;
+        pipeline.cancel();
+    }
+
+    /**
+     * Get the rows to show, formatted and sorted by date/time, soonest first
+     * @return Rows, null until the first list is in
+     */
+    public LiveData<List<AcceptedRideAdapter.Row>> getRows() {
+        return rows;
+    }
+
+    /**
+     * Get the latest error of the listener
+     * @return Error message, or null once it has been shown
+     */
+    public LiveData<String> getError() {
+        return error;
+    }
+
+    /**
+     * Forget the latest error, so it isn't shown again when the screen is recreated
+     */
+    public void onErrorShown() {
+        error.setValue(null);
+    }
+
+    /**
+     * Replace a shown ride with another copy of it, e.g. to show a confirmation
+     * before the database has it
+     * @param shown Ride currently shown
+     * @param replacement Ride to show instead
+     */
+    public void swapRide(AcceptedRide shown, AcceptedRide replacement) {
+        List<AcceptedRideAdapter.Row> current = rows.getValue();
+        if (current == null) {
+            return;
+        }
+        // Look for the very copy that is shown, so newer data is never overwritten
+        for (int i = 0; i < current.size(); i++) {
+            if (current.get(i).getAcceptedRide() == shown) {
+                List<AcceptedRideAdapter.Row> swapped = new ArrayList<>(current);
+                swapped.set(i, current.get(i).withRide(replacement));
+                rows.setValue(swapped);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Make sure the listener is released once the screen is gone for good.
+     */
+    @Override
+    protected void onCleared() {
+        stopListening();
+    }
+} // AcceptedRidesViewModel
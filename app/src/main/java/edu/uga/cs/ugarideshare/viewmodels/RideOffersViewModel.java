@@ -0,0 +1,215 @@
+package edu.uga.cs.ugarideshare.viewmodels;
+
+import android.app.Application;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.AndroidViewModel;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.uga.cs.ugarideshare.RideShareApplication;
+import edu.uga.cs.ugarideshare.adapters.RideOfferAdapter;
+import edu.uga.cs.ugarideshare.models.RideOffer;
+import edu.uga.cs.ugarideshare.utils.ListPipeline;
+import edu.uga.cs.ugarideshare.utils.RideFeed;
+import edu.uga.cs.ugarideshare.utils.SessionManager;
+import edu.uga.cs.ugarideshare.utils.SubscriptionHub;
+
+/**
+ * ViewModel of the ride offers screen. It keeps the screen's rows for as long as the
+ * screen exists, including while it is being recreated after a rotation, but only
+ * observes the feed while its rows are observed by a started screen. When the app
+ * goes to the background the feed is released, and when it comes back the rows from
+ * before stay up until the feed has loaded again.
+ */
+public class RideOffersViewModel extends AndroidViewModel {
+    private final RideFeed<RideOffer> feed;
+    // Copies of the feed's ride offers, in order; the pipeline gets a snapshot after each change
+    private final List<RideOffer> rideOffers = new ArrayList<>();
+    private final ListPipeline<RideOffer, RideOfferAdapter.Row> pipeline;
+    private final MutableLiveData<Boolean> loaded = new MutableLiveData<>();
+    private final MutableLiveData<Boolean> empty = new MutableLiveData<>();
+    private final MutableLiveData<String> error = new MutableLiveData<>();
+    private SubscriptionHub.Subscription subscription = SubscriptionHub.EMPTY;
+
+    // Observes the feed only while a started screen observes the rows
+    private final MutableLiveData<List<RideOfferAdapter.Row>> rows = new MutableLiveData<List<RideOfferAdapter.Row>>() {
+        @Override
+        protected void onActive() {
+            startObserving();
+        }
+
+        @Override
+        protected void onInactive() {
+            stopObserving();
+        }
+    };
+
+    // Applies each change to the copies, then formats a snapshot of them
+    private final RideFeed.Listener<RideOffer> listener = new RideFeed.Listener<RideOffer>() {
+        @Override
+        public void onItemInserted(int position, RideOffer item) {
+            rideOffers.add(position, new RideOffer(item));
+            submitOffers();
+        }
+
+        @Override
+        public void onItemChanged(int position, RideOffer item) {
+            rideOffers.set(position, new RideOffer(item));
+            submitOffers();
+        }
+
+        @Override
+        public void onItemMoved(int fromPosition, int toPosition, RideOffer item) {
+            rideOffers.remove(fromPosition);
+            rideOffers.add(toPosition, new RideOffer(item));
+            submitOffers();
+        }
+
+        @Override
+        public void onItemRemoved(int position, RideOffer item) {
+            rideOffers.remove(position);
+            submitOffers();
+        }
+
+        @Override
+        public void onLoaded() {
+            submitOffers();
+        }
+
+        @Override
+        public void onError(String message) {
+            error.setValue(message);
+        }
+    };
+
+    /**
+     * Constructor
+     * @param application The application
+     */
+    public RideOffersViewModel(@NonNull Application application) {
+        super(application);
+        String userId = new SessionManager(application).getUserId();
+        feed = ((RideShareApplication) application).getRideRepository().getAvailableRideOffersFeed();
+
+        // Format each snapshot's rows off the main thread
+        pipeline = new ListPipeline<>(RideOfferAdapter.rowDecoder(userId), null, null,
+                (items, diff) -> rows.setValue(items));
+        updateState();
+    }
+
+    /**
+     * Start observing the feed. The feed may have been stopped and cleared since the
+     * last time, so the copies start over from its current items.
+     */
+    private void startObserving() {
+        rideOffers.clear();
+        for (RideOffer item : feed.getItems()) {
+            rideOffers.add(new RideOffer(item));
+        }
+        subscription = feed.observe(listener);
+        submitOffers();
+    }
+
+    /**
+     * Stop observing the feed and drop the snapshot being formatted, keeping the rows.
+     */
+    private void stopObserving() {
+        subscription.unsubscribe();
+        subscription = SubscriptionHub.EMPTY;
+        pipeline.cancel();
+    }
+
+    /**
+     * Hand the pipeline a snapshot of the ride offers once the feed has loaded, so a
+     * reloading feed never replaces the rows from before with a partial list.
+     */
+    private void submitOffers() {
+        if (feed.isLoaded()) {
+            pipeline.submit(rideOffers);
+        }
+        updateState();
+    }
+
+    /**
+     * Update whether the feed has loaded and whether it is empty. While the feed
+     * reloads, the state of the rows from before is kept.
+     */
+    private void updateState() {
+        if (feed.isLoaded()) {
+            setIfChanged(loaded, true);
+            setIfChanged(empty, rideOffers.isEmpty());
+        } else if (rows.getValue() == null) {
+            setIfChanged(loaded, false);
+            setIfChanged(empty, false);
+        }
+    }
+
+    /**
+     * Get the rows to show, formatted and in order
+     * @return Rows, updated after every change to the feed
+     */
+    public LiveData<List<RideOfferAdapter.Row>> getRows() {
+        return rows;
+    }
+
+    /**
+     * Get whether the initial ride offers are in
+     * @return true once the feed has loaded
+     */
+    public LiveData<Boolean> isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Get whether there are no ride offers to show
+     * @return true if the feed has loaded and holds no ride offers
+     */
+    public LiveData<Boolean> isEmpty() {
+        return empty;
+    }
+
+    /**
+     * Get the latest error of the feed
+     * @return Error message, or null once it has been shown
+     */
+    public LiveData<String> getError() {
+        return error;
+    }
+
+    /**
+     * Forget the latest error, so it isn't shown again when the screen is recreated
+     */
+    public void onErrorShown() {
+        error.setValue(null);
+    }
+
+    /**
+     * Load the next page of ride offers
+     */
+    public void loadMore() {
+        feed.loadMore();
+    }
+
+    /**
+     * Make sure the feed is released once the screen is gone for good.
+     */
+    @Override
+    protected void onCleared() {
+        stopObserving();
+    }
+
+    /**
+     * Set a value, unless it is already set, so observers only hear about changes
+     * @param data Live data to update
+     * @param value New value
+     */
+    private static <T> void setIfChanged(MutableLiveData<T> data, T value) {
+        if (!value.equals(data.getValue())) {
+            data.setValue(value);
+        }
+    }
+} // RideOffersViewModel
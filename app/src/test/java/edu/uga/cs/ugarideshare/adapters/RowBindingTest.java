@@ -0,0 +1,67 @@
+package edu.uga.cs.ugarideshare.adapters;
+
+import org.junit.Test;
+
+import edu.uga.cs.ugarideshare.models.AcceptedRide;
+import edu.uga.cs.ugarideshare.models.RideOffer;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for the adapters' preformatted rows and their diffing.
+ */
+public class RowBindingTest {
+    @Test
+    public void confirmationOnlyRebindsTheStatus() {
+        AcceptedRide ride = acceptedRide("ride1", 1_700_000_000_000L);
+        AcceptedRideAdapter.Row row = AcceptedRideAdapter.rowDecoder("driver").decode(ride);
+        AcceptedRide confirmed = new AcceptedRide(ride);
+        confirmed.setDriverConfirmed(true);
+        AcceptedRideAdapter.Row confirmedRow = row.withRide(confirmed);
+
+        assertSame(confirmed, confirmedRow.getAcceptedRide());
+        assertTrue(AcceptedRideAdapter.DIFF_CALLBACK.areItemsTheSame(row, confirmedRow));
+        assertFalse(AcceptedRideAdapter.DIFF_CALLBACK.areContentsTheSame(row, confirmedRow));
+        assertNotNull(AcceptedRideAdapter.DIFF_CALLBACK.getChangePayload(row, confirmedRow));
+
+        // The rider hasn't confirmed, so for them the row looks the same
+        AcceptedRideAdapter.Row riderRow = AcceptedRideAdapter.rowDecoder("rider").decode(ride);
+        assertTrue(AcceptedRideAdapter.DIFF_CALLBACK.areContentsTheSame(riderRow, riderRow.withRide(confirmed)));
+
+        // A new time needs a full rebind
+        AcceptedRide moved = new AcceptedRide(ride);
+        moved.setDateTime(ride.getDateTime() + 3_600_000);
+        AcceptedRideAdapter.Row movedRow = AcceptedRideAdapter.rowDecoder("driver").decode(moved);
+        assertFalse(AcceptedRideAdapter.DIFF_CALLBACK.areContentsTheSame(row, movedRow));
+        assertNull(AcceptedRideAdapter.DIFF_CALLBACK.getChangePayload(row, movedRow));
+    }
+
+    @Test
+    public void rowsCompareByWhatTheyShow() {
+        RideOffer offer = rideOffer("offer1", 1_700_000_000_000L);
+        RideOfferAdapter.Row driverRow = RideOfferAdapter.rowDecoder("driver").decode(offer);
+        RideOfferAdapter.Row riderRow = RideOfferAdapter.rowDecoder("rider").decode(offer);
+
+        assertSame(offer, driverRow.getRideOffer());
+        assertTrue(RideOfferAdapter.DIFF_CALLBACK.areContentsTheSame(driverRow,
+                RideOfferAdapter.rowDecoder("driver").decode(new RideOffer(offer))));
+        // Same offer, but only the driver gets the update and delete buttons
+        assertTrue(RideOfferAdapter.DIFF_CALLBACK.areItemsTheSame(driverRow, riderRow));
+        assertFalse(RideOfferAdapter.DIFF_CALLBACK.areContentsTheSame(driverRow, riderRow));
+    }
+
+    private static RideOffer rideOffer(String id, long dateTime) {
+        RideOffer offer = new RideOffer("driver", "driver@uga.edu", dateTime, "Athens", "Atlanta");
+        offer.setId(id);
+        return offer;
+    }
+
+    private static AcceptedRide acceptedRide(String id, long dateTime) {
+        RideOffer offer = rideOffer(id, dateTime);
+        offer.setRiderId("rider");
+        offer.setRiderEmail("rider@uga.edu");
+        AcceptedRide ride = new AcceptedRide(offer);
+        ride.setId(id);
+        return ride;
+    }
+}
@@ -0,0 +1,82 @@
+package edu.uga.cs.ugarideshare.models;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for the models' fromMap/toMap mappers.
+ */
+public class ModelMapperTest {
+
+    @Test
+    public void rideOfferRoundTrips() {
+        RideOffer offer = new RideOffer("d1", "driver@uga.edu", 1_700_000_000_000L, "Tate Center", "Atlanta");
+        offer.setId("o1");
+        offer.acceptRide("r1", "rider@uga.edu");
+
+        RideOffer decoded = RideOffer.fromMap("o1", offer.toMap());
+
+        assertEquals(offer.toMap(), decoded.toMap());
+        assertEquals("accepted_001700000000000", decoded.getStatusTime());
+        assertFalse(decoded.hasChanges());
+    }
+
+    @Test
+    public void rideRequestRoundTrips() {
+        RideRequest request = new RideRequest("r1", "rider@uga.edu", 1_700_000_000_000L, "Boyd", "Airport");
+        request.setId("q1");
+
+        RideRequest decoded = RideRequest.fromMap("q1", request.toMap());
+
+        assertEquals(request.toMap(), decoded.toMap());
+        assertNull(decoded.getDriverId());
+        assertFalse(decoded.hasChanges());
+    }
+
+    @Test
+    public void acceptedRideRoundTrips() {
+        RideOffer offer = new RideOffer("d1", "driver@uga.edu", 1_700_000_000_000L, "Tate Center", "Atlanta");
+        offer.acceptRide("r1", "rider@uga.edu");
+        AcceptedRide ride = new AcceptedRide(offer);
+        ride.setId("a1");
+        ride.setDriverConfirmed(true);
+
+        AcceptedRide decoded = AcceptedRide.fromMap("a1", ride.toMap());
+
+        assertEquals(ride.toMap(), decoded.toMap());
+        assertTrue(decoded.isDriverConfirmed());
+        assertFalse(decoded.isRiderConfirmed());
+    }
+
+    @Test
+    public void userRoundTrips() {
+        User user = new User("user@uga.edu", "");
+        user.setId("u1");
+        user.setRidePoints(75);
+
+        User decoded = User.fromMap("u1", user.toMap());
+
+        assertEquals(user.toMap(), decoded.toMap());
+    }
+
+    @Test
+    public void toleratesDatabaseNumberTypesAndMissingFields() {
+        // The database hands back whole numbers as Long and may send a Double
+        Map<String, Object> values = new HashMap<>();
+        values.put("points", 50L);
+        values.put("dateTime", 1.7e12);
+        values.put("riderConfirmed", true);
+
+        AcceptedRide ride = AcceptedRide.fromMap("a1", values);
+
+        assertEquals(50, ride.getPoints());
+        assertEquals(1_700_000_000_000L, ride.getDateTime());
+        assertTrue(ride.isRiderConfirmed());
+        assertFalse(ride.isDriverConfirmed());
+        assertNull(ride.getDriverId());
+    }
+}
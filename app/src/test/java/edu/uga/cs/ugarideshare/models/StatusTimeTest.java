@@ -0,0 +1,42 @@
+package edu.uga.cs.ugarideshare.models;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for the statusTime key.
+ */
+public class StatusTimeTest {
+
+    @Test
+    public void keysSortByStatusThenTime() {
+        String early = StatusTime.key("available", 9_000_000_000L);
+        String late = StatusTime.key("available", 10_000_000_000L);
+
+        assertTrue(early.compareTo(late) < 0);
+        assertTrue(late.compareTo(StatusTime.key("accepted", 1L)) > 0);
+    }
+
+    @Test
+    public void boundsCoverOnlyUpcomingRidesWithTheStatus() {
+        long now = 1_700_000_000_000L;
+        String lower = StatusTime.lowerBound("available", now);
+        String upper = StatusTime.upperBound("available");
+
+        assertTrue(StatusTime.key("available", now - 1).compareTo(lower) < 0);
+        assertTrue(StatusTime.key("available", now).compareTo(lower) >= 0);
+        assertTrue(StatusTime.key("available", Long.MAX_VALUE / 1000).compareTo(upper) < 0);
+        assertTrue(StatusTime.key("availablex", now).compareTo(upper) > 0);
+    }
+
+    @Test
+    public void modelKeepsKeyInStepWithStatusAndTime() {
+        RideRequest request = new RideRequest("rider-1", "rider@uga.edu", 1000L, "Tate Center", "Atlanta");
+        assertEquals(StatusTime.key("available", 1000L), request.getStatusTime());
+
+        request.acceptRequest("driver-1", "driver@uga.edu");
+        request.setDateTime(2000L);
+        assertEquals(StatusTime.key("accepted", 2000L), request.getStatusTime());
+    }
+}
@@ -0,0 +1,261 @@
+package edu.uga.cs.ugarideshare.repository;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import edu.uga.cs.ugarideshare.models.AcceptedRide;
+import edu.uga.cs.ugarideshare.models.RideOffer;
+import edu.uga.cs.ugarideshare.models.User;
+import edu.uga.cs.ugarideshare.utils.ClaimResult;
+import edu.uga.cs.ugarideshare.utils.FirebaseCallback;
+import edu.uga.cs.ugarideshare.utils.RideFeed;
+import edu.uga.cs.ugarideshare.utils.SubscriptionHub;
+
+import static org.junit.Assert.*;
+
+/**
+ * Drives the post, accept and confirm flows through the in-memory repositories,
+ * with simulated latency on a virtual clock.
+ */
+public class InMemoryRepositoryTest {
+    private static final long START = 1_700_000_000_000L;
+    private static final long HOUR = TimeUnit.HOURS.toMillis(1);
+    private static final long LATENCY = 80;
+
+    private VirtualTimeScheduler scheduler;
+    private RideRepository rides;
+    private UserRepository users;
+    private User driver;
+    private User rider;
+
+    @Before
+    public void setUp() {
+        scheduler = new VirtualTimeScheduler(START);
+        Repositories repositories = Repositories.inMemory(
+                new InMemoryBackend(scheduler, InMemoryBackend.Latency.fixed(LATENCY)));
+        rides = repositories.getRides();
+        users = repositories.getUsers();
+
+        driver = register("driver@uga.edu");
+        rider = register("rider@uga.edu");
+    }
+
+    @Test
+    public void postedOfferReachesTheFeedAfterTheLatency() {
+        RecordingListener<RideOffer> listener = new RecordingListener<>();
+        RideFeed<RideOffer> feed = rides.getAvailableRideOffersFeed();
+        SubscriptionHub.Subscription subscription = feed.observe(listener);
+        scheduler.advance(LATENCY);
+        assertTrue(feed.isLoaded());
+
+        Result<RideOffer> posted = new Result<>();
+        rides.postRideOffer(newOffer(START + HOUR), posted);
+        assertNull(posted.value);
+        assertEquals(0, feed.size());
+
+        scheduler.advance(LATENCY);
+        assertNotNull(posted.value.getId());
+        assertEquals(1, feed.size());
+        assertEquals(1, listener.inserted);
+        subscription.unsubscribe();
+    }
+
+    @Test
+    public void pastAndAcceptedOffersAreNotInTheFeed() {
+        RideOffer past = await(callback -> rides.postRideOffer(newOffer(START - HOUR), callback));
+        RideOffer upcoming = await(callback -> rides.postRideOffer(newOffer(START + HOUR), callback));
+        RideOffer taken = await(callback -> rides.postRideOffer(newOffer(START + 2 * HOUR), callback));
+        this.<ClaimResult>await(callback -> rides.acceptRideOffer(taken, rider.getId(), rider.getEmail(), callback));
+
+        RideFeed<RideOffer> feed = rides.getAvailableRideOffersFeed();
+        SubscriptionHub.Subscription subscription = feed.observe(new RecordingListener<>());
+        scheduler.runAll();
+
+        assertEquals(1, feed.size());
+        assertEquals(upcoming.getId(), feed.getItems().get(0).getId());
+        assertNotEquals(past.getId(), feed.getItems().get(0).getId());
+        subscription.unsubscribe();
+    }
+
+    @Test
+    public void exactlyOneOfManyConcurrentClaimsWins() throws Exception {
+        Repositories repositories = Repositories.inMemory(new InMemoryBackend());
+        register(repositories.getUsers(), "driver@uga.edu");
+        RideOffer offer = newOffer(System.currentTimeMillis() + HOUR);
+        repositories.getRides().postRideOffer(offer, new Result<>());
+
+        int riders = 16;
+        ExecutorService pool = Executors.newFixedThreadPool(riders);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Result<ClaimResult>> results = new ArrayList<>();
+        for (int i = 0; i < riders; i++) {
+            Result<ClaimResult> result = new Result<>();
+            results.add(result);
+            String riderId = "rider-" + i;
+            RideOffer copy = new RideOffer(offer);
+            pool.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                repositories.getRides().acceptRideOffer(copy, riderId, riderId + "@uga.edu", result);
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+        int claimed = 0;
+        for (Result<ClaimResult> result : results) {
+            assertNotNull(result.value);
+            if (result.value.isClaimed()) {
+                claimed++;
+            }
+        }
+        assertEquals(1, claimed);
+    }
+
+    @Test
+    public void confirmedRideMovesPointsOnce() {
+        RideOffer offer = await(callback -> rides.postRideOffer(newOffer(START + HOUR), callback));
+        ClaimResult claim = await(callback -> rides.acceptRideOffer(offer, rider.getId(), rider.getEmail(), callback));
+        assertTrue(claim.isClaimed());
+        assertEquals("accepted", offer.getStatus());
+
+        List<Integer> riderPoints = new ArrayList<>();
+        users.addPointsUpdateListener(rider.getId(), riderPoints::add);
+        Result<List<AcceptedRide>> accepted = new Result<>();
+        SubscriptionHub.Subscription subscription = rides.getAcceptedRidesForUser(rider.getId(), accepted);
+        scheduler.runAll();
+        assertEquals(1, accepted.value.size());
+
+        AcceptedRide ride = accepted.value.get(0);
+        assertTrue(await(callback -> rides.confirmRide(ride, true, callback)));
+        assertTrue(await(callback -> rides.confirmRide(ride, false, callback)));
+        scheduler.runAll();
+
+        int points = ride.getPoints();
+        assertEquals(100 - points, this.<User>await(callback -> users.getUserById(rider.getId(), callback)).getRidePoints());
+        assertEquals(100 + points, this.<User>await(callback -> users.getUserById(driver.getId(), callback)).getRidePoints());
+        assertEquals(Integer.valueOf(100 - points), riderPoints.get(riderPoints.size() - 1));
+        assertTrue(accepted.value.isEmpty());
+        subscription.unsubscribe();
+    }
+
+    @Test
+    public void failedConfirmationTellsWhetherTheFlagWasSaved() {
+        RideOffer offer = await(callback -> rides.postRideOffer(newOffer(START + HOUR), callback));
+        this.<ClaimResult>await(callback -> rides.acceptRideOffer(offer, rider.getId(), rider.getEmail(), callback));
+        Result<List<AcceptedRide>> accepted = new Result<>();
+        SubscriptionHub.Subscription subscription = rides.getAcceptedRidesForUser(rider.getId(), accepted);
+        scheduler.runAll();
+
+        // The driver confirms a ride costing more than the rider has
+        AcceptedRide costly = new AcceptedRide(accepted.value.get(0));
+        costly.setPoints(500);
+        assertTrue(await(callback -> rides.confirmRide(costly, true, callback)));
+
+        // The rider cannot pay: the flag is saved and only settling failed
+        AcceptedRide ride = new AcceptedRide(accepted.value.get(0));
+        Result<Boolean> result = new Result<>();
+        rides.confirmRide(ride, false, result);
+        scheduler.runAll();
+        assertEquals("Rider does not have enough points", result.error);
+        assertTrue(ride.isRiderConfirmed());
+        assertFalse(ride.hasChanges());
+        subscription.unsubscribe();
+    }
+
+    @Test
+    public void signedOutCallsFail() {
+        users.signOut();
+        Result<RideOffer> result = new Result<>();
+        rides.postRideOffer(newOffer(START + HOUR), result);
+        assertNull(result.error);
+
+        scheduler.runAll();
+        assertEquals("User not authenticated", result.error);
+    }
+
+    private User register(String email) {
+        return register(users, email);
+    }
+
+    private User register(UserRepository repository, String email) {
+        return await(callback -> repository.registerUser(new User(email, "password"), callback));
+    }
+
+    private RideOffer newOffer(long dateTime) {
+        return new RideOffer(driver != null ? driver.getId() : "driver", "driver@uga.edu", dateTime, "Tate Center", "Atlanta");
+    }
+
+    /**
+     * Start an operation, run the virtual clock until it is done, and return its result
+     */
+    private <T> T await(Consumer<FirebaseCallback<T>> operation) {
+        Result<T> result = new Result<>();
+        operation.accept(result);
+        scheduler.runAll();
+        assertNull(result.error, result.error);
+        return result.value;
+    }
+
+    /**
+     * Callback that keeps the last result.
+     */
+    private static class Result<T> implements FirebaseCallback<T> {
+        private volatile T value;
+        private volatile String error;
+
+        @Override
+        public void onSuccess(T result) {
+            value = result;
+        }
+
+        @Override
+        public void onError(String message) {
+            error = message;
+        }
+    }
+
+    /**
+     * Feed listener that counts inserts.
+     */
+    private static class RecordingListener<T> implements RideFeed.Listener<T> {
+        private int inserted;
+
+        @Override
+        public void onItemInserted(int position, T item) {
+            inserted++;
+        }
+
+        @Override
+        public void onItemChanged(int position, T item) {
+        }
+
+        @Override
+        public void onItemMoved(int fromPosition, int toPosition, T item) {
+        }
+
+        @Override
+        public void onItemRemoved(int position, T item) {
+        }
+
+        @Override
+        public void onLoaded() {
+        }
+
+        @Override
+        public void onError(String error) {
+        }
+    }
+}
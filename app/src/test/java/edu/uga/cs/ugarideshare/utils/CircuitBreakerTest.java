@@ -0,0 +1,72 @@
+package edu.uga.cs.ugarideshare.utils;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for CircuitBreaker.
+ */
+public class CircuitBreakerTest {
+    private static final long OPEN_MILLIS = 30_000;
+
+    private long now;
+    private CircuitBreaker breaker;
+
+    @Before
+    public void setUp() {
+        now = 1_000;
+        breaker = new CircuitBreaker(3, OPEN_MILLIS, () -> now);
+    }
+
+    @Test
+    public void opensAfterConsecutiveFailuresAndFailsFast() {
+        breaker.recordFailure();
+        breaker.recordFailure();
+        breaker.recordSuccess();
+        breaker.recordFailure();
+        breaker.recordFailure();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+
+        breaker.recordFailure();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.allowRequest());
+        assertFalse(breaker.allowRequest());
+        assertEquals(2, breaker.getRejectedCount());
+        assertEquals(1, breaker.getOpenCount());
+    }
+
+    @Test
+    public void oneProbeClosesTheBreakerAgain() {
+        open();
+        now += OPEN_MILLIS;
+
+        assertTrue(breaker.allowRequest());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        // Only the probe goes out
+        assertFalse(breaker.allowRequest());
+
+        breaker.recordSuccess();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.allowRequest());
+    }
+
+    @Test
+    public void failedProbeReopensTheBreaker() {
+        open();
+        now += OPEN_MILLIS;
+        assertTrue(breaker.allowRequest());
+
+        breaker.recordFailure();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.allowRequest());
+        assertEquals(2, breaker.getOpenCount());
+    }
+
+    private void open() {
+        for (int i = 0; i < 3; i++) {
+            breaker.recordFailure();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package edu.uga.cs.ugarideshare.utils;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.uga.cs.ugarideshare.models.RideOffer;
+import edu.uga.cs.ugarideshare.models.User;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for EntityCache.
+ */
+public class EntityCacheTest {
+    private static final long TTL = 30_000;
+
+    private long now;
+    private EntityCache<User> cache;
+
+    @Before
+    public void setUp() {
+        now = 1_000;
+        cache = new EntityCache<>(3, TTL, User::new, () -> now);
+    }
+
+    @Test
+    public void repeatedLookupsAreHitsWithinTheTtl() {
+        assertNull(cache.get("u1"));
+        cache.put("u1", user("u1", 100));
+
+        for (int i = 0; i < 5; i++) {
+            now += 1_000;
+            assertEquals(100, cache.get("u1").getRidePoints());
+        }
+
+        assertEquals(5, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    public void expiredEntriesAreMisses() {
+        cache.put("u1", user("u1", 100));
+        now += TTL;
+
+        assertNull(cache.get("u1"));
+        assertEquals(1, cache.getExpirations());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void leastRecentlyUsedIsEvicted() {
+        cache.put("u1", user("u1", 1));
+        cache.put("u2", user("u2", 2));
+        cache.put("u3", user("u3", 3));
+        cache.get("u1");
+
+        cache.put("u4", user("u4", 4));
+
+        assertEquals(1, cache.getEvictions());
+        assertNull(cache.get("u2"));
+        assertNotNull(cache.get("u1"));
+        assertNotNull(cache.get("u4"));
+    }
+
+    @Test
+    public void listenersInvalidateChangedEntries() {
+        cache.put("u1", user("u1", 100));
+
+        // Same points as cached: the entry stays
+        cache.invalidateIf("u1", u -> u.getRidePoints() != 100);
+        assertNotNull(cache.get("u1"));
+
+        cache.invalidateIf("u1", u -> u.getRidePoints() != 50);
+        assertNull(cache.get("u1"));
+        assertEquals(1, cache.getInvalidations());
+    }
+
+    @Test
+    public void callersGetIndependentCopies() {
+        EntityCache<RideOffer> offers = new EntityCache<>(10, TTL, RideOffer::new, () -> now);
+        RideOffer offer = new RideOffer("d1", "driver@uga.edu", 5_000_000, "Tate Center", "Atlanta");
+        offer.setId("o1");
+        offers.put("o1", offer);
+        offer.setDestination("Athens");
+
+        RideOffer first = offers.get("o1");
+        first.setStartPoint("Boyd");
+
+        RideOffer second = offers.get("o1");
+        assertEquals("Atlanta", second.getDestination());
+        assertEquals("Tate Center", second.getStartPoint());
+        assertFalse(second.hasChanges());
+    }
+
+    private static User user(String id, int points) {
+        User user = new User("user@uga.edu", "");
+        user.setId(id);
+        user.setRidePoints(points);
+        return user;
+    }
+}
@@ -0,0 +1,103 @@
+package edu.uga.cs.ugarideshare.utils;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for Futures.
+ */
+public class FuturesTest {
+
+    @Test
+    public void callbacksBecomeFutures() {
+        CompletableFuture<String> ok = Futures.call(callback -> callback.onSuccess("done"));
+        CompletableFuture<String> failed = Futures.call(callback -> callback.onError("Ride offer not found"));
+
+        assertEquals("done", ok.join());
+        assertTrue(failed.isCompletedExceptionally());
+        assertEquals("Ride offer not found", message(failed));
+    }
+
+    @Test
+    public void allOfKeepsOrderAndFailsFast() {
+        CompletableFuture<Integer> first = new CompletableFuture<>();
+        CompletableFuture<Integer> second = new CompletableFuture<>();
+        CompletableFuture<List<Integer>> all = Futures.allOf(Arrays.asList(first, second));
+
+        // Both reads are running at once; the later one may finish first
+        second.complete(2);
+        assertFalse(all.isDone());
+        first.complete(1);
+        assertEquals(Arrays.asList(1, 2), all.join());
+
+        CompletableFuture<Integer> slow = new CompletableFuture<>();
+        CompletableFuture<Integer> broken = new CompletableFuture<>();
+        CompletableFuture<List<Integer>> failing = Futures.allOf(Arrays.asList(slow, broken));
+        broken.completeExceptionally(new Futures.Failure("Permission denied"));
+        assertEquals("Permission denied", message(failing));
+    }
+
+    @Test
+    public void lateResultsTimeOut() {
+        CompletableFuture<String> never = new CompletableFuture<>();
+        CompletableFuture<String> bounded = Futures.withTimeout(never, 20, TimeUnit.MILLISECONDS);
+
+        assertEquals("The request timed out, please try again", message(bounded));
+        assertTrue(Futures.isTimeout(bounded.handle((result, error) -> error).join()));
+        assertFalse(Futures.isTimeout(new Futures.Failure("Network error")));
+        // The late future is cancelled right after the timeout fires
+        never.exceptionally(e -> null).join();
+        assertTrue(never.isCancelled());
+
+        CompletableFuture<String> fast = Futures.withTimeout(
+                CompletableFuture.completedFuture("ok"), 1, TimeUnit.SECONDS);
+        assertEquals("ok", fast.join());
+    }
+
+    @Test
+    public void deliverReportsErrorsAsMessages() {
+        String[] seen = new String[2];
+        FirebaseCallback<String> callback = new FirebaseCallback<String>() {
+            @Override
+            public void onSuccess(String result) {
+                seen[0] = result;
+            }
+
+            @Override
+            public void onError(String error) {
+                seen[1] = error;
+            }
+        };
+
+        Futures.deliver(CompletableFuture.completedFuture("saved"), callback, Runnable::run);
+        Futures.deliver(CompletableFuture.<String>completedFuture(null)
+                .thenApply(ignored -> {
+                    throw new Futures.Failure("User not authenticated");
+                }), callback, Runnable::run);
+
+        assertEquals("saved", seen[0]);
+        assertEquals("User not authenticated", seen[1]);
+    }
+
+    private static CompletableFuture<String> failed(String message) {
+        CompletableFuture<String> future = new CompletableFuture<>();
+        future.completeExceptionally(new Futures.Failure(message));
+        return future;
+    }
+
+    private static String message(CompletableFuture<?> future) {
+        try {
+            future.join();
+            fail("Expected the future to fail");
+            return null;
+        } catch (RuntimeException e) {
+            return Futures.message(e);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package edu.uga.cs.ugarideshare.utils;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for LatencyHistogram.
+ */
+public class LatencyHistogramTest {
+
+    @Test
+    public void percentilesStayWithinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        // 1 ms to 1000 ms, one each
+        for (int ms = 1; ms <= 1000; ms++) {
+            histogram.record(ms * 1_000_000L);
+        }
+
+        assertEquals(1000, histogram.getCount());
+        assertWithin(500_000, histogram.getPercentileMicros(50));
+        assertWithin(950_000, histogram.getPercentileMicros(95));
+        assertWithin(990_000, histogram.getPercentileMicros(99));
+        assertEquals(1_000_000, histogram.getMaxMicros());
+        assertEquals(500_500, histogram.getMeanMicros());
+    }
+
+    @Test
+    public void smallValuesAreExactAndAddingMerges() {
+        LatencyHistogram fast = new LatencyHistogram();
+        fast.record(7_000);
+        fast.record(7_999);
+        assertEquals(7, fast.getPercentileMicros(100));
+
+        LatencyHistogram slow = new LatencyHistogram();
+        slow.record(2_000_000_000L);
+        fast.add(slow);
+        assertEquals(3, fast.getCount());
+        assertEquals(7, fast.getPercentileMicros(50));
+        assertEquals(2_000_000, fast.getPercentileMicros(100));
+
+        fast.reset();
+        assertEquals(0, fast.getCount());
+        assertEquals(0, fast.getPercentileMicros(99));
+    }
+
+    private static void assertWithin(long expected, long actual) {
+        assertTrue(actual + " is not within 6.25% of " + expected,
+                Math.abs(actual - expected) <= expected / 16);
+    }
+}
@@ -0,0 +1,112 @@
+package edu.uga.cs.ugarideshare.utils;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for ListPipeline. The background and main executors are queues
+ * run by hand, so each test decides exactly when work happens.
+ */
+public class ListPipelineTest {
+    private Queue<Runnable> background;
+    private Queue<Runnable> main;
+    private List<String> decoded;
+    private List<List<Integer>> delivered;
+    private ListPipeline<String, Integer> pipeline;
+
+    @Before
+    public void setUp() {
+        background = new ArrayDeque<>();
+        main = new ArrayDeque<>();
+        decoded = new ArrayList<>();
+        delivered = new ArrayList<>();
+        pipeline = new ListPipeline<String, Integer>(
+                raw -> {
+                    decoded.add(raw);
+                    // Negative numbers are filtered out
+                    int value = Integer.parseInt(raw);
+                    return value < 0 ? null : value;
+                },
+                Comparator.naturalOrder(),
+                null,
+                (items, diff) -> delivered.add(items),
+                background::add,
+                main::add);
+    }
+
+    @Test
+    public void decodesFiltersAndSortsOffTheMainThread() {
+        pipeline.submit(Arrays.asList("3", "-1", "1", "2"));
+
+        // Nothing happens on the calling thread
+        assertTrue(decoded.isEmpty());
+        runAll(background);
+        assertEquals(4, decoded.size());
+        assertTrue(delivered.isEmpty());
+
+        runAll(main);
+        assertEquals(1, delivered.size());
+        assertEquals(Arrays.asList(1, 2, 3), delivered.get(0));
+        assertEquals(Arrays.asList(1, 2, 3), pipeline.getCurrentList());
+    }
+
+    @Test
+    public void waitingBatchIsReplacedByNewerOne() {
+        pipeline.submit(Arrays.asList("1", "2"));
+        pipeline.submit(Arrays.asList("5", "4"));
+
+        // One job drains both submits and only decodes the newest batch
+        assertEquals(1, background.size());
+        runAll(background);
+        runAll(main);
+
+        assertEquals(Arrays.asList("5", "4"), decoded);
+        assertEquals(1, delivered.size());
+        assertEquals(Arrays.asList(4, 5), delivered.get(0));
+        assertEquals(1, pipeline.getSupersededCount());
+    }
+
+    @Test
+    public void finishedBatchIsDroppedWhenSuperseded() {
+        pipeline.submit(Arrays.asList("1"));
+        runAll(background);
+
+        // The first result is already posted when the second batch arrives
+        pipeline.submit(Arrays.asList("2"));
+        runAll(background);
+        runAll(main);
+
+        assertEquals(1, delivered.size());
+        assertEquals(Arrays.asList(2), delivered.get(0));
+        assertEquals(2, pipeline.getSubmittedCount());
+        assertEquals(1, pipeline.getDeliveredCount());
+        assertEquals(1, pipeline.getSupersededCount());
+    }
+
+    @Test
+    public void cancelStopsTheBatchInFlight() {
+        pipeline.submit(Arrays.asList("1", "2"));
+        pipeline.cancel();
+        runAll(background);
+        runAll(main);
+
+        assertTrue(decoded.isEmpty());
+        assertTrue(delivered.isEmpty());
+        assertTrue(pipeline.getCurrentList().isEmpty());
+    }
+
+    private static void runAll(Queue<Runnable> queue) {
+        while (!queue.isEmpty()) {
+            queue.poll().run();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package edu.uga.cs.ugarideshare.utils;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for OperationMetrics and its JSON exporter.
+ */
+public class OperationMetricsTest {
+
+    @Test
+    public void timedCallbacksRecordLatencyAndOutcome() {
+        long[] now = {0};
+        OperationMetrics metrics = new OperationMetrics(() -> now[0]);
+        String[] seen = new String[1];
+        FirebaseCallback<String> callback = new FirebaseCallback<String>() {
+            @Override
+            public void onSuccess(String result) {
+                seen[0] = result;
+            }
+
+            @Override
+            public void onError(String error) {
+                seen[0] = error;
+            }
+        };
+
+        FirebaseCallback<String> read = metrics.time("getUserById", callback);
+        now[0] += 12_000_000;
+        read.onSuccess("user");
+        FirebaseCallback<String> missing = metrics.time("getUserById", callback);
+        now[0] += 3_000_000;
+        missing.onError("User not found");
+
+        assertEquals("User not found", seen[0]);
+        OperationMetrics.Summary summary = metrics.snapshot().get(0);
+        assertEquals("getUserById", summary.getOperation());
+        assertEquals(1, summary.getSuccesses());
+        assertEquals(1, summary.getErrors());
+        // Reported as the upper end of the bucket holding 3 ms
+        assertEquals(3_071, summary.getP50Micros());
+        assertEquals(12_000, summary.getP99Micros());
+
+        // Turned off, callbacks go through untouched
+        metrics.setEnabled(false);
+        assertSame(callback, metrics.time("getUserById", callback));
+    }
+
+    @Test
+    public void jsonExportListsOperationsByName() {
+        OperationMetrics metrics = new OperationMetrics();
+        metrics.record("postRideOffer", 40_000_000, true);
+        metrics.record("getRideOfferById", 8_000_000, false);
+        metrics.recordBytesRead("getRideOfferById", 120);
+
+        JsonMetricsExporter json = new JsonMetricsExporter();
+        metrics.export(json);
+        assertEquals("{\"getRideOfferById\":{\"count\":1,\"successes\":0,\"errors\":1,\"bytesRead\":120,"
+                + "\"p50Micros\":8000,\"p95Micros\":8000,\"p99Micros\":8000,\"maxMicros\":8000,\"meanMicros\":8000},"
+                + "\"postRideOffer\":{\"count\":1,\"successes\":1,\"errors\":0,\"bytesRead\":0,"
+                + "\"p50Micros\":40000,\"p95Micros\":40000,\"p99Micros\":40000,\"maxMicros\":40000,\"meanMicros\":40000}}",
+                json.getJson());
+
+        metrics.resetStats();
+        metrics.export(json);
+        assertEquals("{}", json.getJson());
+    }
+
+    @Test
+    public void bytesAreEstimatedAsJson() {
+        Map<String, Object> ride = new HashMap<>();
+        ride.put("status", "available");
+        ride.put("points", 50L);
+        ride.put("stops", Arrays.asList("Athens", "Atlanta"));
+        List<Object> none = Arrays.asList();
+
+        // {"status":"available","points":50,"stops":["Athens","Atlanta"]}
+        assertEquals(63, OperationMetrics.estimateBytes(ride));
+        assertEquals(2, OperationMetrics.estimateBytes(none));
+        assertEquals(4, OperationMetrics.estimateBytes(null));
+        assertEquals(3, OperationMetrics.estimateBytes(-12L));
+        assertEquals(7, OperationMetrics.estimateBytes("\u00e9\u20ac"));
+    }
+}
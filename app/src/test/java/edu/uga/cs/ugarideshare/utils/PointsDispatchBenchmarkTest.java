@@ -0,0 +1,76 @@
+package edu.uga.cs.ugarideshare.utils;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+
+import static org.junit.Assert.*;
+
+/**
+ * Measures the per-update cost of dispatching points through PointsListenerRegistry
+ * against the reflective Method.invoke dispatch it replaced. Timings are reported,
+ * not asserted.
+ */
+public class PointsDispatchBenchmarkTest {
+    private static final String USER = "user-1";
+    private static final int UPDATES = 100_000;
+    private static final int ROUNDS = 20;
+
+    private final PointsListenerRegistryTest.CountingListener listener = new PointsListenerRegistryTest.CountingListener();
+    private FirebaseCallback<Integer> sink;
+    private Method onPointsUpdated;
+
+    @Before
+    public void setUp() throws Exception {
+        PointsListenerRegistry registry = new PointsListenerRegistry(userId -> new SubscriptionHub.Source<Integer>() {
+            @Override
+            public void start(FirebaseCallback<Integer> sink) {
+                PointsDispatchBenchmarkTest.this.sink = sink;
+            }
+
+            @Override
+            public void stop() {
+                sink = null;
+            }
+        });
+        registry.add(USER, listener);
+        assertNotNull(sink);
+
+        onPointsUpdated = listener.getClass().getMethod("onPointsUpdated", int.class);
+    }
+
+    @Test
+    public void reportDispatchCost() throws Exception {
+        // Warm up both paths before measuring
+        dispatchThroughRegistry();
+        dispatchReflectively();
+
+        long registry = Long.MAX_VALUE;
+        long reflective = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            registry = Math.min(registry, dispatchThroughRegistry());
+            reflective = Math.min(reflective, dispatchReflectively());
+        }
+
+        assertEquals((ROUNDS + 1) * 2 * UPDATES, listener.getCalls());
+        System.out.println(String.format("per-update dispatch: registry %.1f ns, Method.invoke %.1f ns",
+                (double) registry / UPDATES, (double) reflective / UPDATES));
+    }
+
+    private long dispatchThroughRegistry() {
+        long start = System.nanoTime();
+        for (int i = 0; i < UPDATES; i++) {
+            sink.onSuccess(i);
+        }
+        return System.nanoTime() - start;
+    }
+
+    private long dispatchReflectively() throws Exception {
+        long start = System.nanoTime();
+        for (int i = 0; i < UPDATES; i++) {
+            onPointsUpdated.invoke(listener, i);
+        }
+        return System.nanoTime() - start;
+    }
+}
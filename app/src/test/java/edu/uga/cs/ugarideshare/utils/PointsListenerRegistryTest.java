@@ -0,0 +1,109 @@
+package edu.uga.cs.ugarideshare.utils;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for PointsListenerRegistry.
+ */
+public class PointsListenerRegistryTest {
+    private static final String USER = "user-1";
+
+    private final List<FakeSource> sources = new ArrayList<>();
+    private PointsListenerRegistry registry;
+
+    @Before
+    public void setUp() {
+        registry = new PointsListenerRegistry(userId -> {
+            FakeSource source = new FakeSource();
+            sources.add(source);
+            return source;
+        });
+    }
+
+    @Test
+    public void listenersOfAUserShareOneSource() {
+        CountingListener first = new CountingListener();
+        CountingListener second = new CountingListener();
+        registry.add(USER, first);
+        registry.add(USER, second);
+        registry.add(USER, second);
+
+        liveSource().emit(120);
+
+        assertEquals(1, sources.size());
+        assertEquals(1, registry.getAttachedCount());
+        assertEquals(2, registry.getListenerCount(USER));
+        assertEquals(120, first.lastPoints);
+        assertEquals(1, second.calls);
+    }
+
+    @Test
+    public void lastRemoveDetachesSource() {
+        CountingListener first = new CountingListener();
+        CountingListener second = new CountingListener();
+        registry.add(USER, first);
+        registry.add(USER, second);
+        FakeSource source = liveSource();
+
+        registry.remove(USER, first);
+        assertEquals(0, source.stops);
+
+        registry.remove(USER, second);
+        registry.remove(USER, second);
+        assertEquals(1, source.stops);
+        assertEquals(0, registry.getAttachedCount());
+    }
+
+    private FakeSource liveSource() {
+        FakeSource started = sources.get(sources.size() - 1);
+        assertNotNull(started.sink);
+        return started;
+    }
+
+    /**
+     * Source whose changes are emitted by the test.
+     */
+    private static class FakeSource implements SubscriptionHub.Source<Integer> {
+        private FirebaseCallback<Integer> sink;
+        private int stops;
+
+        @Override
+        public void start(FirebaseCallback<Integer> sink) {
+            this.sink = sink;
+        }
+
+        @Override
+        public void stop() {
+            sink = null;
+            stops++;
+        }
+
+        void emit(int points) {
+            sink.onSuccess(points);
+        }
+    }
+
+    /**
+     * Listener that counts what it receives.
+     */
+    public static class CountingListener implements PointsListener {
+        private int calls;
+        private int lastPoints;
+
+        @Override
+        public void onPointsUpdated(int points) {
+            calls++;
+            lastPoints = points;
+        }
+
+        int getCalls() {
+            return calls;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package edu.uga.cs.ugarideshare.utils;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for Resilience and RetryPolicy. Retries are collected instead
+ * of scheduled, so each test runs them by hand.
+ */
+public class ResilienceTest {
+    private static final RetryPolicy POLICY = new RetryPolicy(3, 100, 1_000);
+
+    private List<Runnable> scheduled;
+    private List<Long> delays;
+    private CircuitBreaker breaker;
+    private Resilience resilience;
+    private Result result;
+
+    @Before
+    public void setUp() {
+        scheduled = new ArrayList<>();
+        delays = new ArrayList<>();
+        breaker = new CircuitBreaker(5, 30_000, () -> 0);
+        resilience = new Resilience(breaker, (task, delay) -> {
+            scheduled.add(task);
+            delays.add(delay);
+        }, new Random(42));
+        result = new Result();
+    }
+
+    @Test
+    public void transientFailuresAreRetriedWithBackoff() {
+        int[] attempts = new int[1];
+        resilience.run("read", POLICY, outcome -> {
+            if (++attempts[0] < 3) {
+                outcome.onTransientError("Network error");
+            } else {
+                outcome.onSuccess("ride");
+            }
+        }, result);
+
+        runScheduled();
+
+        assertEquals("ride", result.value);
+        assertEquals(3, attempts[0]);
+        assertEquals(2, resilience.getRetryCount());
+        assertEquals(Long.valueOf(2), resilience.getRetryCounts().get("read"));
+        // Full jitter keeps each wait under its cap: 100 ms, then 200 ms
+        assertTrue(delays.get(0) >= 0 && delays.get(0) <= 100);
+        assertTrue(delays.get(1) >= 0 && delays.get(1) <= 200);
+    }
+
+    @Test
+    public void permanentErrorsAndUnsafeOperationsAreNotRetried() {
+        resilience.run("read", POLICY, outcome -> outcome.onError("Ride offer not found"), result);
+        assertEquals("Ride offer not found", result.error);
+
+        Result debit = new Result();
+        resilience.run("debit", RetryPolicy.NONE, outcome -> outcome.onTransientError("Network error"), debit);
+        assertEquals("Network error", debit.error);
+
+        assertTrue(scheduled.isEmpty());
+        assertEquals(1, resilience.getExhaustedCount());
+    }
+
+    @Test
+    public void openBreakerFailsFastWithoutCallingTheDatabase() {
+        for (int i = 0; i < 5; i++) {
+            breaker.recordFailure();
+        }
+
+        int[] attempts = new int[1];
+        resilience.run("read", POLICY, outcome -> attempts[0]++, result);
+
+        assertEquals(0, attempts[0]);
+        assertEquals(Resilience.UNAVAILABLE_MESSAGE, result.error);
+        assertEquals(1, resilience.getRejectedCount());
+    }
+
+    @Test
+    public void backoffCapGrowsExponentiallyUpToTheMaximum() {
+        assertEquals(100, POLICY.getBackoffCapMillis(1));
+        assertEquals(200, POLICY.getBackoffCapMillis(2));
+        assertEquals(800, POLICY.getBackoffCapMillis(4));
+        assertEquals(1_000, POLICY.getBackoffCapMillis(5));
+        assertEquals(1_000, POLICY.getBackoffCapMillis(100));
+    }
+
+    private void runScheduled() {
+        while (!scheduled.isEmpty()) {
+            scheduled.remove(0).run();
+        }
+    }
+
+    /**
+     * Callback that keeps its result.
+     */
+    private static class Result implements FirebaseCallback<String> {
+        private String value;
+        private String error;
+
+        @Override
+        public void onSuccess(String result) {
+            value = result;
+        }
+
+        @Override
+        public void onError(String message) {
+            error = message;
+        }
+    }
+}
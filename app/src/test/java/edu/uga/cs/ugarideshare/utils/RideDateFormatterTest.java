@@ -0,0 +1,85 @@
+package edu.uga.cs.ugarideshare.utils;
+
+import org.junit.Test;
+
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for RideDateFormatter.
+ */
+public class RideDateFormatterTest {
+    // Friday, May 2, 2025 at 3:30 PM in New York
+    private static final long RIDE_TIME = 1_746_214_200_000L;
+
+    @Test
+    public void formatsOncePerMinute() {
+        RideDateFormatter formatter = new RideDateFormatter(2, ZoneId.of("America/New_York"));
+
+        assertEquals("Friday, May 2, 2025 at 3:30 PM", formatter.format(RIDE_TIME));
+        // Seconds within the minute share the rendered string
+        assertSame(formatter.format(RIDE_TIME), formatter.format(RIDE_TIME + 59_999));
+        assertEquals("Friday, May 2, 2025 at 3:31 PM", formatter.format(RIDE_TIME + 60_000));
+        assertEquals(2, formatter.getMissCount());
+        assertEquals(2, formatter.getHitCount());
+
+        // The least recently used minute makes room for a new one
+        formatter.format(RIDE_TIME - 60_000);
+        assertEquals(1, formatter.getEvictionCount());
+        formatter.format(RIDE_TIME + 60_000);
+        assertEquals(3, formatter.getHitCount());
+        formatter.format(RIDE_TIME);
+        assertEquals(4, formatter.getMissCount());
+
+        formatter.resetStats();
+        assertEquals(0, formatter.getMissCount());
+    }
+
+    @Test
+    public void followsTheCurrentZone() {
+        AtomicReference<ZoneId> zone = new AtomicReference<>(ZoneId.of("America/New_York"));
+        RideDateFormatter formatter = new RideDateFormatter(16, zone::get);
+        assertEquals("Friday, May 2, 2025 at 3:30 PM", formatter.format(RIDE_TIME));
+
+        // Strings rendered in New York are not reused once the device is in Chicago
+        zone.set(ZoneId.of("America/Chicago"));
+        assertEquals("Friday, May 2, 2025 at 2:30 PM", formatter.format(RIDE_TIME));
+        assertEquals("Friday, May 2, 2025 at 2:30 PM", formatter.format(RIDE_TIME));
+        assertEquals(2, formatter.getMissCount());
+        assertEquals(1, formatter.getHitCount());
+    }
+
+    @Test
+    public void formatsFromManyThreads() throws Exception {
+        RideDateFormatter formatter = new RideDateFormatter(16, ZoneId.of("America/New_York"));
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                results.add(executor.submit(() -> {
+                    // More minutes than the cache holds, so threads also race on evictions
+                    for (int i = 0; i < 1_000; i++) {
+                        int minute = i % 29;
+                        String text = formatter.format(RIDE_TIME + minute * 60_000L);
+                        if (!text.equals("Friday, May 2, 2025 at 3:" + (30 + minute) + " PM")) {
+                            return false;
+                        }
+                    }
+                    return true;
+                }));
+            }
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
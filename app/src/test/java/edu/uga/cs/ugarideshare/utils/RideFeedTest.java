@@ -0,0 +1,114 @@
+package edu.uga.cs.ugarideshare.utils;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for RideFeed.
+ */
+public class RideFeedTest {
+    private RideFeed<Ride> feed;
+    private RecordingListener listener;
+
+    @Before
+    public void setUp() {
+        feed = new RideFeed<>(Comparator.comparingLong((Ride r) -> r.time).thenComparing(r -> r.key),
+                new RideFeed.Source<Ride>() {
+                    @Override
+                    public void start(RideFeed<Ride> feed) {
+                    }
+
+                    @Override
+                    public void stop() {
+                    }
+                });
+        listener = new RecordingListener();
+        feed.observe(listener);
+    }
+
+    @Test
+    public void insertsAtSortedPosition() {
+        feed.applyAdded("a", new Ride("a", 30));
+        feed.applyAdded("b", new Ride("b", 10));
+        feed.applyAdded("c", new Ride("c", 20));
+
+        assertEquals(Arrays.asList("insert 0 a", "insert 0 b", "insert 1 c"), listener.events);
+        assertEquals("b", feed.getItems().get(0).key);
+    }
+
+    @Test
+    public void changeTouchesOnlyTheAffectedRow() {
+        feed.applyAdded("a", new Ride("a", 10));
+        feed.applyAdded("b", new Ride("b", 20));
+        feed.applyAdded("c", new Ride("c", 30));
+        listener.events.clear();
+
+        feed.applyChanged("b", new Ride("b", 25));
+        feed.applyChanged("a", new Ride("a", 40));
+        feed.applyRemoved("b");
+
+        assertEquals(Arrays.asList("change 1 b", "move 0->2 a", "remove 0 b"), listener.events);
+        assertEquals(2, feed.size());
+    }
+
+    @Test
+    public void lastObserverClearsModel() {
+        SubscriptionHub.Subscription second = feed.observe(new RecordingListener());
+        feed.applyAdded("a", new Ride("a", 10));
+        feed.markLoaded();
+
+        second.unsubscribe();
+        assertEquals(1, feed.size());
+        assertTrue(feed.isLoaded());
+    }
+
+    private static class Ride {
+        private final String key;
+        private final long time;
+
+        Ride(String key, long time) {
+            this.key = key;
+            this.time = time;
+        }
+    }
+
+    private static class RecordingListener implements RideFeed.Listener<Ride> {
+        private final List<String> events = new ArrayList<>();
+
+        @Override
+        public void onItemInserted(int position, Ride item) {
+            events.add("insert " + position + " " + item.key);
+        }
+
+        @Override
+        public void onItemChanged(int position, Ride item) {
+            events.add("change " + position + " " + item.key);
+        }
+
+        @Override
+        public void onItemMoved(int fromPosition, int toPosition, Ride item) {
+            events.add("move " + fromPosition + "->" + toPosition + " " + item.key);
+        }
+
+        @Override
+        public void onItemRemoved(int position, Ride item) {
+            events.add("remove " + position + " " + item.key);
+        }
+
+        @Override
+        public void onLoaded() {
+        }
+
+        @Override
+        public void onError(String error) {
+            fail(error);
+        }
+    }
+}
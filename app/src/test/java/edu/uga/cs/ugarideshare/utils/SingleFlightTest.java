@@ -0,0 +1,97 @@
+package edu.uga.cs.ugarideshare.utils;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.uga.cs.ugarideshare.models.User;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for SingleFlight.
+ */
+public class SingleFlightTest {
+    private SingleFlight<User> flight;
+    private List<FirebaseCallback<User>> pending;
+
+    @Before
+    public void setUp() {
+        flight = new SingleFlight<>(User::new);
+        pending = new ArrayList<>();
+    }
+
+    @Test
+    public void concurrentReadsOfAKeyShareOneRequest() {
+        List<Result> results = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Result result = new Result();
+            results.add(result);
+            flight.run("users/u1", pending::add, result);
+        }
+
+        assertEquals(1, pending.size());
+        pending.get(0).onSuccess(user("u1", 80));
+
+        for (Result result : results) {
+            assertEquals(80, result.user.getRidePoints());
+        }
+        assertNotSame(results.get(0).user, results.get(1).user);
+        assertEquals(3, flight.getRequestCount());
+        assertEquals(1, flight.getLoadCount());
+        assertEquals(2, flight.getCoalescedCount());
+        assertEquals(0, flight.getInFlightCount());
+    }
+
+    @Test
+    public void differentKeysAndLaterReadsAreNotMerged() {
+        flight.run("users/u1", pending::add, new Result());
+        flight.run("users/u2", pending::add, new Result());
+        pending.get(0).onSuccess(user("u1", 1));
+
+        flight.run("users/u1", pending::add, new Result());
+
+        assertEquals(3, pending.size());
+        assertEquals(0, flight.getCoalescedCount());
+    }
+
+    @Test
+    public void errorsReachEveryCaller() {
+        Result first = new Result();
+        Result second = new Result();
+        flight.run("users/u1", pending::add, first);
+        flight.run("users/u1", pending::add, second);
+
+        pending.get(0).onError("Permission denied");
+
+        assertEquals("Permission denied", first.error);
+        assertEquals("Permission denied", second.error);
+    }
+
+    private static User user(String id, int points) {
+        User user = new User("user@uga.edu", "");
+        user.setId(id);
+        user.setRidePoints(points);
+        return user;
+    }
+
+    /**
+     * Callback that keeps its result.
+     */
+    private static class Result implements FirebaseCallback<User> {
+        private User user;
+        private String error;
+
+        @Override
+        public void onSuccess(User result) {
+            user = result;
+        }
+
+        @Override
+        public void onError(String message) {
+            error = message;
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package edu.uga.cs.ugarideshare.utils;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for SubscriptionHub.
+ */
+public class SubscriptionHubTest {
+    private static final String KEY = "rideOffers?status=available";
+
+    private SubscriptionHub<String> hub;
+    private FakeSource source;
+
+    @Before
+    public void setUp() {
+        hub = new SubscriptionHub<>();
+        source = new FakeSource();
+    }
+
+    @Test
+    public void subscribersShareOneSource() {
+        hub.subscribe(KEY, source, new CountingCallback());
+        hub.subscribe(KEY, new FakeSource(), new CountingCallback());
+
+        assertEquals(1, source.starts);
+        assertEquals(2, hub.getSubscriberCount(KEY));
+        assertEquals(1, hub.getLiveQueryCount());
+    }
+
+    @Test
+    public void resubscribingOnEveryResumeKeepsOneCallbackPerChange() {
+        CountingCallback callback = new CountingCallback();
+
+        // Simulate several tab switches: onResume subscribes, onPause unsubscribes
+        for (int i = 0; i < 5; i++) {
+            SubscriptionHub.Subscription subscription = hub.subscribe(KEY, source, callback);
+            subscription.unsubscribe();
+        }
+        hub.subscribe(KEY, source, callback);
+
+        long callbacksBefore = hub.getCallbackCount(KEY);
+        source.emit("change");
+
+        assertEquals(1, hub.getSubscriberCount(KEY));
+        assertEquals(1, hub.getChangeCount(KEY));
+        assertEquals(1, hub.getCallbackCount(KEY) - callbacksBefore);
+        assertEquals(1, callback.successes);
+    }
+
+    @Test
+    public void lastUnsubscribeStopsSource() {
+        SubscriptionHub.Subscription first = hub.subscribe(KEY, source, new CountingCallback());
+        SubscriptionHub.Subscription second = hub.subscribe(KEY, source, new CountingCallback());
+
+        first.unsubscribe();
+        assertEquals(0, source.stops);
+
+        second.unsubscribe();
+        second.unsubscribe();
+        assertEquals(1, source.stops);
+        assertEquals(0, hub.getLiveQueryCount());
+    }
+
+    @Test
+    public void lateSubscriberReceivesLatestValue() {
+        hub.subscribe(KEY, source, new CountingCallback());
+        source.emit("first");
+
+        CountingCallback late = new CountingCallback();
+        hub.subscribe(KEY, new FakeSource(), late);
+
+        assertEquals(1, late.successes);
+        assertEquals("first", late.lastValue);
+        assertEquals(1, source.starts);
+    }
+
+    @Test
+    public void failedQueryIsStartedAfreshForTheNextSubscriber() {
+        ErrorCallback failed = new ErrorCallback();
+        hub.subscribe(KEY, source, failed);
+        source.fail("Permission denied");
+
+        assertEquals("Permission denied", failed.error);
+        assertEquals(1, source.stops);
+        assertEquals(0, hub.getLiveQueryCount());
+
+        FakeSource fresh = new FakeSource();
+        CountingCallback next = new CountingCallback();
+        hub.subscribe(KEY, fresh, next);
+        fresh.emit("retried");
+
+        assertEquals(1, fresh.starts);
+        assertEquals("retried", next.lastValue);
+    }
+
+    /**
+     * Source whose changes are emitted by the test.
+     */
+    private static class FakeSource implements SubscriptionHub.Source<String> {
+        private FirebaseCallback<String> sink;
+        private int starts;
+        private int stops;
+
+        @Override
+        public void start(FirebaseCallback<String> sink) {
+            this.sink = sink;
+            starts++;
+        }
+
+        @Override
+        public void stop() {
+            sink = null;
+            stops++;
+        }
+
+        void emit(String value) {
+            sink.onSuccess(value);
+        }
+
+        void fail(String error) {
+            sink.onError(error);
+        }
+    }
+
+    /**
+     * Callback that keeps the last error.
+     */
+    private static class ErrorCallback implements FirebaseCallback<String> {
+        private String error;
+
+        @Override
+        public void onSuccess(String result) {
+        }
+
+        @Override
+        public void onError(String error) {
+            this.error = error;
+        }
+    }
+
+    /**
+     * Callback that counts what it receives.
+     */
+    private static class CountingCallback implements FirebaseCallback<String> {
+        private int successes;
+        private String lastValue;
+
+        @Override
+        public void onSuccess(String result) {
+            successes++;
+            lastValue = result;
+        }
+
+        @Override
+        public void onError(String error) {
+            fail(error);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package edu.uga.cs.ugarideshare.utils;
+
+import org.junit.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import edu.uga.cs.ugarideshare.models.AcceptedRide;
+import edu.uga.cs.ugarideshare.models.RideOffer;
+import edu.uga.cs.ugarideshare.models.StatusTime;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for model change tracking and WriteStats.
+ */
+public class WriteStatsTest {
+
+    @Test
+    public void cleanModelOnlyReportsFieldsSetAfterwards() {
+        RideOffer offer = newOffer();
+        offer.setStartPoint("Tate Center");
+        offer.clearChanges();
+
+        offer.setDateTime(1700000000000L);
+
+        // The statusTime key follows the date/time
+        Map<String, Object> expected = newMap("dateTime", 1700000000000L,
+                "statusTime", StatusTime.key("available", 1700000000000L));
+        assertEquals(expected, offer.getChanges());
+    }
+
+    @Test
+    public void confirmationWritesAFractionOfTheRide() {
+        AcceptedRide ride = new AcceptedRide(newOffer());
+        ride.setId("ride-1");
+        ride.clearChanges();
+        ride.setDriverConfirmed(true);
+
+        WriteStats stats = new WriteStats();
+        Map<String, Object> changes = ride.getChanges();
+        stats.record("confirmRide", changes, ride.toMap());
+
+        WriteStats.Totals totals = stats.get("confirmRide");
+        assertEquals(1, changes.size());
+        assertEquals(1, totals.getWrites());
+        assertTrue(totals.toString(), totals.getBytesWritten() * 5 < totals.getFullBytes());
+    }
+
+    @Test
+    public void estimateMatchesJsonLength() {
+        assertEquals("{\"a\":\"bc\",\"n\":12}".length(),
+                WriteStats.estimateBytes(newMap("a", "bc", "n", 12)));
+    }
+
+    private static RideOffer newOffer() {
+        RideOffer offer = new RideOffer("driver-1", "driver@uga.edu", 1690000000000L,
+                "Boyd Graduate Studies", "Hartsfield-Jackson Atlanta International Airport");
+        offer.setRiderId("rider-1");
+        offer.setRiderEmail("rider@uga.edu");
+        return offer;
+    }
+
+    private static Map<String, Object> newMap(String k1, Object v1, String k2, Object v2) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put(k1, v1);
+        map.put(k2, v2);
+        return map;
+    }
+}